@@ -0,0 +1,63 @@
+package frc.robot.subsystems.drive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Cost of the math in SwerveDrive.driveAttainableSpeeds(): desaturating the target, limiting
+ * acceleration, discretizing and converting back to module states. The drivetrain's constants
+ * can't be loaded off the robot (they read a DIO), so the fixture uses the competition chassis's
+ * numbers directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DriveBenchmark {
+  private static final double TRACKWIDTH = Units.inchesToMeters(22.75);
+  private static final double WHEELBASE = Units.inchesToMeters(22.75);
+  private static final double DT = 0.02;
+
+  private final SwerveKinematics kinematics = new SwerveKinematics(
+    new Translation2d( TRACKWIDTH / 2.0, WHEELBASE  / 2.0),
+    new Translation2d( TRACKWIDTH / 2.0, -WHEELBASE / 2.0),
+    new Translation2d(-TRACKWIDTH / 2.0, WHEELBASE  / 2.0),
+    new Translation2d(-TRACKWIDTH / 2.0, -WHEELBASE / 2.0)
+  );
+  private final AccelerationLimiter limiter = new AccelerationLimiter(kinematics, 4.47, 10.9, 62.3, 10.0, Math.hypot(WHEELBASE / 2.0, TRACKWIDTH / 2.0), 1.0);
+
+  // Alternates between full-stick driving in two directions, so the limiter is always active
+  private final ChassisSpeeds[] targets = {
+    new ChassisSpeeds(4.5, 1.0, 2.0),
+    new ChassisSpeeds(-3.0, -2.5, -1.0),
+  };
+  private final ChassisSpeeds fieldRelativeSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds drivenSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds robotRelativeSpeeds = new ChassisSpeeds();
+  private final double[] moduleSpeeds = new double[4];
+  private final double[] moduleAngles = new double[4];
+  private final double heading = Math.toRadians(30.0);
+  private int tick = 0;
+
+  @Benchmark
+  public double[] driveAttainableSpeeds() {
+    ChassisSpeeds target = targets[(tick++ / 50) % targets.length];
+    fieldRelativeSpeeds.vxMetersPerSecond = target.vxMetersPerSecond;
+    fieldRelativeSpeeds.vyMetersPerSecond = target.vyMetersPerSecond;
+    fieldRelativeSpeeds.omegaRadiansPerSecond = target.omegaRadiansPerSecond;
+    limiter.desaturate(fieldRelativeSpeeds);
+    limiter.calculate(drivenSpeeds, fieldRelativeSpeeds, DT);
+    SwerveKinematics.fromFieldRelative(drivenSpeeds, heading, robotRelativeSpeeds);
+    kinematics.toModuleStates(robotRelativeSpeeds, moduleSpeeds, moduleAngles);
+    return moduleSpeeds;
+  }
+}
@@ -0,0 +1,49 @@
+package frc.robot.subsystems.shooter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * Cost of solving for the shooter pivot angle, which runs several times a tick while aiming.
+ * Poses step around the wing so the solver sees a spread of distances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ShooterMathBenchmark {
+  private static final Translation3d SPEAKER = new Translation3d(0.0, 5.55, 2.05);
+  private static final Pose2d[] POSES = {
+    new Pose2d(1.5, 5.5, Rotation2d.fromDegrees(180.0)),
+    new Pose2d(2.9, 4.1, Rotation2d.fromDegrees(150.0)),
+    new Pose2d(3.5, 6.9, Rotation2d.fromDegrees(-160.0)),
+    new Pose2d(5.2, 5.5, Rotation2d.fromDegrees(180.0)),
+  };
+
+  private final Rotation2d pivotAngle = Rotation2d.fromDegrees(35.0);
+  private final double wheelVelocity = 550.0;
+  private int next = 0;
+
+  @Benchmark
+  public Rotation2d calcPivotAngle() {
+    Pose2d pose = POSES[next];
+    next = (next + 1) % POSES.length;
+    return ShooterMath.calcPivotAngle(SPEAKER, pose, pivotAngle, wheelVelocity);
+  }
+
+  @Benchmark
+  public Translation3d calcShooterLocationOnField() {
+    Pose2d pose = POSES[next];
+    next = (next + 1) % POSES.length;
+    return ShooterMath.calcShooterLocationOnField(pose, pivotAngle);
+  }
+}
@@ -0,0 +1,93 @@
+package frc.robot.subsystems.vision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.util.Units;
+import frc.robot.subsystems.drive.SwerveOdometry;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * Cost of AprilTags.injectVisionData() past fetching the Limelight results: filtering two
+ * cameras' estimates and fusing both into the odometry, plus the odometry update that
+ * comes before it every tick. Fetching needs NetworkTables, so recorded-style estimates are
+ * passed to processVisionData() directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class VisionBenchmark {
+  private static final double DT = 0.02;
+  private static final double HALF_TRACK = Units.inchesToMeters(22.75) / 2.0;
+
+  private SwerveOdometry odometry;
+  private final List<PoseEstimate> poseEstimates = new ArrayList<>();
+  private final List<Pose2d> poses = new ArrayList<>();
+  private double time;
+  private double distance;
+  private final double[] drivePositions = new double[4];
+  private final double[] steerRadians = new double[4];
+
+  @Setup
+  public void setup() {
+    time = 0.0;
+    distance = 0.0;
+    Translation2d[] moduleLocations = {
+      new Translation2d( HALF_TRACK, HALF_TRACK),
+      new Translation2d( HALF_TRACK, -HALF_TRACK),
+      new Translation2d(-HALF_TRACK, HALF_TRACK),
+      new Translation2d(-HALF_TRACK, -HALF_TRACK),
+    };
+    odometry = new SwerveOdometry(moduleLocations, new Pose2d(2.0, 5.5, Rotation2d.fromDegrees(180.0)), modulePositions(), true, SwerveOdometry.STATE_STD_DEVS, false);
+
+    // Both cameras see two tags near where the odometry thinks the robot is
+    poseEstimates.add(new PoseEstimate(new Pose3d(2.03, 5.48, 0.02, new Rotation3d(0.0, 0.0, Math.PI)), 0.0, 30.0, 2, 1.2, 2.4, 0.3, 7));
+    poseEstimates.add(new PoseEstimate(new Pose3d(1.98, 5.53, -0.01, new Rotation3d(0.0, 0.0, Math.PI - 0.01)), 0.0, 35.0, 2, 0.9, 3.1, 0.2, 4));
+    for (int i = 0; i < 100; i++) step();
+  }
+
+  private SwerveModulePosition[] modulePositions() {
+    Rotation2d angle = Rotation2d.fromDegrees(0.0);
+    return new SwerveModulePosition[] {
+      new SwerveModulePosition(distance, angle),
+      new SwerveModulePosition(distance, angle),
+      new SwerveModulePosition(distance, angle),
+      new SwerveModulePosition(distance, angle),
+    };
+  }
+
+  private void step() {
+    time += DT;
+    distance += 0.01 * DT;
+    Arrays.fill(drivePositions, distance);
+    odometry.update(time, drivePositions, steerRadians, true, Math.PI);
+  }
+
+  @Benchmark
+  public Pose2d injectVisionData() {
+    step();
+    for (PoseEstimate poseEstimate : poseEstimates) {
+      poseEstimate.timestampSeconds = time - poseEstimate.latency / 1000.0;
+    }
+    poses.clear();
+    AprilTags.processVisionData(poseEstimates, true, false, odometry, poses);
+    odometry.validate();
+    return odometry.getPose();
+  }
+}
@@ -0,0 +1,54 @@
+package frc.robot.util.software;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cost of decoding one frame's JSON results dump: Jackson into LimelightHelpers' object tree, as
+ * getLatestResults(String) does, against the streaming LimelightResultsParser. The dump is what an
+ * AprilTag pipeline sends with three tags in view and corners enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LimelightJsonBenchmark {
+  private static final String FIDUCIAL = """
+    {"fID":%d,"fam":"36H11C","pts":[[412.5,210.25],[468.0,212.75],[466.5,268.0],[410.25,265.5]],"skew":[],\
+    "t6c_ts":[0.41,-0.12,-2.83,1.2,-14.6,0.8],"t6r_fs":[2.03,5.48,0.02,0.0,0.0,179.4],\
+    "t6r_ts":[0.38,-0.71,-2.95,1.1,-14.2,0.6],"t6t_cs":[-0.35,0.52,2.71,-1.3,14.9,-0.7],\
+    "t6t_rs":[2.54,0.33,1.12,-1.0,-9.1,-0.5],"ta":0.0041,"tx":-7.83,"txp":412.9,"ty":5.21,"typ":238.4}""";
+
+  private static final String JSON = """
+    {"Results":{"Barcode":[],"Classifier":[],"Detector":[],\
+    "Fiducial":[%s,%s,%s],"Retro":[],\
+    "botpose":[-6.24,1.37,0.02,0.0,0.0,179.4],"botpose_avgarea":0.0038,"botpose_avgdist":2.87,\
+    "botpose_span":1.12,"botpose_tagcount":3,"botpose_wpiblue":[2.03,5.48,0.02,0.0,0.0,179.4],\
+    "botpose_wpired":[14.51,2.73,0.02,0.0,0.0,-0.6],"cl":11.2,"focus_metric":0.0,"pID":0.0,\
+    "stdev_mt1":[0.02,0.03,0.0,0.0,0.0,0.4],"stdev_mt2":[0.0,0.0,0.0,0.0,0.0,0.0],\
+    "t6c_rs":[0.19,0.03,0.64,0.0,24.0,0.0],"tl":18.6,"ts":183442.7,"ts_rio":0.0,"v":1}}\
+    """.formatted(FIDUCIAL.formatted(7), FIDUCIAL.formatted(8), FIDUCIAL.formatted(4));
+
+  private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final LimelightResultsParser parser = new LimelightResultsParser();
+
+  @Benchmark
+  public LimelightHelpers.LimelightResults objectMapper() throws JsonProcessingException {
+    return mapper.readValue(JSON, LimelightHelpers.LimelightResults.class);
+  }
+
+  @Benchmark
+  public int streaming() {
+    parser.parse(JSON);
+    return parser.fiducialCount;
+  }
+}
@@ -0,0 +1,96 @@
+package frc.robot.util.software.Logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Per-entry cost of capturing and loading Logger channels, i.e. the main-thread capture plus the
+ * logging thread's copy and change check. Run with the gc profiler to see allocations; the typed
+ * channels should report ~0 B/op while the boxed fallback allocates on every capture.
+ *
+ * <p>Publishing is left out because it needs the NetworkTables native library.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LogChannelBenchmark {
+  private static final int CHANNELS = 64;
+  private static final int SLOTS = 2;
+
+  private LogChannel[] doubleChannels = new LogChannel[CHANNELS];
+  private LogChannel[] booleanChannels = new LogChannel[CHANNELS];
+  private LogChannel[] arrayChannels = new LogChannel[CHANNELS];
+  private LogChannel[] structChannels = new LogChannel[CHANNELS];
+  private LogChannel[] boxedChannels = new LogChannel[CHANNELS];
+
+  private double value = 0.0;
+  private long frame = 0;
+  private Pose2d pose = new Pose2d(1.0, 2.0, new Rotation2d(0.5));
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < CHANNELS; i++) {
+      doubleChannels[i] = new DoubleChannel("double" + i, SLOTS, () -> value);
+      booleanChannels[i] = new BooleanChannel("boolean" + i, SLOTS, () -> value > 0.5);
+      arrayChannels[i] = new DoubleArrayChannel("array" + i, SLOTS, 8, (double[] buffer) -> {
+        for (int j = 0; j < buffer.length; j++) buffer[j] = value + j;
+      });
+      structChannels[i] = new StructChannel<Pose2d>("struct" + i, SLOTS, () -> pose, Pose2d.struct);
+      boxedChannels[i] = new ObjectChannel("boxed" + i, SLOTS, () -> value);
+    }
+  }
+
+  private int sampleAll(LogChannel[] channels) {
+    value += 0.1;
+    int slot = (int) (frame++ % SLOTS);
+    int changed = 0;
+    for (LogChannel channel : channels) {
+      channel.capture(slot);
+    }
+    for (LogChannel channel : channels) {
+      if (channel.load(slot)) changed++;
+    }
+    return changed;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHANNELS)
+  public int doubleChannel() {
+    return sampleAll(doubleChannels);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHANNELS)
+  public int booleanChannel() {
+    return sampleAll(booleanChannels);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHANNELS)
+  public int doubleArrayChannel() {
+    return sampleAll(arrayChannels);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHANNELS)
+  public int structChannel() {
+    return sampleAll(structChannels);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHANNELS)
+  public int boxedChannel() {
+    return sampleAll(boxedChannels);
+  }
+}
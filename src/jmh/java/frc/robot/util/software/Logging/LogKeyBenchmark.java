@@ -0,0 +1,90 @@
+package frc.robot.util.software.Logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-tick cost of resolving keys for the nested Logger types (PDH faults, CAN status and module
+ * positions, 33 keys in all), the old way versus through precompiled handles. Run with the gc
+ * profiler to compare allocation rates.
+ *
+ * <p>The NetworkTables set calls are the same either way and need the native library, so entries
+ * are stood in for by a map (the old per-call lookup) and by array slots (the compiled handles).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LogKeyBenchmark {
+  private static final int BREAKERS = 24;
+
+  private final Map<String, Object> entries = new HashMap<String, Object>();
+  private final boolean[] breakerFaults = new boolean[BREAKERS];
+  private final double[] modulePositions = new double[8];
+  private double value = 0.0;
+
+  // Compiled handles: every key resolved to a slot ahead of time
+  private final boolean[] faultSlots = new boolean[3 + BREAKERS];
+  private final double[] canStatusSlots = new double[5];
+  private final double[] modulePositionSlot = new double[8];
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < BREAKERS; i++) breakerFaults[i] = i % 5 == 0;
+  }
+
+  private void step() {
+    value += 0.1;
+    for (int i = 0; i < modulePositions.length; i++) modulePositions[i] = value + i;
+  }
+
+  @Benchmark
+  public Map<String, Object> concatenatedKeys() {
+    step();
+    String path = "PDH/faults";
+    entries.put(path + "/brownout", value > 12.0);
+    entries.put(path + "/canWarning", false);
+    for (int i = 0; i < BREAKERS; i++) {
+      entries.put(path + "/channel" + i + "BreakerFault", breakerFaults[i]);
+    }
+    entries.put(path + "/hardwareFault", false);
+
+    path = "roboRio/canStatus";
+    entries.put(path + "/busOffCount", 0);
+    entries.put(path + "/percentBusUtilization", value);
+    entries.put(path + "/receiveErrorCount", 0);
+    entries.put(path + "/transmitErrorCount", 0);
+    entries.put(path + "/txFullCount", 0);
+
+    entries.put("SwerveDrive/modulePositions" + "/positions", modulePositions.clone());
+    return entries;
+  }
+
+  @Benchmark
+  public double compiledHandles() {
+    step();
+    faultSlots[0] = value > 12.0;
+    faultSlots[1] = false;
+    faultSlots[2] = false;
+    for (int i = 0; i < BREAKERS; i++) {
+      faultSlots[3 + i] = breakerFaults[i];
+    }
+
+    canStatusSlots[0] = 0;
+    canStatusSlots[1] = value;
+    canStatusSlots[2] = 0;
+    canStatusSlots[3] = 0;
+    canStatusSlots[4] = 0;
+
+    System.arraycopy(modulePositions, 0, modulePositionSlot, 0, modulePositions.length);
+    return modulePositionSlot[7] + canStatusSlots[1];
+  }
+}
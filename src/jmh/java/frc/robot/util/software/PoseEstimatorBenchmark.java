@@ -0,0 +1,106 @@
+package frc.robot.util.software;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Cost of a tick of the pose estimator: one odometry update, and one with a vision measurement
+ * from 100 ms ago, which replays the odometry history since then. The robot drives a steady arc,
+ * so the history stays full (1.5 s) throughout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PoseEstimatorBenchmark {
+  private static final double DT = 0.02;
+  private static final double HALF_TRACK = Units.inchesToMeters(22.75) / 2.0;
+  private static final double VISION_LATENCY = 0.1;
+
+  private final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(
+    new Translation2d( HALF_TRACK, HALF_TRACK),
+    new Translation2d( HALF_TRACK, -HALF_TRACK),
+    new Translation2d(-HALF_TRACK, HALF_TRACK),
+    new Translation2d(-HALF_TRACK, -HALF_TRACK)
+  );
+  private final Matrix<N3, N1> visionStdDevs = VecBuilder.fill(0.5, 0.5, Units.degreesToRadians(15));
+  private CustomSwerveDrivePoseEstimator estimator;
+  private double time;
+  private double distance;
+  private final double[] distances = new double[4];
+  private final double[] angles = new double[4];
+
+  @Setup
+  public void setup() {
+    time = 0.0;
+    distance = 0.0;
+    estimator = new CustomSwerveDrivePoseEstimator(
+      kinematics,
+      new Rotation2d(),
+      modulePositions(),
+      new Pose2d(2.0, 4.0, new Rotation2d()),
+      VecBuilder.fill(0.05, 0.05, Units.degreesToRadians(2)),
+      VecBuilder.fill(1.0, 1.0, Units.degreesToRadians(30))
+    );
+    for (int i = 0; i < 100; i++) step();
+  }
+
+  private SwerveModulePosition[] modulePositions() {
+    Rotation2d angle = Rotation2d.fromDegrees(10.0);
+    return new SwerveModulePosition[] {
+      new SwerveModulePosition(distance, angle),
+      new SwerveModulePosition(distance * 1.02, angle),
+      new SwerveModulePosition(distance, angle),
+      new SwerveModulePosition(distance * 1.02, angle),
+    };
+  }
+
+  private Pose2d step() {
+    time += DT;
+    distance += 3.0 * DT;
+    return estimator.updateWithTime(time, Rotation2d.fromRadians(time * 0.2), modulePositions());
+  }
+
+  @Benchmark
+  public Pose2d update() {
+    return step();
+  }
+
+  /** Same update as update(), through the overload the odometry thread's samples take */
+  @Benchmark
+  public double updateFromArrays() {
+    time += DT;
+    distance += 3.0 * DT;
+    for (int i = 0; i < 4; i++) {
+      distances[i] = i % 2 == 0 ? distance : distance * 1.02;
+      angles[i] = Units.degreesToRadians(10.0);
+    }
+    estimator.updateWithTime(time, time * 0.2, distances, angles);
+    return time;
+  }
+
+  @Benchmark
+  public Pose2d updateWithVisionMeasurement() {
+    step();
+    Pose2d pose = estimator.getEstimatedPosition(time - VISION_LATENCY);
+    estimator.addVisionMeasurement(new Pose2d(pose.getX() + 0.05, pose.getY() - 0.05, pose.getRotation()), time - VISION_LATENCY, visionStdDevs);
+    return estimator.getEstimatedPosition();
+  }
+}
@@ -45,6 +45,35 @@ public final class Constants {
 
   public static final class LOGGING {
     public static final int LOGGING_PERIOD_MS = 20;
+    public static final int FRAME_BUFFER_SIZE = 256; // frames kept in memory (~5 s at 50 Hz), also the flight recorder's window. Must be longer than the slowest LogRate period
+    public static final int LOG_WRITER_PERIOD_MS = 100;
+    public static final int FIELD_PUBLISH_PERIOD_MS = 100; // Field2d objects are only sent when they change, at most this often
+    public static final double FLIGHT_RECORDER_POST_TRIGGER_SECONDS = 1.0; // how much of the window comes after the trigger
+    public static final double FLIGHT_RECORDER_COOLDOWN_SECONDS = 10.0;
+    public static final int FLIGHT_RECORDER_MAX_DUMPS = 10; // per boot, so a recurring fault can't fill the disk
+    public static final boolean FLIGHT_RECORDER_ON_BAD_POSE = true;
+    public static final boolean FLIGHT_RECORDER_ON_BROWNOUT = true;
+    public static final boolean FLIGHT_RECORDER_ON_LOOP_OVERRUN = true;
+    public static final boolean FLIGHT_RECORDER_ON_STATUS_CHECK_FAILURE = true;
+    public static final int STATUS_CHECK_PERIOD_MS = 20;
+    public static final int STATUS_CHECK_BUDGET_MS = 2; // time spent running checks per tick, so a full pass is spread over several
+    public static final int STATUS_CHECK_TIMEOUT_MS = 100; // a check taking longer is marked failed until it returns
+    public static final double STATUS_CHECK_STALE_SECONDS = 5.0;
+    public static final boolean ENABLE_LOOP_PROFILER = true;
+    public static final int PROFILER_WINDOW = 250; // samples per section the percentiles are taken over (~5 s at 50 Hz)
+    public static final boolean RECORD_REPLAY_INPUTS = true; // odometry and vision inputs, for ./gradlew replay
+  }
+
+  // LOOP BUDGET (load shedding for deferrable work)
+  public static final class LOOP_BUDGET {
+    public static final boolean ENABLE_LOAD_SHEDDING = true;
+    public static final double AVERAGING_TIME_CONSTANT = 0.25; // seconds, for the average compute time
+    public static final double HIGH_LOAD_FRACTION = 0.75; // average compute time, as a fraction of the period, that starts shedding
+    public static final double OVERLOAD_FRACTION = 1.0;
+    public static final double RECOVERED_FRACTION = 0.6; // shedding stops once the average drops below this
+    public static final double OVERRUN_HOLD_SECONDS = 1.0; // shed for at least this long after any overrun
+    public static final int HIGH_LOAD_DECIMATION = 5; // deferrable work runs every nth tick
+    public static final int OVERLOAD_DECIMATION = 25;
   }
 
   // DEVICES
@@ -80,6 +109,17 @@ public final class Constants {
     public static final Rotation2d FOV_HEIGHT = Rotation2d.fromDegrees(48.9); // Degrees
     public static final Rotation2d FOV_WIDTH = Rotation2d.fromDegrees(62.5); // Degrees
     public static final double NOTE_CAMERA_HEIGHT_PIXELS = 960;
+    public static final int FRAME_QUEUE_SIZE = 16; // frames per camera held for the main loop to drain (~180 ms at 90 fps)
+    // Chi-squared gates on each estimate's squared Mahalanobis distance from the pose estimate. Past
+    // the down-weight gate its standard deviations are inflated, past the reject gate it's dropped.
+    // 2 DOF when only x and y are trusted, 3 DOF when the heading is too.
+    public static final double DOWNWEIGHT_GATE_2DOF = 5.991; // 95%
+    public static final double REJECT_GATE_2DOF = 13.816; // 99.9%
+    public static final double DOWNWEIGHT_GATE_3DOF = 7.815; // 95%
+    public static final double REJECT_GATE_3DOF = 16.266; // 99.9%
+    // After this many rejections in a row, the pose estimate is assumed to be what's wrong, and the
+    // next estimate is let through, down-weighted
+    public static final int MAX_CONSECUTIVE_REJECTIONS = 30;
   }
 
   // SWERVE DRIVE
@@ -111,6 +151,9 @@ public final class Constants {
     
     // ODOMETER
     public static final Supplier<Pose2d>   STARTING_POSE            = Field.pose2d(0.0, 0.0, 0.0);
+    public static final double   ODOMETRY_FREQUENCY                 = 250.0; // Hz, wheel and gyro sampling on the odometry thread
+    public static final int      ODOMETRY_BUFFER_SIZE               = 32; // samples held for the main loop to drain (~128 ms at 250 Hz)
+    public static final int      GYRO_UPDATE_RATE                   = 200; // Hz, the navX's maximum
 
     // TESTING
     public static final double   MOTOR_POWER_HARD_CAP               = 1.0; // Only use for testing, otherwise set to 1.0
@@ -72,7 +72,8 @@ public final class Field {
   };
 
 
-  public static final Supplier<Translation3d> SPEAKER = point3d(0.23, WIDTH / 2.0 + Units.inchesToMeters(57) * 1.0, 2.055);
+  public static final Translation3d BLUE_SPEAKER = new Translation3d(0.23, WIDTH / 2.0 + Units.inchesToMeters(57) * 1.0, 2.055);
+  public static final Supplier<Translation3d> SPEAKER = flipIfRed(BLUE_SPEAKER);
 
   public static final double SPEAKER_WIDTH = 1.0;
   public static final double SPEAKER_HEIGHT = 0.45;
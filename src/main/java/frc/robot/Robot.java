@@ -9,6 +9,12 @@ import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.FieldZones;
+import frc.robot.util.software.LoopBudget;
+import frc.robot.util.software.Logging.FlightRecorder;
+import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -26,8 +32,6 @@ public class Robot extends TimedRobot {
 
   private RobotContainer robotContainer;
 
-  private static double time = 0;
-  private static double loopTime = 0;
   private static double computeTime = 0;
 
   /**
@@ -39,6 +43,7 @@ public class Robot extends TimedRobot {
     // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     robotContainer = new RobotContainer();
+    FieldZones.initialize();
   }
 
   /**
@@ -54,22 +59,36 @@ public class Robot extends TimedRobot {
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    LoopBudget.startLoop();
     double timestampBefore = Timer.getFPGATimestamp();
-    loopTime = timestampBefore - time;
+    ControlClock.tick(timestampBefore);
+    LoopProfiler.startLoop();
     CommandScheduler.getInstance().run();
+    LoopProfiler.endLoop();
     double timestampAfter = Timer.getFPGATimestamp();
-    time = timestampAfter;
     computeTime = timestampAfter - timestampBefore;
 
+    // Snapshot every logged value now that the scheduler is done changing them. Publishing happens
+    // on the logger's own thread. Every tick is captured, even under load, so the on-robot log has
+    // no gaps and log rates stay in step with the loop; the logger sheds its publishing instead.
+    Logger.capture();
+    FlightRecorder.update(computeTime);
+    LoopBudget.endLoop();
+  }
 
+  public static double getComputeTime() {
+    return computeTime;
   }
 
-  public static double getLoopTime() {
-    return loopTime;
+  public RobotContainer getRobotContainer() {
+    return robotContainer;
   }
 
-  public static double getComputeTime() {
-    return computeTime;
+  /**
+   * @return The command scheduled by the last autonomousInit(), or null if autonomous hasn't run
+   */
+  public Command getAutonomousCommand() {
+    return autonomousCommand;
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
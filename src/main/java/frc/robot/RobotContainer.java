@@ -28,8 +28,13 @@ import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.subsystems.transfer.Transfer;
 import frc.robot.subsystems.vision.AprilTags;
+import frc.robot.subsystems.vision.Notes;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.LoopBudget;
 import frc.robot.util.software.Dashboard.AutonChooser;
+import frc.robot.util.software.Dashboard.FieldPublisher;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 import frc.robot.util.software.Logging.StatusChecks;
 
 
@@ -63,6 +68,11 @@ public class RobotContainer {
     // Logger.autoLog("PDH", PDH);
 
     Logger.startLog();
+    FieldPublisher.start();
+    Logger.autoLog("Constants/SWERVE_DRIVE", null, Constants.SWERVE_DRIVE.class);
+    LoopProfiler.start();
+    LoopBudget.start();
+    ControlClock.start();
     AutonChooser.init();
     
     LiveWindow.disableAllTelemetry();
@@ -87,6 +97,7 @@ public class RobotContainer {
     StatusChecks.addCheck(new SubsystemBase() {}, "Intake Enabled", () -> Constants.ENABLED_SYSTEMS.ENABLE_INTAKE);
     StatusChecks.addCheck(new SubsystemBase() {}, "Shooter Enabled", () -> Constants.ENABLED_SYSTEMS.ENABLE_SHOOTER);
     StatusChecks.addCheck(new SubsystemBase() {}, "Transfer Enabled", () -> Constants.ENABLED_SYSTEMS.ENABLE_TRANSFER);
+    StatusChecks.start();
 
     swerveDrive = new SwerveDrive();
     shooter = new Shooter(swerveDrive);
@@ -100,9 +111,12 @@ public class RobotContainer {
     
     // Configure the trigger bindings
     Controls.configureBindings(stateController, swerveDrive, transfer, transfer.getInWheels(), transfer.getOutWheels(), shooter, shooter.getWheels(), shooter.getPivot(), amp, amp.getPivot(), amp.getWheels(), hang);
+    LoopProfiler.finishBindings();
 
     SwerveDrive.printChoreoConfig();
     AprilTags.printConfig(Constants.LIMELIGHT.APRILTAG_CAMERA_POSES);
+    AprilTags.startListening(Constants.LIMELIGHT.APRILTAG_CAMERA_POSES);
+    Notes.startListening(Constants.LIMELIGHT.NOTE_CAMERA_NAME);
 
     Pathfinding.ensureInitialized();
   }
@@ -111,6 +125,10 @@ public class RobotContainer {
     return new Autonomous(stateController, swerveDrive, AutonChooser.getNotes());
   }
 
+  public SwerveDrive getSwerveDrive() {
+    return swerveDrive;
+  }
+
   public static double getVoltage() {
     return RobotController.getBatteryVoltage();
   }
@@ -18,7 +18,6 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotState;
-import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import frc.robot.Constants.Constants;
@@ -28,6 +27,9 @@ import frc.robot.Constants.Field;
 import frc.robot.subsystems.RobotStateController;
 import frc.robot.subsystems.drive.SwerveDrive;
 import frc.robot.subsystems.vision.Notes;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.FieldZones;
+import frc.robot.util.software.Dashboard.FieldPublisher;
 import frc.robot.util.software.Logging.Logger;
 
 public class Autonomous extends Command {
@@ -39,13 +41,15 @@ public class Autonomous extends Command {
   private double noteAvoidRadius = (Field.NOTE_LENGTH / 2.0 + Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0);
   private double notePickupDistance = Constants.SWERVE_DRIVE.BUMPER_LENGTH / 2.0 - Field.NOTE_LENGTH / 2.0;
   private double noteAlignDistance = Constants.SWERVE_DRIVE.BUMPER_LENGTH / 2.0 + Field.NOTE_LENGTH;
-  private double speakerShotDistance = 5.0;
   private double adjacentNoteBand = 1.0;
   private double minPathfindingDistance = 2.5;
   private Command runningCommand;
 
   private boolean simulatedNote = true;
   private boolean isFirstNote = true;
+  // Only counted in simulation, where shots are simulated here
+  private int simulatedShots = 0;
+  private double lastSimulatedShotTimestamp = 0.0;
   public static boolean avoidPillars = true;
 
   public Translation2d targetedNote;
@@ -76,6 +80,7 @@ public class Autonomous extends Command {
   public void initialize() {
     state = null;
     simulatedNote = true;
+    simulatedShots = 0;
     controller.setState(RobotStateController.State.LEAVE_AMP).withTimeout(1.5).schedule();
   }
   
@@ -161,9 +166,7 @@ public class Autonomous extends Command {
       else measuredNotePosition = swerveDrive.getPose().getTranslation().nearest(measuredNotePositions).plus(visionNoise);
     }
 
-    FieldObject2d visibleNotes = SwerveDrive.getField().getObject("visibleNotes");
-    List<Pose2d> poses = new ArrayList<>();
-    visibleNotes.setPoses(poses);
+    FieldPublisher.setPoses("visibleNotes");
 
     if (measuredNotePosition == null) return null;
 
@@ -247,8 +250,8 @@ public class Autonomous extends Command {
 
     List<Translation2d> bezierPoints;
 
-    SwerveDrive.getField().getObject("alignmentPoint").setPose(new Pose2d(alignmentPoint, new Rotation2d()));
-    SwerveDrive.getField().getObject("pickupPoint").setPose(new Pose2d(pickupPoint, new Rotation2d()));
+    FieldPublisher.setPose("alignmentPoint", new Pose2d(alignmentPoint, new Rotation2d()));
+    FieldPublisher.setPose("pickupPoint", new Pose2d(pickupPoint, new Rotation2d()));
 
 
     if (
@@ -372,7 +375,11 @@ public class Autonomous extends Command {
               // Commands.waitSeconds(1.0).onlyIf(() -> isFirstNote),
               Commands.waitUntil(() -> inRange(swerveDrive.getPose().getTranslation())),
               Commands.run(() -> {
-                if (controller.canShoot()) simulatedNote = false;
+                if (controller.canShoot()) {
+                  simulatedNote = false;
+                  simulatedShots++;
+                  lastSimulatedShotTimestamp = ControlClock.getTimestamp();
+                }
               }).until(() -> simulatedNote == false).onlyIf(() -> RobotBase.isSimulation()),
               controller.setState(RobotStateController.State.SHOOT).until(() -> !hasNote())
             ).onlyIf(() -> nearSpeaker())
@@ -463,6 +470,20 @@ public class Autonomous extends Command {
     return false;
   }
 
+  /**
+   * @return Notes shot so far, in simulation
+   */
+  public int getSimulatedShots() {
+    return simulatedShots;
+  }
+
+  /**
+   * @return FPGA time of the last simulated shot, in seconds
+   */
+  public double getLastSimulatedShotTimestamp() {
+    return lastSimulatedShotTimestamp;
+  }
+
   public boolean hasNote() {
     if (RobotBase.isSimulation()) {
       return hasNoteDebouncer.calculate(simulatedNote);
@@ -488,8 +509,6 @@ public class Autonomous extends Command {
   }
 
   public boolean inRange(Translation2d point) {
-    return 
-      point.getDistance(Field.SPEAKER.get().toTranslation2d()) < (point.getY() < Field.WIDTH / 2.0 ? 3.5 : speakerShotDistance) && 
-      ((point.getX() < Field.WING_X.get() - 0.5 && Constants.IS_BLUE_TEAM.get()) || (point.getX() > Field.WING_X.get() + 0.5 && !Constants.IS_BLUE_TEAM.get()));
+    return FieldZones.isIn(point, FieldZones.SPEAKER_RANGE);
   }
 }
\ No newline at end of file
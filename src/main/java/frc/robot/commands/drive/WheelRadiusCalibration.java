@@ -4,16 +4,16 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.Command;
-import frc.robot.Robot;
 import frc.robot.Constants.Constants.SWERVE_DRIVE;
 import frc.robot.subsystems.drive.SwerveDrive;
+import frc.robot.util.software.ControlClock;
 
 public class WheelRadiusCalibration extends Command {
   private SwerveDrive swerveDrive;
   private Rotation2d lastGyroHeading;
   private SwerveModulePosition[] startingPositions;
   private double gyroRadians;
-  private double timer;
+  private double startTime;
 
   public WheelRadiusCalibration(SwerveDrive swerveDrive) {
     this.swerveDrive = swerveDrive;
@@ -23,12 +23,11 @@ public class WheelRadiusCalibration extends Command {
     startingPositions = swerveDrive.getModulePositions();
     lastGyroHeading = swerveDrive.getHeading();
     gyroRadians = 0.0;
-    timer = 0.0;
+    startTime = ControlClock.getTimestamp();
   }
 
   public void execute() {
-    timer += Robot.getLoopTime();
-    if (timer > 10.0) {
+    if (ControlClock.since(startTime) > 10.0) {
       swerveDrive.driveRobotRelative(0, 0, 0.0);
     } else {
       swerveDrive.driveRobotRelative(0, 0, SWERVE_DRIVE.PHYSICS.MAX_ANGULAR_VELOCITY / 3.0);
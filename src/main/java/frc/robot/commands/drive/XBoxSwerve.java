@@ -4,11 +4,10 @@
 
 package frc.robot.commands.drive;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotState;
@@ -18,6 +17,7 @@ import frc.robot.Constants.Constants;
 import frc.robot.Constants.Field;
 import frc.robot.Constants.Preferences;
 import frc.robot.subsystems.RobotStateController;
+import frc.robot.subsystems.drive.DriveState;
 import frc.robot.subsystems.drive.SwerveDrive;
 import frc.robot.subsystems.drive.SwerveModule;
 import frc.robot.util.software.MathUtils;
@@ -134,33 +134,45 @@ public class XBoxSwerve extends Command {
     return false;
   }
 
-  public static Translation2d avoidObstacles(Translation2d velocity, SwerveDrive swerveDrive) {
-    if (!Constants.IS_BLUE_TEAM.get()) {
-      velocity = velocity.rotateBy(Rotation2d.fromDegrees(180.0));
-    }
-
-    double mag = velocity.getNorm();
-    List<Translation2d> stagePillars = new ArrayList<>();
-    for (Translation2d pillar : Field.BLUE_STAGE_CORNERS) stagePillars.add(pillar);
-    for (Translation2d pillar : Field.RED_STAGE_CORNERS) stagePillars.add(pillar);
-    for (Translation2d pillar : stagePillars) {
-      double bubbleRadius = 
-        Math.hypot(Units.inchesToMeters(6.0), Units.inchesToMeters(6.0)) + 
-        Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0 +
-        (swerveDrive.getPose().getTranslation().getDistance(pillar) - swerveDrive.getFuturePose().getTranslation().getDistance(pillar)) * 2.0;
-      if (bubbleRadius <= 0) continue;
-      if (swerveDrive.getPose().getTranslation().getDistance(pillar) > bubbleRadius) continue;
-      Translation2d force = swerveDrive.getPose().getTranslation().minus(pillar);
-      force = force.div(force.getNorm()).times(mag);
-      velocity = velocity.plus(force);
+  private static final Translation2d[][] STAGE_PILLARS = { Field.BLUE_STAGE_CORNERS, Field.RED_STAGE_CORNERS };
+  private static final double PILLAR_RADIUS = Math.hypot(Units.inchesToMeters(6.0), Units.inchesToMeters(6.0));
+
+  /**
+   * Steers the velocity around the stage pillars, keeping its magnitude
+   * @param fieldRelativeSpeeds Speeds to adjust, in place. Rotation is left alone.
+   */
+  public static void avoidObstacles(ChassisSpeeds fieldRelativeSpeeds, SwerveDrive swerveDrive) {
+    boolean blue = Constants.IS_BLUE_TEAM.get();
+    double velocityX = blue ? fieldRelativeSpeeds.vxMetersPerSecond : -fieldRelativeSpeeds.vxMetersPerSecond;
+    double velocityY = blue ? fieldRelativeSpeeds.vyMetersPerSecond : -fieldRelativeSpeeds.vyMetersPerSecond;
+
+    double mag = Math.hypot(velocityX, velocityY);
+    DriveState state = swerveDrive.getState();
+    Pose2d pose = state.getPose();
+    double futureX = state.getFuturePose().getX();
+    double futureY = state.getFuturePose().getY();
+    for (Translation2d[] stage : STAGE_PILLARS) {
+      for (Translation2d pillar : stage) {
+        double distance = Math.hypot(pose.getX() - pillar.getX(), pose.getY() - pillar.getY());
+        double futureDistance = Math.hypot(futureX - pillar.getX(), futureY - pillar.getY());
+        double bubbleRadius = 
+          PILLAR_RADIUS + 
+          Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0 +
+          (distance - futureDistance) * 2.0;
+        if (bubbleRadius <= 0) continue;
+        if (distance > bubbleRadius) continue;
+        velocityX += (pose.getX() - pillar.getX()) / distance * mag;
+        velocityY += (pose.getY() - pillar.getY()) / distance * mag;
+      }
     }
     if (mag != 0.0) {
-      velocity = velocity.div(velocity.getNorm()).times(mag);
+      double norm = Math.hypot(velocityX, velocityY);
+      velocityX = velocityX / norm * mag;
+      velocityY = velocityY / norm * mag;
     }
 
-    if (!Constants.IS_BLUE_TEAM.get()) {
-      velocity = velocity.rotateBy(Rotation2d.fromDegrees(-180.0));
-    }
+    fieldRelativeSpeeds.vxMetersPerSecond = blue ? velocityX : -velocityX;
+    fieldRelativeSpeeds.vyMetersPerSecond = blue ? velocityY : -velocityY;
 
     // if (
     //   (swerveDrive.getFuturePose().getX() > Field.LENGTH - Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0 && swerveDrive.getFieldVelocity().getX() > 0.05) || 
@@ -173,6 +185,5 @@ public class XBoxSwerve extends Command {
     //   velocity = velocity.div(5.0);
     //   // velocity = new Translation2d();
     // }
-    return velocity;
   }
 }
\ No newline at end of file
@@ -8,8 +8,11 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Robot;
 import frc.robot.Constants.Constants;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.LoopBudget;
+import frc.robot.util.software.Logging.LoopProfiler;
+import frc.robot.util.software.Logging.StatusChecks;
 
 public class LEDs extends SubsystemBase {
   private static AddressableLED strip;
@@ -20,6 +23,7 @@ public class LEDs extends SubsystemBase {
   private static double time = 0;
   private static double centerFillTimer = 0;
   private static boolean centerFillCalled = false;
+  private static double skippedTime = 0;
   
   public static enum State {
     OFF,
@@ -62,12 +66,20 @@ public class LEDs extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
+    // Animations still advance by the time that passed while they were postponed
+    skippedTime += ControlClock.getMeasuredDt();
+    if (!LoopBudget.shouldRun(LoopBudget.Work.LEDS)) return;
+    double elapsedTime = skippedTime;
+    skippedTime = 0;
+
     switch (state) {
       case OFF:
         setColor(0, length, new int[] {0, 0, 0});
         break;
       case DISABLED:
-        setColorWave(0, length, getBumperLEDColor(), new int[] {80, 80, 80}, 1.0, Direction.LEFT);
+        // Orange instead of grey shows a failing status check before the match
+        setColorWave(0, length, getBumperLEDColor(), StatusChecks.getHealth() == StatusChecks.Health.FAILING ? RSL_ORANGE : new int[] {80, 80, 80}, 1.0, Direction.LEFT);
         break;
       case HAS_VISION_TARGET_SPEAKER:
         setRainbow(0, length);
@@ -110,12 +122,12 @@ public class LEDs extends SubsystemBase {
 
     state = State.OFF;
 
-    time += Robot.getLoopTime() * (1.0 + stateController.getFieldVelocity().getNorm());
+    time += elapsedTime * (1.0 + stateController.getFieldVelocity().getNorm());
 
     if (!centerFillCalled) {
       centerFillTimer = 0;
     } else {
-      centerFillTimer += Robot.getLoopTime();
+      centerFillTimer += elapsedTime;
     }
     centerFillCalled = false;
   }
@@ -11,14 +11,16 @@ import edu.wpi.first.wpilibj2.command.ConditionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Robot;
 import frc.robot.Constants.Constants;
-import frc.robot.Constants.Field;
 import frc.robot.Constants.Preferences;
 import frc.robot.subsystems.amp.Amp;
 import frc.robot.subsystems.drive.SwerveDrive;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.subsystems.transfer.Transfer;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.FieldZones;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 import frc.robot.util.software.Logging.StatusChecks;
 
 // This class is a subsystem that controls the state of the robot. It is used to coordinate the actions of the intake, shooter, transfer, and amp subsystems.
@@ -73,7 +75,7 @@ public class RobotStateController extends SubsystemBase {
     Logger.autoLog(this, "hasNote", () -> hasNote());
     Logger.autoLog(this, "canShoot", () -> canShoot());
     Logger.autoLog(this, "inRange", () -> inRange());
-    Logger.autoLog(this, "Loop Time", () -> Robot.getLoopTime());
+    Logger.autoLog(this, "Loop Time", () -> ControlClock.getMeasuredDt());
     Logger.autoLog(this, "Compute Time", () -> Robot.getComputeTime());
   }
 
@@ -204,8 +206,7 @@ public class RobotStateController extends SubsystemBase {
   public boolean canShoot() {
     // System.out.println(isAimed());
     if (shootOverride) return true;
-    return shotDebouncer.calculate(isAimed()) &&
-    ((swerveDrive.getPose().getX() < ((Field.LENGTH - Field.WING_X.get()) - Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0) && Constants.IS_BLUE_TEAM.get()) || (swerveDrive.getPose().getX() > (Field.LENGTH - Field.WING_X.get() + Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0) && !Constants.IS_BLUE_TEAM.get()));
+    return shotDebouncer.calculate(isAimed()) && FieldZones.isIn(swerveDrive.getPose().getTranslation(), FieldZones.SHOOTING_SIDE);
   }
 
   public boolean inRange() {
@@ -214,6 +215,7 @@ public class RobotStateController extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     shotDebouncer.calculate(isAimed());
     beamBreakDebouncer.calculate(!beamBreakSensor.get());
 
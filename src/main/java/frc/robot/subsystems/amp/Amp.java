@@ -8,6 +8,7 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.Constants.ENABLED_SYSTEMS;
 import frc.robot.Constants.Preferences;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class Amp extends SubsystemBase {
   private AmpPivot pivot;
@@ -27,6 +28,7 @@ public class Amp extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_AMP) return;
   }
 
@@ -21,6 +21,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.hardware.MotionControl.PivotController;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class AmpPivot extends SubsystemBase {
   private CANSparkMax motor;
@@ -52,6 +53,7 @@ public class AmpPivot extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_AMP) return;
     if (isCalibrating) return;
     if (RobotState.isDisabled()) {
@@ -17,6 +17,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 
 
@@ -51,6 +52,7 @@ public class AmpWheels extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_AMP) return;
     if (RobotState.isDisabled()) {
       state = State.OFF;
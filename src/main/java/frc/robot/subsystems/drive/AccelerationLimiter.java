@@ -0,0 +1,112 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.util.software.ControlClock;
+
+/**
+ * Limits commanded chassis speeds to what the wheels can do: first to the modules' top speed, then
+ * to the acceleration friction allows, with translation and rotation sharing the same traction.
+ * Doesn't touch any hardware, so it can be simulated and tested on its own, and works on speeds in
+ * place, so it doesn't allocate.
+ */
+public class AccelerationLimiter {
+  private static final double GRAVITY = 9.80;
+
+  private final SwerveKinematics kinematics;
+  private final double maxLinearVelocity;
+  private final double maxAngularVelocity;
+  private final double mass;
+  private final double rotationalInertia;
+  private final double driveRadius;
+  private final double frictionForce;
+
+  private double linearAccelerationX = 0.0;
+  private double linearAccelerationY = 0.0;
+  private double angularAcceleration = 0.0;
+
+  /**
+   * @param kinematics Kinematics of the drivetrain
+   * @param maxLinearVelocity [meters / second] Top speed of a module
+   * @param maxAngularVelocity [radians / second] Top rotational speed of the robot
+   * @param mass [kilograms] Mass of the robot
+   * @param rotationalInertia [kilogram meters^2] Moment of inertia of the robot about its center
+   * @param driveRadius [meters] Distance from the center of the robot to a module
+   * @param frictionCoefficient Coefficient of friction between the wheels and the carpet
+   */
+  public AccelerationLimiter(SwerveKinematics kinematics, double maxLinearVelocity, double maxAngularVelocity, double mass, double rotationalInertia, double driveRadius, double frictionCoefficient) {
+    this.kinematics = kinematics;
+    this.maxLinearVelocity = maxLinearVelocity;
+    this.maxAngularVelocity = maxAngularVelocity;
+    this.mass = mass;
+    this.rotationalInertia = rotationalInertia;
+    this.driveRadius = driveRadius;
+    this.frictionForce = GRAVITY * mass * frictionCoefficient;
+  }
+
+  /**
+   * Scales speeds down so that no module is asked to go faster than it can
+   * @param speeds Field-relative speeds, desaturated in place
+   */
+  public void desaturate(ChassisSpeeds speeds) {
+    kinematics.desaturate(speeds, maxLinearVelocity, maxLinearVelocity, maxAngularVelocity);
+  }
+
+  /**
+   * Steps the driven speeds towards the target speeds as fast as friction allows
+   * @param drivenSpeeds Speeds the robot was driven at last tick. Set to the speeds to drive at
+   * this tick, discretized over dt.
+   * @param targetSpeeds Speeds to drive at
+   * @param dt [seconds] Length of the step
+   */
+  public void calculate(ChassisSpeeds drivenSpeeds, ChassisSpeeds targetSpeeds, double dt) {
+    // Limit translational acceleration
+    double currentVx = drivenSpeeds.vxMetersPerSecond;
+    double currentVy = drivenSpeeds.vyMetersPerSecond;
+    linearAccelerationX = (targetSpeeds.vxMetersPerSecond - currentVx) / dt;
+    linearAccelerationY = (targetSpeeds.vyMetersPerSecond - currentVy) / dt;
+    double linearForce = Math.hypot(linearAccelerationX, linearAccelerationY) * mass;
+
+    // Limit rotational acceleration
+    double currentAngularVelocity = drivenSpeeds.omegaRadiansPerSecond;
+    angularAcceleration = (targetSpeeds.omegaRadiansPerSecond - currentAngularVelocity) / dt;
+    double angularForce = Math.abs((rotationalInertia * angularAcceleration) / driveRadius);
+
+    if (linearForce + angularForce > frictionForce) {
+      double factor = (linearForce + angularForce) / frictionForce;
+      linearAccelerationX /= factor;
+      linearAccelerationY /= factor;
+      angularAcceleration /= factor;
+    }
+
+    drivenSpeeds.vxMetersPerSecond = currentVx + linearAccelerationX * dt;
+    drivenSpeeds.vyMetersPerSecond = currentVy + linearAccelerationY * dt;
+    drivenSpeeds.omegaRadiansPerSecond = currentAngularVelocity + angularAcceleration * dt;
+    SwerveKinematics.discretize(drivenSpeeds, dt);
+  }
+
+  /**
+   * Steps the driven speeds towards the target speeds over one tick of the {@link ControlClock}. The
+   * step is always the nominal dt, so a late tick can't take a bigger step than friction allows.
+   * @param drivenSpeeds Speeds the robot was driven at last tick. Set to the speeds to drive at
+   * this tick, discretized over the tick.
+   * @param targetSpeeds Speeds to drive at
+   */
+  public void calculate(ChassisSpeeds drivenSpeeds, ChassisSpeeds targetSpeeds) {
+    calculate(drivenSpeeds, targetSpeeds, ControlClock.getNominalDt());
+  }
+
+  /**
+   * @return [meters / second^2] Magnitude of the linear acceleration commanded by the last call to
+   * calculate()
+   */
+  public double getLinearAcceleration() {
+    return Math.hypot(linearAccelerationX, linearAccelerationY);
+  }
+
+  /**
+   * @return [radians / second^2] Angular acceleration commanded by the last call to calculate()
+   */
+  public double getAngularAcceleration() {
+    return angularAcceleration;
+  }
+}
@@ -0,0 +1,116 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Where the drivetrain was and how it was moving as of one odometry update. {@link SwerveDrive}
+ * publishes a new one each tick, after odometry and vision, and whenever the pose is reset. It is
+ * never modified afterwards, so consumers can read it as often as they like, from any thread,
+ * without redoing the kinematics.
+ */
+public final class DriveState {
+  private final double timestamp;
+  private final Pose2d pose;
+  private final double vx;
+  private final double vy;
+  private final double omega;
+  private final Translation2d fieldVelocity;
+  private final Pose2d futurePose;
+  private final double[] measuredSpeeds;
+  private final double[] measuredRadians;
+
+  /**
+   * @param timestamp [seconds] FPGA time of the update
+   * @param pose Estimated pose
+   * @param robotRelativeSpeeds Measured chassis speeds (robot-relative). Only read, not kept.
+   * @param measuredSpeeds [meters / second] Measured speed of each module. Copied.
+   * @param measuredRadians [radians] Measured direction of each module. Copied.
+   * @param maxLinearAcceleration [meters / second^2] Deceleration used to predict where the robot would stop
+   */
+  DriveState(double timestamp, Pose2d pose, ChassisSpeeds robotRelativeSpeeds, double[] measuredSpeeds, double[] measuredRadians, double maxLinearAcceleration) {
+    this.timestamp = timestamp;
+    this.pose = pose;
+    vx = robotRelativeSpeeds.vxMetersPerSecond;
+    vy = robotRelativeSpeeds.vyMetersPerSecond;
+    omega = robotRelativeSpeeds.omegaRadiansPerSecond;
+    this.measuredSpeeds = measuredSpeeds.clone();
+    this.measuredRadians = measuredRadians.clone();
+
+    double cos = pose.getRotation().getCos();
+    double sin = pose.getRotation().getSin();
+    fieldVelocity = new Translation2d(
+      vx * cos - vy * sin,
+      vx * sin + vy * cos
+    );
+
+    // Where the robot would stop if it braked as hard as it can
+    double stoppingScale = fieldVelocity.getNorm() / (2.0 * maxLinearAcceleration);
+    futurePose = new Pose2d(
+      pose.getX() + fieldVelocity.getX() * stoppingScale,
+      pose.getY() + fieldVelocity.getY() * stoppingScale,
+      pose.getRotation()
+    );
+  }
+
+  /**
+   * @return [seconds] FPGA time this state was published at
+   */
+  public double getTimestamp() {
+    return timestamp;
+  }
+
+  public Pose2d getPose() {
+    return pose;
+  }
+
+  /**
+   * @return [meters / second] Measured velocity, field-relative
+   */
+  public Translation2d getFieldVelocity() {
+    return fieldVelocity;
+  }
+
+  /**
+   * @return [meters / second] Measured forward velocity, robot-relative
+   */
+  public double getVx() {
+    return vx;
+  }
+
+  /**
+   * @return [meters / second] Measured leftward velocity, robot-relative
+   */
+  public double getVy() {
+    return vy;
+  }
+
+  /**
+   * @return [radians / second] Measured rotational velocity, positive counterclockwise
+   */
+  public double getOmega() {
+    return omega;
+  }
+
+  /**
+   * @return Pose the robot would stop at if it braked now
+   */
+  public Pose2d getFuturePose() {
+    return futurePose;
+  }
+
+  /**
+   * @return [meters / second] Measured speed of a module
+   */
+  public double getMeasuredSpeed(int module) {
+    return measuredSpeeds[module];
+  }
+
+  /**
+   * @return [radians] Measured direction of a module
+   */
+  public double getMeasuredRadians(int module) {
+    return measuredRadians[module];
+  }
+}
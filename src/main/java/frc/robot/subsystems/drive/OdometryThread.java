@@ -0,0 +1,124 @@
+package frc.robot.subsystems.drive;
+
+import java.lang.invoke.VarHandle;
+
+import com.kauailabs.navx.frc.AHRS;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.Constants.SWERVE_DRIVE;
+import frc.robot.util.software.Logging.LogRate;
+import frc.robot.util.software.Logging.Logger;
+
+/**
+ * Samples the drive positions, steer angles and gyro yaw faster than the main loop, so the pose
+ * estimator integrates in smaller steps and keeps a denser history for vision latency compensation.
+ * Each sample is stamped with the FPGA time it was read at and written into a ring; the main loop
+ * drains every sample since its last tick into {@link SwerveOdometry}, in order. Neither side ever
+ * waits on the other. If the main loop falls a whole ring behind, the oldest samples are dropped and
+ * counted.
+ *
+ * <p>In simulation the module sims only move when the main loop drives them, so there is no thread:
+ * the main loop calls {@link #sample()} itself, once per tick.
+ */
+public class OdometryThread {
+  private static final int SLOTS = SWERVE_DRIVE.ODOMETRY_BUFFER_SIZE;
+
+  private final SwerveModule[] modules;
+  private final AHRS gyro;
+  private final Notifier notifier = new Notifier(this::sample);
+
+  // Sample n is written to slot n % SLOTS
+  private final double[] timestamps = new double[SLOTS];
+  private final double[][] drivePositions;
+  private final double[][] steerRadians;
+  private final double[] gyroRadians = new double[SLOTS];
+  private final boolean[] gyroConnected = new boolean[SLOTS];
+  // Number of samples fully written. Only written by the sampling thread.
+  private volatile long sampledCount = 0;
+  private long drainedCount = 0;
+  // The sample being drained, copied out of the ring. Only touched by the main loop.
+  private final double[] drainedDrivePositions;
+  private final double[] drainedSteerRadians;
+  private volatile long droppedCount = 0;
+  private int lastDrained = 0;
+
+  /**
+   * @param modules Modules to sample
+   * @param gyro Gyro to sample, or null if it failed to connect
+   */
+  public OdometryThread(SwerveModule[] modules, AHRS gyro) {
+    this.modules = modules;
+    this.gyro = gyro;
+    drivePositions = new double[SLOTS][modules.length];
+    steerRadians = new double[SLOTS][modules.length];
+    drainedDrivePositions = new double[modules.length];
+    drainedSteerRadians = new double[modules.length];
+    notifier.setName("Odometry");
+
+    Logger.autoLog("SwerveDrive/odometrySamplesPerLoop", () -> lastDrained).withRate(LogRate.HZ_10);
+    Logger.autoLog("SwerveDrive/droppedOdometrySamples", () -> droppedCount).withRate(LogRate.HZ_1);
+  }
+
+  /**
+   * Starts sampling in the background. Does nothing in simulation.
+   */
+  public void start() {
+    if (RobotBase.isSimulation()) return;
+    notifier.startPeriodic(1.0 / SWERVE_DRIVE.ODOMETRY_FREQUENCY);
+  }
+
+  /**
+   * Reads every sensor once and adds the readings to the ring. Only one thread may sample.
+   */
+  public void sample() {
+    long count = sampledCount;
+    int slot = (int) (count % SLOTS);
+    timestamps[slot] = Timer.getFPGATimestamp();
+    for (int i = 0; i < modules.length; i++) {
+      drivePositions[slot][i] = modules[i].sampleDrivePosition();
+      steerRadians[slot][i] = modules[i].sampleSteerRadians();
+    }
+    boolean connected = gyro != null && gyro.isConnected() && !gyro.isCalibrating();
+    gyroConnected[slot] = connected;
+    gyroRadians[slot] = connected ? gyro.getRotation2d().getRadians() : 0.0;
+    sampledCount = count + 1;
+  }
+
+  /**
+   * Feeds every sample taken since the last call to the odometry, oldest first. Called by the main
+   * loop once per tick, before vision measurements are added.
+   * @return Number of samples applied
+   */
+  public int drain(SwerveOdometry odometry) {
+    long count = sampledCount;
+    if (count - drainedCount > SLOTS - 1) {
+      // Leave a slot of margin, since the sampling thread may be writing the next one
+      droppedCount += count - drainedCount - (SLOTS - 1);
+      drainedCount = count - (SLOTS - 1);
+    }
+
+    int applied = 0;
+    for (long sample = drainedCount; sample < count; sample++) {
+      int slot = (int) (sample % SLOTS);
+      double timestamp = timestamps[slot];
+      System.arraycopy(drivePositions[slot], 0, drainedDrivePositions, 0, modules.length);
+      System.arraycopy(steerRadians[slot], 0, drainedSteerRadians, 0, modules.length);
+      boolean connected = gyroConnected[slot];
+      double gyroAngle = gyroRadians[slot];
+
+      // Drop the sample if it was overwritten while we read it
+      VarHandle.acquireFence();
+      if (sampledCount >= sample + SLOTS) {
+        droppedCount++;
+        continue;
+      }
+      odometry.update(timestamp, drainedDrivePositions, drainedSteerRadians, connected, gyroAngle);
+      applied++;
+    }
+    drainedCount = count;
+    lastDrained = applied;
+    return applied;
+  }
+}
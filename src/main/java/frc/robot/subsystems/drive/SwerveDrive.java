@@ -18,21 +18,15 @@ import com.pathplanner.lib.util.PIDConstants;
 import com.pathplanner.lib.util.PathPlannerLogging;
 import com.pathplanner.lib.util.ReplanningConfig;
 
-import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveDriveWheelPositions;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.numbers.N1;
-import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
@@ -41,43 +35,63 @@ import edu.wpi.first.wpilibj.SPI;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
 import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
-import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Robot;
 import frc.robot.Constants.Constants;
 import frc.robot.Constants.Constants.ENABLED_SYSTEMS;
 import frc.robot.Constants.Constants.LIMELIGHT;
+import frc.robot.Constants.Constants.LOGGING;
 import frc.robot.Constants.Constants.SWERVE_DRIVE;
-import frc.robot.Constants.Field;
 import frc.robot.commands.autonomous.Autonomous;
 import frc.robot.commands.drive.XBoxSwerve;
 import frc.robot.subsystems.LEDs;
 import frc.robot.subsystems.vision.AprilTags;
 import frc.robot.subsystems.vision.Notes;
-import frc.robot.util.software.CustomSwerveDrivePoseEstimator;
-import frc.robot.util.software.MathUtils;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.CustomPoseEstimator.VisionMeasurement;
+import frc.robot.util.software.FieldZones;
+import frc.robot.util.software.LoopBudget;
+import frc.robot.util.software.Dashboard.FieldPublisher;
+import frc.robot.util.software.Logging.FlightRecorder;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 import frc.robot.util.software.Logging.StatusChecks;
 
 /**
  * This class represents the subsystem for the swerve drive. It contains four
  * swerve module objects and a gyroscope object.
  */
-public class SwerveDrive extends SubsystemBase {
+public class SwerveDrive extends SubsystemBase implements AprilTags.VisionConsumer {
   public SwerveModule[] modules = new SwerveModule[SWERVE_DRIVE.MODULE_COUNT];
   private static AHRS gyro;
 
-  private SwerveDriveKinematics kinematics = getKinematics();
-  private CustomSwerveDrivePoseEstimator poseEstimator;
-  private static Field2d field = new Field2d();
-  private Rotation2d gyroHeading = Rotation2d.fromDegrees(0.0);
-  private Rotation2d gyroOffset = SWERVE_DRIVE.STARTING_POSE.get().getRotation();
+  private SwerveKinematics kinematics = new SwerveKinematics(getModuleLocations());
+  private AccelerationLimiter accelerationLimiter = new AccelerationLimiter(
+    kinematics,
+    SWERVE_DRIVE.PHYSICS.MAX_LINEAR_VELOCITY,
+    SWERVE_DRIVE.PHYSICS.MAX_ANGULAR_VELOCITY,
+    SWERVE_DRIVE.ROBOT_MASS,
+    SWERVE_DRIVE.PHYSICS.ROTATIONAL_INERTIA,
+    SWERVE_DRIVE.PHYSICS.DRIVE_RADIUS,
+    SWERVE_DRIVE.FRICTION_COEFFICIENT
+  );
+  private SwerveOdometry odometry;
+  private OdometryThread odometryThread;
   private Debouncer doneRotating = new Debouncer(0.5);
 
   private ChassisSpeeds drivenChassisSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds measuredChassisSpeeds = new ChassisSpeeds();
+  // Published once per tick, so every consumer reads the same state without redoing the kinematics
+  private volatile DriveState state;
+
+  // Reused every tick, so driving doesn't allocate
+  private final ChassisSpeeds requestedChassisSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds drivenRobotRelativeSpeeds = new ChassisSpeeds();
+  private final double[] drivenModuleSpeeds = new double[SWERVE_DRIVE.MODULE_COUNT];
+  private final double[] drivenModuleAngles = new double[SWERVE_DRIVE.MODULE_COUNT];
+  private final double[] measuredModuleSpeeds = new double[SWERVE_DRIVE.MODULE_COUNT];
+  private final double[] measuredModuleAngles = new double[SWERVE_DRIVE.MODULE_COUNT];
 
   private PIDController alignmentController = new PIDController(
     SWERVE_DRIVE.ABSOLUTE_ROTATION_GAINS.kP,
@@ -90,17 +104,13 @@ public class SwerveDrive extends SubsystemBase {
   private boolean parked = false;
   private boolean parkingDisabled = false;
   private boolean isDriven = false;
-  private boolean gyroConnected = false;
 
-  private double angularAcceleration = 0.0;
 
   private Supplier<Translation2d> rotationOverridePoint = null;
   private Rotation2d rotationOverrideOffset = new Rotation2d();
 
   private SWERVE_DRIVE.MODULE_CONFIG[] equippedModules;
 
-  private SwerveDriveWheelPositions previousWheelPositions;
-  private Translation2d linearAcceleration;
 
   public SwerveDrive() {
     // Create the serve module objects
@@ -122,54 +132,84 @@ public class SwerveDrive extends SubsystemBase {
     }
 
     // Set up pose estimator and rotation controller
-    poseEstimator = new CustomSwerveDrivePoseEstimator(
-      kinematics,
-      SWERVE_DRIVE.STARTING_POSE.get().getRotation(),
-      getModulePositions(),
+    odometry = new SwerveOdometry(
+      getModuleLocations(),
       SWERVE_DRIVE.STARTING_POSE.get(),
-      VecBuilder.fill(0.05, 0.05, Units.degreesToRadians(2)),
-      VecBuilder.fill(1.0, 1.0, Units.degreesToRadians(30))
+      getModulePositions(),
+      !RobotBase.isSimulation(),
+      SwerveOdometry.STATE_STD_DEVS,
+      LOGGING.RECORD_REPLAY_INPUTS
     );
 
-    previousWheelPositions = new SwerveDriveWheelPositions(getModulePositions());
-
     alignmentController.enableContinuousInput(-Math.PI, Math.PI);
     alignmentController.setTolerance(SWERVE_DRIVE.ABSOLUTE_ROTATION_GAINS.TOLERANCE.getRadians());
     // setTargetHeading(SWERVE_DRIVE.STARTING_POSE.getRotation());
     
     // If possible, connect to the gyroscope
     try {
-      gyro = new AHRS(SPI.Port.kMXP);
+      gyro = new AHRS(SPI.Port.kMXP, (byte) SWERVE_DRIVE.GYRO_UPDATE_RATE);
     } catch (RuntimeException ex) {
       DriverStation.reportError("Error instantiating navX-MXP:  " + ex.getMessage(), false);
     }
 
+    odometryThread = new OdometryThread(modules, gyro);
+    odometryThread.start();
+    publishState();
+
     new Thread(() -> {
       try {
         Thread.sleep(1000);
-        gyroOffset = gyroOffset.minus(gyro.getRotation2d());
+        odometry.setGyroOffset(odometry.getGyroOffset().minus(gyro.getRotation2d()));
       } catch (Exception e) {}
     }).start();
     
-    SmartDashboard.putData("Field", field);
-    
-    Logger.autoLog(this, "pose", () -> this.getPose());
+    Logger.autoLog(this, "pose", () -> this.getPose(), Pose2d.struct);
+    // Same keys the pose was logged under before it was a struct, for dashboards and log tools that read them
+    Logger.autoLog(this, "pose_radians", 3, (double[] pose) -> {
+      Pose2d currentPose = getPose();
+      pose[0] = currentPose.getX();
+      pose[1] = currentPose.getY();
+      pose[2] = currentPose.getRotation().getRadians();
+    });
+    Logger.autoLog(this, "pose_degrees", 3, (double[] pose) -> {
+      Pose2d currentPose = getPose();
+      pose[0] = currentPose.getX();
+      pose[1] = currentPose.getY();
+      pose[2] = currentPose.getRotation().getDegrees();
+    });
     Logger.autoLog(this, "measuredHeading", () -> this.getHeading().getDegrees());
     Logger.autoLog(this, "targetHeading", () -> Units.radiansToDegrees(alignmentController.getSetpoint()));
-    Logger.autoLog(this, "targetStates", () -> getTargetModuleStates());
-    Logger.autoLog(this, "measuredStates", () -> getMeasuredModuleStates());
-    Logger.autoLog(this, "modulePositions", () -> getModulePositions());
+    Logger.autoLog(this, "targetStates/states", SWERVE_DRIVE.MODULE_COUNT * 2, (double[] states) -> {
+      for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
+        states[i * 2] = modules[i].getTargetRadians();
+        states[i * 2 + 1] = modules[i].getTargetSpeed();
+      }
+    });
+    Logger.autoLog(this, "measuredStates/states", SWERVE_DRIVE.MODULE_COUNT * 2, (double[] states) -> {
+      DriveState state = this.state;
+      for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
+        states[i * 2] = state.getMeasuredRadians(i);
+        states[i * 2 + 1] = state.getMeasuredSpeed(i);
+      }
+    });
+    Logger.autoLog(this, "modulePositions/positions", SWERVE_DRIVE.MODULE_COUNT * 2, (double[] positions) -> {
+      for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
+        positions[i * 2] = modules[i].getMeasuredRadians();
+        positions[i * 2 + 1] = modules[i].getDrivePosition();
+      }
+    });
     Logger.autoLog(this, "gyroAcceleration", () -> Math.hypot(gyro.getWorldLinearAccelX(), gyro.getWorldLinearAccelY()));
     Logger.autoLog(this, "gyroVelocity", () -> Math.hypot(gyro.getVelocityX(), gyro.getVelocityY()));
-    Logger.autoLog(this, "commandedLinearAcceleration", () -> linearAcceleration.getNorm());
+    Logger.autoLog(this, "commandedLinearAcceleration", () -> accelerationLimiter.getLinearAcceleration());
     Logger.autoLog(this, "commandedLinearVelocity", () -> Math.hypot(getDrivenChassisSpeeds().vxMetersPerSecond, getDrivenChassisSpeeds().vyMetersPerSecond));
-    Logger.autoLog(this, "commandedAngularAcceleration", () -> angularAcceleration);
+    Logger.autoLog(this, "commandedAngularAcceleration", () -> accelerationLimiter.getAngularAcceleration());
     Logger.autoLog(this, "commandedAngularVelocity", () -> getDrivenChassisSpeeds().omegaRadiansPerSecond);
-    Logger.autoLog(this, "measuredAngularVelocity", () -> getMeasuredChassisSpeeds().omegaRadiansPerSecond);
-    Logger.autoLog(this, "measuredLinearVelocity", () -> Math.hypot(getMeasuredChassisSpeeds().vxMetersPerSecond, getMeasuredChassisSpeeds().vyMetersPerSecond));
+    Logger.autoLog(this, "measuredAngularVelocity", () -> measuredChassisSpeeds.omegaRadiansPerSecond);
+    Logger.autoLog(this, "measuredLinearVelocity", () -> Math.hypot(measuredChassisSpeeds.vxMetersPerSecond, measuredChassisSpeeds.vyMetersPerSecond));
     Logger.autoLog(this, "gyroIsCalibrating", () -> gyro.isCalibrating());
     Logger.autoLog(this, "gyroIsConnected", () -> gyro.isConnected());
-    Logger.autoLog(this, "gyroRawDegrees", () -> gyro.getRotation2d().getDegrees());
+    // Same as gyro.getRotation2d().getDegrees(), without creating a Rotation2d
+    Logger.autoLog(this, "gyroRawDegrees", () -> -gyro.getAngle());
     StatusChecks.addCheck(this, "isGyroConnected", gyro::isConnected);
 
     AutoBuilder.configureHolonomic(
@@ -190,13 +230,13 @@ public class SwerveDrive extends SubsystemBase {
     // Logging callback for target robot pose
     PathPlannerLogging.setLogTargetPoseCallback((pose) -> {
         // Do whatever you want with the pose here
-        field.getObject("Target Pose").setPose(pose);
+        FieldPublisher.setPose("Target Pose", pose);
     });
 
     // Logging callback for the active path, this is sent as a list of poses
     PathPlannerLogging.setLogActivePathCallback((poses) -> {
         // Do whatever you want with the poses here
-        field.getObject("Active Path").setPoses(poses);
+        FieldPublisher.setPoses("Active Path", poses);
     });
   }
 
@@ -204,6 +244,7 @@ public class SwerveDrive extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_DRIVE) return;
     if (RobotState.isDisabled()) {
       for (SwerveModule module : modules) {
@@ -233,8 +274,6 @@ public class SwerveDrive extends SubsystemBase {
 
     // System.out.println(Constants.SHOOTER_WHEELS.PROFILE.kV);
 
-    FieldObject2d visibleNotes = SwerveDrive.getField().getObject("visibleNotes");
-    
     // List<Pose2d> poses = new ArrayList<>();
     // for (Integer note1 : List.of(0, 1, 2, 3, 4, 5, 6, 7)) {
     //   Translation2d position = Field.NOTE_POSITIONS[note1];
@@ -242,9 +281,12 @@ public class SwerveDrive extends SubsystemBase {
     //   poses.add(new Pose2d(relativePosition, new Rotation2d()));
     // }
 
-    Translation2d notePosition = Notes.getNotePosition(LIMELIGHT.NOTE_CAMERA_NAME, LIMELIGHT.NOTE_CAMERA_PITCH, this, getFieldVelocity(), LIMELIGHT.NOTE_CAMERA_POSITION);
-    if (notePosition != null) {
-      visibleNotes.setPose(new Pose2d(notePosition, new Rotation2d()));
+    Notes.update();
+    if (LoopBudget.shouldRun(LoopBudget.Work.NOTE_VISION)) {
+      Translation2d notePosition = Notes.getNotePosition(LIMELIGHT.NOTE_CAMERA_NAME, LIMELIGHT.NOTE_CAMERA_PITCH, this, getFieldVelocity(), LIMELIGHT.NOTE_CAMERA_POSITION);
+      if (notePosition != null) {
+        FieldPublisher.setPose("visibleNotes", new Pose2d(notePosition, new Rotation2d()));
+      }
     }
 
     // getField().getObject("futurePose").setPose(getFuturePose());
@@ -274,22 +316,22 @@ public class SwerveDrive extends SubsystemBase {
     // Update pose based on measured heading and swerve module positions
     
     // Update field
-    FieldObject2d modulesObject = field.getObject("Swerve Modules");
-
-    // Update swerve module poses
-    Pose2d[] modulePoses = new Pose2d[SWERVE_DRIVE.MODULE_COUNT];
-    Pose2d robotPose = getPose();
-    
-    int i = 0;
-    for (SwerveModule module : modules) {
-      modulePoses[i] = module.getPose(robotPose);
-      i++;
-    }
+    if (LoopBudget.shouldRun(LoopBudget.Work.FIELD2D) && FieldPublisher.isDue("Swerve Modules")) {
+      // Update swerve module poses
+      Pose2d[] modulePoses = new Pose2d[SWERVE_DRIVE.MODULE_COUNT];
+      Pose2d robotPose = getPose();
+      
+      int i = 0;
+      for (SwerveModule module : modules) {
+        modulePoses[i] = module.getPose(robotPose);
+        i++;
+      }
 
-    modulesObject.setPoses(modulePoses);
+      FieldPublisher.setPoses("Swerve Modules", modulePoses);
 
-    // Update robot pose
-    field.setRobotPose(getPose());
+      // Update robot pose
+      FieldPublisher.setRobotPose(robotPose);
+    }
 
     if (!isDriven) {
       driveFieldRelative(0.0, 0.0, 0.0);
@@ -298,36 +340,37 @@ public class SwerveDrive extends SubsystemBase {
   }
 
   public void updateOdometry() {
-    Pose2d poseBefore = getPose();
-
-    SwerveDriveWheelPositions wheelPositions = new SwerveDriveWheelPositions(getModulePositions());
-    Twist2d twist = kinematics.toTwist2d(previousWheelPositions, wheelPositions);
-    Pose2d newPose = getPose().exp(twist);
-
-
-    if (!gyroConnected && (gyro.isConnected() && !gyro.isCalibrating())) {
-      gyroOffset = gyroHeading.minus(gyro.getRotation2d());
-    }
-    gyroConnected = gyro.isConnected() && !gyro.isCalibrating();
-
-    if (gyroConnected && !RobotBase.isSimulation()) {
-      gyroHeading = gyro.getRotation2d();
-    } else {
-      gyroHeading = gyroHeading.plus(newPose.getRotation().minus(getPose().getRotation()));
-    }
-
-    poseEstimator.update(gyroHeading.plus(gyroOffset), getModulePositions());
+    if (RobotBase.isSimulation()) odometryThread.sample();
+    odometryThread.drain(odometry);
     AprilTags.injectVisionData(LIMELIGHT.APRILTAG_CAMERA_POSES, this);
 
-    Pose2d currentPose = getPose();
-    double magnitude = currentPose.getTranslation().getNorm();
-    if (magnitude > 1000 || Double.isNaN(magnitude) || Double.isInfinite(magnitude)) {
+    if (!odometry.validate()) {
       System.out.println("BAD");
       LEDs.setState(LEDs.State.BAD);
-      resetPose(gyroHeading.plus(gyroOffset), poseBefore, previousWheelPositions);
+      FlightRecorder.trigger(FlightRecorder.Trigger.BAD_POSE);
+      alignmentController.setSetpoint(getHeading().getRadians());
     }
-    
-    previousWheelPositions = wheelPositions.copy();
+
+    publishState();
+  }
+
+  /**
+   * Snapshots the pose and measured speeds into a new {@link DriveState}
+   */
+  private void publishState() {
+    for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
+      measuredModuleSpeeds[i] = modules[i].getMeasuredVelocity();
+      measuredModuleAngles[i] = modules[i].getMeasuredRadians();
+    }
+    kinematics.toChassisSpeeds(measuredModuleSpeeds, measuredModuleAngles, measuredChassisSpeeds);
+    state = new DriveState(
+      ControlClock.getTimestamp(),
+      odometry.getPose(),
+      measuredChassisSpeeds,
+      measuredModuleSpeeds,
+      measuredModuleAngles,
+      SWERVE_DRIVE.PHYSICS.MAX_LINEAR_ACCELERATION
+    );
   }
 
   @Override
@@ -343,7 +386,10 @@ public class SwerveDrive extends SubsystemBase {
    * @param angularVelocity [radians / second] Rotational velocity, positive spins counterclockwise
    */
   public void driveFieldRelative(double xVelocity, double yVelocity, double angularVelocity) {
-    driveFieldRelative(new ChassisSpeeds(xVelocity, yVelocity, angularVelocity));
+    requestedChassisSpeeds.vxMetersPerSecond = xVelocity;
+    requestedChassisSpeeds.vyMetersPerSecond = yVelocity;
+    requestedChassisSpeeds.omegaRadiansPerSecond = angularVelocity;
+    driveAttainableSpeeds(requestedChassisSpeeds);
   }
 
   /**
@@ -352,7 +398,7 @@ public class SwerveDrive extends SubsystemBase {
    * @param fieldRelativeSpeeds
    */
   private void driveFieldRelative(ChassisSpeeds fieldRelativeSpeeds) {
-    driveAttainableSpeeds(fieldRelativeSpeeds);
+    driveFieldRelative(fieldRelativeSpeeds.vxMetersPerSecond, fieldRelativeSpeeds.vyMetersPerSecond, fieldRelativeSpeeds.omegaRadiansPerSecond);
   }
 
   /**
@@ -362,7 +408,10 @@ public class SwerveDrive extends SubsystemBase {
    * @param angularVelocity [radians / second] Rotational velocity, positive spins counterclockwise
    */
   public void driveRobotRelative(double xVelocity, double yVelocity, double angularVelocity) {
-    driveRobotRelative(new ChassisSpeeds(xVelocity, yVelocity, angularVelocity));
+    requestedChassisSpeeds.vxMetersPerSecond = xVelocity;
+    requestedChassisSpeeds.vyMetersPerSecond = yVelocity;
+    requestedChassisSpeeds.omegaRadiansPerSecond = angularVelocity;
+    driveRobotRelative(requestedChassisSpeeds);
   }
 
   /**
@@ -370,18 +419,18 @@ public class SwerveDrive extends SubsystemBase {
    * @param robotRelativeSpeeds
    */
   private void driveRobotRelative(ChassisSpeeds robotRelativeSpeeds) {
-    driveFieldRelative(ChassisSpeeds.fromRobotRelativeSpeeds(robotRelativeSpeeds, getAllianceAwareHeading()));
+    SwerveKinematics.fromRobotRelative(robotRelativeSpeeds, getAllianceAwareHeadingRadians(), requestedChassisSpeeds);
+    driveAttainableSpeeds(requestedChassisSpeeds);
   }
 
+  /**
+   * @param fieldRelativeSpeeds Speeds to drive at. Adjusted in place.
+   */
   private void driveAttainableSpeeds(ChassisSpeeds fieldRelativeSpeeds) {
     isDriven = true;
 
     if (!(RobotState.isAutonomous() && !Autonomous.avoidPillars)) {
-      Translation2d velocity = XBoxSwerve.avoidObstacles(new Translation2d(
-        fieldRelativeSpeeds.vxMetersPerSecond,
-        fieldRelativeSpeeds.vyMetersPerSecond
-      ), this);
-      fieldRelativeSpeeds = new ChassisSpeeds(velocity.getX(), velocity.getY(), fieldRelativeSpeeds.omegaRadiansPerSecond);
+      XBoxSwerve.avoidObstacles(fieldRelativeSpeeds, this);
     }
 
     if (fieldRelativeSpeeds.omegaRadiansPerSecond > 0 && !RobotState.isAutonomous()) {
@@ -409,49 +458,19 @@ public class SwerveDrive extends SubsystemBase {
     addedAlignmentAngularVelocity = 0.0;
     if (isAligning && !alignmentController.atSetpoint() && !parked) fieldRelativeSpeeds.omegaRadiansPerSecond += alignmentAngularVelocity;
 
-    SwerveModuleState[] moduleStates = kinematics.toSwerveModuleStates(fieldRelativeSpeeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-      moduleStates,
-      fieldRelativeSpeeds,
-      SWERVE_DRIVE.PHYSICS.MAX_LINEAR_VELOCITY,
-      SWERVE_DRIVE.PHYSICS.MAX_LINEAR_VELOCITY,
-      SWERVE_DRIVE.PHYSICS.MAX_ANGULAR_VELOCITY
-    );
-    fieldRelativeSpeeds = kinematics.toChassisSpeeds(moduleStates);
-
-
-    // Limit translational acceleration
-    Translation2d targetLinearVelocity = new Translation2d(fieldRelativeSpeeds.vxMetersPerSecond, fieldRelativeSpeeds.vyMetersPerSecond);
-    Translation2d currentLinearVelocity = new Translation2d(drivenChassisSpeeds.vxMetersPerSecond, drivenChassisSpeeds.vyMetersPerSecond);
-    linearAcceleration = (targetLinearVelocity).minus(currentLinearVelocity).div(Robot.getLoopTime());
-    double linearForce = linearAcceleration.getNorm() * SWERVE_DRIVE.ROBOT_MASS;
-
-    // Limit rotational acceleration
-    double targetAngularVelocity = fieldRelativeSpeeds.omegaRadiansPerSecond;
-    double currentAngularVelocity = drivenChassisSpeeds.omegaRadiansPerSecond;
-    angularAcceleration = (targetAngularVelocity - currentAngularVelocity) / Robot.getLoopTime();
-    double angularForce = Math.abs((SWERVE_DRIVE.PHYSICS.ROTATIONAL_INERTIA * angularAcceleration) / SWERVE_DRIVE.PHYSICS.DRIVE_RADIUS);
-    
-    double frictionForce = 9.80 * SWERVE_DRIVE.ROBOT_MASS * SWERVE_DRIVE.FRICTION_COEFFICIENT;
-
-    if (linearForce + angularForce > frictionForce) {
-      double factor = (linearForce + angularForce) / frictionForce;
-      linearAcceleration = linearAcceleration.div(factor);
-      angularAcceleration /= factor;
-    }
+    accelerationLimiter.desaturate(fieldRelativeSpeeds);
 
-    Translation2d attainableLinearVelocity = currentLinearVelocity.plus(linearAcceleration.times(Robot.getLoopTime()));
-    double attainableAngularVelocity = currentAngularVelocity + (angularAcceleration * Robot.getLoopTime());
-
-    drivenChassisSpeeds = new ChassisSpeeds(attainableLinearVelocity.getX(), attainableLinearVelocity.getY(), attainableAngularVelocity);
-    
-    drivenChassisSpeeds = ChassisSpeeds.discretize(drivenChassisSpeeds, Robot.getLoopTime());
+    accelerationLimiter.calculate(drivenChassisSpeeds, fieldRelativeSpeeds);
 
-    SwerveModuleState[] drivenModuleStates = kinematics.toSwerveModuleStates(ChassisSpeeds.fromFieldRelativeSpeeds(drivenChassisSpeeds, getAllianceAwareHeading()));
+    SwerveKinematics.fromFieldRelative(drivenChassisSpeeds, getAllianceAwareHeadingRadians(), drivenRobotRelativeSpeeds);
+    kinematics.toModuleStates(drivenRobotRelativeSpeeds, drivenModuleSpeeds, drivenModuleAngles);
     
-    boolean moving = false;
-    for (SwerveModuleState moduleState : kinematics.toSwerveModuleStates(fieldRelativeSpeeds)) if (Math.abs(moduleState.speedMetersPerSecond) > 0.0) moving = true;
-    for (SwerveModuleState moduleState : drivenModuleStates) if (Math.abs(moduleState.speedMetersPerSecond) > 0.0) moving = true;
+    // Any nonzero target speed turns at least one module, so the target needn't go through the kinematics
+    boolean moving =
+      fieldRelativeSpeeds.vxMetersPerSecond != 0.0 ||
+      fieldRelativeSpeeds.vyMetersPerSecond != 0.0 ||
+      fieldRelativeSpeeds.omegaRadiansPerSecond != 0.0;
+    for (double moduleSpeed : drivenModuleSpeeds) if (Math.abs(moduleSpeed) > 0.0) moving = true;
     // if (!parked) {
     //   for (SwerveModuleState moduleState : getMeasuredModuleStates()) if (Math.abs(moduleState.speedMetersPerSecond) > 0.05) moving = true;
     // }
@@ -469,17 +488,18 @@ public class SwerveDrive extends SubsystemBase {
 
     parkingDisabled = false;
     
-    driveModules(drivenModuleStates);
+    driveModules(drivenModuleSpeeds, drivenModuleAngles);
   }
   
   /**
    * Drives the swerve modules at the calculated speeds
-   * @param moduleStates The calculated speeds and directions for each module
+   * @param moduleSpeeds [meters / second] The calculated speed for each module
+   * @param moduleAngles [radians] The calculated direction for each module
    */
-  private void driveModules(SwerveModuleState[] moduleStates) {
+  private void driveModules(double[] moduleSpeeds, double[] moduleAngles) {
     // Drive the swerve modules at the calculated speeds
     for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
-      modules[i].setTargetState(moduleStates[i]);
+      modules[i].setTargetState(moduleSpeeds[i], moduleAngles[i]);
     }
   }
 
@@ -559,18 +579,18 @@ public class SwerveDrive extends SubsystemBase {
    * This creates an "X" pattern with the wheels which makes the robot very hard to move
    */
   private void parkModules() {
-    modules[0].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)));
-    modules[1].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(-45.0)));
-    modules[2].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(-45.0)));
-    modules[3].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)));
+    modules[0].setTargetState(0.0, Math.toRadians(45.0));
+    modules[1].setTargetState(0.0, Math.toRadians(-45.0));
+    modules[2].setTargetState(0.0, Math.toRadians(-45.0));
+    modules[3].setTargetState(0.0, Math.toRadians(45.0));
     parked = true;
   }
 
   private void parkForAlignment() {
-    modules[0].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(-45.0)));
-    modules[1].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)));
-    modules[2].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)));
-    modules[3].setTargetState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(-45.0)));
+    modules[0].setTargetState(0.0, Math.toRadians(-45.0));
+    modules[1].setTargetState(0.0, Math.toRadians(45.0));
+    modules[2].setTargetState(0.0, Math.toRadians(45.0));
+    modules[3].setTargetState(0.0, Math.toRadians(-45.0));
   }
 
   /**
@@ -578,7 +598,8 @@ public class SwerveDrive extends SubsystemBase {
    * @param pose Position to reset the odometer to
    */
   public void resetPose(Rotation2d heading, Pose2d pose, SwerveDriveWheelPositions wheelPositions) {
-    poseEstimator.resetPosition(heading, wheelPositions, pose);
+    odometry.resetPose(heading, pose, wheelPositions.positions);
+    publishState();
     alignmentController.setSetpoint(getHeading().getRadians());
   }
 
@@ -587,7 +608,8 @@ public class SwerveDrive extends SubsystemBase {
    * @param pose Position to reset the odometer to
    */
   public void resetPose(Pose2d pose) {
-    poseEstimator.resetPosition(getHeading(), getModulePositions(), pose);
+    odometry.resetPose(getHeading(), pose, getModulePositions());
+    publishState();
     alignmentController.setSetpoint(getHeading().getRadians());
   }
 
@@ -595,11 +617,15 @@ public class SwerveDrive extends SubsystemBase {
     return (parked || isAligning || RobotState.isDisabled()) && (Math.abs(getRotationalVelocity()) < 0.5);
   }
 
+  public double getMahalanobisDistanceSquared(double x, double y, double headingRadians, double timestampSeconds, double translationStdDev, double rotationStdDev) {
+    return odometry.getMahalanobisDistanceSquared(x, y, headingRadians, timestampSeconds, translationStdDev, rotationStdDev);
+  }
+
   /**
    * 
-   * @param visionMeasurement The robot position on the field from the apriltags
+   * @param measurements Every robot position on the field from the apriltags this loop
    */
-  public void addVisionMeasurement(Pose2d visionMeasurement, double timestamp, Matrix<N3,N1> visionMeasurementStdDevs) {
+  public void addVisionMeasurements(List<VisionMeasurement> measurements) {
 
     // System.out.println(visionMeasurement);
     // System.out.println(visionMeasurementStdDevs.get(0, 0));
@@ -608,8 +634,7 @@ public class SwerveDrive extends SubsystemBase {
 
 
     Rotation2d oldHeading = getHeading();
-    poseEstimator.setVisionMeasurementStdDevs(visionMeasurementStdDevs);
-    poseEstimator.addVisionMeasurement(visionMeasurement, timestamp);
+    odometry.addVisionMeasurements(measurements);
     Rotation2d newHeading = getHeading();
     // Logger.log("newHeading.minus(oldHeading)", newHeading.minus(oldHeading).getRadians());
     // Logger.log("alignmentController.getSetpoint()", alignmentController.getSetpoint());
@@ -626,27 +651,28 @@ public class SwerveDrive extends SubsystemBase {
     }
   }
 
-  public Translation2d getFieldVelocity() {
-    ChassisSpeeds fieldRelativeChassisSpeeds = ChassisSpeeds.fromRobotRelativeSpeeds(getMeasuredChassisSpeeds(), getHeading());
-    return new Translation2d(fieldRelativeChassisSpeeds.vxMetersPerSecond, fieldRelativeChassisSpeeds.vyMetersPerSecond);
+  /**
+   * @return Pose and measured speeds as of the last odometry update
+   */
+  public DriveState getState() {
+    return state;
   }
 
-  public double getRotationalVelocity() {
-    return getMeasuredChassisSpeeds().omegaRadiansPerSecond;
+  public Translation2d getFieldVelocity() {
+    return state.getFieldVelocity();
   }
 
-  /**
-   * @return Target chassis x, y, and rotational velocity (robot-relative)
-   */
-  private ChassisSpeeds getTargetChassisSpeeds() {
-    return kinematics.toChassisSpeeds(getTargetModuleStates());
+  public double getRotationalVelocity() {
+    return state.getOmega();
   }
 
   /**
-   * @return Measured chassis x velocity, y velocity, and rotational velocity (robot-relative)
+   * @return Measured chassis x velocity, y velocity, and rotational velocity (robot-relative). A new
+   * object every call, since PathPlanner keeps it.
    */
   private ChassisSpeeds getMeasuredChassisSpeeds() {
-    return kinematics.toChassisSpeeds(getMeasuredModuleStates());
+    DriveState state = this.state;
+    return new ChassisSpeeds(state.getVx(), state.getVy(), state.getOmega());
   }
 
   /**
@@ -667,28 +693,6 @@ public class SwerveDrive extends SubsystemBase {
     return positions;
   }
 
-  /**
-   * @return Target module states (speed and direction)
-   */
-  private SwerveModuleState[] getTargetModuleStates() {
-    SwerveModuleState[] targetStates = new SwerveModuleState[SWERVE_DRIVE.MODULE_COUNT];
-    for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
-      targetStates[i] = modules[i].getTargetState();
-    }
-    return targetStates;
-  }
-
-  /**
-   * @return Measured module states (speed and direction)
-   */
-  private SwerveModuleState[] getMeasuredModuleStates() {
-    SwerveModuleState[] measuredStates = new SwerveModuleState[SWERVE_DRIVE.MODULE_COUNT];
-    for (int i = 0; i < SWERVE_DRIVE.MODULE_COUNT; i++) {
-      measuredStates[i] = modules[i].getMeasuredState();
-    }
-    return measuredStates;
-  }
-  
   /**
    * @return Total current through all modules
    */
@@ -710,7 +714,8 @@ public class SwerveDrive extends SubsystemBase {
    * Resets gyro heading
    */
   public void resetGyroHeading(Rotation2d newHeading) {
-    gyroOffset = newHeading.minus(gyroHeading);
+    odometry.setGyroOffset(newHeading.minus(odometry.getGyroHeading()));
+    publishState();
     alignmentController.reset();
     alignmentController.setSetpoint(newHeading.getRadians());
   }
@@ -729,34 +734,36 @@ public class SwerveDrive extends SubsystemBase {
     return getHeading().plus(Rotation2d.fromDegrees(Constants.IS_BLUE_TEAM.get() ? 0.0 : 180.0));
   }
 
+  private double getAllianceAwareHeadingRadians() {
+    return getHeading().getRadians() + (Constants.IS_BLUE_TEAM.get() ? 0.0 : Math.PI);
+  }
+
   /**
    * @return Pose on the field from odometer data as a Pose2d
    */
   public Pose2d getPose() {
-    Pose2d estimatedPose = poseEstimator.getEstimatedPosition();
-    return estimatedPose;
+    return odometry.getPose();
   }
 
   public Pose2d getPose(double timestampSeconds) {
-    Pose2d estimatedPose = poseEstimator.getEstimatedPosition(timestampSeconds);
-    return estimatedPose;
+    return odometry.getPose(timestampSeconds);
   }
 
+  /**
+   * @return Pose the robot would stop at if it braked now
+   */
   public Pose2d getFuturePose() {
-    Translation2d futurePosition = getPose().getTranslation();
-    futurePosition = futurePosition.plus(getFieldVelocity().times(getFieldVelocity().getNorm()).div(2.0 * Constants.SWERVE_DRIVE.PHYSICS.MAX_LINEAR_ACCELERATION));
-    return new Pose2d(futurePosition, getPose().getRotation());
+    return state.getFuturePose();
   }
 
   public boolean underStage() {
+    DriveState state = this.state;
+    Translation2d position = state.getPose().getTranslation();
+    Translation2d futurePosition = state.getFuturePose().getTranslation();
     if (!RobotState.isAutonomous()) {
-      return MathUtils.isInsideTriangle(Field.BLUE_STAGE_CORNERS[0], Field.BLUE_STAGE_CORNERS[1], Field.BLUE_STAGE_CORNERS[2], getFuturePose().getTranslation()) ||
-             MathUtils.isInsideTriangle(Field.RED_STAGE_CORNERS[0], Field.RED_STAGE_CORNERS[1], Field.RED_STAGE_CORNERS[2], getFuturePose().getTranslation()) ||
-             MathUtils.isInsideTriangle(Field.BLUE_STAGE_CORNERS[0], Field.BLUE_STAGE_CORNERS[1], Field.BLUE_STAGE_CORNERS[2], getPose().getTranslation()) ||
-             MathUtils.isInsideTriangle(Field.RED_STAGE_CORNERS[0], Field.RED_STAGE_CORNERS[1], Field.RED_STAGE_CORNERS[2], getPose().getTranslation());
+      return FieldZones.isIn(futurePosition, FieldZones.STAGE) || FieldZones.isIn(position, FieldZones.STAGE);
     } else {
-      return MathUtils.isInsideTriangle(Field.BLUE_STAGE_CORNERS[0], Field.BLUE_STAGE_CORNERS[1], Field.BLUE_STAGE_CORNERS[2], getFuturePose().getTranslation()) ||
-             MathUtils.isInsideTriangle(Field.RED_STAGE_CORNERS[0], Field.RED_STAGE_CORNERS[1], Field.RED_STAGE_CORNERS[2], getFuturePose().getTranslation());
+      return FieldZones.isIn(futurePosition, FieldZones.STAGE);
     }
   }
 
@@ -764,7 +771,7 @@ public class SwerveDrive extends SubsystemBase {
    * @return Field2d object for SmartDashboard widget.
    */
   public static Field2d getField() {
-    return field;
+    return FieldPublisher.getField();
   }
 
   /**
@@ -794,11 +801,19 @@ public class SwerveDrive extends SubsystemBase {
    * @return A SwerveDriveKinematics object that models the swerve drive
   */
   public static SwerveDriveKinematics getKinematics() {
-    return new SwerveDriveKinematics(
+    return new SwerveDriveKinematics(getModuleLocations());
+  }
+
+  /**
+   * @return Position of each module relative to the center of the robot
+   */
+  public static Translation2d[] getModuleLocations() {
+    return new Translation2d[] {
       new Translation2d( SWERVE_DRIVE.TRACKWIDTH / 2.0, SWERVE_DRIVE.WHEELBASE  / 2.0), 
       new Translation2d( SWERVE_DRIVE.TRACKWIDTH / 2.0, -SWERVE_DRIVE.WHEELBASE / 2.0), 
       new Translation2d(-SWERVE_DRIVE.TRACKWIDTH / 2.0, SWERVE_DRIVE.WHEELBASE  / 2.0), 
-      new Translation2d(-SWERVE_DRIVE.TRACKWIDTH / 2.0, -SWERVE_DRIVE.WHEELBASE / 2.0));
+      new Translation2d(-SWERVE_DRIVE.TRACKWIDTH / 2.0, -SWERVE_DRIVE.WHEELBASE / 2.0)
+    };
   }
 
   public static void printChoreoConfig() {
@@ -851,10 +866,10 @@ public class SwerveDrive extends SubsystemBase {
 
     ChoreoTrajectory trajectory = Choreo.getTrajectory(pathName);
 
-    field.getObject("traj").setPoses(
+    FieldPublisher.setPoses("traj",
       trajectory.getInitialPose(), trajectory.getFinalPose()
     );
-    field.getObject("trajPoses").setPoses(
+    FieldPublisher.setPoses("trajPoses",
       trajectory.getPoses()
     );
 
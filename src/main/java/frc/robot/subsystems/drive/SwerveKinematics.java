@@ -0,0 +1,235 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+
+/**
+ * Same math as {@link SwerveDriveKinematics} (rotating about the robot's center) and
+ * {@link ChassisSpeeds}, on primitives and caller-owned buffers so the drive loop doesn't allocate.
+ * Module states are a pair of arrays: speeds in meters per second and angles in radians. Results
+ * match WPILib's to rounding.
+ */
+public class SwerveKinematics {
+  private final int moduleCount;
+  private final double[] moduleX;
+  private final double[] moduleY;
+  // Pseudo-inverse of the inverse kinematics matrix, 3 x 2n, for forward kinematics
+  private final double[][] forwardKinematics;
+  // Angle each module was last pointed, held when the robot is told to stop
+  private final double[] moduleAngles;
+
+  /**
+   * @param moduleLocations Position of each module relative to the robot's center
+   */
+  public SwerveKinematics(Translation2d... moduleLocations) {
+    moduleCount = moduleLocations.length;
+    moduleX = new double[moduleCount];
+    moduleY = new double[moduleCount];
+    moduleAngles = new double[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      moduleX[i] = moduleLocations[i].getX();
+      moduleY[i] = moduleLocations[i].getY();
+    }
+    forwardKinematics = pseudoInverse(moduleX, moduleY);
+  }
+
+  /**
+   * Rows of the inverse kinematics matrix are [1, 0, -y] and [0, 1, x] for each module. Its
+   * pseudo-inverse is (AᵀA)⁻¹Aᵀ, where AᵀA is only 3 x 3.
+   */
+  private static double[][] pseudoInverse(double[] x, double[] y) {
+    int n = x.length;
+    double sumX = 0.0, sumY = 0.0, sumSquares = 0.0;
+    for (int i = 0; i < n; i++) {
+      sumX += x[i];
+      sumY += y[i];
+      sumSquares += x[i] * x[i] + y[i] * y[i];
+    }
+    double[][] ata = {
+      { n, 0.0, -sumY },
+      { 0.0, n, sumX },
+      { -sumY, sumX, sumSquares },
+    };
+    double[][] inverse = invert3x3(ata);
+
+    double[][] result = new double[3][2 * n];
+    for (int i = 0; i < n; i++) {
+      for (int row = 0; row < 3; row++) {
+        result[row][2 * i] = inverse[row][0] - inverse[row][2] * y[i];
+        result[row][2 * i + 1] = inverse[row][1] + inverse[row][2] * x[i];
+      }
+    }
+    return result;
+  }
+
+  private static double[][] invert3x3(double[][] m) {
+    double c00 = m[1][1] * m[2][2] - m[1][2] * m[2][1];
+    double c01 = m[1][2] * m[2][0] - m[1][0] * m[2][2];
+    double c02 = m[1][0] * m[2][1] - m[1][1] * m[2][0];
+    double determinant = m[0][0] * c00 + m[0][1] * c01 + m[0][2] * c02;
+    return new double[][] {
+      { c00 / determinant, (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / determinant, (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / determinant },
+      { c01 / determinant, (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / determinant, (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / determinant },
+      { c02 / determinant, (m[0][1] * m[2][0] - m[0][0] * m[2][1]) / determinant, (m[0][0] * m[1][1] - m[0][1] * m[1][0]) / determinant },
+    };
+  }
+
+  public int getModuleCount() {
+    return moduleCount;
+  }
+
+  /**
+   * Inverse kinematics, like {@link SwerveDriveKinematics#toSwerveModuleStates(ChassisSpeeds)}.
+   * When all speeds are zero, the modules keep the angles from the last call.
+   * @param speeds Robot-relative speeds
+   * @param moduleSpeeds [meters / second] Filled with each module's speed
+   * @param moduleAngles [radians] Filled with each module's angle
+   */
+  public void toModuleStates(ChassisSpeeds speeds, double[] moduleSpeeds, double[] moduleAngles) {
+    double vx = speeds.vxMetersPerSecond;
+    double vy = speeds.vyMetersPerSecond;
+    double omega = speeds.omegaRadiansPerSecond;
+    if (vx == 0.0 && vy == 0.0 && omega == 0.0) {
+      for (int i = 0; i < moduleCount; i++) {
+        moduleSpeeds[i] = 0.0;
+        moduleAngles[i] = this.moduleAngles[i];
+      }
+      return;
+    }
+
+    for (int i = 0; i < moduleCount; i++) {
+      double x = vx - omega * moduleY[i];
+      double y = vy + omega * moduleX[i];
+      double speed = Math.hypot(x, y);
+      // Rotation2d(x, y) treats a near-zero vector as 0 radians
+      double angle = speed > 1e-6 ? Math.atan2(y, x) : 0.0;
+      moduleSpeeds[i] = speed;
+      moduleAngles[i] = angle;
+      this.moduleAngles[i] = angle;
+    }
+  }
+
+  /**
+   * Forward kinematics, like {@link SwerveDriveKinematics#toChassisSpeeds}
+   * @param moduleSpeeds [meters / second] Each module's speed
+   * @param moduleAngles [radians] Each module's angle
+   * @param speeds Set to the robot-relative speeds
+   */
+  public void toChassisSpeeds(double[] moduleSpeeds, double[] moduleAngles, ChassisSpeeds speeds) {
+    double vx = 0.0, vy = 0.0, omega = 0.0;
+    for (int i = 0; i < moduleCount; i++) {
+      double x = moduleSpeeds[i] * Math.cos(moduleAngles[i]);
+      double y = moduleSpeeds[i] * Math.sin(moduleAngles[i]);
+      vx += forwardKinematics[0][2 * i] * x + forwardKinematics[0][2 * i + 1] * y;
+      vy += forwardKinematics[1][2 * i] * x + forwardKinematics[1][2 * i + 1] * y;
+      omega += forwardKinematics[2][2 * i] * x + forwardKinematics[2][2 * i + 1] * y;
+    }
+    speeds.vxMetersPerSecond = vx;
+    speeds.vyMetersPerSecond = vy;
+    speeds.omegaRadiansPerSecond = omega;
+  }
+
+  /**
+   * Scales speeds down so no module goes faster than it can, like
+   * {@link SwerveDriveKinematics#desaturateWheelSpeeds(edu.wpi.first.math.kinematics.SwerveModuleState[], ChassisSpeeds, double, double, double)}
+   * followed by forward kinematics. Scaling every module's speed by the same factor scales the
+   * chassis speeds by it, so only the factor needs the module speeds.
+   * @param speeds Speeds to desaturate, in place
+   * @param maxModuleSpeed [meters / second] Top speed of a module
+   * @param maxTranslationalSpeed [meters / second] Top speed of the robot
+   * @param maxRotationalSpeed [radians / second] Top rotational speed of the robot
+   */
+  public void desaturate(ChassisSpeeds speeds, double maxModuleSpeed, double maxTranslationalSpeed, double maxRotationalSpeed) {
+    double vx = speeds.vxMetersPerSecond;
+    double vy = speeds.vyMetersPerSecond;
+    double omega = speeds.omegaRadiansPerSecond;
+
+    double realMaxSpeed = 0.0;
+    for (int i = 0; i < moduleCount; i++) {
+      realMaxSpeed = Math.max(realMaxSpeed, Math.hypot(vx - omega * moduleY[i], vy + omega * moduleX[i]));
+    }
+    if (maxTranslationalSpeed == 0.0 || maxRotationalSpeed == 0.0 || realMaxSpeed == 0.0) return;
+
+    double translationalK = Math.hypot(vx, vy) / maxTranslationalSpeed;
+    double rotationalK = Math.abs(omega) / maxRotationalSpeed;
+    double k = Math.max(translationalK, rotationalK);
+    double scale = Math.min(k * maxModuleSpeed / realMaxSpeed, 1.0);
+
+    speeds.vxMetersPerSecond = vx * scale;
+    speeds.vyMetersPerSecond = vy * scale;
+    speeds.omegaRadiansPerSecond = omega * scale;
+  }
+
+  /**
+   * Converts field-relative speeds to robot-relative, like
+   * {@link ChassisSpeeds#fromFieldRelativeSpeeds(ChassisSpeeds, edu.wpi.first.math.geometry.Rotation2d)}
+   * @param speeds Field-relative speeds
+   * @param headingRadians Robot heading
+   * @param result Set to the robot-relative speeds. May be the same object as speeds.
+   */
+  public static void fromFieldRelative(ChassisSpeeds speeds, double headingRadians, ChassisSpeeds result) {
+    rotate(speeds, -headingRadians, result);
+  }
+
+  /**
+   * Converts robot-relative speeds to field-relative, like
+   * {@link ChassisSpeeds#fromRobotRelativeSpeeds(ChassisSpeeds, edu.wpi.first.math.geometry.Rotation2d)}
+   * @param speeds Robot-relative speeds
+   * @param headingRadians Robot heading
+   * @param result Set to the field-relative speeds. May be the same object as speeds.
+   */
+  public static void fromRobotRelative(ChassisSpeeds speeds, double headingRadians, ChassisSpeeds result) {
+    rotate(speeds, headingRadians, result);
+  }
+
+  private static void rotate(ChassisSpeeds speeds, double radians, ChassisSpeeds result) {
+    double cos = Math.cos(radians);
+    double sin = Math.sin(radians);
+    double vx = speeds.vxMetersPerSecond;
+    double vy = speeds.vyMetersPerSecond;
+    result.vxMetersPerSecond = vx * cos - vy * sin;
+    result.vyMetersPerSecond = vx * sin + vy * cos;
+    result.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+  }
+
+  /**
+   * Corrects speeds for the skew from translating and rotating at the same time over a step, like
+   * {@link ChassisSpeeds#discretize(ChassisSpeeds, double)}: the twist that reaches the pose the
+   * continuous speeds would, over dt.
+   * @param speeds Speeds to discretize, in place
+   * @param dt [seconds] Length of the step
+   */
+  public static void discretize(ChassisSpeeds speeds, double dt) {
+    double dx = speeds.vxMetersPerSecond * dt;
+    double dy = speeds.vyMetersPerSecond * dt;
+
+    // Pose2d.log of the pose the step would reach, starting from the origin
+    double cos = Math.cos(speeds.omegaRadiansPerSecond * dt);
+    double sin = Math.sin(speeds.omegaRadiansPerSecond * dt);
+    double norm = Math.hypot(cos, sin);
+    cos /= norm;
+    sin /= norm;
+    double dtheta = Math.atan2(sin, cos);
+    double halfDtheta = dtheta / 2.0;
+    double cosMinusOne = cos - 1.0;
+    double halfThetaByTanOfHalfDtheta;
+    if (Math.abs(cosMinusOne) < 1e-9) {
+      halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+    } else {
+      halfThetaByTanOfHalfDtheta = -(halfDtheta * sin) / cosMinusOne;
+    }
+
+    double magnitude = Math.hypot(halfThetaByTanOfHalfDtheta, halfDtheta);
+    double rotationCos = 1.0;
+    double rotationSin = 0.0;
+    if (magnitude > 1e-6) {
+      rotationCos = halfThetaByTanOfHalfDtheta / magnitude;
+      rotationSin = -halfDtheta / magnitude;
+    }
+
+    speeds.vxMetersPerSecond = (dx * rotationCos - dy * rotationSin) * magnitude / dt;
+    speeds.vyMetersPerSecond = (dx * rotationSin + dy * rotationCos) * magnitude / dt;
+    speeds.omegaRadiansPerSecond = dtheta / dt;
+  }
+}
@@ -11,6 +11,7 @@ import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
 import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.MagnetSensorConfigs;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.signals.AbsoluteSensorRangeValue;
@@ -19,6 +20,7 @@ import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -41,6 +43,7 @@ import frc.robot.Constants.Constants.SWERVE_DRIVE.PHYSICS;
 import frc.robot.Constants.Constants.SWERVE_DRIVE.STEER_MOTOR_PROFILE;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
+import frc.robot.util.software.Logging.LoopProfiler;
 import frc.robot.util.software.MathUtils.SwerveMath;
 import frc.robot.util.software.Logging.Logger;
 import frc.robot.util.software.Logging.StatusChecks;
@@ -49,14 +52,17 @@ public class SwerveModule extends SubsystemBase {
   private CANSparkMax driveMotor, steerMotor;
   private RelativeEncoder driveEncoder, steerEncoder;
   private CANcoder absoluteSteerEncoder;
+  private StatusSignal<Double> odometrySteerPosition;
   private SparkPIDController drivePID, steerPID;
-  private SwerveModuleState targetState = new SwerveModuleState();
+  // Target state as primitives, so driving the module doesn't allocate
+  private double targetSpeed = 0.0;
+  private double targetRadians = 0.0;
   private String name;
   private int corner;
-  private Rotation2d absoluteSteerDirection = new Rotation2d();
+  private double absoluteSteerRadians = 0.0;
   private double driveVelocity = 0.0;
   private double drivePosition = 0.0;
-  private Rotation2d relativeSteerDirection = new Rotation2d();
+  private double relativeSteerRadians = 0.0;
 
   private boolean isCalibrating = false;
   
@@ -101,8 +107,11 @@ public class SwerveModule extends SubsystemBase {
     MagnetSensorConfigs magConfig = new MagnetSensorConfigs();
     magConfig.withAbsoluteSensorRange(AbsoluteSensorRangeValue.Signed_PlusMinusHalf);
     magConfig.withMagnetOffset(encoderOffset);
-    BaseStatusSignal.setUpdateFrequencyForAll(50, absoluteSteerEncoder.getAbsolutePosition(), absoluteSteerEncoder.getFaultField(), absoluteSteerEncoder.getVersion());
+    BaseStatusSignal.setUpdateFrequencyForAll(50, absoluteSteerEncoder.getFaultField(), absoluteSteerEncoder.getVersion());
+    BaseStatusSignal.setUpdateFrequencyForAll(SWERVE_DRIVE.ODOMETRY_FREQUENCY, absoluteSteerEncoder.getAbsolutePosition());
     absoluteSteerEncoder.optimizeBusUtilization();
+    // The odometry thread refreshes its own copy, so it never races the main thread's
+    odometrySteerPosition = absoluteSteerEncoder.getAbsolutePosition().clone();
 
     SparkMaxUtil.configureAndLog(this, driveMotor, false, CANSparkMax.IdleMode.kBrake, PHYSICS.SLIPLESS_CURRENT_LIMIT, PHYSICS.SLIPLESS_CURRENT_LIMIT);
     SparkMaxUtil.configureAndLog(this, steerMotor, true, CANSparkMax.IdleMode.kCoast);
@@ -119,12 +128,13 @@ public class SwerveModule extends SubsystemBase {
     
     SparkMaxUtil.configureCANStatusFrames(driveMotor, true, true);
     SparkMaxUtil.configureCANStatusFrames(steerMotor, false, true);
+    SparkMaxUtil.configurePositionStatusFrame(driveMotor, SWERVE_DRIVE.ODOMETRY_FREQUENCY);
 
     seedSteerEncoder();
 
     String logPath = "module" + name + "/";
-    Logger.autoLog(this, logPath + "relativeSteerDirection",           () -> relativeSteerDirection.getDegrees());
-    Logger.autoLog(this, logPath + "absoluteSteerDirection",        () -> absoluteSteerDirection.getDegrees());
+    Logger.autoLog(this, logPath + "relativeSteerDirection",           () -> Math.toDegrees(relativeSteerRadians));
+    Logger.autoLog(this, logPath + "absoluteSteerDirection",        () -> Math.toDegrees(absoluteSteerRadians));
 
     StatusChecks.addCheck(this, name + "canCoderHasFaults", () -> absoluteSteerEncoder.getFaultField().getValue() == 0);
     StatusChecks.addCheck(this, name + "canCoderIsConnected", () -> absoluteSteerEncoder.getVersion().getValue() != 0);
@@ -132,26 +142,30 @@ public class SwerveModule extends SubsystemBase {
 
 
   public void periodic() {
-    relativeSteerDirection = Rotation2d.fromRadians(steerEncoder.getPosition());
-    absoluteSteerDirection = Rotation2d.fromRotations(absoluteSteerEncoder.getAbsolutePosition().getValue());
+    LoopProfiler.enter(this);
+    relativeSteerRadians = steerEncoder.getPosition();
+    absoluteSteerRadians = absoluteSteerEncoder.getAbsolutePosition().getValue() * 2.0 * Math.PI;
     driveVelocity = driveEncoder.getVelocity();
     drivePosition = driveEncoder.getPosition();
 
     if (!ENABLED_SYSTEMS.ENABLE_DRIVE) return;
     if (isCalibrating) return;
 
-    drive(targetState);
+    drive(targetSpeed, targetRadians);
 
     if (RobotContainer.getVoltage() < VOLTAGE_LADDER.SWERVE_DRIVE) stop();
 
   }
   
-  public void drive(SwerveModuleState state) {
-    double speedMetersPerSecond = state.speedMetersPerSecond;
-    double radians = state.angle.getRadians();
+  /**
+   * @param targetSpeed [meters / second] Drive speed
+   * @param radians Steer direction
+   */
+  public void drive(double targetSpeed, double radians) {
+    double speedMetersPerSecond = targetSpeed;
     
     if (SWERVE_DRIVE.DO_ANGLE_ERROR_SPEED_REDUCTION) {
-      speedMetersPerSecond *= Math.cos(SwerveMath.angleDistance(radians, getMeasuredState().angle.getRadians()));
+      speedMetersPerSecond *= Math.cos(SwerveMath.angleDistance(radians, getMeasuredRadians()));
     }
     
     drivePID.setReference(
@@ -166,17 +180,33 @@ public class SwerveModule extends SubsystemBase {
       CANSparkMax.ControlType.kPosition
     );
 
-    if (state.speedMetersPerSecond == 0 && Math.abs(getRelativeSteerDirection().minus(getAbsoluteSteerDirection()).getDegrees()) > 0.5) {
+    if (targetSpeed == 0 && SwerveMath.angleDistance(relativeSteerRadians, absoluteSteerRadians) > Math.toRadians(0.5)) {
       seedSteerEncoder();
     }
   }
   
   public void setTargetState(SwerveModuleState state) {
-    targetState = SwerveModuleState.optimize(state, getMeasuredState().angle);
+    setTargetState(state.speedMetersPerSecond, state.angle.getRadians());
+  }
+
+  /**
+   * Sets the target state without allocating one. Like {@link SwerveModuleState#optimize}, the
+   * module drives backwards instead of turning more than 90 degrees.
+   * @param speed [meters / second] Drive speed
+   * @param radians Steer direction
+   */
+  public void setTargetState(double speed, double radians) {
+    if (SwerveMath.shouldReverse(radians, getMeasuredRadians())) {
+      speed = -speed;
+      radians = MathUtil.angleModulus(radians + Math.PI);
+    }
+    targetSpeed = speed;
+    targetRadians = radians;
   }
   
   public void stop() {
-    targetState = new SwerveModuleState(0.0, getMeasuredState().angle);
+    targetSpeed = 0.0;
+    targetRadians = getMeasuredRadians();
     // steerMotor.stopMotor();
     // driveMotor.stopMotor();
   }
@@ -187,27 +217,83 @@ public class SwerveModule extends SubsystemBase {
    * Also the built-in SparkMaxPIDControllers require a compatible encoder to run the faster 1kHz closed loop 
    */
   public void seedSteerEncoder() {
-    steerEncoder.setPosition(getAbsoluteSteerDirection().getRadians());
+    steerEncoder.setPosition(absoluteSteerRadians);
   }
 
   public Rotation2d getRelativeSteerDirection() {
-    return relativeSteerDirection;
-  }
-  
-  private Rotation2d getAbsoluteSteerDirection() {
-    return absoluteSteerDirection;
+    return Rotation2d.fromRadians(relativeSteerRadians);
   }
 
   public SwerveModuleState getTargetState() {
-    return targetState;
+    return new SwerveModuleState(targetSpeed, Rotation2d.fromRadians(targetRadians));
+  }
+
+  /**
+   * @return [meters / second] Target drive speed, without allocating a SwerveModuleState
+   */
+  public double getTargetSpeed() {
+    return targetSpeed;
+  }
+
+  /**
+   * @return Target steer direction in radians, without allocating a SwerveModuleState
+   */
+  public double getTargetRadians() {
+    return targetRadians;
   }
   
   public SwerveModuleState getMeasuredState() {
-    return new SwerveModuleState(driveVelocity, getAbsoluteSteerDirection());
+    return new SwerveModuleState(getMeasuredVelocity(), getMeasuredAngle());
   }
 
   public SwerveModulePosition getModulePosition() {
-    return new SwerveModulePosition(drivePosition, getMeasuredState().angle);
+    return new SwerveModulePosition(getDrivePosition(), getMeasuredAngle());
+  }
+
+  /**
+   * @return Measured drive velocity in m/s, without allocating a SwerveModuleState
+   */
+  public double getMeasuredVelocity() {
+    return driveVelocity;
+  }
+
+  /**
+   * @return Measured steer direction, without allocating a SwerveModuleState
+   */
+  public Rotation2d getMeasuredAngle() {
+    return Rotation2d.fromRadians(getMeasuredRadians());
+  }
+
+  /**
+   * @return Measured steer direction in radians, without allocating anything
+   */
+  public double getMeasuredRadians() {
+    return absoluteSteerRadians;
+  }
+
+  /**
+   * @return Distance driven by the wheel in meters
+   */
+  public double getDrivePosition() {
+    return drivePosition;
+  }
+
+  /**
+   * Reads the drive position straight from the motor controller instead of this loop's cached
+   * value. Called from the odometry thread.
+   * @return Distance driven by the wheel in meters
+   */
+  public double sampleDrivePosition() {
+    return driveEncoder.getPosition();
+  }
+
+  /**
+   * Reads the steer direction straight from the CANcoder instead of this loop's cached value.
+   * Called from the odometry thread.
+   * @return [radians] Steer direction
+   */
+  public double sampleSteerRadians() {
+    return odometrySteerPosition.refresh().getValue() * 2.0 * Math.PI;
   }
 
   public static double calcWheelVelocity(double power) {
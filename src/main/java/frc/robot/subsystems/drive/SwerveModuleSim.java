@@ -7,9 +7,6 @@ package frc.robot.subsystems.drive;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import frc.robot.Constants.Constants.NEO;
@@ -69,17 +66,16 @@ public class SwerveModuleSim extends SwerveModule {
   }
 
   @Override
-  public void drive(SwerveModuleState state) {
-    double speedMetersPerSecond = state.speedMetersPerSecond;
-    double radians = state.angle.getRadians();
+  public void drive(double targetSpeed, double radians) {
+    double speedMetersPerSecond = targetSpeed;
 
     if (SWERVE_DRIVE.DO_ANGLE_ERROR_SPEED_REDUCTION) {
-      speedMetersPerSecond *= Math.cos(SwerveMath.angleDistance(getMeasuredState().angle.getRadians(), getMeasuredState().angle.getRadians()));
+      speedMetersPerSecond *= Math.cos(SwerveMath.angleDistance(getMeasuredRadians(), getMeasuredRadians()));
     }
     
     for (int i = 0; i < 20; i++) {
-      double driveVolts = driveFF.calculate(speedMetersPerSecond, 0.0) + 12.0 * drivePID.calculate(getMeasuredState().speedMetersPerSecond, speedMetersPerSecond);
-      double steerVolts = 12.0 * steerPID.calculate(getMeasuredState().angle.getRadians(), radians);
+      double driveVolts = driveFF.calculate(speedMetersPerSecond, 0.0) + 12.0 * drivePID.calculate(getMeasuredVelocity(), speedMetersPerSecond);
+      double steerVolts = 12.0 * steerPID.calculate(steerRadians, radians);
       
       driveVoltRamp += (MathUtil.clamp(driveVolts - driveVoltRamp, -12.0 / (SWERVE_DRIVE.PHYSICS.MAX_LINEAR_VELOCITY / SWERVE_DRIVE.PHYSICS.MAX_LINEAR_ACCELERATION) / 1000.0, 12.0 / (SWERVE_DRIVE.PHYSICS.MAX_LINEAR_VELOCITY / SWERVE_DRIVE.PHYSICS.MAX_LINEAR_ACCELERATION) / 1000.0));
       driveVolts = driveVoltRamp;
@@ -93,7 +89,7 @@ public class SwerveModuleSim extends SwerveModule {
       driveMotor.update(1.0 / 1000.0);
       steerMotor.update(1.0 / 1000.0);
 
-      drivePosition += getMeasuredState().speedMetersPerSecond * (1.0 / 1000.0);
+      drivePosition += getMeasuredVelocity() * (1.0 / 1000.0);
       steerRadians += steerMotor.getAngularVelocityRadPerSec() * (1.0 / 1000.0);
       steerRadians = MathUtil.angleModulus(steerRadians);
     }
@@ -113,19 +109,34 @@ public class SwerveModuleSim extends SwerveModule {
   
   @Override
   public void stop() {
-    super.setTargetState(new SwerveModuleState(0.0, getMeasuredState().angle));
+    super.setTargetState(0.0, getMeasuredRadians());
     steerMotor.setInputVoltage(0.0);
     driveMotor.setInputVoltage(0.0);
   }
 
   @Override
-  public SwerveModuleState getMeasuredState() {
-    return new SwerveModuleState(driveMotor.getAngularVelocityRadPerSec() * SWERVE_DRIVE.WHEEL_RADIUS, Rotation2d.fromRadians(steerRadians));
+  public double getMeasuredVelocity() {
+    return driveMotor.getAngularVelocityRadPerSec() * SWERVE_DRIVE.WHEEL_RADIUS;
   }
 
   @Override
-  public SwerveModulePosition getModulePosition() {
-    return new SwerveModulePosition(drivePosition, getMeasuredState().angle);
+  public double sampleDrivePosition() {
+    return drivePosition;
+  }
+
+  @Override
+  public double sampleSteerRadians() {
+    return steerRadians;
+  }
+
+  @Override
+  public double getMeasuredRadians() {
+    return steerRadians;
+  }
+
+  @Override
+  public double getDrivePosition() {
+    return drivePosition;
   }
 
   public static double wheelMOI(double radius, double mass) {
@@ -0,0 +1,201 @@
+package frc.robot.subsystems.drive;
+
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+import frc.robot.subsystems.vision.AprilTags;
+import frc.robot.util.software.CustomPoseEstimator.VisionMeasurement;
+import frc.robot.util.software.CustomSwerveDrivePoseEstimator;
+import frc.robot.util.software.Replay.ReplayRecorder;
+
+/**
+ * Wheel and gyro odometry fused with vision measurements, without touching any hardware. The swerve
+ * drive feeds it sensor readings every loop, and log replay feeds it recorded ones, so both run the
+ * same estimator code. Every input is passed to the {@link ReplayRecorder} when recording is on.
+ * Updates take the sensor readings as primitives and don't allocate, since they run once per
+ * odometry sample.
+ */
+public class SwerveOdometry implements AprilTags.VisionConsumer {
+  public static final Matrix<N3, N1> STATE_STD_DEVS = VecBuilder.fill(0.05, 0.05, Units.degreesToRadians(2));
+  public static final Matrix<N3, N1> VISION_STD_DEVS = VecBuilder.fill(1.0, 1.0, Units.degreesToRadians(30));
+
+  private final SwerveKinematics kinematics;
+  private final CustomSwerveDrivePoseEstimator poseEstimator;
+  private final boolean record;
+  // The gyro is ignored in simulation, where heading comes from the wheels instead
+  private final boolean useGyroHeading;
+  // [radians]
+  private double gyroHeading = 0.0;
+  private double gyroOffset;
+  private boolean gyroConnected = false;
+  // Latest module positions
+  private final double[] drivePositions;
+  private final double[] steerRadians;
+  // Scratch space for the wheels' estimate of the heading change
+  private final double[] driveDeltas;
+  private final ChassisSpeeds wheelTwist = new ChassisSpeeds();
+  // State before the first update of the loop, to go back to if the estimate blows up
+  private Pose2d poseBefore;
+  private double headingBefore;
+  private final double[] drivePositionsBefore;
+  private final double[] steerRadiansBefore;
+  // Updates since the last validate()
+  private int loopSamples = 0;
+
+  /**
+   * @param moduleLocations Position of each module relative to the robot's center
+   * @param startingPose Pose to start the estimate at
+   * @param modulePositions Current module positions
+   * @param useGyroHeading Whether to trust the gyro's heading when it's connected
+   * @param stateStdDevs Standard deviations of the wheel odometry (x, y, heading)
+   * @param record Whether to record every input for log replay
+   */
+  public SwerveOdometry(Translation2d[] moduleLocations, Pose2d startingPose, SwerveModulePosition[] modulePositions, boolean useGyroHeading, Matrix<N3, N1> stateStdDevs, boolean record) {
+    this.useGyroHeading = useGyroHeading;
+    this.record = record;
+    if (record) ReplayRecorder.recordStart(moduleLocations, startingPose, modulePositions, useGyroHeading);
+
+    kinematics = new SwerveKinematics(moduleLocations);
+    poseEstimator = new CustomSwerveDrivePoseEstimator(
+      new SwerveDriveKinematics(moduleLocations),
+      startingPose.getRotation(),
+      modulePositions,
+      startingPose,
+      stateStdDevs,
+      VISION_STD_DEVS
+    );
+    gyroOffset = startingPose.getRotation().getRadians();
+
+    int modules = modulePositions.length;
+    drivePositions = new double[modules];
+    steerRadians = new double[modules];
+    driveDeltas = new double[modules];
+    drivePositionsBefore = new double[modules];
+    steerRadiansBefore = new double[modules];
+    for (int i = 0; i < modules; i++) {
+      drivePositions[i] = modulePositions[i].distanceMeters;
+      steerRadians[i] = modulePositions[i].angle.getRadians();
+    }
+    saveLoopStart();
+  }
+
+  /**
+   * Updates the estimate from the wheels and gyro. May be called several times per loop, once per
+   * sample from the odometry thread. Vision measurements for this loop can be added afterwards, and
+   * then {@link #validate()} should be called.
+   * @param timestamp Current time in seconds, on the FPGA clock
+   * @param drivePositions [meters] Distance each module has driven. Only read during the call.
+   * @param steerRadians [radians] Angle of each module. Only read during the call.
+   * @param gyroConnected Whether the gyro is connected and done calibrating
+   * @param gyroRadians Gyro heading, ignored if the gyro isn't connected
+   */
+  public void update(double timestamp, double[] drivePositions, double[] steerRadians, boolean gyroConnected, double gyroRadians) {
+    if (record) ReplayRecorder.recordOdometry(timestamp, drivePositions, steerRadians, gyroConnected, gyroRadians);
+    if (loopSamples == 0) saveLoopStart();
+    loopSamples++;
+
+    // Heading change the wheels measured, the same as the rotation of the odometry twist
+    for (int i = 0; i < driveDeltas.length; i++) {
+      driveDeltas[i] = drivePositions[i] - this.drivePositions[i];
+    }
+    kinematics.toChassisSpeeds(driveDeltas, steerRadians, wheelTwist);
+    System.arraycopy(drivePositions, 0, this.drivePositions, 0, this.drivePositions.length);
+    System.arraycopy(steerRadians, 0, this.steerRadians, 0, this.steerRadians.length);
+
+    if (!this.gyroConnected && gyroConnected) {
+      gyroOffset = MathUtil.angleModulus(gyroHeading - gyroRadians);
+    }
+    this.gyroConnected = gyroConnected;
+
+    if (gyroConnected && useGyroHeading) {
+      gyroHeading = gyroRadians;
+    } else {
+      gyroHeading = MathUtil.angleModulus(gyroHeading + wheelTwist.omegaRadiansPerSecond);
+    }
+
+    poseEstimator.updateWithTime(timestamp, gyroHeading + gyroOffset, this.drivePositions, this.steerRadians);
+  }
+
+  private void saveLoopStart() {
+    poseBefore = getPose();
+    headingBefore = gyroHeading + gyroOffset;
+    System.arraycopy(drivePositions, 0, drivePositionsBefore, 0, drivePositions.length);
+    System.arraycopy(steerRadians, 0, steerRadiansBefore, 0, steerRadians.length);
+  }
+
+  /**
+   * Finishes a loop's update. If the estimate has blown up (NaN, infinite or far off the field), it
+   * is reset to where it was before the loop.
+   * @return Whether the estimate was valid
+   */
+  public boolean validate() {
+    if (record) ReplayRecorder.recordLoop(loopSamples);
+    if (loopSamples == 0) return true;
+    loopSamples = 0;
+
+    double magnitude = getPose().getTranslation().getNorm();
+    if (magnitude > 1000 || Double.isNaN(magnitude) || Double.isInfinite(magnitude)) {
+      poseEstimator.resetPosition(headingBefore, drivePositionsBefore, steerRadiansBefore, poseBefore);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Resets the estimate to a pose
+   * @param gyroAngle Heading passed to the estimator with the reset
+   * @param pose Pose to reset to
+   * @param modulePositions Module positions at the time of the reset
+   */
+  public void resetPose(Rotation2d gyroAngle, Pose2d pose, SwerveModulePosition[] modulePositions) {
+    if (record) ReplayRecorder.recordResetPose(gyroAngle, pose, modulePositions);
+    poseEstimator.resetPosition(gyroAngle, modulePositions, pose);
+  }
+
+  public void setGyroOffset(Rotation2d offset) {
+    if (record) ReplayRecorder.recordGyroOffset(offset);
+    gyroOffset = offset.getRadians();
+  }
+
+  public Rotation2d getGyroOffset() {
+    return new Rotation2d(gyroOffset);
+  }
+
+  /**
+   * @return Gyro heading (or the wheels' estimate of it), without the offset applied
+   */
+  public Rotation2d getGyroHeading() {
+    return new Rotation2d(gyroHeading);
+  }
+
+  @Override
+  public Pose2d getPose() {
+    return poseEstimator.getEstimatedPosition();
+  }
+
+  @Override
+  public Pose2d getPose(double timestampSeconds) {
+    return poseEstimator.getEstimatedPosition(timestampSeconds);
+  }
+
+  @Override
+  public double getMahalanobisDistanceSquared(double x, double y, double headingRadians, double timestampSeconds, double translationStdDev, double rotationStdDev) {
+    return poseEstimator.getMahalanobisDistanceSquared(x, y, headingRadians, timestampSeconds, translationStdDev, translationStdDev, rotationStdDev);
+  }
+
+  @Override
+  public void addVisionMeasurements(List<VisionMeasurement> measurements) {
+    poseEstimator.addVisionMeasurements(measurements);
+  }
+}
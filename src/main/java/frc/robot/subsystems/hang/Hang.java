@@ -21,6 +21,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.subsystems.drive.SwerveDrive;
 import frc.robot.util.hardware.SparkMaxUtil;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class Hang extends SubsystemBase {
     private CANSparkMax rightMotor;
@@ -64,6 +65,7 @@ public class Hang extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_HANG) return;
 
     if (RobotState.isDisabled()) {
@@ -13,6 +13,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 
 
@@ -47,6 +48,7 @@ public class Intake extends SubsystemBase {
   
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_INTAKE) return;
     if (RobotState.isDisabled()) {
       state = State.OFF;
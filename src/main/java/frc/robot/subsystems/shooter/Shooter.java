@@ -23,7 +23,9 @@ import frc.robot.Constants.Constants.ENABLED_SYSTEMS;
 import frc.robot.Constants.Constants.SHOOTER_PIVOT;
 import frc.robot.Constants.Field;
 import frc.robot.subsystems.drive.SwerveDrive;
+import frc.robot.util.software.Dashboard.FieldPublisher;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class Shooter extends SubsystemBase {
   private SwerveDrive swerveDrive;
@@ -59,6 +61,7 @@ public class Shooter extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_SHOOTER) return;
     shooterMechanism.setAngle(Rotation2d.fromDegrees(180.0).minus(shooterPivot.getPosition()));
     if (RobotState.isAutonomous()) {
@@ -82,8 +85,8 @@ public class Shooter extends SubsystemBase {
     double flightTime = ShooterMath.calculateFlightTime(compensatedAimingPoint, swerveDrive, this);
     double shooterWheelVelocity = ShooterMath.calcShooterWheelVelocity(projectileVelocity);
     
-    SwerveDrive.getField().getObject("Aiming Point").setPose(new Pose2d(aimingPoint.get().toTranslation2d(), new Rotation2d()));
-    SwerveDrive.getField().getObject("Velocity Compensated Point").setPose(new Pose2d(compensatedAimingPoint.toTranslation2d(), new Rotation2d()));
+    FieldPublisher.setPose("Aiming Point", new Pose2d(aimingPoint.get().toTranslation2d(), new Rotation2d()));
+    FieldPublisher.setPose("Velocity Compensated Point", new Pose2d(compensatedAimingPoint.toTranslation2d(), new Rotation2d()));
     
     // System.out.println(ShooterMath.calcProjectileVelocity(
     //           ShooterMath.calcVelocityCompensatedPoint(
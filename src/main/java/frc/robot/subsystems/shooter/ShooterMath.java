@@ -10,7 +10,9 @@ import frc.robot.Constants.Constants;
 import frc.robot.Constants.Constants.SHOOTER_PIVOT;
 import frc.robot.Constants.Constants.SHOOTER_WHEELS;
 import frc.robot.Constants.Preferences;
+import frc.robot.subsystems.drive.DriveState;
 import frc.robot.subsystems.drive.SwerveDrive;
+import frc.robot.util.software.Dashboard.FieldPublisher;
 
 public class ShooterMath {
   
@@ -72,13 +74,24 @@ public class ShooterMath {
   }
 
   public static Rotation2d calcPivotAngle(Translation3d targetPoint, SwerveDrive swerveDrive, Shooter shooter, double shooterWheelVelocity) {    
+    return calcPivotAngle(targetPoint, swerveDrive.getPose(), shooter.getPivot().getPosition(), shooterWheelVelocity);
+  }
+
+  /**
+   * @param targetPoint 3D position of target point on the field
+   * @param currentPose Current swerve drive pose
+   * @param measuredPivotAngle Current shooter pivot angle
+   * @param shooterWheelVelocity shooter wheel velocity in rad/s
+   * @return Pivot angle to hit the target, or null if it can't be reached
+   */
+  public static Rotation2d calcPivotAngle(Translation3d targetPoint, Pose2d currentPose, Rotation2d measuredPivotAngle, double shooterWheelVelocity) {    
     if (Math.abs(shooterWheelVelocity) < 1.0) return null;
     
     Rotation2d pivotAngle = Rotation2d.fromDegrees(0);
     int iterations = 4;
 
     for (int i = 0; i < iterations; i++) {
-      Translation3d shooterLocation = calcShooterLocationOnField(swerveDrive, shooter);
+      Translation3d shooterLocation = calcShooterLocationOnField(currentPose, measuredPivotAngle);
       boolean mortarMode = targetPoint.getZ() < shooterLocation.getZ();
 
       double targetHeight = targetPoint.getZ() - shooterLocation.getZ();
@@ -233,9 +246,10 @@ public class ShooterMath {
   // }
 
   public static Translation3d calcShooterLocationOnField(SwerveDrive swerveDrive, Shooter shooter) {
-    Pose2d currentPose = swerveDrive.getPose();
-    Rotation2d pivotAngle = shooter.getPivot().getPosition();
+    return calcShooterLocationOnField(swerveDrive.getPose(), shooter.getPivot().getPosition());
+  }
 
+  public static Translation3d calcShooterLocationOnField(Pose2d currentPose, Rotation2d pivotAngle) {
     Translation2d swerveDrivePosition = currentPose.getTranslation();
     Translation3d shooterPosition = SHOOTER_PIVOT.POSITION;
     shooterPosition = shooterPosition.plus(new Translation3d(
@@ -296,13 +310,14 @@ public class ShooterMath {
   }
 
   public static Translation3d calcFutureAimingPoint(Translation3d targetPoint, SwerveDrive swerveDrive, Shooter shooter) {
-    Translation2d futureOffset = swerveDrive.getPose().getTranslation().minus(swerveDrive.getFuturePose().getTranslation());
+    DriveState state = swerveDrive.getState();
+    Translation2d futureOffset = state.getPose().getTranslation().minus(state.getFuturePose().getTranslation());
     Translation3d futureAimingPoint =  new Translation3d(
       targetPoint.getX() + futureOffset.getX(),
       targetPoint.getY() + futureOffset.getY(),
       targetPoint.getZ()
     );
-    SwerveDrive.getField().getObject("futureAimingPoint").setPose(new Pose2d(futureAimingPoint.toTranslation2d(), new Rotation2d()));
+    FieldPublisher.setPose("futureAimingPoint", new Pose2d(futureAimingPoint.toTranslation2d(), new Rotation2d()));
     
     return futureAimingPoint;
   }
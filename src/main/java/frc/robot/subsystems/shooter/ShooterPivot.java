@@ -22,6 +22,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.hardware.MotionControl.PivotController;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class ShooterPivot extends SubsystemBase {
   private CANSparkMax motor;
@@ -56,6 +57,7 @@ public class ShooterPivot extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_SHOOTER) return;
     if (isCalibrating) return;
     if (RobotState.isDisabled()) {
@@ -33,6 +33,7 @@ import frc.robot.Constants.Constants.SHOOTER_WHEELS;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class ShooterWheels extends SubsystemBase {
   private CANSparkMax shooterMotor, shooterMotorFollower, feedMotor;
@@ -104,6 +105,7 @@ public class ShooterWheels extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_SHOOTER) return;
 
     encoderVelocity = encoder.getVelocity();
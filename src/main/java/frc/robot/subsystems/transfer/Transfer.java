@@ -4,6 +4,7 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.Constants.ENABLED_SYSTEMS;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 
 
@@ -77,6 +78,7 @@ public class Transfer extends SubsystemBase {
   
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_TRANSFER) return;
   }
 
@@ -13,6 +13,7 @@ import frc.robot.Constants.Preferences;
 import frc.robot.Constants.Preferences.VOLTAGE_LADDER;
 import frc.robot.util.hardware.SparkMaxUtil;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class TransferInWheels extends SubsystemBase {
   private CANSparkMax motor;
@@ -46,6 +47,7 @@ public class TransferInWheels extends SubsystemBase {
   
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     if (!ENABLED_SYSTEMS.ENABLE_TRANSFER) return;
     if (RobotState.isDisabled()) {
       state = State.OFF;
@@ -0,0 +1,155 @@
+package frc.robot.subsystems.vision;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.networktables.PubSubOption;
+import frc.robot.Constants.Constants.LIMELIGHT;
+import frc.robot.util.software.FrameQueue;
+import frc.robot.util.software.LimelightHelpers;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+import frc.robot.util.software.Logging.LogRate;
+import frc.robot.util.software.Logging.Logger;
+
+/**
+ * Receives one AprilTag Limelight's pose estimates as they're published, instead of polling the
+ * latest one each loop. An NT listener decodes every botpose_wpiblue update on the listener thread,
+ * stamped with the time that update arrived, and queues it for the main loop, so no frame is missed
+ * or read twice and none waits for the next loop to get its timestamp.
+ */
+final class AprilTagFeed {
+  private static final class Frame {
+    private double x, y, z;
+    private double roll, pitch, yaw;
+    private double timestampSeconds;
+    private double latency;
+    private int tagCount;
+    private double tagSpan;
+    private double avgTagDist;
+    private double avgTagArea;
+    private int primaryTagID;
+  }
+
+  // Weight of each frame in the recent rejection rate, so it covers roughly the last 20 frames
+  private static final double REJECTION_RATE_WEIGHT = 0.05;
+
+  private final FrameQueue<Frame> queue = new FrameQueue<>(LIMELIGHT.FRAME_QUEUE_SIZE, Frame::new);
+  private final DoubleArraySubscriber botpose;
+  private final NetworkTableEntry tid;
+  // Only touched by the main loop
+  private int drainedCount = 0;
+  private long implausibleCount = 0;
+  private long rejectedCount = 0;
+  private long downweightedCount = 0;
+  private double rejectionRate = 0.0;
+
+  AprilTagFeed(String name) {
+    NetworkTable table = LimelightHelpers.getLimelightNTTable(name);
+    // Keep duplicates, so two frames that see the same thing are still two frames
+    botpose = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(new double[0], PubSubOption.keepDuplicates(true));
+    tid = table.getEntry("tid");
+    NetworkTableInstance.getDefault().addListener(botpose, EnumSet.of(NetworkTableEvent.Kind.kValueAll), this::receive);
+
+    Logger.autoLog("AprilTags/" + name + "/droppedFrames", () -> queue.getDroppedCount()).withRate(LogRate.HZ_1);
+    Logger.autoLog("AprilTags/" + name + "/implausibleFrames", () -> implausibleCount).withRate(LogRate.HZ_1);
+    Logger.autoLog("AprilTags/" + name + "/rejectedFrames", () -> rejectedCount).withRate(LogRate.HZ_1);
+    Logger.autoLog("AprilTags/" + name + "/downweightedFrames", () -> downweightedCount).withRate(LogRate.HZ_1);
+    Logger.autoLog("AprilTags/" + name + "/rejectionRate", () -> rejectionRate).withRate(LogRate.HZ_10);
+  }
+
+  /**
+   * Runs on the NT listener thread. Decodes the same fields as LimelightHelpers.getBotPoseEstimate_wpiBlue().
+   */
+  private void receive(NetworkTableEvent event) {
+    NetworkTableValue value = event.valueData.value;
+    double[] data = value.getDoubleArray();
+    Frame frame = queue.claim();
+    if (frame == null) return;
+
+    boolean hasPose = data.length >= 6;
+    frame.x = hasPose ? data[0] : 0.0;
+    frame.y = hasPose ? data[1] : 0.0;
+    frame.z = hasPose ? data[2] : 0.0;
+    frame.roll = hasPose ? Units.degreesToRadians(data[3]) : 0.0;
+    frame.pitch = hasPose ? Units.degreesToRadians(data[4]) : 0.0;
+    frame.yaw = hasPose ? Units.degreesToRadians(data[5]) : 0.0;
+    frame.latency = entry(data, 6);
+    frame.tagCount = (int) entry(data, 7);
+    frame.tagSpan = entry(data, 8);
+    frame.avgTagDist = entry(data, 9);
+    frame.avgTagArea = entry(data, 10);
+    frame.primaryTagID = (int) tid.getInteger(0);
+    // Arrival time in microseconds, latency in milliseconds
+    frame.timestampSeconds = value.getTime() / 1000000.0 - frame.latency / 1000.0;
+    queue.publish();
+  }
+
+  private static double entry(double[] data, int position) {
+    return data.length > position ? data[position] : 0.0;
+  }
+
+  /**
+   * Adds every frame received since the last call to the scorer as candidates, oldest first. Frames
+   * that don't fit wait for the next call. Main loop only.
+   * @param recordedEstimates If not null, also filled with a PoseEstimate of every frame added, to
+   * record for replay
+   */
+  void drain(VisionScorer scorer, List<PoseEstimate> recordedEstimates) {
+    drainedCount = 0;
+    for (Frame frame = queue.peek(); frame != null; frame = queue.peek()) {
+      VisionCandidate candidate = scorer.add();
+      if (candidate == null) break;
+      // The same heading as Rotation3d(roll, pitch, yaw).getZ(), without building one
+      candidate.set(frame.x, frame.y, frame.z, MathUtil.angleModulus(frame.yaw), frame.timestampSeconds, frame.tagCount, frame.avgTagDist, frame.primaryTagID);
+      if (recordedEstimates != null) {
+        recordedEstimates.add(new PoseEstimate(
+          new Pose3d(frame.x, frame.y, frame.z, new Rotation3d(frame.roll, frame.pitch, frame.yaw)),
+          frame.timestampSeconds,
+          frame.latency,
+          frame.tagCount,
+          frame.tagSpan,
+          frame.avgTagDist,
+          frame.avgTagArea,
+          frame.primaryTagID
+        ));
+      }
+      queue.release();
+      drainedCount++;
+    }
+  }
+
+  /**
+   * @return Number of frames the last drain() added
+   */
+  int getDrainedCount() {
+    return drainedCount;
+  }
+
+  /**
+   * Counts how the last drained frames fared. Main loop only.
+   * @param firstCandidate Index of this camera's first candidate in the scorer
+   */
+  void recordResults(VisionScorer scorer, int firstCandidate) {
+    for (int i = firstCandidate; i < firstCandidate + drainedCount; i++) {
+      VisionCandidate.Result result = scorer.get(i).result;
+      if (result == VisionCandidate.Result.IMPLAUSIBLE) {
+        implausibleCount++;
+        continue;
+      }
+      if (result == VisionCandidate.Result.REJECTED) rejectedCount++;
+      if (result == VisionCandidate.Result.DOWNWEIGHTED) downweightedCount++;
+      double rejected = result == VisionCandidate.Result.REJECTED ? 1.0 : 0.0;
+      rejectionRate += (rejected - rejectionRate) * REJECTION_RATE_WEIGHT;
+    }
+  }
+}
@@ -5,103 +5,184 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotState;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.Constants.LIMELIGHT;
-import frc.robot.Constants.Field;
+import frc.robot.Constants.Constants.LOGGING;
 import frc.robot.subsystems.LEDs;
 import frc.robot.subsystems.drive.SwerveDrive;
-import frc.robot.util.software.LimelightHelpers;
+import frc.robot.util.software.CustomPoseEstimator.VisionMeasurement;
 import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+import frc.robot.util.software.LoopBudget;
+import frc.robot.util.software.Dashboard.FieldPublisher;
+import frc.robot.util.software.Replay.ReplayRecorder;
 
 
 public class AprilTags extends SubsystemBase {
+  /**
+   * Whatever vision measurements are applied to: the swerve drive on the robot, or its odometry on
+   * its own during log replay
+   */
+  public interface VisionConsumer {
+    Pose2d getPose();
+
+    Pose2d getPose(double timestampSeconds);
+
+    /**
+     * @return Squared Mahalanobis distance of a measurement from the estimated pose at its
+     * timestamp, or NaN if it's too old to apply
+     */
+    double getMahalanobisDistanceSquared(double x, double y, double headingRadians, double timestampSeconds, double translationStdDev, double rotationStdDev);
+
+    /**
+     * Fuses every measurement from one loop at once
+     */
+    void addVisionMeasurements(List<VisionMeasurement> measurements);
+  }
+
+  /**
+   * Trusts estimates from more tags and closer tags more. The heading is only trusted when the
+   * estimate is allowed to change it.
+   */
+  public static final VisionScorer.Scoring DEFAULT_SCORING = candidate -> {
+    candidate.translationStdDev = candidate.avgTagDist * candidate.avgTagDist / (candidate.tagCount * candidate.tagCount) / 10.0 + 0.5;
+    candidate.rotationStdDev = candidate.canChangeHeading ? Units.degreesToRadians(15) : 9999999;
+  };
+
+  private static final Map<String, AprilTagFeed> feeds = new HashMap<>();
+  // Reused every loop. Vision is only processed from one thread.
+  private static final VisionScorer scorer = new VisionScorer(LIMELIGHT.APRILTAG_CAMERA_POSES.size() * LIMELIGHT.FRAME_QUEUE_SIZE, LIMELIGHT.BLACKLISTED_APRILTAGS, DEFAULT_SCORING);
+  private static final List<PoseEstimate> drainedEstimates = new ArrayList<>();
+  private static final List<Pose2d> acceptedPoses = new ArrayList<>();
+  private static final List<VisionMeasurement> measurements = new ArrayList<>();
+
+  /**
+   * Starts receiving every camera's pose estimates in the background. Call once, before the first
+   * {@link #injectVisionData}.
+   */
+  public static void startListening(Map<String, Pose3d> cameraPoses) {
+    for (String name : cameraPoses.keySet()) {
+      feeds.computeIfAbsent(name, AprilTagFeed::new);
+    }
+  }
+
+  /**
+   * Applies every pose estimate the cameras published since the last call
+   */
   public static void injectVisionData(Map<String, Pose3d> cameraPoses, SwerveDrive swerveDrive) {
-    List<LimelightHelpers.PoseEstimate> poseEstimates = cameraPoses.keySet().stream().map(LimelightHelpers::getBotPoseEstimate_wpiBlue).collect(Collectors.toList());
-    
-    HashMap<String, Object> bestPoseEstimate = new HashMap<>();
-    bestPoseEstimate.put("pose", new Pose2d());
-    bestPoseEstimate.put("timestamp", Timer.getFPGATimestamp());
-    bestPoseEstimate.put("translationError", Double.MAX_VALUE);
-    bestPoseEstimate.put("rotationError", Double.MAX_VALUE);
-    bestPoseEstimate.put("tagCount", 0);
+    // Frames go straight into the scorer. Estimates are only built to be recorded.
+    scorer.clear();
+    drainedEstimates.clear();
+    for (String name : cameraPoses.keySet()) {
+      AprilTagFeed feed = feeds.get(name);
+      if (feed != null) feed.drain(scorer, LOGGING.RECORD_REPLAY_INPUTS ? drainedEstimates : null);
+    }
+    boolean canZeroHeading = swerveDrive.canZeroHeading();
+    boolean disabled = RobotState.isDisabled();
+    if (LOGGING.RECORD_REPLAY_INPUTS) ReplayRecorder.recordVision(canZeroHeading, disabled, drainedEstimates);
+
+    acceptedPoses.clear();
+    boolean canChangeHeading = processCandidates(canZeroHeading, disabled, swerveDrive, acceptedPoses);
+    int firstEstimate = 0;
+    for (String name : cameraPoses.keySet()) {
+      AprilTagFeed feed = feeds.get(name);
+      if (feed == null) continue;
+      feed.recordResults(scorer, firstEstimate);
+      firstEstimate += feed.getDrainedCount();
+    }
+    if (canChangeHeading) LEDs.setState(LEDs.State.HAS_VISION_TARGET_SPEAKER);
 
-    //if (swerveDrive.getRotationalVelocity() > 2.0) return;
+    if (LoopBudget.shouldRun(LoopBudget.Work.FIELD2D)) FieldPublisher.setPoses("visionPosese", acceptedPoses);
+  }
 
-    int tagCount = 0;
+  /**
+   * Filters a loop's pose estimates and applies every one that passes, each weighted by its own
+   * standard deviations, in one batch. Estimates that pass the fixed checks are also gated on their
+   * Mahalanobis distance from the pose estimate (see {@link VisionScorer#gate}). This doesn't touch
+   * any hardware or NetworkTables, so log replay runs it on recorded estimates.
+   * @param poseEstimates Every camera's latest estimate
+   * @param canZeroHeading Whether the drivetrain is still enough for vision to correct its heading
+   * @param disabled Whether the robot is disabled
+   * @param consumer What to apply the measurement to
+   * @param poses Filled with every estimate that passed the filters
+   * @return Whether any estimate was allowed to change the heading
+   */
+  public static boolean processVisionData(List<PoseEstimate> poseEstimates, boolean canZeroHeading, boolean disabled, VisionConsumer consumer, List<Pose2d> poses) {
+    scorer.clear();
     for (PoseEstimate poseEstimate : poseEstimates) {
-      tagCount += poseEstimate.tagCount;
+      if (scorer.add(poseEstimate) == null) break;
     }
-    
-    // if (tagCount <= 1) return;
+    return processCandidates(canZeroHeading, disabled, consumer, poses);
+  }
 
-    List<Pose2d> poses = new ArrayList<>();
+  /**
+   * {@link #processVisionData} on the estimates already in the scorer
+   */
+  private static boolean processCandidates(boolean canZeroHeading, boolean disabled, VisionConsumer consumer, List<Pose2d> poses) {
+    measurements.clear();
 
-    for (PoseEstimate poseEstimate : poseEstimates) {
-      Pose2d pose2d = poseEstimate.pose.toPose2d();
-      if (IntStream.of(LIMELIGHT.BLACKLISTED_APRILTAGS).anyMatch(x -> x == poseEstimate.primaryTagID)) continue;
-      if (poseEstimate.tagCount == 0) continue;
-      if (pose2d.getTranslation().getNorm() == 0.0) continue;
-      if (pose2d.getRotation().getRadians() == 0.0) continue;
-      if (Math.abs(poseEstimate.pose.getZ()) > 1) continue;
-      if (Double.isNaN(poseEstimate.avgTagDist)) continue;
-      // if (poseEstimate.avgTagDist > 6) continue;
+    //if (swerveDrive.getRotationalVelocity() > 2.0) return;
+
+    Pose2d currentPose = consumer.getPose();
+    boolean anyCanChangeHeading = false;
+
+    for (int i = 0; i < scorer.size(); i++) {
+      VisionCandidate candidate = scorer.get(i);
+      if (!scorer.isPlausible(candidate)) continue;
+      // if (candidate.avgTagDist > 6) continue;
       
-      // if (poseEstimate.avgTagDist > 5) continue;
-      if (pose2d.getX() < 0.0 || pose2d.getY() < 0.0 || pose2d.getX() > Field.LENGTH || pose2d.getY() > Field.WIDTH) continue;
+      // if (candidate.avgTagDist > 5) continue;
       boolean canChangeHeading = false;
-      if (swerveDrive.canZeroHeading() && (poseEstimate.tagCount >= 2 || RobotState.isDisabled())) {
+      if (canZeroHeading && (candidate.tagCount >= 2 || disabled)) {
         canChangeHeading = true;
       }
 
-      canChangeHeading = canChangeHeading && swerveDrive.getPose().getTranslation().getDistance(pose2d.getTranslation()) < 1.0;
-      if (canChangeHeading) LEDs.setState(LEDs.State.HAS_VISION_TARGET_SPEAKER);
+      canChangeHeading = canChangeHeading && Math.hypot(currentPose.getX() - candidate.x, currentPose.getY() - candidate.y) < 1.0;
       
-      double rotationError = Units.degreesToRadians(15);
+      candidate.canChangeHeading = canChangeHeading;
       if (!canChangeHeading) {
-        rotationError = 9999999;
-        pose2d = new Pose2d(
-          pose2d.getTranslation(),
-          swerveDrive.getPose(poseEstimate.timestampSeconds).getRotation()
-        );
+        candidate.headingRadians = consumer.getPose(candidate.timestampSeconds).getRotation().getRadians();
       }
 
-      double translationError = Math.pow(Math.abs(poseEstimate.avgTagDist), 2.0) / Math.pow(poseEstimate.tagCount, 2) / 10;
-
-      // if (RobotState.isAutonomous() && poseEstimate.tagCount <= 1) {
+      // if (RobotState.isAutonomous() && candidate.tagCount <= 1) {
       //   continue;
       // }
 
+      scorer.score(candidate);
+
+      // Drop or down-weight estimates too far from where odometry says the robot was. Not while
+      // disabled, when the robot is being placed and odometry is expected to be wrong.
+      double distance = consumer.getMahalanobisDistanceSquared(candidate.x, candidate.y, candidate.headingRadians, candidate.timestampSeconds, candidate.translationStdDev, candidate.rotationStdDev);
+      if (!scorer.gate(candidate, distance, disabled)) continue;
+      if (canChangeHeading) anyCanChangeHeading = true;
+
+      Pose2d pose2d = new Pose2d(candidate.x, candidate.y, new Rotation2d(candidate.headingRadians));
       poses.add(pose2d);
-      translationError += 0.5;
-      
-      if (translationError < (double) bestPoseEstimate.get("translationError") || rotationError < Units.degreesToRadians(360.0)) {
-        bestPoseEstimate.put("pose", pose2d);
-        bestPoseEstimate.put("timestamp", poseEstimate.timestampSeconds);
-        bestPoseEstimate.put("translationError", translationError);
-        bestPoseEstimate.put("rotationError", rotationError);
-        bestPoseEstimate.put("tagCount", poseEstimate.tagCount);
-      }
+      measurements.add(new VisionMeasurement(pose2d, candidate.timestampSeconds, VecBuilder.fill(candidate.translationStdDev, candidate.translationStdDev, candidate.rotationStdDev)));
     }
 
-    if ((int) bestPoseEstimate.get("tagCount") > 0) {
+    if (!measurements.isEmpty()) {
       // Logger.log("canChangeHeading", canChangeHeading);
       // Logger.log("rotationAccuracy", rotationError);
       // Logger.log("poseRotation", pose2d.getRotation().getDegrees());
 
-      swerveDrive.addVisionMeasurement((Pose2d) bestPoseEstimate.get("pose"), (double) bestPoseEstimate.get("timestamp"), VecBuilder.fill((double) bestPoseEstimate.get("translationError"), (double) bestPoseEstimate.get("translationError"), (double) bestPoseEstimate.get("rotationError")));
+      consumer.addVisionMeasurements(measurements);
     }
 
-    SwerveDrive.getField().getObject("visionPosese").setPoses(poses);
-    
+    return anyCanChangeHeading;
+  }
+
+  /**
+   * @return Number of estimates in the last call to {@link #processVisionData} with the result
+   */
+  public static int countResults(VisionCandidate.Result result) {
+    return scorer.count(result);
   }
 
   public static void printConfig(Map<String, Pose3d> cameraPoses) {
@@ -0,0 +1,89 @@
+package frc.robot.subsystems.vision;
+
+import java.util.EnumSet;
+
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import frc.robot.Constants.Constants.LIMELIGHT;
+import frc.robot.util.software.FrameQueue;
+import frc.robot.util.software.LimelightHelpers;
+import frc.robot.util.software.Logging.LogRate;
+import frc.robot.util.software.Logging.Logger;
+
+/**
+ * Receives the note Limelight's detections as they're published. The Limelight bumps its heartbeat
+ * once per frame, so an NT listener on hb reads that frame's target values on the listener thread,
+ * stamps them with when the heartbeat arrived minus the reported latency, and queues them for the
+ * main loop. The main loop keeps the newest frame it has drained.
+ */
+final class NoteFeed {
+  static final class Frame {
+    boolean hasTarget;
+    // [degrees] Target offset from the crosshair
+    double tx, ty;
+    // [pixels] Height of the target's bounding box
+    double tvert;
+    // [seconds] FPGA time the frame was captured
+    double timestampSeconds;
+
+    private void copy(Frame other) {
+      hasTarget = other.hasTarget;
+      tx = other.tx;
+      ty = other.ty;
+      tvert = other.tvert;
+      timestampSeconds = other.timestampSeconds;
+    }
+  }
+
+  private final FrameQueue<Frame> queue = new FrameQueue<>(LIMELIGHT.FRAME_QUEUE_SIZE, Frame::new);
+  private final DoubleSubscriber heartbeat;
+  private final DoubleSubscriber tv, tx, ty, tvert, tl, cl;
+  // Only touched by the main loop
+  private final Frame latest = new Frame();
+
+  NoteFeed(String name) {
+    NetworkTable table = LimelightHelpers.getLimelightNTTable(name);
+    heartbeat = table.getDoubleTopic("hb").subscribe(0.0, PubSubOption.keepDuplicates(true));
+    tv = table.getDoubleTopic("tv").subscribe(0.0);
+    tx = table.getDoubleTopic("tx").subscribe(0.0);
+    ty = table.getDoubleTopic("ty").subscribe(0.0);
+    tvert = table.getDoubleTopic("tvert").subscribe(0.0);
+    tl = table.getDoubleTopic("tl").subscribe(0.0);
+    cl = table.getDoubleTopic("cl").subscribe(0.0);
+    NetworkTableInstance.getDefault().addListener(heartbeat, EnumSet.of(NetworkTableEvent.Kind.kValueAll), this::receive);
+
+    Logger.autoLog("Notes/droppedFrames", () -> queue.getDroppedCount()).withRate(LogRate.HZ_1);
+  }
+
+  /**
+   * Runs on the NT listener thread
+   */
+  private void receive(NetworkTableEvent event) {
+    Frame frame = queue.claim();
+    if (frame == null) return;
+
+    frame.hasTarget = tv.get() != 0.0;
+    frame.tx = tx.get();
+    frame.ty = ty.get();
+    frame.tvert = tvert.get();
+    // Arrival time in microseconds, latencies in milliseconds
+    double latency = tl.get() + cl.get();
+    frame.timestampSeconds = event.valueData.value.getTime() / 1000000.0 - latency / 1000.0;
+    queue.publish();
+  }
+
+  /**
+   * Takes every frame received since the last call. Main loop only.
+   * @return The newest frame received so far. Reused, so don't hold on to it.
+   */
+  Frame update() {
+    for (Frame frame = queue.peek(); frame != null; frame = queue.peek()) {
+      latest.copy(frame);
+      queue.release();
+    }
+    return latest;
+  }
+}
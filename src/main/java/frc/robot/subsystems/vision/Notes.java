@@ -1,12 +1,13 @@
 package frc.robot.subsystems.vision;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.RobotState;
 import frc.robot.Constants.Constants.LIMELIGHT;
 import frc.robot.Constants.Field;
@@ -14,21 +15,42 @@ import frc.robot.subsystems.LEDs;
 import frc.robot.subsystems.drive.SwerveDrive;
 
 public class Notes {
+  private static final Map<String, NoteFeed> feeds = new HashMap<>();
+  // Newest frame from each camera, as of the last update()
+  private static final Map<String, NoteFeed.Frame> latestFrames = new HashMap<>();
+
+  /**
+   * Starts receiving a camera's detections in the background. Call once, before the first
+   * {@link #update()}.
+   */
+  public static void startListening(String name) {
+    feeds.computeIfAbsent(name, NoteFeed::new);
+  }
+
+  /**
+   * Takes every detection the cameras published since the last call. Called by the main loop once
+   * per tick, so the queues never fill up while nothing is asking for notes.
+   */
+  public static void update() {
+    for (Map.Entry<String, NoteFeed> feed : feeds.entrySet()) {
+      latestFrames.put(feed.getKey(), feed.getValue().update());
+    }
+  }
+
   public static Translation2d getNotePosition(String name, Rotation2d pitch, SwerveDrive swerveDrive, Translation2d fieldVelocity, Translation3d cameraToRobot) {
-    NetworkTable table = NetworkTableInstance.getDefault().getTable(name);
+    NoteFeed.Frame frame = latestFrames.get(name);
     
-    if (table.getEntry("tv").getDouble(0) == 0) return null;
+    if (frame == null || !frame.hasTarget) return null;
 
     Translation2d notePosition = new Translation2d();
-    double x = table.getEntry("tx").getDouble(0);
-    double y = table.getEntry("ty").getDouble(0);// - Math.sqrt(Constants.LIMELIGHT.FOV_HEIGHT.getDegrees() * Constants.LIMELIGHT.FOV_HEIGHT.getDegrees() * target.ta)/2;
+    double x = frame.tx;
+    double y = frame.ty;// - Math.sqrt(Constants.LIMELIGHT.FOV_HEIGHT.getDegrees() * Constants.LIMELIGHT.FOV_HEIGHT.getDegrees() * target.ta)/2;
 
 
-    y += table.getEntry("tvert").getDouble(0) / 2.0 / LIMELIGHT.NOTE_CAMERA_HEIGHT_PIXELS * LIMELIGHT.FOV_HEIGHT.getDegrees();
+    y += frame.tvert / 2.0 / LIMELIGHT.NOTE_CAMERA_HEIGHT_PIXELS * LIMELIGHT.FOV_HEIGHT.getDegrees();
     
     if (Units.degreesToRadians(y) + pitch.getRadians() > 0) return null;
     
-    double latency = (table.getEntry("tl").getDouble(0) + table.getEntry("cl").getDouble(0));
     double distance = ((cameraToRobot.getZ() - Units.inchesToMeters(0.521453)) / - Math.tan(Units.degreesToRadians(y - 3.59747) + pitch.getRadians())) - (Field.NOTE_LENGTH / 2.0) * 1.97022 + Units.inchesToMeters(4); // empirical offset
 
     Translation2d relativePosition = new Translation2d(
@@ -36,9 +58,7 @@ public class Notes {
       -distance * Math.sin(Units.degreesToRadians(x))
     ).plus(cameraToRobot.toTranslation2d());
     
-    double timestamp = (table.getEntry("hb").getLastChange() / 1000000.0) - (latency / 1000.0);
-
-    Pose2d robotPosition = swerveDrive.getPose(timestamp);
+    Pose2d robotPosition = swerveDrive.getPose(frame.timestampSeconds);
     notePosition = robotPosition.getTranslation().plus(relativePosition.rotateBy(robotPosition.getRotation()));
     
     if (!RobotState.isDisabled()) {
@@ -0,0 +1,65 @@
+package frc.robot.subsystems.vision;
+
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * One camera pose estimate being filtered and scored, as plain fields so a {@link VisionScorer} can
+ * keep a fixed set of them and refill them every loop.
+ */
+public final class VisionCandidate {
+  public enum Result {
+    /** Failed a sanity check, like being off the field */
+    IMPLAUSIBLE,
+    /** Too far from the pose estimate to be believed */
+    REJECTED,
+    /** Far enough from the pose estimate that its standard deviations were inflated */
+    DOWNWEIGHTED,
+    ACCEPTED
+  }
+
+  /** [meters] Estimated position, from the blue alliance origin */
+  public double x, y, z;
+  /** [radians] Estimated heading. Replaced with the odometry's if vision can't change the heading. */
+  public double headingRadians;
+  /** [seconds] FPGA time the frame was captured */
+  public double timestampSeconds;
+  public int tagCount;
+  /** [meters] Average distance to the tags */
+  public double avgTagDist;
+  public int primaryTagID;
+
+  /** Whether this estimate is trusted enough to correct the heading. Set before scoring. */
+  public boolean canChangeHeading;
+  /** [meters] Standard deviation of x and y. Set by scoring. */
+  public double translationStdDev;
+  /** [radians] Standard deviation of the heading. Set by scoring. */
+  public double rotationStdDev;
+  /** Squared Mahalanobis distance from the pose estimate, or NaN if not gated */
+  public double mahalanobisDistanceSquared;
+  public Result result;
+
+  VisionCandidate() {}
+
+  void set(PoseEstimate estimate) {
+    set(estimate.pose.getX(), estimate.pose.getY(), estimate.pose.getZ(), estimate.pose.getRotation().getZ(), estimate.timestampSeconds, estimate.tagCount, estimate.avgTagDist, estimate.primaryTagID);
+  }
+
+  /**
+   * Refills this candidate with a new estimate and clears its scoring
+   */
+  void set(double x, double y, double z, double headingRadians, double timestampSeconds, int tagCount, double avgTagDist, int primaryTagID) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.headingRadians = headingRadians;
+    this.timestampSeconds = timestampSeconds;
+    this.tagCount = tagCount;
+    this.avgTagDist = avgTagDist;
+    this.primaryTagID = primaryTagID;
+    canChangeHeading = false;
+    translationStdDev = 0.0;
+    rotationStdDev = 0.0;
+    mahalanobisDistanceSquared = Double.NaN;
+    result = Result.IMPLAUSIBLE;
+  }
+}
@@ -0,0 +1,162 @@
+package frc.robot.subsystems.vision;
+
+import java.util.BitSet;
+
+import frc.robot.Constants.Constants.LIMELIGHT;
+import frc.robot.Constants.Field;
+import frc.robot.subsystems.vision.VisionCandidate.Result;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * Filters and scores a loop's camera pose estimates on a fixed set of {@link VisionCandidate}s that
+ * are refilled every loop, so filtering doesn't allocate. Blacklisted tags are kept in a bitset,
+ * and how much to trust each estimate is up to a pluggable {@link Scoring}. Scored estimates are
+ * then gated on how far they are from the pose estimate, in standard deviations (see
+ * {@link #gate}).
+ */
+public final class VisionScorer {
+  /**
+   * Sets a candidate's standard deviations from its fields
+   */
+  @FunctionalInterface
+  public interface Scoring {
+    void score(VisionCandidate candidate);
+  }
+
+  private final VisionCandidate[] candidates;
+  private int size = 0;
+  private final BitSet blacklist = new BitSet();
+  private Scoring scoring;
+  private int consecutiveRejections = 0;
+
+  /**
+   * @param capacity Most estimates per loop. Any more are ignored.
+   * @param blacklistedTags IDs of tags whose estimates are always rejected
+   * @param scoring How to score estimates
+   */
+  public VisionScorer(int capacity, int[] blacklistedTags, Scoring scoring) {
+    candidates = new VisionCandidate[capacity];
+    for (int i = 0; i < capacity; i++) candidates[i] = new VisionCandidate();
+    for (int tag : blacklistedTags) blacklist.set(tag);
+    this.scoring = scoring;
+  }
+
+  public void setScoring(Scoring scoring) {
+    this.scoring = scoring;
+  }
+
+  /**
+   * Empties the candidates, to start a new loop
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Adds an estimate as a candidate
+   * @return The candidate, or null if there's no room left
+   */
+  public VisionCandidate add(PoseEstimate estimate) {
+    VisionCandidate candidate = add();
+    if (candidate != null) candidate.set(estimate);
+    return candidate;
+  }
+
+  /**
+   * Adds a candidate for the caller to fill with {@link VisionCandidate#set}
+   * @return The candidate, or null if there's no room left
+   */
+  VisionCandidate add() {
+    if (size == candidates.length) return null;
+    return candidates[size++];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public VisionCandidate get(int index) {
+    return candidates[index];
+  }
+
+  public boolean isBlacklisted(int tagID) {
+    return tagID >= 0 && blacklist.get(tagID);
+  }
+
+  /**
+   * @return False if the estimate is from a blacklisted tag, saw no tags, or is somewhere the
+   * robot can't be
+   */
+  public boolean isPlausible(VisionCandidate candidate) {
+    if (isBlacklisted(candidate.primaryTagID)) return false;
+    if (candidate.tagCount == 0) return false;
+    if (candidate.x == 0.0 && candidate.y == 0.0) return false;
+    if (candidate.headingRadians == 0.0) return false;
+    if (Math.abs(candidate.z) > 1) return false;
+    if (Double.isNaN(candidate.avgTagDist)) return false;
+    if (candidate.x < 0.0 || candidate.y < 0.0 || candidate.x > Field.LENGTH || candidate.y > Field.WIDTH) return false;
+    return true;
+  }
+
+  /**
+   * Sets the candidate's standard deviations with the current scoring
+   */
+  public void score(VisionCandidate candidate) {
+    scoring.score(candidate);
+  }
+
+  /**
+   * Decides whether to believe a scored candidate, from its squared Mahalanobis distance to the
+   * pose estimate, which is chi-squared distributed if both are right. Candidates past the reject
+   * gate are rejected. Ones past the down-weight gate have their standard deviations scaled by
+   * sqrt(distance / gate), trusting them less the further out they are. That would put them on the
+   * gate if the pose estimate were certain, but its own state variance is part of the distance and
+   * isn't scaled, so they're still past it afterwards, by more the larger that variance is against
+   * theirs.
+   * <p>
+   * Long runs of rejections mean the pose estimate is more likely wrong than every camera, so after
+   * {@link LIMELIGHT#MAX_CONSECUTIVE_REJECTIONS} in a row the next candidate past the reject gate is
+   * let through, down-weighted the same way, and the count starts over. Each one pulls the pose
+   * estimate part of the way over, until the cameras pass the gate on their own.
+   * @param mahalanobisDistanceSquared Distance from the pose estimate, or NaN to skip the gate
+   * @param bypass Whether to skip the gate, e.g. while the robot is disabled and being placed
+   * @return Whether the candidate should be applied. Sets its result.
+   */
+  public boolean gate(VisionCandidate candidate, double mahalanobisDistanceSquared, boolean bypass) {
+    candidate.mahalanobisDistanceSquared = mahalanobisDistanceSquared;
+    boolean trustsHeading = candidate.canChangeHeading;
+    double downweightGate = trustsHeading ? LIMELIGHT.DOWNWEIGHT_GATE_3DOF : LIMELIGHT.DOWNWEIGHT_GATE_2DOF;
+    double rejectGate = trustsHeading ? LIMELIGHT.REJECT_GATE_3DOF : LIMELIGHT.REJECT_GATE_2DOF;
+
+    if (bypass || Double.isNaN(mahalanobisDistanceSquared)) {
+      candidate.result = Result.ACCEPTED;
+      return true;
+    }
+    if (mahalanobisDistanceSquared > rejectGate && consecutiveRejections < LIMELIGHT.MAX_CONSECUTIVE_REJECTIONS) {
+      candidate.result = Result.REJECTED;
+      consecutiveRejections++;
+      return false;
+    }
+    if (mahalanobisDistanceSquared > downweightGate) {
+      double scale = Math.sqrt(mahalanobisDistanceSquared / downweightGate);
+      candidate.translationStdDev *= scale;
+      candidate.rotationStdDev *= scale;
+      candidate.result = Result.DOWNWEIGHTED;
+    } else {
+      candidate.result = Result.ACCEPTED;
+    }
+    consecutiveRejections = 0;
+    return true;
+  }
+
+  /**
+   * @return Number of candidates this loop with the result
+   */
+  public int count(Result result) {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (candidates[i].result == result) count++;
+    }
+    return count;
+  }
+}
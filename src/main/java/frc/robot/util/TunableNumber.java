@@ -7,6 +7,7 @@ import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class TunableNumber extends SubsystemBase {
   private String name;
@@ -27,6 +28,7 @@ public class TunableNumber extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     double new_n = entry.getDouble(0);
 
     if (new_n != currentNumber) {
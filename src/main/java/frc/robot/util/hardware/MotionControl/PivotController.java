@@ -15,6 +15,7 @@ import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Robot;
 import frc.robot.util.hardware.SparkMaxUtil;
+import frc.robot.util.software.ControlClock;
 import frc.robot.util.software.Logging.Logger;
 import frc.robot.util.software.Logging.StatusChecks;
 
@@ -76,8 +77,8 @@ public class PivotController {
     SparkMaxUtil.configureEncoder(motor, 2.0 * Math.PI / gearing);
     SparkMaxUtil.configurePID(subsystem, motor, kP, 0.0, 0.0, 0.0, false);
     
-    Logger.autoLog(subsystem, "targetPosition",                   () -> getTargetAngle().getRadians());
-    Logger.autoLog(subsystem, "position",                         () -> getPosition().getRadians());
+    Logger.autoLog(subsystem, "targetPosition",                   () -> getTargetAngle() == null ? Double.NaN : getTargetAngle().getRadians());
+    Logger.autoLog(subsystem, "position",                         () -> getPositionRadians());
     Logger.autoLog(subsystem, "relativePosition",                 () -> encoder.getPosition());
     Logger.autoLog(subsystem, "rawAbsolutePosition",              () -> absoluteEncoder.getAbsolutePosition() * 360);
     Logger.autoLog(subsystem, "doneMoving",                       () -> doneMoving());
@@ -153,7 +154,7 @@ public class PivotController {
       if (RobotBase.isSimulation()) sim.setInputVoltage(0.0);
     }
 
-    if (Robot.isSimulation()) sim.update(Robot.getLoopTime());
+    if (Robot.isSimulation()) sim.update(ControlClock.getMeasuredDt());
   }
 
   public void setTargetAngle(Rotation2d angle) {
@@ -183,7 +184,14 @@ public class PivotController {
   }
 
   public Rotation2d getPosition() {
-    if (Robot.isSimulation()) return Rotation2d.fromRadians(sim.getAngleRads());
+    return Rotation2d.fromRadians(getPositionRadians());
+  }
+
+  /**
+   * @return Same as {@link #getPosition()}, in radians, without creating a Rotation2d
+   */
+  public double getPositionRadians() {
+    if (Robot.isSimulation()) return sim.getAngleRads();
 
     double factor = 1;
     if (reversed) {
@@ -202,12 +210,12 @@ public class PivotController {
       absoluteAngle -= Math.PI * 2.0;
     }
 
-    return Rotation2d.fromRadians(absoluteAngle);
+    return absoluteAngle;
   }
 
   public boolean doneMoving() {
     if (getTargetAngle() == null) return true;
-    return debouncer.calculate(Math.abs(getPosition().getRadians() - achievableAngle.getRadians()) < tolerance.getRadians());
+    return debouncer.calculate(Math.abs(getPositionRadians() - achievableAngle.getRadians()) < tolerance.getRadians());
   }
   
   public void setMaxAngle(Rotation2d newMaxAngle) {
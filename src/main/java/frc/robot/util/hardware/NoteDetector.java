@@ -4,16 +4,18 @@ import com.revrobotics.CANSparkMax;
 
 import edu.wpi.first.math.filter.MedianFilter;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Robot;
 import frc.robot.Constants.Constants.NEO;
 import frc.robot.Constants.Constants.NEO550;
+import frc.robot.util.software.ControlClock;
 import frc.robot.util.software.Logging.Logger;
+import frc.robot.util.software.Logging.LoopProfiler;
 
 public class NoteDetector extends SubsystemBase {
   int filterSize = 3;
   MedianFilter filter = new MedianFilter(filterSize);
   double delay = NEO.SAFE_RAMP_RATE * 1.0;
-  double delayCounter = 0.0;
+  // When the motor was last off, since the current spikes right after it turns on
+  double delayStart = 0.0;
   CANSparkMax motor;
   double gearing = 0.0;
   double filteredTorque;
@@ -32,18 +34,18 @@ public class NoteDetector extends SubsystemBase {
 
   @Override
   public void periodic() {
+    LoopProfiler.enter(this);
     filteredTorque = 0.0;
 
     double output = motor.getAppliedOutput();
     
     if (output == 0.0) {
-      delayCounter = 0.0;
+      delayStart = ControlClock.getTimestamp();
       filter.reset();
       return;
     }
 
-    if (delayCounter <= delay) {
-      delayCounter += Robot.getLoopTime();
+    if (ControlClock.since(delayStart) <= delay) {
       filter.reset();
       return;
     }
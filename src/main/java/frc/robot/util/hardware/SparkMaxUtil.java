@@ -74,6 +74,14 @@ public final class SparkMaxUtil {
     // https://docs.revrobotics.com/sparkmax/operating-modes/control-interfaces
   }
 
+  /**
+   * Speeds up the position frame, for motors sampled by a fast thread like the odometry thread
+   * @param frequency [hertz] Rate the position is read at
+   */
+  public static void configurePositionStatusFrame(CANSparkMax motor, double frequency) {
+    configure(() -> motor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, (int) Math.ceil(1000.0 / frequency)), motor);
+  }
+
   public static void configurePID(SubsystemBase subsystem, CANSparkMax motor, double kP, double kI, double kD, double kV, boolean wrap) {
     SparkPIDController pid = motor.getPIDController();
     configure(() -> pid.setP(kP, 0), motor);
@@ -0,0 +1,93 @@
+package frc.robot.util.software;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.util.software.Logging.LogRate;
+import frc.robot.util.software.Logging.Logger;
+
+/**
+ * Time for the control loop, advanced once per tick by Robot. Rate limits and discretization
+ * should step by {@link #getNominalDt()}, so a late tick can't make one step larger than the
+ * limiter allows. Timers should compare {@link #getTimestamp()} against a start time instead of
+ * adding up dts, so jitter doesn't accumulate. {@link #getMeasuredDt()} is the real time between
+ * ticks, for things that model physics (simulation) or animations.
+ */
+public final class ControlClock {
+  private static final double NOMINAL_DT = TimedRobot.kDefaultPeriod;
+  private static final double JITTER_TIME_CONSTANT = 1.0;
+
+  private static double timestamp = 0.0;
+  private static double measuredDt = NOMINAL_DT;
+  private static double jitter = 0.0;
+  private static boolean started = false;
+
+  private ControlClock() {}
+
+  public static void start() {
+    Logger.autoLog("ControlClock/measuredDt", () -> measuredDt);
+    Logger.autoLog("ControlClock/jitter", () -> jitter).withRate(LogRate.HZ_10);
+  }
+
+  /**
+   * Advances the clock. Called by Robot at the start of every tick. Taking the time as an argument
+   * lets simulations inject their own timing.
+   * @param fpgaTimestamp Current FPGA time, in seconds
+   */
+  public static void tick(double fpgaTimestamp) {
+    if (started) {
+      measuredDt = fpgaTimestamp - timestamp;
+      double gain = measuredDt / (JITTER_TIME_CONSTANT + measuredDt);
+      jitter += gain * (Math.abs(measuredDt - NOMINAL_DT) - jitter);
+    } else {
+      // The first tick has nothing to measure against
+      measuredDt = NOMINAL_DT;
+      started = true;
+    }
+    timestamp = fpgaTimestamp;
+  }
+
+  /**
+   * Forgets the last tick, so the next one starts the clock again with a nominal dt. For
+   * simulations and tests that restart time.
+   */
+  public static void reset() {
+    timestamp = 0.0;
+    measuredDt = NOMINAL_DT;
+    jitter = 0.0;
+    started = false;
+  }
+
+  /**
+   * @return FPGA time at the start of this tick, in seconds
+   */
+  public static double getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return Seconds since a timestamp taken from {@link #getTimestamp()}
+   */
+  public static double since(double startTimestamp) {
+    return timestamp - startTimestamp;
+  }
+
+  /**
+   * @return Fixed timestep of the control loop, in seconds
+   */
+  public static double getNominalDt() {
+    return NOMINAL_DT;
+  }
+
+  /**
+   * @return Real time between the start of the last tick and this one, in seconds
+   */
+  public static double getMeasuredDt() {
+    return measuredDt;
+  }
+
+  /**
+   * @return Average difference between the measured and nominal dt, in seconds
+   */
+  public static double getJitter() {
+    return jitter;
+  }
+}
@@ -4,11 +4,12 @@
 
 package frc.robot.util.software;
 
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import edu.wpi.first.math.MathSharedStore;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.VecBuilder;
@@ -16,9 +17,6 @@ import edu.wpi.first.math.estimator.DifferentialDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Twist2d;
-import edu.wpi.first.math.interpolation.Interpolatable;
-import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
-import edu.wpi.first.math.kinematics.Kinematics;
 import edu.wpi.first.math.kinematics.Odometry;
 import edu.wpi.first.math.kinematics.WheelPositions;
 import edu.wpi.first.math.numbers.N1;
@@ -37,23 +35,96 @@ import edu.wpi.first.math.numbers.N3;
  * <p>{@link CustomPoseEstimator#addVisionMeasurement} can be called as infrequently as you want; if you
  * never call it then this class will behave exactly like regular encoder odometry.
  *
+ * <p>Unlike WPILib's PoseEstimator, the pose history is a {@link PoseHistory} of primitives rather
+ * than a TimeInterpolatableBuffer of records, and the odometry is integrated here with the same
+ * math as {@link Odometry} rather than by an Odometry object, so recording odometry and looking up
+ * past poses don't allocate. Subclasses flatten their wheel positions into a fixed number of
+ * doubles and provide the interpolation and kinematics on that form.
+ *
  * @param <T> Wheel positions type.
  */
-public class CustomPoseEstimator<T extends WheelPositions<T>> {
-  private final Kinematics<?, T> m_kinematics;
-  private final Odometry<T> m_odometry;
+public abstract class CustomPoseEstimator<T extends WheelPositions<T>> {
+  // Odometry state, as Odometry keeps it. The heading is also the last gyro angle plus the offset.
+  private double m_poseX;
+  private double m_poseY;
+  private double m_poseTheta;
+  private double m_gyroOffset;
+  private final double[] m_previousWheelState;
+  // The odometry pose as an object, built when it's first asked for after a change
+  private Pose2d m_pose;
+
   private final Matrix<N3, N1> m_q = new Matrix<>(Nat.N3(), Nat.N1());
   private final Matrix<N3, N3> m_visionK = new Matrix<>(Nat.N3(), Nat.N3());
+  private final Matrix<N3, N3> m_measurementK = new Matrix<>(Nat.N3(), Nat.N3());
 
   private static final double kBufferDuration = 1.5;
-  private final TimeInterpolatableBuffer<InterpolationRecord> m_poseBuffer =
-      TimeInterpolatableBuffer.createBuffer(kBufferDuration);
+  // Enough for kBufferDuration at up to ~650 Hz of odometry and vision updates. Faster than that,
+  // the oldest records are dropped early.
+  private static final int kBufferCapacity = 1024;
+  private final PoseHistory m_poseBuffer;
+
+  // Scratch space, so updates and lookups don't allocate
+  private final double[] m_wheelState;
+  private final double[] m_lowerWheelState;
+  private final double[] m_upperWheelState;
+  private final Twist2d m_twist = new Twist2d();
+  // Result of the last exp() call
+  private double m_expX;
+  private double m_expY;
+
+  // Result of the last sample() call
+  private double m_sampleX;
+  private double m_sampleY;
+  private double m_sampleTheta;
+  private double m_sampleGyro;
+  private final double[] m_sampleWheelState;
+
+  // Inputs to replay after a vision measurement
+  private final double[] m_replayTimestamps = new double[kBufferCapacity];
+  private final double[] m_replayGyro = new double[kBufferCapacity];
+  private final double[] m_replayWheelStates;
+  private int m_replayCount;
+
+  // Batched measurements being applied, oldest first
+  private final List<VisionMeasurement> m_batch = new ArrayList<>();
+  private static final Comparator<VisionMeasurement> kByTimestamp =
+      Comparator.comparingDouble(measurement -> measurement.timestampSeconds);
+
+  /** A vision pose measurement with its own standard deviations, for batched fusion. */
+  public static final class VisionMeasurement {
+    /** The pose of the robot as measured by the vision camera. */
+    public final Pose2d poseMeters;
+
+    /** The timestamp of the measurement in seconds, on the same clock as the odometry updates. */
+    public final double timestampSeconds;
+
+    /**
+     * Standard deviations of the measurement (x position in meters, y position in meters, and
+     * heading in radians).
+     */
+    public final Matrix<N3, N1> stdDevs;
+
+    /**
+     * Constructs a VisionMeasurement.
+     *
+     * @param poseMeters The pose of the robot as measured by the vision camera.
+     * @param timestampSeconds The timestamp of the measurement in seconds.
+     * @param stdDevs Standard deviations of the measurement (x, y, heading).
+     */
+    public VisionMeasurement(Pose2d poseMeters, double timestampSeconds, Matrix<N3, N1> stdDevs) {
+      this.poseMeters = poseMeters;
+      this.timestampSeconds = timestampSeconds;
+      this.stdDevs = stdDevs;
+    }
+  }
 
   /**
    * Constructs a PoseEstimator.
    *
-   * @param kinematics A correctly-configured kinematics object for your drivetrain.
-   * @param odometry A correctly-configured odometry object for your drivetrain.
+   * @param gyroAngleRadians The current gyro angle.
+   * @param wheelState The current encoder readings, flattened. Its length is the number of doubles
+   *     every set of wheel positions is flattened into.
+   * @param initialPoseMeters The starting pose estimate.
    * @param stateStdDevs Standard deviations of the pose estimate (x position in meters, y position
    *     in meters, and heading in radians). Increase these numbers to trust your state estimate
    *     less.
@@ -61,13 +132,21 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
    *     in meters, y position in meters, and heading in radians). Increase these numbers to trust
    *     the vision pose measurement less.
    */
-  public CustomPoseEstimator(
-      Kinematics<?, T> kinematics,
-      Odometry<T> odometry,
+  protected CustomPoseEstimator(
+      double gyroAngleRadians,
+      double[] wheelState,
+      Pose2d initialPoseMeters,
       Matrix<N3, N1> stateStdDevs,
       Matrix<N3, N1> visionMeasurementStdDevs) {
-    m_kinematics = kinematics;
-    m_odometry = odometry;
+    int wheelStateSize = wheelState.length;
+    m_previousWheelState = new double[wheelStateSize];
+    resetOdometry(gyroAngleRadians, wheelState, initialPoseMeters);
+    m_poseBuffer = new PoseHistory(kBufferCapacity, wheelStateSize);
+    m_wheelState = new double[wheelStateSize];
+    m_lowerWheelState = new double[wheelStateSize];
+    m_upperWheelState = new double[wheelStateSize];
+    m_sampleWheelState = new double[wheelStateSize];
+    m_replayWheelStates = new double[kBufferCapacity * wheelStateSize];
 
     for (int i = 0; i < 3; ++i) {
       m_q.set(i, 0, stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0));
@@ -85,6 +164,10 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
    *     theta]ᵀ, with units in meters and radians.
    */
   public final void setVisionMeasurementStdDevs(Matrix<N3, N1> visionMeasurementStdDevs) {
+    computeVisionK(visionMeasurementStdDevs, m_visionK);
+  }
+
+  private void computeVisionK(Matrix<N3, N1> visionMeasurementStdDevs, Matrix<N3, N3> visionK) {
     var r = new double[3];
     for (int i = 0; i < 3; ++i) {
       r[i] = visionMeasurementStdDevs.get(i, 0) * visionMeasurementStdDevs.get(i, 0);
@@ -94,9 +177,9 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
     // and C = I. See wpimath/algorithms.md.
     for (int row = 0; row < 3; ++row) {
       if (m_q.get(row, 0) == 0.0) {
-        m_visionK.set(row, row, 0.0);
+        visionK.set(row, row, 0.0);
       } else {
-        m_visionK.set(
+        visionK.set(
             row, row, m_q.get(row, 0) / (m_q.get(row, 0) + Math.sqrt(m_q.get(row, 0) * r[row])));
       }
     }
@@ -113,36 +196,181 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
    * @param poseMeters The position on the field that your robot is at.
    */
   public void resetPosition(Rotation2d gyroAngle, T wheelPositions, Pose2d poseMeters) {
+    toWheelState(wheelPositions, m_wheelState);
+    resetPosition(gyroAngle.getRadians(), m_wheelState, poseMeters);
+  }
+
+  /**
+   * Resets the robot's position on the field, from flattened wheel positions.
+   *
+   * @param gyroAngleRadians The angle reported by the gyroscope.
+   * @param wheelState The current encoder readings, flattened.
+   * @param poseMeters The position on the field that your robot is at.
+   */
+  protected final void resetPosition(double gyroAngleRadians, double[] wheelState, Pose2d poseMeters) {
     // Reset state estimate and error covariance
-    m_odometry.resetPosition(gyroAngle, wheelPositions, poseMeters);
+    resetOdometry(gyroAngleRadians, wheelState, poseMeters);
     m_poseBuffer.clear();
   }
 
+  /** Resets the odometry to a pose, like {@link Odometry#resetPosition}, keeping the history. */
+  private void resetOdometry(double gyroAngleRadians, double[] wheelState, Pose2d poseMeters) {
+    m_pose = poseMeters;
+    m_poseX = poseMeters.getX();
+    m_poseY = poseMeters.getY();
+    m_poseTheta = poseMeters.getRotation().getRadians();
+    m_gyroOffset = MathUtil.angleModulus(m_poseTheta - gyroAngleRadians);
+    System.arraycopy(wheelState, 0, m_previousWheelState, 0, m_previousWheelState.length);
+  }
+
   /**
    * Gets the estimated robot pose.
    *
    * @return The estimated robot pose in meters.
    */
   public Pose2d getEstimatedPosition() {
-    return m_odometry.getPoseMeters();
+    if (m_pose == null) {
+      m_pose = new Pose2d(m_poseX, m_poseY, new Rotation2d(m_poseTheta));
+    }
+    return m_pose;
   }
 
+  /**
+   * Gets the estimated robot pose at a past time, interpolated from the pose history.
+   *
+   * @param timestampSeconds The time to look up, on the same clock as the updates.
+   * @return The estimated pose then, or the current pose if the time is older than the history.
+   */
   public Pose2d getEstimatedPosition(double timestampSeconds) {
-    try {
-      if (m_poseBuffer.getInternalBuffer().lastKey() - kBufferDuration > timestampSeconds) {
-        return getEstimatedPosition();
-      }
-    } catch (NoSuchElementException ex) {
+    if (!isInHistory(timestampSeconds)) {
       return getEstimatedPosition();
     }
 
-    var sample = m_poseBuffer.getSample(timestampSeconds);
+    sample(timestampSeconds);
+    return new Pose2d(m_sampleX, m_sampleY, new Rotation2d(m_sampleTheta));
+  }
 
-    if (sample.isEmpty()) {
-      return getEstimatedPosition();
+  /**
+   * Measures how surprising a vision measurement is: the squared Mahalanobis distance between it
+   * and the estimated pose at its timestamp. The innovation covariance is the state variance this
+   * estimator was constructed with plus the measurement's variance, the same model its Kalman gain
+   * uses. The difference is taken in the estimated pose's frame, like the twist the gain scales.
+   * Under that model the result is chi-squared distributed, with one degree of freedom per axis
+   * whose standard deviation isn't effectively infinite.
+   *
+   * @param visionX The measured x position in meters.
+   * @param visionY The measured y position in meters.
+   * @param visionHeadingRadians The measured heading in radians.
+   * @param timestampSeconds The timestamp of the measurement in seconds.
+   * @param xStdDev Standard deviation of the measured x position in meters.
+   * @param yStdDev Standard deviation of the measured y position in meters.
+   * @param headingStdDev Standard deviation of the measured heading in radians.
+   * @return The squared distance, or NaN if the timestamp is older than the pose history, in which
+   *     case the measurement would be ignored anyway.
+   */
+  public double getMahalanobisDistanceSquared(
+      double visionX,
+      double visionY,
+      double visionHeadingRadians,
+      double timestampSeconds,
+      double xStdDev,
+      double yStdDev,
+      double headingStdDev) {
+    if (!isInHistory(timestampSeconds)) {
+      return Double.NaN;
+    }
+
+    sample(timestampSeconds);
+    double cos = Math.cos(m_sampleTheta);
+    double sin = Math.sin(m_sampleTheta);
+    double fieldDx = visionX - m_sampleX;
+    double fieldDy = visionY - m_sampleY;
+    double dx = fieldDx * cos + fieldDy * sin;
+    double dy = -fieldDx * sin + fieldDy * cos;
+    double dtheta = MathUtil.angleModulus(visionHeadingRadians - m_sampleTheta);
+
+    return dx * dx / (m_q.get(0, 0) + xStdDev * xStdDev)
+        + dy * dy / (m_q.get(1, 0) + yStdDev * yStdDev)
+        + dtheta * dtheta / (m_q.get(2, 0) + headingStdDev * headingStdDev);
+  }
+
+  private boolean isInHistory(double timestampSeconds) {
+    int size = m_poseBuffer.size();
+    return size > 0 && m_poseBuffer.getTimestamp(size - 1) - kBufferDuration <= timestampSeconds;
+  }
+
+  /**
+   * Finds the record at a time, interpolating between the records either side of it, and stores it
+   * in the m_sample fields. Times outside the history get the nearest record. The history must not
+   * be empty.
+   */
+  private void sample(double timestampSeconds) {
+    int size = m_poseBuffer.size();
+    int upper = m_poseBuffer.ceilingIndex(timestampSeconds);
+    if (upper == size) {
+      loadSample(size - 1);
+      return;
+    }
+    if (upper == 0 || m_poseBuffer.getTimestamp(upper) == timestampSeconds) {
+      loadSample(upper);
+      return;
+    }
+
+    int lower = upper - 1;
+    double lowerTime = m_poseBuffer.getTimestamp(lower);
+    double t = (timestampSeconds - lowerTime) / (m_poseBuffer.getTimestamp(upper) - lowerTime);
+
+    // Find the new wheel positions and gyro angle.
+    m_poseBuffer.getWheelState(lower, m_lowerWheelState);
+    m_poseBuffer.getWheelState(upper, m_upperWheelState);
+    interpolateWheelState(m_lowerWheelState, m_upperWheelState, t, m_sampleWheelState);
+    double lowerGyro = m_poseBuffer.getGyro(lower);
+    double gyroLerp = MathUtil.angleModulus(lowerGyro + MathUtil.angleModulus(m_poseBuffer.getGyro(upper) - lowerGyro) * t);
+
+    // Create a twist to represent the change based on the interpolated sensor inputs, and apply it
+    // to the lower pose.
+    toTwist(m_lowerWheelState, m_sampleWheelState, m_twist);
+    m_twist.dtheta = MathUtil.angleModulus(gyroLerp - lowerGyro);
+    double theta = m_poseBuffer.getTheta(lower);
+    exp(m_poseBuffer.getX(lower), m_poseBuffer.getY(lower), theta, m_twist);
+
+    m_sampleX = m_expX;
+    m_sampleY = m_expY;
+    m_sampleTheta = MathUtil.angleModulus(theta + m_twist.dtheta);
+    m_sampleGyro = gyroLerp;
+  }
+
+  /**
+   * Applies a twist to a pose the same way Pose2d.exp() does, and stores the new translation in the
+   * m_exp fields. The new heading is just theta + twist.dtheta.
+   */
+  private void exp(double x, double y, double theta, Twist2d twist) {
+    double dtheta = twist.dtheta;
+    double sinTheta = Math.sin(dtheta);
+    double cosTheta = Math.cos(dtheta);
+    double s, c;
+    if (Math.abs(dtheta) < 1E-9) {
+      s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+      c = 0.5 * dtheta;
+    } else {
+      s = sinTheta / dtheta;
+      c = (1 - cosTheta) / dtheta;
     }
+    double dx = twist.dx * s - twist.dy * c;
+    double dy = twist.dx * c + twist.dy * s;
+    double cos = Math.cos(theta);
+    double sin = Math.sin(theta);
 
-    return sample.get().poseMeters;
+    m_expX = x + dx * cos - dy * sin;
+    m_expY = y + dx * sin + dy * cos;
+  }
+
+  private void loadSample(int index) {
+    m_sampleX = m_poseBuffer.getX(index);
+    m_sampleY = m_poseBuffer.getY(index);
+    m_sampleTheta = m_poseBuffer.getTheta(index);
+    m_sampleGyro = m_poseBuffer.getGyro(index);
+    m_poseBuffer.getWheelState(index, m_sampleWheelState);
   }
 
   /**
@@ -167,49 +395,116 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
    */
   public void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
     // Step 0: If this measurement is old enough to be outside the pose buffer's timespan, skip.
-    try {
-      if (m_poseBuffer.getInternalBuffer().lastKey() - kBufferDuration > timestampSeconds) {
-        return;
-      }
-    } catch (NoSuchElementException ex) {
+    if (!isInHistory(timestampSeconds)) {
       return;
     }
 
-    // Step 1: Get the pose odometry measured at the moment the vision measurement was made.
-    var sample = m_poseBuffer.getSample(timestampSeconds);
+    setAsideReplay(timestampSeconds);
+    correct(visionRobotPoseMeters, timestampSeconds, m_visionK);
 
-    if (sample.isEmpty()) {
+    // Step 7: Replay odometry inputs between sample time and latest recorded sample to update the
+    // pose buffer and correct odometry.
+    replay(0, m_replayCount);
+  }
+
+  /**
+   * Adds every vision measurement from one loop, each with its own standard deviations. The result
+   * is the same as adding them one at a time in timestamp order, but the odometry recorded since
+   * the oldest measurement is only replayed once, rather than once per measurement.
+   *
+   * @param measurements The measurements, in any order. Ones older than the pose history are
+   *     skipped.
+   */
+  public void addVisionMeasurements(List<VisionMeasurement> measurements) {
+    m_batch.clear();
+    for (VisionMeasurement measurement : measurements) {
+      if (isInHistory(measurement.timestampSeconds)) m_batch.add(measurement);
+    }
+    if (m_batch.isEmpty()) {
       return;
     }
+    m_batch.sort(kByTimestamp);
+
+    var oldest = m_batch.get(0);
+    setAsideReplay(oldest.timestampSeconds);
+    computeVisionK(oldest.stdDevs, m_measurementK);
+    correct(oldest.poseMeters, oldest.timestampSeconds, m_measurementK);
+
+    int replayed = 0;
+    for (int i = 1; i < m_batch.size(); i++) {
+      var measurement = m_batch.get(i);
+      double timestampSeconds = measurement.timestampSeconds;
+
+      // Replay up to the measurement, and one input past it so there's something to interpolate
+      // towards. Correcting drops that input again, so it's replayed a second time below.
+      int end = replayed;
+      while (end < m_replayCount && m_replayTimestamps[end] <= timestampSeconds) end++;
+      replay(replayed, end);
+      replayed = end;
+      if (replayed < m_replayCount && m_poseBuffer.getTimestamp(m_poseBuffer.size() - 1) != timestampSeconds) {
+        replay(replayed, replayed + 1);
+      }
+
+      computeVisionK(measurement.stdDevs, m_measurementK);
+      correct(measurement.poseMeters, timestampSeconds, m_measurementK);
+    }
+    replay(replayed, m_replayCount);
+    m_batch.clear();
+  }
+
+  /**
+   * Copies the odometry inputs recorded after a time into the replay arrays, so they can be replayed
+   * once the estimate at that time has been corrected.
+   */
+  private void setAsideReplay(double timestampSeconds) {
+    m_replayCount = 0;
+    int wheelStateSize = m_wheelState.length;
+    for (int i = m_poseBuffer.ceilingIndex(timestampSeconds); i < m_poseBuffer.size(); i++) {
+      double timestamp = m_poseBuffer.getTimestamp(i);
+      if (timestamp == timestampSeconds) continue;
+      m_replayTimestamps[m_replayCount] = timestamp;
+      m_replayGyro[m_replayCount] = m_poseBuffer.getGyro(i);
+      m_poseBuffer.getWheelState(i, m_wheelState);
+      System.arraycopy(m_wheelState, 0, m_replayWheelStates, m_replayCount * wheelStateSize, wheelStateSize);
+      m_replayCount++;
+    }
+  }
+
+  /**
+   * Applies one vision measurement at its time: resets odometry to the corrected pose then, and
+   * drops the history after it. The inputs after it must have been set aside to replay.
+   */
+  private void correct(Pose2d visionRobotPoseMeters, double timestampSeconds, Matrix<N3, N3> visionK) {
+    // Step 1: Get the pose odometry measured at the moment the vision measurement was made.
+    sample(timestampSeconds);
+    var samplePose = new Pose2d(m_sampleX, m_sampleY, new Rotation2d(m_sampleTheta));
 
     // Step 2: Measure the twist between the odometry pose and the vision pose.
-    var twist = sample.get().poseMeters.log(visionRobotPoseMeters);
+    var twist = samplePose.log(visionRobotPoseMeters);
 
     // Step 3: We should not trust the twist entirely, so instead we scale this twist by a Kalman
     // gain matrix representing how much we trust vision measurements compared to our current pose.
-    var k_times_twist = m_visionK.times(VecBuilder.fill(twist.dx, twist.dy, twist.dtheta));
+    var k_times_twist = visionK.times(VecBuilder.fill(twist.dx, twist.dy, twist.dtheta));
 
     // Step 4: Convert back to Twist2d.
     var scaledTwist =
         new Twist2d(k_times_twist.get(0, 0), k_times_twist.get(1, 0), k_times_twist.get(2, 0));
 
     // Step 5: Reset Odometry to state at sample with vision adjustment.
-    m_odometry.resetPosition(
-        sample.get().gyroAngle,
-        sample.get().wheelPositions,
-        sample.get().poseMeters.exp(scaledTwist));
+    resetOdometry(m_sampleGyro, m_sampleWheelState, samplePose.exp(scaledTwist));
+    m_poseBuffer.truncate(m_poseBuffer.ceilingIndex(timestampSeconds));
 
     // Step 6: Record the current pose to allow multiple measurements from the same timestamp
-    m_poseBuffer.addSample(
-        timestampSeconds,
-        new InterpolationRecord(
-            getEstimatedPosition(), sample.get().gyroAngle, sample.get().wheelPositions));
+    m_poseBuffer.add(
+        timestampSeconds, m_poseX, m_poseY, m_poseTheta, m_sampleGyro, m_sampleWheelState);
+  }
 
-    // Step 7: Replay odometry inputs between sample time and latest recorded sample to update the
-    // pose buffer and correct odometry.
-    for (Map.Entry<Double, InterpolationRecord> entry :
-        m_poseBuffer.getInternalBuffer().tailMap(timestampSeconds).entrySet()) {
-      updateWithTime(entry.getKey(), entry.getValue().gyroAngle, entry.getValue().wheelPositions);
+  /** Replays the set-aside odometry inputs from start (inclusive) to end (exclusive). */
+  private void replay(int start, int end) {
+    int wheelStateSize = m_wheelState.length;
+    for (int i = start; i < end; i++) {
+      System.arraycopy(m_replayWheelStates, i * wheelStateSize, m_lowerWheelState, 0, wheelStateSize);
+      updateWithTime(m_replayTimestamps[i], m_replayGyro[i], m_lowerWheelState);
     }
   }
 
@@ -269,87 +564,62 @@ public class CustomPoseEstimator<T extends WheelPositions<T>> {
    * @return The estimated pose of the robot in meters.
    */
   public Pose2d updateWithTime(double currentTimeSeconds, Rotation2d gyroAngle, T wheelPositions) {
-    m_odometry.update(gyroAngle, wheelPositions);
-    m_poseBuffer.addSample(
-        currentTimeSeconds,
-        new InterpolationRecord(getEstimatedPosition(), gyroAngle, wheelPositions.copy()));
-
+    toWheelState(wheelPositions, m_wheelState);
+    updateWithTime(currentTimeSeconds, gyroAngle.getRadians(), m_wheelState);
     return getEstimatedPosition();
   }
 
   /**
-   * Represents an odometry record. The record contains the inputs provided as well as the pose that
-   * was observed based on these inputs, as well as the previous record and its inputs.
+   * Updates the pose estimator with flattened wheel positions and the gyro angle, without
+   * allocating. Integrates the same way {@link Odometry#update} does: the wheels give the
+   * translation, and the gyro the rotation.
+   *
+   * @param currentTimeSeconds Time at which this method was called, in seconds.
+   * @param gyroAngleRadians The current gyro angle.
+   * @param wheelState The current encoder readings, flattened. Only read during the call.
    */
-  private class InterpolationRecord implements Interpolatable<InterpolationRecord> {
-    // The pose observed given the current sensor inputs and the previous pose.
-    private final Pose2d poseMeters;
-
-    // The current gyro angle.
-    private final Rotation2d gyroAngle;
-
-    // The current encoder readings.
-    private final T wheelPositions;
-
-    /**
-     * Constructs an Interpolation Record with the specified parameters.
-     *
-     * @param poseMeters The pose observed given the current sensor inputs and the previous pose.
-     * @param gyro The current gyro angle.
-     * @param wheelPositions The current encoder readings.
-     */
-    private InterpolationRecord(Pose2d poseMeters, Rotation2d gyro, T wheelPositions) {
-      this.poseMeters = poseMeters;
-      this.gyroAngle = gyro;
-      this.wheelPositions = wheelPositions;
-    }
-
-    /**
-     * Return the interpolated record. This object is assumed to be the starting position, or lower
-     * bound.
-     *
-     * @param endValue The upper bound, or end.
-     * @param t How far between the lower and upper bound we are. This should be bounded in [0, 1].
-     * @return The interpolated value.
-     */
-    @Override
-    public InterpolationRecord interpolate(InterpolationRecord endValue, double t) {
-      if (t < 0) {
-        return this;
-      } else if (t >= 1) {
-        return endValue;
-      } else {
-        // Find the new wheel distances.
-        var wheelLerp = wheelPositions.interpolate(endValue.wheelPositions, t);
-
-        // Find the new gyro angle.
-        var gyroLerp = gyroAngle.interpolate(endValue.gyroAngle, t);
-
-        // Create a twist to represent the change based on the interpolated sensor inputs.
-        Twist2d twist = m_kinematics.toTwist2d(wheelPositions, wheelLerp);
-        twist.dtheta = gyroLerp.minus(gyroAngle).getRadians();
+  protected final void updateWithTime(
+      double currentTimeSeconds, double gyroAngleRadians, double[] wheelState) {
+    double angle = MathUtil.angleModulus(gyroAngleRadians + m_gyroOffset);
+    toTwist(m_previousWheelState, wheelState, m_twist);
+    m_twist.dtheta = MathUtil.angleModulus(angle - m_poseTheta);
+    exp(m_poseX, m_poseY, m_poseTheta, m_twist);
+    m_poseX = m_expX;
+    m_poseY = m_expY;
+    m_poseTheta = angle;
+    m_pose = null;
+    System.arraycopy(wheelState, 0, m_previousWheelState, 0, m_previousWheelState.length);
+
+    m_poseBuffer.removeExpired(currentTimeSeconds, kBufferDuration);
+    m_poseBuffer.add(
+        currentTimeSeconds, m_poseX, m_poseY, m_poseTheta, gyroAngleRadians, wheelState);
+  }
 
-        return new InterpolationRecord(poseMeters.exp(twist), gyroLerp, wheelLerp);
-      }
-    }
+  /**
+   * Flattens wheel positions into the pose history's form.
+   *
+   * @param wheelPositions The wheel positions.
+   * @param state Filled with the flattened positions.
+   */
+  protected abstract void toWheelState(T wheelPositions, double[] state);
 
-    @Override
-    public boolean equals(Object obj) {
-      if (this == obj) {
-        return true;
-      }
-      if (!(obj instanceof CustomPoseEstimator.InterpolationRecord)) {
-        return false;
-      }
-      var record = (CustomPoseEstimator<?>.InterpolationRecord) obj;
-      return Objects.equals(gyroAngle, record.gyroAngle)
-          && Objects.equals(wheelPositions, record.wheelPositions)
-          && Objects.equals(poseMeters, record.poseMeters);
-    }
+  /**
+   * Interpolates between flattened wheel positions, like {@link WheelPositions#interpolate}.
+   *
+   * @param start The lower bound.
+   * @param end The upper bound.
+   * @param t How far between the lower and upper bound we are, in (0, 1).
+   * @param result Filled with the interpolated positions.
+   */
+  protected abstract void interpolateWheelState(double[] start, double[] end, double t, double[] result);
 
-    @Override
-    public int hashCode() {
-      return Objects.hash(gyroAngle, wheelPositions, poseMeters);
-    }
-  }
+  /**
+   * Performs forward kinematics on the change between flattened wheel positions, like
+   * {@link edu.wpi.first.math.kinematics.Kinematics#toTwist2d}.
+   *
+   * @param start The starting positions.
+   * @param end The ending positions.
+   * @param twist Set to the robot-relative twist between them.
+   */
+  protected abstract void toTwist(double[] start, double[] end, Twist2d twist);
 }
@@ -4,11 +4,13 @@
 
 package frc.robot.util.software;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveDriveWheelPositions;
@@ -25,9 +27,17 @@ import edu.wpi.first.math.numbers.N3;
  *
  * <p>{@link SwerveDrivePoseEstimator#addVisionMeasurement} can be called as infrequently as you
  * want; if you never call it, then this class will behave as regular encoder odometry.
+ *
+ * <p>In the pose history, each set of module positions is flattened into the distances of every
+ * module followed by their angles in radians. The overloads that take those as arrays don't
+ * allocate, for callers that sample the modules many times a loop.
  */
 public class CustomSwerveDrivePoseEstimator extends CustomPoseEstimator<SwerveDriveWheelPositions> {
   private final int m_numModules;
+  // Forward kinematics, 3 x (2 * modules): (dx, dy, dtheta) from each module's (x, y) displacement
+  private final double[][] m_forwardKinematics;
+  // Scratch space for flattening the primitive overloads' arguments
+  private final double[] m_inputState;
 
   /**
    * Constructs a SwerveDrivePoseEstimator with default standard deviations for the model and vision
@@ -78,12 +88,37 @@ public class CustomSwerveDrivePoseEstimator extends CustomPoseEstimator<SwerveDr
       Matrix<N3, N1> stateStdDevs,
       Matrix<N3, N1> visionMeasurementStdDevs) {
     super(
-        kinematics,
-        new SwerveDriveOdometry(kinematics, gyroAngle, modulePositions, initialPoseMeters),
+        gyroAngle.getRadians(),
+        flatten(modulePositions),
+        initialPoseMeters,
         stateStdDevs,
         visionMeasurementStdDevs);
 
     m_numModules = modulePositions.length;
+    m_inputState = new double[2 * m_numModules];
+
+    // The kinematics don't expose their matrix, but toTwist2d() is linear in each module's
+    // displacement, so each column is the twist from moving one module one meter along x or y.
+    m_forwardKinematics = new double[3][2 * m_numModules];
+    var start = new SwerveModulePosition[m_numModules];
+    var end = new SwerveModulePosition[m_numModules];
+    for (int i = 0; i < m_numModules; i++) {
+      start[i] = new SwerveModulePosition();
+    }
+    for (int column = 0; column < 2 * m_numModules; column++) {
+      for (int i = 0; i < m_numModules; i++) {
+        end[i] =
+            i == column / 2
+                ? new SwerveModulePosition(1.0, column % 2 == 0 ? new Rotation2d() : Rotation2d.fromDegrees(90.0))
+                : new SwerveModulePosition();
+      }
+      var twist =
+          kinematics.toTwist2d(
+              new SwerveDriveWheelPositions(start), new SwerveDriveWheelPositions(end));
+      m_forwardKinematics[0][column] = twist.dx;
+      m_forwardKinematics[1][column] = twist.dy;
+      m_forwardKinematics[2][column] = twist.dtheta;
+    }
   }
 
   /**
@@ -101,6 +136,19 @@ public class CustomSwerveDrivePoseEstimator extends CustomPoseEstimator<SwerveDr
     resetPosition(gyroAngle, new SwerveDriveWheelPositions(modulePositions), poseMeters);
   }
 
+  /**
+   * Resets the robot's position on the field, without allocating.
+   *
+   * @param gyroAngleRadians The angle reported by the gyroscope.
+   * @param distancesMeters The distance each swerve module has driven.
+   * @param anglesRadians The angle of each swerve module.
+   * @param poseMeters The position on the field that your robot is at.
+   */
+  public void resetPosition(
+      double gyroAngleRadians, double[] distancesMeters, double[] anglesRadians, Pose2d poseMeters) {
+    resetPosition(gyroAngleRadians, flatten(distancesMeters, anglesRadians), poseMeters);
+  }
+
   /**
    * Updates the pose estimator with wheel encoder and gyro information. This should be called every
    * loop.
@@ -139,4 +187,80 @@ public class CustomSwerveDrivePoseEstimator extends CustomPoseEstimator<SwerveDr
 
     return super.updateWithTime(currentTimeSeconds, gyroAngle, wheelPositions);
   }
+
+  /**
+   * Updates the pose estimator with wheel encoder and gyro information, without allocating. Get the
+   * new estimate from {@link #getEstimatedPosition()}.
+   *
+   * @param currentTimeSeconds Time at which this method was called, in seconds.
+   * @param gyroAngleRadians The current gyroscope angle.
+   * @param distancesMeters The distance each swerve module has driven. Only read during the call.
+   * @param anglesRadians The angle of each swerve module. Only read during the call.
+   */
+  public void updateWithTime(
+      double currentTimeSeconds,
+      double gyroAngleRadians,
+      double[] distancesMeters,
+      double[] anglesRadians) {
+    updateWithTime(currentTimeSeconds, gyroAngleRadians, flatten(distancesMeters, anglesRadians));
+  }
+
+  /** Flattens module distances and angles into m_inputState. */
+  private double[] flatten(double[] distancesMeters, double[] anglesRadians) {
+    if (distancesMeters.length != m_numModules || anglesRadians.length != m_numModules) {
+      throw new IllegalArgumentException(
+          "Number of modules is not consistent with number of wheel locations provided in "
+              + "constructor");
+    }
+
+    System.arraycopy(distancesMeters, 0, m_inputState, 0, m_numModules);
+    System.arraycopy(anglesRadians, 0, m_inputState, m_numModules, m_numModules);
+    return m_inputState;
+  }
+
+  /** Flattens module positions into a new array, for the constructor. */
+  private static double[] flatten(SwerveModulePosition[] modulePositions) {
+    int numModules = modulePositions.length;
+    var state = new double[2 * numModules];
+    for (int i = 0; i < numModules; i++) {
+      state[i] = modulePositions[i].distanceMeters;
+      state[numModules + i] = modulePositions[i].angle.getRadians();
+    }
+    return state;
+  }
+
+  @Override
+  protected void toWheelState(SwerveDriveWheelPositions wheelPositions, double[] state) {
+    for (int i = 0; i < m_numModules; i++) {
+      state[i] = wheelPositions.positions[i].distanceMeters;
+      state[m_numModules + i] = wheelPositions.positions[i].angle.getRadians();
+    }
+  }
+
+  @Override
+  protected void interpolateWheelState(double[] start, double[] end, double t, double[] result) {
+    for (int i = 0; i < m_numModules; i++) {
+      result[i] = MathUtil.interpolate(start[i], end[i], t);
+      double startAngle = start[m_numModules + i];
+      result[m_numModules + i] =
+          MathUtil.angleModulus(
+              startAngle + MathUtil.angleModulus(end[m_numModules + i] - startAngle) * t);
+    }
+  }
+
+  @Override
+  protected void toTwist(double[] start, double[] end, Twist2d twist) {
+    twist.dx = 0.0;
+    twist.dy = 0.0;
+    twist.dtheta = 0.0;
+    for (int i = 0; i < m_numModules; i++) {
+      double distance = end[i] - start[i];
+      double angle = end[m_numModules + i];
+      double moduleX = distance * Math.cos(angle);
+      double moduleY = distance * Math.sin(angle);
+      twist.dx += m_forwardKinematics[0][2 * i] * moduleX + m_forwardKinematics[0][2 * i + 1] * moduleY;
+      twist.dy += m_forwardKinematics[1][2 * i] * moduleX + m_forwardKinematics[1][2 * i + 1] * moduleY;
+      twist.dtheta += m_forwardKinematics[2][2 * i] * moduleX + m_forwardKinematics[2][2 * i + 1] * moduleY;
+    }
+  }
 }
@@ -27,6 +27,16 @@ public final class AutonChooser {
     return notesToGet;
   }
 
+  /**
+   * Toggles the chooser to a set of notes, e.g. for a simulated match
+   * @param notesToGet Notes 0-7 to pick up
+   */
+  public static void setNotes(List<Integer> notesToGet) {
+    for (int i = 0; i < notes.size(); i++) {
+      notes.get(i).getEntry().setBoolean(notesToGet.contains(i));
+    }
+  }
+
   public static void init() {
     for (int i = 0; i < Field.NOTE_POSITIONS.size(); i++) {
       int row = i;
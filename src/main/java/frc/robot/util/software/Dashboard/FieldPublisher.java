@@ -0,0 +1,99 @@
+package frc.robot.util.software.Dashboard;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.Constants.LOGGING;
+
+/**
+ * Owns the dashboard's Field2d. The main thread hands over poses, which are only kept until the
+ * publisher's own thread next runs; it then sends each object whose poses changed since they were
+ * last sent, at {@link LOGGING#FIELD_PUBLISH_PERIOD_MS} instead of every loop. Objects that take
+ * work to build can check {@link #isDue(String)} first, so they're only built as often as they're
+ * sent.
+ */
+public final class FieldPublisher {
+  public static final String ROBOT = "Robot";
+
+  private static final class Entry {
+    private final FieldObject2d object;
+    // Latest poses handed over by the main thread that haven't been picked up yet
+    private final AtomicReference<Pose2d[]> pending = new AtomicReference<>();
+    // Only touched by the publisher thread
+    private Pose2d[] published = new Pose2d[0];
+
+    private Entry(FieldObject2d object) {
+      this.object = object;
+    }
+  }
+
+  private static final Field2d field = new Field2d();
+  private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private static final Notifier notifier = new Notifier(() -> {
+    try {
+      FieldPublisher.publish();
+    } catch (Exception e) {
+
+    }
+  });
+
+  private FieldPublisher() {}
+
+  public static void start() {
+    SmartDashboard.putData("Field", field);
+    notifier.setName("Field Publisher");
+    notifier.startPeriodic(LOGGING.FIELD_PUBLISH_PERIOD_MS / 1000.0);
+  }
+
+  public static Field2d getField() {
+    return field;
+  }
+
+  private static Entry getEntry(String name) {
+    return entries.computeIfAbsent(name, key -> new Entry(field.getObject(key)));
+  }
+
+  /**
+   * @return True if the object's last poses have been sent, so new ones would be sent next
+   */
+  public static boolean isDue(String name) {
+    Entry entry = entries.get(name);
+    return entry == null || entry.pending.get() == null;
+  }
+
+  public static void setPose(String name, Pose2d pose) {
+    getEntry(name).pending.set(new Pose2d[] { pose });
+  }
+
+  /**
+   * @param poses Copied, so the caller may reuse the array
+   */
+  public static void setPoses(String name, Pose2d... poses) {
+    getEntry(name).pending.set(poses.clone());
+  }
+
+  public static void setPoses(String name, List<Pose2d> poses) {
+    getEntry(name).pending.set(poses.toArray(new Pose2d[0]));
+  }
+
+  public static void setRobotPose(Pose2d pose) {
+    setPose(ROBOT, pose);
+  }
+
+  private static void publish() {
+    for (Entry entry : entries.values()) {
+      Pose2d[] poses = entry.pending.getAndSet(null);
+      if (poses == null || Arrays.equals(poses, entry.published)) continue;
+      entry.object.setPoses(poses);
+      entry.published = poses;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package frc.robot.util.software;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.Constants;
+import frc.robot.Constants.Field;
+
+/**
+ * Which regions of the field a point is in, as a bitmask, from a grid rasterized once at startup.
+ * Each query is one array lookup instead of a handful of triangle and distance tests.
+ *
+ * <p>Every zone is mirror-symmetric between the alliances, so the grid is laid out for the blue
+ * alliance and red queries mirror x. Cells are classified by their center, so a zone's edge is
+ * only as sharp as {@link #CELL_SIZE}. Points off the field use the nearest edge cell.
+ */
+public final class FieldZones {
+  /** Under either alliance's stage */
+  public static final int STAGE = 1;
+  /** Where the robot is allowed to take a teleoperated shot from */
+  public static final int SHOOTING_SIDE = 1 << 1;
+  /** Where autonomous shoots from: close enough to the speaker and behind the wing line */
+  public static final int SPEAKER_RANGE = 1 << 2;
+
+  /** [meters] Side length of a grid cell */
+  public static final double CELL_SIZE = 0.02;
+
+  // [meters] How far autonomous shoots from, on the amp and source halves of the field
+  private static final double AMP_SIDE_SHOT_DISTANCE = 5.0;
+  private static final double SOURCE_SIDE_SHOT_DISTANCE = 3.5;
+
+  private static final int COLUMNS = (int) Math.ceil(Field.LENGTH / CELL_SIZE);
+  private static final int ROWS = (int) Math.ceil(Field.WIDTH / CELL_SIZE);
+  private static final byte[] zones = new byte[COLUMNS * ROWS];
+
+  static {
+    Translation2d speaker = Field.BLUE_SPEAKER.toTranslation2d();
+    for (int row = 0; row < ROWS; row++) {
+      double y = (row + 0.5) * CELL_SIZE;
+      for (int column = 0; column < COLUMNS; column++) {
+        double x = (column + 0.5) * CELL_SIZE;
+        Translation2d point = new Translation2d(x, y);
+        int mask = 0;
+
+        if (
+          MathUtils.isInsideTriangle(Field.BLUE_STAGE_CORNERS[0], Field.BLUE_STAGE_CORNERS[1], Field.BLUE_STAGE_CORNERS[2], point) ||
+          MathUtils.isInsideTriangle(Field.RED_STAGE_CORNERS[0], Field.RED_STAGE_CORNERS[1], Field.RED_STAGE_CORNERS[2], point)
+        ) mask |= STAGE;
+
+        if (x < Field.LENGTH - Field.BLUE_WING_X - Constants.SWERVE_DRIVE.BUMPER_DIAGONAL / 2.0) mask |= SHOOTING_SIDE;
+
+        double shotDistance = y < Field.WIDTH / 2.0 ? SOURCE_SIDE_SHOT_DISTANCE : AMP_SIDE_SHOT_DISTANCE;
+        if (point.getDistance(speaker) < shotDistance && x < Field.BLUE_WING_X - 0.5) mask |= SPEAKER_RANGE;
+
+        zones[row * COLUMNS + column] = (byte) mask;
+      }
+    }
+  }
+
+  private FieldZones() {}
+
+  /**
+   * Builds the grid now, so the first query doesn't stall the loop. Call from robotInit().
+   */
+  public static void initialize() {}
+
+  /**
+   * @param x [meters] Field x coordinate
+   * @param y [meters] Field y coordinate
+   * @param isBlueTeam Whose zones to look up
+   * @return Bitmask of the zones the point is in
+   */
+  public static int getZones(double x, double y, boolean isBlueTeam) {
+    if (!isBlueTeam) x = Field.LENGTH - x;
+    int column = Math.min(Math.max((int) Math.floor(x / CELL_SIZE), 0), COLUMNS - 1);
+    int row = Math.min(Math.max((int) Math.floor(y / CELL_SIZE), 0), ROWS - 1);
+    return zones[row * COLUMNS + column];
+  }
+
+  /**
+   * @return Bitmask of the zones the point is in, for the current alliance
+   */
+  public static int getZones(double x, double y) {
+    return getZones(x, y, Constants.IS_BLUE_TEAM.get());
+  }
+
+  /**
+   * @param zone One or more zone bits
+   * @return True if the point is in any of the zones, for the current alliance
+   */
+  public static boolean isIn(Translation2d point, int zone) {
+    return (getZones(point.getX(), point.getY()) & zone) != 0;
+  }
+}
@@ -0,0 +1,78 @@
+package frc.robot.util.software;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free queue from one producer thread to one consumer thread, over frame objects
+ * allocated once up front. The producer claims the next free frame, fills it in and publishes it;
+ * the consumer reads the oldest published frame in place and releases it. Neither side ever waits
+ * on the other, and each frame is handed over exactly once. If the consumer falls a whole queue
+ * behind, new frames are dropped and counted rather than overwriting ones it hasn't read.
+ *
+ * @param <F> Frame type
+ */
+public final class FrameQueue<F> {
+  private final Object[] frames;
+  // Frame n lives in slot n % frames.length. Number of frames published, only written by the
+  // producer.
+  private volatile long publishedCount = 0;
+  // Number of frames released. Only written by the consumer.
+  private volatile long releasedCount = 0;
+  private volatile long droppedCount = 0;
+
+  /**
+   * @param capacity Most frames waiting for the consumer at once
+   * @param factory Creates each frame
+   */
+  public FrameQueue(int capacity, Supplier<F> factory) {
+    frames = new Object[capacity];
+    for (int i = 0; i < capacity; i++) frames[i] = factory.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private F frame(long count) {
+    return (F) frames[(int) (count % frames.length)];
+  }
+
+  /**
+   * Producer only. The frame must be filled in and published before the next claim.
+   * @return The next free frame, or null if the queue is full, in which case the frame is dropped
+   */
+  public F claim() {
+    long count = publishedCount;
+    if (count - releasedCount >= frames.length) {
+      droppedCount++;
+      return null;
+    }
+    return frame(count);
+  }
+
+  /**
+   * Producer only. Hands the claimed frame to the consumer.
+   */
+  public void publish() {
+    publishedCount++;
+  }
+
+  /**
+   * Consumer only. The frame must not be used after it's released.
+   * @return The oldest frame not yet released, or null if there isn't one
+   */
+  public F peek() {
+    return releasedCount < publishedCount ? frame(releasedCount) : null;
+  }
+
+  /**
+   * Consumer only. Gives the frame returned by {@link #peek()} back to the producer.
+   */
+  public void release() {
+    releasedCount++;
+  }
+
+  /**
+   * @return Frames dropped because the queue was full
+   */
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+}
@@ -866,4 +866,18 @@ public class LimelightHelpers {
 
         return results;
     }
-}
\ No newline at end of file
+
+    /**
+     * Parses the latest JSON dump into a reused parser, decoding only the fields robot code uses.
+     * Much cheaper than {@link #getLatestResults(String)}, which builds a new object tree each time.
+     * @return True if the dump was well-formed
+     */
+    public static boolean getLatestResults(String limelightName, LimelightResultsParser parser) {
+        long start = System.nanoTime();
+        boolean parsed = parser.parse(getJSONDump(limelightName));
+        if (profileJSON) {
+            System.out.printf("lljson (streaming): %.2f\r\n", (System.nanoTime() - start) * .000001);
+        }
+        return parsed;
+    }
+}
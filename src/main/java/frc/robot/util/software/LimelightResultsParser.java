@@ -0,0 +1,414 @@
+package frc.robot.util.software;
+
+/**
+ * Decodes a Limelight's JSON results dump in one pass, straight into fields and result arrays that
+ * are allocated once and reused for every frame, instead of building an object tree with Jackson
+ * like {@link LimelightHelpers#getLatestResults(String)}. Only the fields robot code uses are
+ * decoded: validity, pipeline, latencies and timestamps, the blue-origin botpose and its tag stats,
+ * and each fiducial's ID, offsets and corners and each detection's class, confidence and offsets.
+ * Everything else is skipped without being decoded.
+ *
+ * <p>Not thread-safe: each thread parsing results needs its own parser.
+ */
+public final class LimelightResultsParser {
+  public static final int MAX_FIDUCIALS = 16;
+  public static final int MAX_DETECTORS = 16;
+  public static final int MAX_CORNERS = 4;
+
+  public static final class Fiducial {
+    public int id;
+    /** [degrees] Offset from the crosshair */
+    public double tx, ty;
+    /** [percent of image] Area of the tag */
+    public double ta;
+    /** Number of corners sent. Zero unless the pipeline sends corners. */
+    public int cornerCount;
+    /** [pixels] Corner coordinates */
+    public final double[] cornersX = new double[MAX_CORNERS];
+    public final double[] cornersY = new double[MAX_CORNERS];
+  }
+
+  public static final class Detector {
+    public int classID;
+    public double confidence;
+    /** [degrees] Offset from the crosshair */
+    public double tx, ty;
+    /** [percent of image] Area of the detection */
+    public double ta;
+  }
+
+  // Powers of ten that are exactly representable, for the fast path of readNumber()
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  public boolean valid;
+  public double pipelineID;
+  /** [milliseconds] */
+  public double latencyPipeline;
+  /** [milliseconds] */
+  public double latencyCapture;
+  /** [milliseconds] Limelight time the results were published */
+  public double timestampLimelightPublish;
+  /** [seconds] FPGA time the frame was captured, if the Limelight is synced to the RIO */
+  public double timestampRioCapture;
+  /** x, y, z [meters], roll, pitch, yaw [degrees], from the blue alliance origin */
+  public final double[] botposeWpiBlue = new double[6];
+  public int botposeTagCount;
+  public double botposeSpan;
+  public double botposeAvgDist;
+  public double botposeAvgArea;
+  public final Fiducial[] fiducials = new Fiducial[MAX_FIDUCIALS];
+  /** Number of valid entries in {@link #fiducials}. Any past MAX_FIDUCIALS are skipped. */
+  public int fiducialCount;
+  public final Detector[] detectors = new Detector[MAX_DETECTORS];
+  /** Number of valid entries in {@link #detectors}. Any past MAX_DETECTORS are skipped. */
+  public int detectorCount;
+  /** Why the last parse failed, or null if it succeeded */
+  public String error;
+
+  private String json;
+  private int position;
+
+  public LimelightResultsParser() {
+    for (int i = 0; i < MAX_FIDUCIALS; i++) fiducials[i] = new Fiducial();
+    for (int i = 0; i < MAX_DETECTORS; i++) detectors[i] = new Detector();
+  }
+
+  /**
+   * Replaces the current results with those in a JSON dump. Accepts the results object either on
+   * its own or wrapped in {"Results": ...}.
+   * @return True if the dump was well-formed. Otherwise {@link #error} says why, and the results
+   * are partial.
+   */
+  public boolean parse(String json) {
+    this.json = json;
+    position = 0;
+    clear();
+    try {
+      skipWhitespace();
+      readResults();
+      error = null;
+      return true;
+    } catch (IllegalArgumentException e) {
+      error = "lljson error: " + e.getMessage();
+      return false;
+    } finally {
+      this.json = null;
+    }
+  }
+
+  private void clear() {
+    valid = false;
+    pipelineID = 0.0;
+    latencyPipeline = 0.0;
+    latencyCapture = 0.0;
+    timestampLimelightPublish = 0.0;
+    timestampRioCapture = 0.0;
+    for (int i = 0; i < botposeWpiBlue.length; i++) botposeWpiBlue[i] = 0.0;
+    botposeTagCount = 0;
+    botposeSpan = 0.0;
+    botposeAvgDist = 0.0;
+    botposeAvgArea = 0.0;
+    fiducialCount = 0;
+    detectorCount = 0;
+  }
+
+  private void readResults() {
+    expect('{');
+    if (tryConsume('}')) return;
+    do {
+      int keyStart = readKeyStart();
+      int keyEnd = position - 1;
+      expect(':');
+      skipWhitespace();
+
+      if (keyIs(keyStart, keyEnd, "Results")) readResults();
+      else if (keyIs(keyStart, keyEnd, "v")) valid = readNumber() != 0.0;
+      else if (keyIs(keyStart, keyEnd, "pID")) pipelineID = readNumber();
+      else if (keyIs(keyStart, keyEnd, "tl")) latencyPipeline = readNumber();
+      else if (keyIs(keyStart, keyEnd, "cl")) latencyCapture = readNumber();
+      else if (keyIs(keyStart, keyEnd, "ts")) timestampLimelightPublish = readNumber();
+      else if (keyIs(keyStart, keyEnd, "ts_rio")) timestampRioCapture = readNumber();
+      else if (keyIs(keyStart, keyEnd, "botpose_wpiblue")) readNumbers(botposeWpiBlue);
+      else if (keyIs(keyStart, keyEnd, "botpose_tagcount")) botposeTagCount = (int) readNumber();
+      else if (keyIs(keyStart, keyEnd, "botpose_span")) botposeSpan = readNumber();
+      else if (keyIs(keyStart, keyEnd, "botpose_avgdist")) botposeAvgDist = readNumber();
+      else if (keyIs(keyStart, keyEnd, "botpose_avgarea")) botposeAvgArea = readNumber();
+      else if (keyIs(keyStart, keyEnd, "Fiducial")) readFiducials();
+      else if (keyIs(keyStart, keyEnd, "Detector")) readDetectors();
+      else skipValue();
+    } while (nextMember('}'));
+  }
+
+  private void readFiducials() {
+    expect('[');
+    if (tryConsume(']')) return;
+    do {
+      if (fiducialCount == MAX_FIDUCIALS) {
+        skipValue();
+        continue;
+      }
+      Fiducial fiducial = fiducials[fiducialCount++];
+      fiducial.id = 0;
+      fiducial.tx = 0.0;
+      fiducial.ty = 0.0;
+      fiducial.ta = 0.0;
+      fiducial.cornerCount = 0;
+
+      expect('{');
+      if (tryConsume('}')) continue;
+      do {
+        int keyStart = readKeyStart();
+        int keyEnd = position - 1;
+        expect(':');
+        skipWhitespace();
+
+        if (keyIs(keyStart, keyEnd, "fID")) fiducial.id = (int) readNumber();
+        else if (keyIs(keyStart, keyEnd, "tx")) fiducial.tx = readNumber();
+        else if (keyIs(keyStart, keyEnd, "ty")) fiducial.ty = readNumber();
+        else if (keyIs(keyStart, keyEnd, "ta")) fiducial.ta = readNumber();
+        else if (keyIs(keyStart, keyEnd, "pts")) readCorners(fiducial);
+        else skipValue();
+      } while (nextMember('}'));
+    } while (nextMember(']'));
+  }
+
+  /**
+   * Reads [[x, y], ...]
+   */
+  private void readCorners(Fiducial fiducial) {
+    expect('[');
+    if (tryConsume(']')) return;
+    do {
+      if (fiducial.cornerCount == MAX_CORNERS || peek() != '[') {
+        skipValue();
+        continue;
+      }
+      expect('[');
+      double x = readNumber();
+      expect(',');
+      skipWhitespace();
+      double y = readNumber();
+      skipWhitespace();
+      while (tryConsume(',')) {
+        skipWhitespace();
+        skipValue();
+        skipWhitespace();
+      }
+      expect(']');
+      fiducial.cornersX[fiducial.cornerCount] = x;
+      fiducial.cornersY[fiducial.cornerCount] = y;
+      fiducial.cornerCount++;
+    } while (nextMember(']'));
+  }
+
+  private void readDetectors() {
+    expect('[');
+    if (tryConsume(']')) return;
+    do {
+      if (detectorCount == MAX_DETECTORS) {
+        skipValue();
+        continue;
+      }
+      Detector detector = detectors[detectorCount++];
+      detector.classID = 0;
+      detector.confidence = 0.0;
+      detector.tx = 0.0;
+      detector.ty = 0.0;
+      detector.ta = 0.0;
+
+      expect('{');
+      if (tryConsume('}')) continue;
+      do {
+        int keyStart = readKeyStart();
+        int keyEnd = position - 1;
+        expect(':');
+        skipWhitespace();
+
+        if (keyIs(keyStart, keyEnd, "classID")) detector.classID = (int) readNumber();
+        else if (keyIs(keyStart, keyEnd, "conf")) detector.confidence = readNumber();
+        else if (keyIs(keyStart, keyEnd, "tx")) detector.tx = readNumber();
+        else if (keyIs(keyStart, keyEnd, "ty")) detector.ty = readNumber();
+        else if (keyIs(keyStart, keyEnd, "ta")) detector.ta = readNumber();
+        else skipValue();
+      } while (nextMember('}'));
+    } while (nextMember(']'));
+  }
+
+  /**
+   * Reads an array of numbers into the start of values. Extra elements are skipped, and missing
+   * ones are left at zero.
+   */
+  private void readNumbers(double[] values) {
+    expect('[');
+    if (tryConsume(']')) return;
+    int index = 0;
+    do {
+      if (index < values.length) values[index++] = readNumber();
+      else skipValue();
+    } while (nextMember(']'));
+  }
+
+  /**
+   * Reads a number, or a boolean or null as 1 or 0
+   */
+  private double readNumber() {
+    char c = peek();
+    if (c == 't') return skipLiteral("true", 1.0);
+    if (c == 'f') return skipLiteral("false", 0.0);
+    if (c == 'n') return skipLiteral("null", 0.0);
+
+    int start = position;
+    boolean negative = tryConsume('-');
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    // Digits past what a long holds still move the decimal point, but aren't kept
+    boolean exact = true;
+    while (position < json.length() && isDigit(json.charAt(position))) {
+      if (mantissa < MAX_EXACT_MANTISSA / 10) mantissa = mantissa * 10 + (json.charAt(position) - '0');
+      else {
+        exact = false;
+        exponent++;
+      }
+      digits++;
+      position++;
+    }
+    if (tryConsume('.')) {
+      while (position < json.length() && isDigit(json.charAt(position))) {
+        if (mantissa < MAX_EXACT_MANTISSA / 10) {
+          mantissa = mantissa * 10 + (json.charAt(position) - '0');
+          exponent--;
+        } else if (json.charAt(position) != '0') {
+          exact = false;
+        }
+        digits++;
+        position++;
+      }
+    }
+    if (digits == 0) throw new IllegalArgumentException("expected a number at " + start);
+    if (position < json.length() && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
+      // Rare enough not to need a fast path
+      position++;
+      if (!tryConsume('-')) tryConsume('+');
+      while (position < json.length() && isDigit(json.charAt(position))) position++;
+      exact = false;
+    }
+
+    // Both the mantissa and the power of ten are exact, so one multiply or divide rounds correctly
+    if (exact && exponent >= -22 && exponent <= 22) {
+      double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+      return negative ? -value : value;
+    }
+    return Double.parseDouble(json.substring(start, position));
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private double skipLiteral(String literal, double value) {
+    if (!json.startsWith(literal, position)) throw new IllegalArgumentException("unexpected character at " + position);
+    position += literal.length();
+    return value;
+  }
+
+  /**
+   * Skips any value, including nested objects and arrays, without decoding it
+   */
+  private void skipValue() {
+    char c = peek();
+    if (c == '"') {
+      skipString();
+    } else if (c == '{' || c == '[') {
+      int depth = 0;
+      do {
+        c = next();
+        if (c == '"') {
+          position--;
+          skipString();
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+        }
+      } while (depth > 0);
+    } else {
+      readNumber();
+    }
+  }
+
+  private void skipString() {
+    expect('"');
+    while (true) {
+      char c = next();
+      if (c == '\\') next();
+      else if (c == '"') return;
+    }
+  }
+
+  /**
+   * Reads a member name up to and including its closing quote
+   * @return Position of the name's first character
+   */
+  private int readKeyStart() {
+    skipWhitespace();
+    expect('"');
+    int start = position;
+    while (true) {
+      char c = next();
+      if (c == '\\') next();
+      else if (c == '"') return start;
+    }
+  }
+
+  private boolean keyIs(int start, int end, String key) {
+    return end - start == key.length() && json.regionMatches(start, key, 0, key.length());
+  }
+
+  /**
+   * After a value, consumes either a comma, meaning another member follows, or the closing bracket
+   */
+  private boolean nextMember(char close) {
+    skipWhitespace();
+    char c = next();
+    if (c == ',') {
+      skipWhitespace();
+      return true;
+    }
+    if (c == close) return false;
+    throw new IllegalArgumentException("expected ',' or '" + close + "' at " + (position - 1));
+  }
+
+  private void expect(char expected) {
+    skipWhitespace();
+    if (next() != expected) throw new IllegalArgumentException("expected '" + expected + "' at " + (position - 1));
+  }
+
+  private boolean tryConsume(char c) {
+    skipWhitespace();
+    if (position < json.length() && json.charAt(position) == c) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void skipWhitespace() {
+    while (position < json.length() && json.charAt(position) <= ' ') position++;
+  }
+
+  private char peek() {
+    skipWhitespace();
+    if (position >= json.length()) throw new IllegalArgumentException("unexpected end");
+    return json.charAt(position);
+  }
+
+  private char next() {
+    if (position >= json.length()) throw new IllegalArgumentException("unexpected end");
+    return json.charAt(position++);
+  }
+}
@@ -0,0 +1,84 @@
+package frc.robot.util.software.Logging;
+
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+
+/**
+ * Logs a primitive boolean without boxing it
+ */
+public class BooleanChannel extends LogChannel {
+  private final BooleanSupplier supplier;
+  private final boolean[] frames;
+  private final boolean[] snapshot;
+  private BooleanPublisher publisher;
+  private boolean value;
+  private boolean publishedValue;
+  private boolean published = false;
+  private BooleanLogEntry entry;
+  private boolean logValue;
+  private boolean loggedValue;
+  private boolean logged = false;
+
+  public BooleanChannel(String key, int slots, BooleanSupplier supplier) {
+    super(key, slots);
+    this.supplier = supplier;
+    frames = new boolean[slots];
+    snapshot = new boolean[slots];
+  }
+
+  @Override
+  public void capture(int slot) {
+    frames[slot] = supplier.getAsBoolean();
+    captured = true;
+  }
+
+  @Override
+  public boolean load(int slot) {
+    if (!captured) return false;
+    value = frames[slot];
+    return !published || value != publishedValue;
+  }
+
+  @Override
+  public void publish(NetworkTable table, long timestamp) {
+    if (publisher == null) publisher = table.getBooleanTopic(key).publish();
+    publisher.set(value, timestamp);
+    publishedValue = value;
+    published = true;
+  }
+
+  @Override
+  public boolean stage(int slot) {
+    if (!captured) return false;
+    logValue = frames[slot];
+    return !logged || logValue != loggedValue;
+  }
+
+  @Override
+  public void append(DataLog log, long timestamp) {
+    if (entry == null) entry = new BooleanLogEntry(log, LOG_ENTRY_PREFIX + key);
+    entry.append(logValue, timestamp);
+    loggedValue = logValue;
+    logged = true;
+  }
+
+  @Override
+  public void snapshot() {
+    System.arraycopy(frames, 0, snapshot, 0, slots);
+  }
+
+  @Override
+  public DataLogEntry startDump(DataLog log) {
+    return new BooleanLogEntry(log, key);
+  }
+
+  @Override
+  public void dump(DataLogEntry entry, int slot, long timestamp) {
+    ((BooleanLogEntry) entry).append(snapshot[slot], timestamp);
+  }
+}
@@ -0,0 +1,112 @@
+package frc.robot.util.software.Logging;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+/**
+ * Logs a fixed-length double array. Instead of returning a new array every tick, the source
+ * fills in a buffer owned by the channel.
+ */
+public class DoubleArrayChannel extends LogChannel {
+  @FunctionalInterface
+  public interface Filler {
+    /**
+     * Writes the current values into the buffer
+     * @param buffer Preallocated array with the length the channel was registered with
+     */
+    void fill(double[] buffer);
+  }
+
+  private final Filler filler;
+  private final int length;
+  private final double[] scratch;
+  // Every frame slot, back to back
+  private final double[] frames;
+  private final double[] snapshot;
+  private DoubleArrayPublisher publisher;
+  private final double[] value;
+  private final double[] publishedValue;
+  private boolean published = false;
+  private DoubleArrayLogEntry entry;
+  private final double[] logValue;
+  private final double[] loggedValue;
+  private final double[] dumpValue;
+  private boolean logged = false;
+
+  public DoubleArrayChannel(String key, int slots, int length, Filler filler) {
+    super(key, slots);
+    this.filler = filler;
+    this.length = length;
+    scratch = new double[length];
+    frames = new double[slots * length];
+    snapshot = new double[slots * length];
+    value = new double[length];
+    publishedValue = new double[length];
+    logValue = new double[length];
+    loggedValue = new double[length];
+    dumpValue = new double[length];
+  }
+
+  @Override
+  public void capture(int slot) {
+    filler.fill(scratch);
+    System.arraycopy(scratch, 0, frames, slot * length, length);
+    captured = true;
+  }
+
+  @Override
+  public boolean load(int slot) {
+    if (!captured) return false;
+    System.arraycopy(frames, slot * length, value, 0, length);
+    return !published || differs(value, publishedValue);
+  }
+
+  @Override
+  public void publish(NetworkTable table, long timestamp) {
+    if (publisher == null) publisher = table.getDoubleArrayTopic(key).publish();
+    publisher.set(value, timestamp);
+    System.arraycopy(value, 0, publishedValue, 0, length);
+    published = true;
+  }
+
+  @Override
+  public boolean stage(int slot) {
+    if (!captured) return false;
+    System.arraycopy(frames, slot * length, logValue, 0, length);
+    return !logged || differs(logValue, loggedValue);
+  }
+
+  private boolean differs(double[] values, double[] previous) {
+    for (int i = 0; i < length; i++) {
+      if (differs(values[i], previous[i])) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void append(DataLog log, long timestamp) {
+    if (entry == null) entry = new DoubleArrayLogEntry(log, LOG_ENTRY_PREFIX + key);
+    entry.append(logValue, timestamp);
+    System.arraycopy(logValue, 0, loggedValue, 0, length);
+    logged = true;
+  }
+
+  @Override
+  public void snapshot() {
+    System.arraycopy(frames, 0, snapshot, 0, frames.length);
+  }
+
+  @Override
+  public DataLogEntry startDump(DataLog log) {
+    return new DoubleArrayLogEntry(log, key);
+  }
+
+  @Override
+  public void dump(DataLogEntry entry, int slot, long timestamp) {
+    System.arraycopy(snapshot, slot * length, dumpValue, 0, length);
+    ((DoubleArrayLogEntry) entry).append(dumpValue, timestamp);
+  }
+}
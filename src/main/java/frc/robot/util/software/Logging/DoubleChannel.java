@@ -0,0 +1,84 @@
+package frc.robot.util.software.Logging;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+
+/**
+ * Logs a primitive double without boxing it
+ */
+public class DoubleChannel extends LogChannel {
+  private final DoubleSupplier supplier;
+  private final double[] frames;
+  private final double[] snapshot;
+  private DoublePublisher publisher;
+  private double value;
+  private double publishedValue;
+  private boolean published = false;
+  private DoubleLogEntry entry;
+  private double logValue;
+  private double loggedValue;
+  private boolean logged = false;
+
+  public DoubleChannel(String key, int slots, DoubleSupplier supplier) {
+    super(key, slots);
+    this.supplier = supplier;
+    frames = new double[slots];
+    snapshot = new double[slots];
+  }
+
+  @Override
+  public void capture(int slot) {
+    frames[slot] = supplier.getAsDouble();
+    captured = true;
+  }
+
+  @Override
+  public boolean load(int slot) {
+    if (!captured) return false;
+    value = frames[slot];
+    return !published || differs(value, publishedValue);
+  }
+
+  @Override
+  public void publish(NetworkTable table, long timestamp) {
+    if (publisher == null) publisher = table.getDoubleTopic(key).publish();
+    publisher.set(value, timestamp);
+    publishedValue = value;
+    published = true;
+  }
+
+  @Override
+  public boolean stage(int slot) {
+    if (!captured) return false;
+    logValue = frames[slot];
+    return !logged || differs(logValue, loggedValue);
+  }
+
+  @Override
+  public void append(DataLog log, long timestamp) {
+    if (entry == null) entry = new DoubleLogEntry(log, LOG_ENTRY_PREFIX + key);
+    entry.append(logValue, timestamp);
+    loggedValue = logValue;
+    logged = true;
+  }
+
+  @Override
+  public void snapshot() {
+    System.arraycopy(frames, 0, snapshot, 0, slots);
+  }
+
+  @Override
+  public DataLogEntry startDump(DataLog log) {
+    return new DoubleLogEntry(log, key);
+  }
+
+  @Override
+  public void dump(DataLogEntry entry, int slot, long timestamp) {
+    ((DoubleLogEntry) entry).append(snapshot[slot], timestamp);
+  }
+}
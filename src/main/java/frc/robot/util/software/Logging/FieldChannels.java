@@ -0,0 +1,180 @@
+package frc.robot.util.software.Logging;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * Flattens a class and its nested classes into Logger channels, one per field. Each class is
+ * introspected once, and fields are read through cached MethodHandles, so primitive fields are
+ * sampled without boxing. Fields that NetworkTables can't hold (maps, suppliers, hardware objects)
+ * are skipped.
+ */
+final class FieldChannels {
+  /** A loggable field, with a getter shaped (Object self) -> field type */
+  static final class FieldGetter {
+    final String key;
+    final Class<?> type;
+    final Class<?> declaringClass;
+    final boolean isStatic;
+    final boolean isConstant;
+    final MethodHandle getter;
+
+    private FieldGetter(String key, Field field, MethodHandle getter) {
+      this.key = key;
+      this.type = field.getType();
+      this.declaringClass = field.getDeclaringClass();
+      this.isStatic = Modifier.isStatic(field.getModifiers());
+      this.isConstant = isStatic && Modifier.isFinal(field.getModifiers());
+      this.getter = getter;
+    }
+
+    /**
+     * @return Whether this field can be read from self
+     */
+    boolean canRead(Object self) {
+      return isStatic || declaringClass.isInstance(self);
+    }
+  }
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+  private static final Map<Class<?>, List<FieldGetter>> fieldsByClass = new HashMap<Class<?>, List<FieldGetter>>();
+
+  private FieldChannels() {}
+
+  /**
+   * @return Every loggable field of the class and its nested classes, with keys relative to the
+   * class (e.g. "/PHYSICS/MAX_LINEAR_VELOCITY")
+   */
+  static synchronized List<FieldGetter> getFields(Class<?> clazz) {
+    List<FieldGetter> fields = fieldsByClass.get(clazz);
+    if (fields == null) {
+      fields = new ArrayList<FieldGetter>();
+      addFields("", clazz, fields);
+      fieldsByClass.put(clazz, fields);
+    }
+    return fields;
+  }
+
+  private static void addFields(String path, Class<?> clazz, List<FieldGetter> fields) {
+    for (Class<?> c : clazz.getDeclaredClasses()) {
+      addFields(path + "/" + c.getSimpleName(), c, fields);
+    }
+
+    for (Field field : clazz.getDeclaredFields()) {
+      if (field.isSynthetic() || !isLoggable(field.getType())) continue;
+      try {
+        field.trySetAccessible();
+        MethodHandle getter = lookup.unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+          getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        } else {
+          getter = getter.asType(MethodType.methodType(field.getType(), Object.class));
+        }
+        fields.add(new FieldGetter(path + "/" + field.getName(), field, getter));
+      } catch (IllegalAccessException | RuntimeException e) {
+        // Fields we can't read (e.g. in another module) just aren't logged
+      }
+    }
+  }
+
+  private static boolean isLoggable(Class<?> type) {
+    return type.isPrimitive()
+      || type == String.class
+      || type.isEnum()
+      || type == double[].class
+      || type == boolean[].class
+      || type == String[].class
+      || getStruct(type) != null;
+  }
+
+  /**
+   * @return The WPILib struct serializer for a type (its public static "struct" field), or null
+   */
+  private static Struct<?> getStruct(Class<?> type) {
+    try {
+      Object struct = type.getField("struct").get(null);
+      return struct instanceof Struct ? (Struct<?>) struct : null;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Builds a channel for every field of the class that can be read from self. Constants are sampled
+   * at 1 Hz since they never change.
+   * @param path Key the class is logged under
+   * @param self Instance to read instance fields from, or null to only log static fields
+   * @param clazz Class to log
+   * @param slots Number of frame slots for each channel
+   */
+  static List<LogChannel> compile(String path, Object self, Class<?> clazz, int slots) {
+    List<LogChannel> channels = new ArrayList<LogChannel>();
+    for (FieldGetter field : getFields(clazz)) {
+      if (!field.canRead(self)) continue;
+      LogChannel channel = createChannel(path + field.key, field.type, field.getter.bindTo(self), slots);
+      if (field.isConstant) channel.withRate(LogRate.HZ_1);
+      channels.add(channel);
+    }
+    return channels;
+  }
+
+  private static LogChannel createChannel(String key, Class<?> type, MethodHandle getter, int slots) {
+    if (type == boolean.class) {
+      MethodHandle booleanGetter = getter.asType(MethodType.methodType(boolean.class));
+      return new BooleanChannel(key, slots, () -> {
+        try {
+          return (boolean) booleanGetter.invokeExact();
+        } catch (Throwable e) {
+          return false;
+        }
+      });
+    }
+
+    if (type.isPrimitive()) {
+      // Widens ints, floats, etc. to double
+      MethodHandle doubleGetter = getter.asType(MethodType.methodType(double.class));
+      return new DoubleChannel(key, slots, () -> {
+        try {
+          return (double) doubleGetter.invokeExact();
+        } catch (Throwable e) {
+          return Double.NaN;
+        }
+      });
+    }
+
+    MethodHandle objectGetter = getter.asType(MethodType.methodType(Object.class));
+    Struct<?> struct = getStruct(type);
+    if (struct != null) return createStructChannel(key, objectGetter, struct, slots);
+
+    boolean isEnum = type.isEnum();
+    return new ObjectChannel(key, slots, () -> {
+      try {
+        Object value = (Object) objectGetter.invokeExact();
+        // Enums are logged by name
+        return isEnum && value != null ? value.toString() : value;
+      } catch (Throwable e) {
+        return null;
+      }
+    });
+  }
+
+  private static <T> LogChannel createStructChannel(String key, MethodHandle getter, Struct<T> struct, int slots) {
+    Class<T> type = struct.getTypeClass();
+    return new StructChannel<T>(key, slots, () -> {
+      try {
+        return type.cast((Object) getter.invokeExact());
+      } catch (Throwable e) {
+        return null;
+      }
+    }, struct);
+  }
+}
@@ -0,0 +1,144 @@
+package frc.robot.util.software.Logging;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.Constants.LOGGING;
+
+/**
+ * Dumps the last few seconds of every Logger channel to its own log file when something goes
+ * wrong. The history is the Logger's frame ring, so recording costs nothing beyond the normal
+ * capture. Triggering only sets a couple of fields; a background thread waits for the post-trigger
+ * frames, copies the ring and writes the dump.
+ */
+public final class FlightRecorder {
+  public enum Trigger {
+    BAD_POSE(LOGGING.FLIGHT_RECORDER_ON_BAD_POSE),
+    BROWNOUT(LOGGING.FLIGHT_RECORDER_ON_BROWNOUT),
+    LOOP_OVERRUN(LOGGING.FLIGHT_RECORDER_ON_LOOP_OVERRUN),
+    STATUS_CHECK_FAILED(LOGGING.FLIGHT_RECORDER_ON_STATUS_CHECK_FAILURE);
+
+    private final boolean enabled;
+
+    private Trigger(boolean enabled) {
+      this.enabled = enabled;
+    }
+  }
+
+  private static final int POST_TRIGGER_FRAMES = (int) Math.ceil(LOGGING.FLIGHT_RECORDER_POST_TRIGGER_SECONDS / TimedRobot.kDefaultPeriod);
+  private static final long COOLDOWN_MICROSECONDS = (long) (LOGGING.FLIGHT_RECORDER_COOLDOWN_SECONDS * 1e6);
+
+  // Written by whichever thread triggers, read by the recorder thread. The frame is written first.
+  private static volatile long triggerFrame = 0;
+  private static volatile Trigger pendingTrigger = null;
+  private static volatile String pendingReason = null;
+  private static volatile long cooldownEnd = 0;
+  private static volatile int dumps = 0;
+  private static boolean wasBrownedOut = false;
+
+  private static long[] timestamps = new long[Logger.getFrameSlots()];
+  private static Thread recorder = new Thread(FlightRecorder::run, "Flight Recorder");
+
+  private FlightRecorder() {}
+
+  public static void start() {
+    recorder.setDaemon(true);
+    recorder.setPriority(Thread.MIN_PRIORITY);
+    recorder.start();
+  }
+
+  /**
+   * Checks the triggers that are polled rather than raised by the code that detects them. Called
+   * from the main thread once per loop.
+   * @param computeTime How long the last scheduler run took, in seconds
+   */
+  public static void update(double computeTime) {
+    boolean brownedOut = RobotController.isBrownedOut();
+    if (brownedOut && !wasBrownedOut) trigger(Trigger.BROWNOUT, "Brownout");
+    wasBrownedOut = brownedOut;
+
+    // Startup and mode changes overrun while disabled, which isn't worth a dump
+    if (computeTime > TimedRobot.kDefaultPeriod && DriverStation.isEnabled()) {
+      trigger(Trigger.LOOP_OVERRUN, "Loop overrun");
+    }
+  }
+
+  public static void trigger(Trigger trigger) {
+    trigger(trigger, trigger.name());
+  }
+
+  /**
+   * Dumps the recorder window once the post-trigger frames have been captured. Ignored while
+   * another dump is pending, during the cooldown after a dump, and once the dump limit is reached.
+   * @param trigger What went wrong
+   * @param reason Short description, written into the dump
+   */
+  public static void trigger(Trigger trigger, String reason) {
+    if (!trigger.enabled || pendingTrigger != null) return;
+    if (dumps >= LOGGING.FLIGHT_RECORDER_MAX_DUMPS || RobotController.getFPGATime() < cooldownEnd) return;
+
+    triggerFrame = Logger.getCapturedFrames();
+    pendingReason = reason;
+    pendingTrigger = trigger;
+  }
+
+  private static void run() {
+    while (!Thread.interrupted()) {
+      try {
+        Thread.sleep(LOGGING.LOG_WRITER_PERIOD_MS);
+        Trigger trigger = pendingTrigger;
+        if (trigger == null || Logger.getCapturedFrames() < triggerFrame + POST_TRIGGER_FRAMES) continue;
+
+        dump(trigger, pendingReason, triggerFrame);
+        dumps++;
+        cooldownEnd = RobotController.getFPGATime() + COOLDOWN_MICROSECONDS;
+        pendingTrigger = null;
+      } catch (InterruptedException e) {
+        return;
+      } catch (Exception e) {
+        pendingTrigger = null;
+        System.out.println("[FLIGHT RECORDER] dump failed: " + e);
+      }
+    }
+  }
+
+  private static void dump(Trigger trigger, String reason, long triggerFrame) {
+    int slots = timestamps.length;
+    List<LogChannel> channels = Logger.getChannels();
+    int count = channels.size();
+
+    // Copy the ring, then keep only the frames the main thread can't have overwritten meanwhile
+    long frames = Logger.getCapturedFrames();
+    Logger.copyFrameTimestamps(timestamps);
+    for (int i = 0; i < count; i++) {
+      channels.get(i).snapshot();
+    }
+    VarHandle.acquireFence();
+    long firstFrame = Math.max(0, Logger.getCapturedFrames() - slots + 1);
+
+    String name = "flight_" + trigger.name().toLowerCase() + "_" + dumps + ".wpilog";
+    DataLogManager.log("[FLIGHT RECORDER] " + reason + ", writing " + name);
+    DataLog log = new DataLog(DataLogManager.getLogDir(), name);
+    new StringLogEntry(log, "FlightRecorder/reason").append(reason, timestamps[(int) (triggerFrame % slots)]);
+
+    DataLogEntry[] entries = new DataLogEntry[count];
+    for (int i = 0; i < count; i++) {
+      entries[i] = channels.get(i).startDump(log);
+    }
+    for (long frame = firstFrame; frame < frames; frame++) {
+      int slot = (int) (frame % slots);
+      for (int i = 0; i < count; i++) {
+        LogChannel channel = channels.get(i);
+        if (channel.captured && channel.isDue(frame)) channel.dump(entries[i], slot, timestamps[slot]);
+      }
+    }
+    log.close();
+  }
+}
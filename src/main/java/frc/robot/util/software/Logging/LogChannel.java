@@ -0,0 +1,144 @@
+package frc.robot.util.software.Logging;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+
+/**
+ * A single value registered with the {@link Logger}. Each channel owns preallocated frame slots
+ * for its value and caches its NetworkTables publisher, so capturing and publishing it every tick
+ * doesn't allocate.
+ *
+ * <p>{@link #capture(int)} is only called from the main robot thread. {@link #load(int)} and
+ * {@link #publish(NetworkTable, long)} are only called from the notifier thread, and
+ * {@link #stage(int)} and {@link #append(DataLog, long)} are only called from the log writer thread.
+ * The snapshot and dump methods are only called from the {@link FlightRecorder} thread. Each thread
+ * has its own copy of the value, so they never share a buffer.
+ *
+ * <p>By default a channel is sampled every robot loop and any change is logged. Channels that
+ * don't need that can be registered with a slower {@link LogRate} and a deadband, e.g.
+ * {@code Logger.autoLog(...).withRate(LogRate.HZ_10).withDeadband(0.01)}.
+ */
+public abstract class LogChannel {
+  // Prefix for on-robot log entries, to keep them apart from the NetworkTables entries that
+  // DataLogManager mirrors into the same file
+  protected static final String LOG_ENTRY_PREFIX = "Logger/";
+
+  protected final String key;
+  protected final int slots;
+  // Set after the first capture, so a channel registered mid-frame isn't published with empty data
+  protected boolean captured = false;
+  // Sampled on frames where frame % period == phase
+  protected int period = 1;
+  protected int phase = 0;
+  protected double deadband = 0.0;
+
+  protected LogChannel(String key, int slots) {
+    this.key = key;
+    this.slots = slots;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Samples this channel less often. Should be called when the channel is registered.
+   * @param rate How often to sample the channel
+   * @return This channel
+   */
+  public LogChannel withRate(LogRate rate) {
+    period = rate.period;
+    phase = rate.assignPhase();
+    return this;
+  }
+
+  /**
+   * Only publishes and logs a numeric value once it has moved more than the deadband from the last
+   * value sent. Ignored by non-numeric channels.
+   * @param deadband Smallest change worth sending, in the value's units
+   * @return This channel
+   */
+  public LogChannel withDeadband(double deadband) {
+    this.deadband = deadband;
+    return this;
+  }
+
+  /**
+   * @return Whether the channel is sampled on this frame
+   */
+  public boolean isDue(long frame) {
+    return frame % period == phase;
+  }
+
+  /**
+   * @return The most recent frame at or before this one that the channel was sampled on, or a
+   * negative number if there isn't one yet
+   */
+  public long lastDueFrame(long frame) {
+    return frame - Math.floorMod(frame - phase, period);
+  }
+
+  /**
+   * Compares two samples of a numeric value using the channel's deadband. Bits are compared when
+   * there is no deadband so that a NaN value isn't resent every tick.
+   */
+  protected boolean differs(double value, double previous) {
+    if (Double.doubleToLongBits(value) == Double.doubleToLongBits(previous)) return false;
+    return deadband <= 0.0 || !(Math.abs(value - previous) <= deadband);
+  }
+
+  /**
+   * Reads the channel's source into a frame slot
+   * @param slot Slot to write to, from 0 to the number of slots
+   */
+  public abstract void capture(int slot);
+
+  /**
+   * Copies a frame slot into the channel's publish buffer
+   * @param slot Slot to read from
+   * @return Whether the loaded value is different from the last published value
+   */
+  public abstract boolean load(int slot);
+
+  /**
+   * Publishes the loaded value. The publisher is created the first time this is called.
+   * @param table Table to publish the value under
+   * @param timestamp Time the frame was captured, in FPGA microseconds
+   */
+  public abstract void publish(NetworkTable table, long timestamp);
+
+  /**
+   * Copies a frame slot into the channel's log buffer
+   * @param slot Slot to read from
+   * @return Whether the staged value is different from the last value written to the log
+   */
+  public abstract boolean stage(int slot);
+
+  /**
+   * Writes the staged value to the on-robot log. The log entry is created the first time this is
+   * called.
+   * @param log Log to write to
+   * @param timestamp Time the frame was captured, in FPGA microseconds
+   */
+  public abstract void append(DataLog log, long timestamp);
+
+  /**
+   * Copies every frame slot into the channel's snapshot buffer, for the flight recorder
+   */
+  public abstract void snapshot();
+
+  /**
+   * Creates this channel's entry in a flight recorder dump
+   * @param log Dump being written
+   */
+  public abstract DataLogEntry startDump(DataLog log);
+
+  /**
+   * Writes one snapshot slot to the channel's dump entry
+   * @param entry Entry returned by {@link #startDump(DataLog)}
+   * @param slot Slot to write
+   * @param timestamp Time the frame was captured, in FPGA microseconds
+   */
+  public abstract void dump(DataLogEntry entry, int slot, long timestamp);
+}
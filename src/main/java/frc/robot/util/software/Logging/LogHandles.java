@@ -0,0 +1,238 @@
+package frc.robot.util.software.Logging;
+
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.kauailabs.navx.frc.AHRS;
+
+import edu.wpi.first.hal.PowerDistributionFaults;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.PowerDistribution;
+
+/**
+ * Every NetworkTables entry a value type is logged to under one path, resolved once. Publishing
+ * through a compiled set of handles indexes into an array instead of building a key string and
+ * looking up an entry for each field.
+ */
+final class LogHandles {
+  @FunctionalInterface
+  private interface Writer {
+    void write(LogHandles handles, Object value);
+  }
+
+  private static final int PDH_CHANNELS = 24;
+  // brownout, canWarning, hardwareFault, then one per breaker
+  private static final int PDH_FAULTS = 3 + PDH_CHANNELS;
+
+  private static final String[] CAN_STATUS_KEYS = {
+    "/busOffCount", "/percentBusUtilization", "/receiveErrorCount", "/transmitErrorCount", "/txFullCount"
+  };
+
+  private static final String[] AHRS_KEYS = {
+    "/isAltitudeValid", "/isCalibrating", "/isConnected", "/isMagneticDisturbance", "/isMagnetometerCalibrated",
+    "/isMoving", "/isRotating", "/actualUpdateRate", "/firmwareVersion", "/altitude", "/angle", "/angleAdjustment",
+    "/compassHeading", "/displacementX", "/displacementY", "/displacementZ", "/fusedHeading", "/pitch", "/pressure",
+    "/roll", "/yaw", "/temperature", "/velocityX", "/velocityY", "/velocityZ", "/accelerationX", "/accelerationY",
+    "/accelerationZ"
+  };
+
+  private static final String[] PDH_KEYS = new String[PDH_FAULTS + 1 + PDH_CHANNELS + 6];
+  private static final String[] PDH_FAULT_KEYS = new String[PDH_FAULTS];
+
+  static {
+    PDH_FAULT_KEYS[0] = "/brownout";
+    PDH_FAULT_KEYS[1] = "/canWarning";
+    PDH_FAULT_KEYS[2] = "/hardwareFault";
+    for (int i = 0; i < PDH_CHANNELS; i++) {
+      PDH_FAULT_KEYS[3 + i] = "/channel" + i + "BreakerFault";
+    }
+
+    int key = 0;
+    for (String faultKey : PDH_FAULT_KEYS) PDH_KEYS[key++] = "/faults" + faultKey;
+    PDH_KEYS[key++] = "/canId";
+    for (int i = 0; i < PDH_CHANNELS; i++) PDH_KEYS[key++] = "/channels/channel" + i + "Current";
+    PDH_KEYS[key++] = "/isSwitchableChannelOn";
+    PDH_KEYS[key++] = "/temperature";
+    PDH_KEYS[key++] = "/totalCurrent";
+    PDH_KEYS[key++] = "/totalJoules";
+    PDH_KEYS[key++] = "/totalWatts";
+    PDH_KEYS[key++] = "/voltage";
+  }
+
+  final Class<?> type;
+  private final NetworkTableEntry[] entries;
+  // Reused for array values; NetworkTables copies it when it's set
+  private final double[] buffer;
+  private final Writer writer;
+
+  private LogHandles(NetworkTable table, String path, Class<?> type, int bufferLength, Writer writer, String... keys) {
+    this.type = type;
+    this.writer = writer;
+    buffer = new double[bufferLength];
+    entries = new NetworkTableEntry[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      entries[i] = table.getEntry(path + keys[i]);
+    }
+  }
+
+  void publish(Object value) {
+    writer.write(this, value);
+  }
+
+  /**
+   * Resolves the entries a value of this type is logged to
+   * @param table Table the path is relative to
+   * @param path Key the value is logged under
+   * @param type Runtime type of the value
+   */
+  static LogHandles compile(NetworkTable table, String path, Class<?> type) {
+    if (AHRS.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 0, LogHandles::writeAHRS, AHRS_KEYS);
+    if (Pose2d.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 3, LogHandles::writePose2d, "_radians", "_degrees");
+    if (SwerveModuleState.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 2, LogHandles::writeModuleState, "/state");
+    if (SwerveModuleState[].class.isAssignableFrom(type)) return new LogHandles(table, path, type, 8, LogHandles::writeModuleStates, "/states");
+    if (SwerveModulePosition[].class.isAssignableFrom(type)) return new LogHandles(table, path, type, 8, LogHandles::writeModulePositions, "/positions");
+    if (CANStatus.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 0, LogHandles::writeCANStatus, CAN_STATUS_KEYS);
+    if (PowerDistribution.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 0, LogHandles::writePDH, PDH_KEYS);
+    if (PowerDistributionFaults.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 0, LogHandles::writePDHFaults, PDH_FAULT_KEYS);
+    if (Translation2d.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 2, LogHandles::writeTranslation2d, "");
+    if (Translation3d.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 3, LogHandles::writeTranslation3d, "");
+    if (CANcoder.class.isAssignableFrom(type)) return new LogHandles(table, path, type, 0, LogHandles::writeCANcoder, "/absolutePosition", "/position", "/velocity");
+    return new LogHandles(table, path, type, 0, (handles, value) -> handles.entries[0].setValue(value), "");
+  }
+
+  private static void writeAHRS(LogHandles handles, Object value) {
+    AHRS navX = (AHRS) value;
+    NetworkTableEntry[] entries = handles.entries;
+    entries[0].setBoolean(navX.isAltitudeValid());
+    entries[1].setBoolean(navX.isCalibrating());
+    entries[2].setBoolean(navX.isConnected());
+    entries[3].setBoolean(navX.isMagneticDisturbance());
+    entries[4].setBoolean(navX.isMagnetometerCalibrated());
+    entries[5].setBoolean(navX.isMoving());
+    entries[6].setBoolean(navX.isRotating());
+    entries[7].setDouble(navX.getActualUpdateRate());
+    entries[8].setString(navX.getFirmwareVersion());
+    entries[9].setDouble(navX.getAltitude());
+    entries[10].setDouble(navX.getAngle());
+    entries[11].setDouble(navX.getAngleAdjustment());
+    entries[12].setDouble(navX.getCompassHeading());
+    entries[13].setDouble(navX.getDisplacementX());
+    entries[14].setDouble(navX.getDisplacementY());
+    entries[15].setDouble(navX.getDisplacementZ());
+    entries[16].setDouble(navX.getFusedHeading());
+    entries[17].setDouble(navX.getPitch());
+    entries[18].setDouble(navX.getPressure());
+    entries[19].setDouble(navX.getRoll());
+    entries[20].setDouble(navX.getYaw());
+    entries[21].setDouble(navX.getTempC());
+    entries[22].setDouble(navX.getVelocityX());
+    entries[23].setDouble(navX.getVelocityY());
+    entries[24].setDouble(navX.getVelocityZ());
+    entries[25].setDouble(navX.getRawAccelX());
+    entries[26].setDouble(navX.getRawAccelY());
+    entries[27].setDouble(navX.getRawAccelZ());
+  }
+
+  private static void writePose2d(LogHandles handles, Object value) {
+    Pose2d pose = (Pose2d) value;
+    double[] buffer = handles.buffer;
+    buffer[0] = pose.getX();
+    buffer[1] = pose.getY();
+    buffer[2] = pose.getRotation().getRadians();
+    handles.entries[0].setDoubleArray(buffer);
+    buffer[2] = pose.getRotation().getDegrees();
+    handles.entries[1].setDoubleArray(buffer);
+  }
+
+  private static void writeModuleState(LogHandles handles, Object value) {
+    SwerveModuleState state = (SwerveModuleState) value;
+    handles.buffer[0] = state.angle.getRadians();
+    handles.buffer[1] = state.speedMetersPerSecond;
+    handles.entries[0].setDoubleArray(handles.buffer);
+  }
+
+  private static void writeModuleStates(LogHandles handles, Object value) {
+    SwerveModuleState[] states = (SwerveModuleState[]) value;
+    for (int i = 0; i < 4; i++) {
+      handles.buffer[i * 2] = states[i].angle.getRadians();
+      handles.buffer[i * 2 + 1] = states[i].speedMetersPerSecond;
+    }
+    handles.entries[0].setDoubleArray(handles.buffer);
+  }
+
+  private static void writeModulePositions(LogHandles handles, Object value) {
+    SwerveModulePosition[] positions = (SwerveModulePosition[]) value;
+    for (int i = 0; i < 4; i++) {
+      handles.buffer[i * 2] = positions[i].angle.getRadians();
+      handles.buffer[i * 2 + 1] = positions[i].distanceMeters;
+    }
+    handles.entries[0].setDoubleArray(handles.buffer);
+  }
+
+  private static void writeCANStatus(LogHandles handles, Object value) {
+    CANStatus canStatus = (CANStatus) value;
+    NetworkTableEntry[] entries = handles.entries;
+    entries[0].setDouble(canStatus.busOffCount);
+    entries[1].setDouble(canStatus.percentBusUtilization);
+    entries[2].setDouble(canStatus.receiveErrorCount);
+    entries[3].setDouble(canStatus.transmitErrorCount);
+    entries[4].setDouble(canStatus.txFullCount);
+  }
+
+  private static void writePDHFaults(LogHandles handles, Object value) {
+    writePDHFaults(handles.entries, 0, (PowerDistributionFaults) value);
+  }
+
+  private static void writePDHFaults(NetworkTableEntry[] entries, int offset, PowerDistributionFaults faults) {
+    entries[offset].setBoolean(faults.Brownout);
+    entries[offset + 1].setBoolean(faults.CanWarning);
+    entries[offset + 2].setBoolean(faults.HardwareFault);
+    for (int i = 0; i < PDH_CHANNELS; i++) {
+      entries[offset + 3 + i].setBoolean(faults.getBreakerFault(i));
+    }
+  }
+
+  private static void writePDH(LogHandles handles, Object value) {
+    PowerDistribution PDH = (PowerDistribution) value;
+    NetworkTableEntry[] entries = handles.entries;
+    writePDHFaults(entries, 0, PDH.getFaults());
+    int entry = PDH_FAULTS;
+    entries[entry++].setDouble(PDH.getModule());
+    for (int i = 0; i < PDH_CHANNELS; i++) {
+      entries[entry++].setDouble(PDH.getCurrent(i));
+    }
+    entries[entry++].setBoolean(PDH.getSwitchableChannel());
+    entries[entry++].setDouble(PDH.getTemperature());
+    entries[entry++].setDouble(PDH.getTotalCurrent());
+    entries[entry++].setDouble(PDH.getTotalEnergy());
+    entries[entry++].setDouble(PDH.getTotalPower());
+    entries[entry++].setDouble(PDH.getVoltage());
+  }
+
+  private static void writeTranslation2d(LogHandles handles, Object value) {
+    Translation2d translation = (Translation2d) value;
+    handles.buffer[0] = translation.getX();
+    handles.buffer[1] = translation.getY();
+    handles.entries[0].setDoubleArray(handles.buffer);
+  }
+
+  private static void writeTranslation3d(LogHandles handles, Object value) {
+    Translation3d translation = (Translation3d) value;
+    handles.buffer[0] = translation.getX();
+    handles.buffer[1] = translation.getY();
+    handles.buffer[2] = translation.getZ();
+    handles.entries[0].setDoubleArray(handles.buffer);
+  }
+
+  private static void writeCANcoder(LogHandles handles, Object value) {
+    CANcoder encoder = (CANcoder) value;
+    handles.entries[0].setDouble(encoder.getAbsolutePosition().getValue());
+    handles.entries[1].setDouble(encoder.getPosition().getValue());
+    handles.entries[2].setDouble(encoder.getVelocity().getValue());
+  }
+}
@@ -0,0 +1,30 @@
+package frc.robot.util.software.Logging;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * How often a {@link LogChannel} is sampled. Slower channels are spread across robot loops so that
+ * the same number of them come due every tick instead of all at once.
+ */
+public enum LogRate {
+  HZ_50(50.0),
+  HZ_10(10.0),
+  HZ_1(1.0);
+
+  // Robot loops between samples
+  public final int period;
+  private int nextPhase = 0;
+
+  private LogRate(double hz) {
+    period = Math.max(1, (int) Math.round(1.0 / hz / TimedRobot.kDefaultPeriod));
+  }
+
+  /**
+   * @return Which loop (mod period) the next channel at this rate should be sampled on
+   */
+  int assignPhase() {
+    int phase = nextPhase;
+    nextPhase = (nextPhase + 1) % period;
+    return phase;
+  }
+}
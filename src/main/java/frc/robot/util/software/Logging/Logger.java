@@ -1,25 +1,25 @@
 package frc.robot.util.software.Logging;
 
-import java.lang.reflect.Field;
+import java.lang.invoke.VarHandle;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
-import com.ctre.phoenix6.hardware.CANcoder;
 import com.kauailabs.navx.frc.AHRS;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
 
-import edu.wpi.first.hal.PowerDistributionFaults;
+import edu.wpi.first.hal.can.CANJNI;
 import edu.wpi.first.hal.can.CANStatus;
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.PowerDistribution;
 import edu.wpi.first.wpilibj.RobotController;
@@ -28,18 +28,42 @@ import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.Constants.LOGGING;
+import frc.robot.util.software.LoopBudget;
 
 public final class Logger {
   private static NetworkTable table = NetworkTableInstance.getDefault().getTable("Logs");
-  private static Map<String, Supplier<Object>> suppliers = new HashMap<String, Supplier<Object>>();
-  private static Map<String, Object> values = new HashMap<String, Object>();
+  // Iterated by index from both threads, so registering a channel never breaks a capture or publish
+  private static List<LogChannel> channels = new CopyOnWriteArrayList<LogChannel>();
+  private static Map<String, LogChannel> channelsByKey = new HashMap<String, LogChannel>();
+  // One-off log() calls, keyed by the path they were logged under
+  private static Map<String, LogHandles> handlesByKey = new ConcurrentHashMap<String, LogHandles>();
+  private static Map<String, CompiledClass> classesByPath = new ConcurrentHashMap<String, CompiledClass>();
+
+  // Ring of frames. The main thread captures frame n into slot n % FRAME_SLOTS. The notifier thread
+  // publishes the latest complete frame, and the log writer thread drains every frame in order.
+  private static final int FRAME_SLOTS = LOGGING.FRAME_BUFFER_SIZE;
+  private static final long[] frameTimestamps = new long[FRAME_SLOTS];
+  // Number of frames the main thread has finished capturing. Only written by the main thread.
+  private static volatile long capturedFrames = 0;
+  private static long publishedFrames = 0;
+  private static long publishAttempts = 0;
+  private static boolean[] changed = new boolean[0];
+  private static long[] loadedTimestamps = new long[0];
+  private static volatile boolean enabled = true;
+
+  private static long writtenFrames = 0;
+  private static volatile long droppedFrames = 0;
+  private static boolean[] logChanged = new boolean[0];
+  private static CANStatus canStatus = new CANStatus();
+  private static long canStatusFrame = -1;
+  private static Thread writer = new Thread(Logger::runWriter, "Logger Writer");
   private static ShuffleboardTab tab = Shuffleboard.getTab("Logging");
   private static GenericEntry loggingButton = tab.add("Enable Logging", true).withWidget(BuiltInWidgets.kToggleSwitch).withSize(1, 1).withPosition(0, 0).getEntry();
   
   private static Notifier notifier = new Notifier(
     () -> {
       try {
-        Logger.logAll();
+        Logger.publishLatestFrame();
       } catch (Exception e) {
         
       }
@@ -48,212 +72,416 @@ public final class Logger {
   
   public static void startLog() {
     notifier.startPeriodic(LOGGING.LOGGING_PERIOD_MS / 1000.0);
+
+    autoLog("Logger/droppedFrames", () -> droppedFrames).withRate(LogRate.HZ_1);
+    autoLogRio("roboRio");
+    writer.setDaemon(true);
+    writer.setPriority(Thread.MIN_PRIORITY);
+    writer.start();
+    FlightRecorder.start();
+  }
+
+  static int getFrameSlots() {
+    return FRAME_SLOTS;
+  }
+
+  /**
+   * @return Number of frames the main thread has finished capturing
+   */
+  static long getCapturedFrames() {
+    return capturedFrames;
+  }
+
+  static List<LogChannel> getChannels() {
+    return channels;
+  }
+
+  static void copyFrameTimestamps(long[] destination) {
+    System.arraycopy(frameTimestamps, 0, destination, 0, FRAME_SLOTS);
   }
 
   public static boolean loggingEnabled() {
     return loggingButton.getBoolean(false);
   }
 
-  private static void logAll() {
-    if (!loggingButton.getBoolean(false)) return;
+  /**
+   * Samples every registered channel into the next frame. Called from the main thread at the end of
+   * {@code Robot.robotPeriodic()}, so every frame reflects the state after one full scheduler run.
+   * All NetworkTables work happens later on the notifier thread.
+   */
+  public static void capture() {
+    if (!enabled) return;
 
-    for (String key : suppliers.keySet()) {
-      Object supplied_value = suppliers.get(key).get();
-      Object saved_value = values.get(key);
-      if (supplied_value.equals(saved_value)) {
-        continue;
+    long frame = capturedFrames;
+    int slot = (int) (frame % FRAME_SLOTS);
+    frameTimestamps[slot] = RobotController.getFPGATime();
+    for (int i = 0; i < channels.size(); i++) {
+      LogChannel channel = channels.get(i);
+      if (!channel.isDue(frame)) continue;
+      try {
+        channel.capture(slot);
+      } catch (Exception e) {
+        
       }
+    }
+    // Volatile write publishes the slot contents to the notifier thread
+    capturedFrames = frame + 1;
+  }
+
+  private static void publishLatestFrame() {
+    enabled = loggingButton.getBoolean(false);
+    if (!enabled) return;
+    // While the main loop is short on time, the dashboard is updated less often so this thread
+    // leaves it the CPU. Each channel still publishes its latest sample when it does run.
+    publishAttempts++;
+    if (publishAttempts % LoopBudget.getDecimation() != 0) return;
+
+    for (int attempt = 0; attempt < FRAME_SLOTS + 1; attempt++) {
+      long frames = capturedFrames;
+      if (frames == publishedFrames) break;
+
+      // Each channel publishes the last frame it was sampled on. Channels whose last sample was
+      // already handled by an earlier publish are skipped.
+      long frame = frames - 1;
+      long oldestFrame = frame;
+      int count = channels.size();
+      if (changed.length < count) {
+        changed = new boolean[count];
+        loadedTimestamps = new long[count];
+      }
+      for (int i = 0; i < count; i++) {
+        LogChannel channel = channels.get(i);
+        long dueFrame = channel.lastDueFrame(frame);
+        if (dueFrame < publishedFrames || dueFrame < 0) {
+          changed[i] = false;
+          continue;
+        }
+        int slot = (int) (dueFrame % FRAME_SLOTS);
+        loadedTimestamps[i] = frameTimestamps[slot];
+        changed[i] = channel.load(slot);
+        oldestFrame = Math.min(oldestFrame, dueFrame);
+      }
+
+      // If the main thread started writing any slot we read again while we were copying it, the
+      // frame may be torn. Drop it and try again with the newest frame.
+      VarHandle.acquireFence();
+      if (capturedFrames >= oldestFrame + FRAME_SLOTS) continue;
+
+      for (int i = 0; i < count; i++) {
+        if (!changed[i]) continue;
+        LogChannel channel = channels.get(i);
+        try {
+          channel.publish(table, loadedTimestamps[i]);
+        } catch (IllegalArgumentException e) {
+          System.out.println("[LOGGING] unknown type: " + channel.getKey());
+        } catch (Exception e) {
+          
+        }
+      }
+      publishedFrames = frames;
+      break;
+    }
+  }
+
+  private static void runWriter() {
+    DataLog log = DataLogManager.getLog();
+    while (!Thread.interrupted()) {
       try {
-        log(key, supplied_value);
-      } catch (IllegalArgumentException e) {
-        System.out.println("[LOGGING] unknown type: " + supplied_value.getClass().getSimpleName());
+        Thread.sleep(LOGGING.LOG_WRITER_PERIOD_MS);
+        writeFrames(log);
+      } catch (InterruptedException e) {
+        return;
+      } catch (Exception e) {
+        
       }
     }
-    logRio("roboRio");
   }
 
-  public static void autoLog(String key, Supplier<Object> supplier) {
-    suppliers.put(key, supplier);
+  /**
+   * Writes every frame captured since the last call to the on-robot log. The main thread never
+   * waits on this; if the writer falls a whole ring behind, the overwritten frames are dropped and
+   * counted instead.
+   */
+  private static void writeFrames(DataLog log) {
+    long frames = capturedFrames;
+    if (frames - writtenFrames > FRAME_SLOTS - 1) {
+      droppedFrames += frames - writtenFrames - (FRAME_SLOTS - 1);
+      writtenFrames = frames - (FRAME_SLOTS - 1);
+    }
+
+    for (long frame = writtenFrames; frame < frames; frame++) {
+      int slot = (int) (frame % FRAME_SLOTS);
+      long timestamp = frameTimestamps[slot];
+      int count = channels.size();
+      if (logChanged.length < count) logChanged = new boolean[count];
+      for (int i = 0; i < count; i++) {
+        LogChannel channel = channels.get(i);
+        logChanged[i] = channel.isDue(frame) && channel.stage(slot);
+      }
+
+      // Same check as the notifier: drop the frame if it was overwritten while we copied it
+      VarHandle.acquireFence();
+      if (capturedFrames >= frame + FRAME_SLOTS) {
+        droppedFrames++;
+        continue;
+      }
+
+      for (int i = 0; i < count; i++) {
+        if (!logChanged[i]) continue;
+        try {
+          channels.get(i).append(log, timestamp);
+        } catch (Exception e) {
+          
+        }
+      }
+    }
+    writtenFrames = frames;
   }
 
-  public static void autoLog(String key, Object obj) {
-    autoLog(key, () -> obj);
+  private static LogChannel register(LogChannel channel) {
+    LogChannel previous = channelsByKey.put(channel.getKey(), channel);
+    if (previous != null) {
+      channels.set(channels.indexOf(previous), channel);
+    } else {
+      channels.add(channel);
+    }
+    return channel;
   }
 
-  public static void autoLog(SubsystemBase subsystem, String key, Supplier<Object> supplier) {
-    autoLog(subsystem.getClass().getSimpleName() + "/" + key, supplier);
+  private static String subsystemKey(SubsystemBase subsystem, String key) {
+    return subsystem.getClass().getSimpleName() + "/" + key;
   }
 
-  public static void log(String key, Object obj) {
-    if (obj instanceof CANSparkMax) log(key, (CANSparkMax) obj);
-    else if (obj instanceof RelativeEncoder) log(key, (RelativeEncoder) obj);
-    else if (obj instanceof AHRS) log(key, (AHRS) obj);
-    else if (obj instanceof Pose2d) log(key, (Pose2d) obj);
-    else if (obj instanceof SwerveModuleState) log(key, (SwerveModuleState) obj);
-    else if (obj instanceof SwerveModuleState[]) log(key, (SwerveModuleState[]) obj);
-    else if (obj instanceof SwerveModulePosition[]) log(key, (SwerveModulePosition[]) obj);
-    else if (obj instanceof CANStatus) log(key, (CANStatus) obj);
-    else if (obj instanceof PowerDistribution) log(key, (PowerDistribution) obj);
-    else if (obj instanceof Translation2d) log(key, (Translation2d) obj);
-    else if (obj instanceof Translation3d) log(key, (Translation3d) obj);
-    else {
-      table.getEntry(key).setValue(obj);
-      values.put(key, obj);
-    };
+  public static LogChannel autoLog(String key, Supplier<Object> supplier) {
+    return register(new ObjectChannel(key, FRAME_SLOTS, supplier));
+  }
+
+  public static LogChannel autoLog(String key, DoubleSupplier supplier) {
+    return register(new DoubleChannel(key, FRAME_SLOTS, supplier));
+  }
+
+  public static LogChannel autoLog(String key, BooleanSupplier supplier) {
+    return register(new BooleanChannel(key, FRAME_SLOTS, supplier));
   }
 
-  public static void log(String path, Translation3d translation) {
-    log(path, new double[] {translation.getX(), translation.getY(), translation.getZ()});
+  /**
+   * Logs a fixed-length double array without allocating a new array every tick
+   * @param key Key to log under
+   * @param length Length of the array
+   * @param filler Writes the current values into the channel's buffer
+   */
+  public static LogChannel autoLog(String key, int length, DoubleArrayChannel.Filler filler) {
+    return register(new DoubleArrayChannel(key, FRAME_SLOTS, length, filler));
   }
 
-  public static void log(String path, Translation2d translation) {
-    log(path, new double[] {translation.getX(), translation.getY()});
+  /**
+   * Logs a struct-serializable type, such as a Pose2d
+   * @param key Key to log under
+   * @param supplier Returns the current value. This should not create a new object every call.
+   * @param struct Struct serializer for the type (e.g. Pose2d.struct)
+   */
+  public static <T> LogChannel autoLog(String key, Supplier<T> supplier, Struct<T> struct) {
+    return register(new StructChannel<T>(key, FRAME_SLOTS, supplier, struct));
   }
 
-  public static void log(String path, CANcoder encoder) {
-    log(path + "/absolutePosition", encoder.getAbsolutePosition());
-    log(path + "/position", encoder.getPosition());
-    log(path + "/velocity", encoder.getVelocity());
+  public static LogChannel autoLog(String key, Object obj) {
+    return autoLog(key, () -> obj);
   }
 
-  public static void log(String path, AHRS navX) {
-    log(path + "/isAltitudeValid", navX.isAltitudeValid());
-    log(path + "/isCalibrating", navX.isCalibrating());
-    log(path + "/isConnected", navX.isConnected());
-    log(path + "/isMagneticDisturbance", navX.isMagneticDisturbance());
-    log(path + "/isMagnetometerCalibrated", navX.isMagnetometerCalibrated());
-    log(path + "/isMoving", navX.isMoving());
-    log(path + "/isRotating", navX.isRotating());
-    log(path + "/actualUpdateRate", navX.getActualUpdateRate());
-    log(path + "/firmwareVersion", navX.getFirmwareVersion());
-    log(path + "/altitude", navX.getAltitude());
-    log(path + "/angle", navX.getAngle());
-    log(path + "/angleAdjustment", navX.getAngleAdjustment());
-    log(path + "/compassHeading", navX.getCompassHeading());
-    log(path + "/displacementX", navX.getDisplacementX());
-    log(path + "/displacementY", navX.getDisplacementY());
-    log(path + "/displacementZ", navX.getDisplacementZ());
-    log(path + "/fusedHeading", navX.getFusedHeading());
-    log(path + "/pitch", navX.getPitch());
-    log(path + "/pressure", navX.getPressure());
-    log(path + "/roll", navX.getRoll());
-    log(path + "/yaw", navX.getYaw());
-    log(path + "/temperature", navX.getTempC());
-    log(path + "/velocityX", navX.getVelocityX());
-    log(path + "/velocityY", navX.getVelocityY());
-    log(path + "/velocityZ", navX.getVelocityZ());
-    log(path + "/accelerationX", navX.getRawAccelX());
-    log(path + "/accelerationY", navX.getRawAccelY());
-    log(path + "/accelerationZ", navX.getRawAccelZ());
+  /**
+   * Registers every field of a class and its nested classes as its own channel, e.g.
+   * {@code autoLog("Constants/SWERVE_DRIVE", null, Constants.SWERVE_DRIVE.class)} or
+   * {@code autoLog("SwerveDrive/state", this, SwerveDrive.class)}. Fields are read through
+   * MethodHandles compiled once per class, and primitives are never boxed.
+   * @param path Key to log the class under
+   * @param self Instance to read instance fields from, or null to only log static fields
+   * @param clazz Class whose fields to log
+   */
+  public static void autoLog(String path, Object self, Class<?> clazz) {
+    for (LogChannel channel : FieldChannels.compile(path, self, clazz, FRAME_SLOTS)) {
+      register(channel);
+    }
   }
 
-  public static void log(String path, Pose2d pose) {
-    log(path + "_radians", new double[] { pose.getX(), pose.getY(), pose.getRotation().getRadians() });
-    log(path + "_degrees", new double[] { pose.getX(), pose.getY(), pose.getRotation().getDegrees() });
+  public static LogChannel autoLog(SubsystemBase subsystem, String key, Supplier<Object> supplier) {
+    return autoLog(subsystemKey(subsystem, key), supplier);
   }
 
-  public static void log(String path, SwerveModuleState swerveModuleState) {
-    log(path + "/state", new double[] {
-      swerveModuleState.angle.getRadians(), 
-      swerveModuleState.speedMetersPerSecond
-    });
+  public static LogChannel autoLog(SubsystemBase subsystem, String key, DoubleSupplier supplier) {
+    return autoLog(subsystemKey(subsystem, key), supplier);
   }
 
-  public static void log(String path, SwerveModuleState[] swerveModuleStates) {
-    log(path + "/states", new double[] {
-      swerveModuleStates[0].angle.getRadians(), 
-      swerveModuleStates[0].speedMetersPerSecond, 
-      swerveModuleStates[1].angle.getRadians(), 
-      swerveModuleStates[1].speedMetersPerSecond, 
-      swerveModuleStates[2].angle.getRadians(), 
-      swerveModuleStates[2].speedMetersPerSecond, 
-      swerveModuleStates[3].angle.getRadians(), 
-      swerveModuleStates[3].speedMetersPerSecond, 
-    });
+  public static LogChannel autoLog(SubsystemBase subsystem, String key, BooleanSupplier supplier) {
+    return autoLog(subsystemKey(subsystem, key), supplier);
   }
 
-  public static void log(String path, SwerveModulePosition[] swerveModulePositions) {
-    log(path + "/positions", new double[] {
-      swerveModulePositions[0].angle.getRadians(), 
-      swerveModulePositions[0].distanceMeters, 
-      swerveModulePositions[1].angle.getRadians(), 
-      swerveModulePositions[1].distanceMeters, 
-      swerveModulePositions[2].angle.getRadians(), 
-      swerveModulePositions[2].distanceMeters, 
-      swerveModulePositions[3].angle.getRadians(), 
-      swerveModulePositions[3].distanceMeters, 
-    });
+  public static LogChannel autoLog(SubsystemBase subsystem, String key, int length, DoubleArrayChannel.Filler filler) {
+    return autoLog(subsystemKey(subsystem, key), length, filler);
   }
 
-  public static void logRio(String path) {
-    log(path + "/isBrownedOut", RobotController.isBrownedOut());
-    log(path + "/isSysActive", RobotController.isSysActive());
-    log(path + "/brownoutVoltage", RobotController.getBrownoutVoltage());
-    log(path + "/batteryVoltage", RobotController.getBatteryVoltage());
-    log(path + "/batteryVoltage", RobotController.getBatteryVoltage());
-    log(path + "/inputCurrent", RobotController.getInputCurrent());
-    log(path + "/inputVoltage", RobotController.getInputVoltage());
-    log(path + "/3V3Line/current", RobotController.getCurrent3V3());
-    log(path + "/5VLine/current", RobotController.getCurrent5V());
-    log(path + "/6VLine/current", RobotController.getCurrent6V());
-    log(path + "/3V3Line/enabled", RobotController.getEnabled3V3());
-    log(path + "/5VLine/enabled", RobotController.getEnabled5V());
-    log(path + "/6VLine/enabled", RobotController.getEnabled6V());
-    log(path + "/3V3Line/faultCount", RobotController.getFaultCount3V3());
-    log(path + "/5VLine/faultCount", RobotController.getFaultCount5V());
-    log(path + "/6VLine/faultCount", RobotController.getFaultCount6V());
-    log(path + "/3V3Line/voltage", RobotController.getVoltage3V3());
-    log(path + "/5VLine/voltage", RobotController.getVoltage5V());
-    log(path + "/6VLine/voltage", RobotController.getVoltage6V());
-    log(path + "/canStatus", RobotController.getCANStatus());
+  public static <T> LogChannel autoLog(SubsystemBase subsystem, String key, Supplier<T> supplier, Struct<T> struct) {
+    return autoLog(subsystemKey(subsystem, key), supplier, struct);
   }
 
-  public static void log(String path, CANStatus canStatus) {
-    log(path + "/busOffCount", canStatus.busOffCount);
-    log(path + "/percentBusUtilization", canStatus.percentBusUtilization);
-    log(path + "/receiveErrorCount", canStatus.receiveErrorCount);
-    log(path + "/transmitErrorCount", canStatus.transmitErrorCount);
-    log(path + "/txFullCount", canStatus.txFullCount);
+  /**
+   * Registers every NavX value, sampled at a rate that fits how fast it can change
+   */
+  public static void autoLog(String path, AHRS navX) {
+    autoLog(path + "/isAltitudeValid", () -> navX.isAltitudeValid()).withRate(LogRate.HZ_1);
+    autoLog(path + "/isCalibrating", () -> navX.isCalibrating()).withRate(LogRate.HZ_10);
+    autoLog(path + "/isConnected", () -> navX.isConnected()).withRate(LogRate.HZ_10);
+    autoLog(path + "/isMagneticDisturbance", () -> navX.isMagneticDisturbance()).withRate(LogRate.HZ_10);
+    autoLog(path + "/isMagnetometerCalibrated", () -> navX.isMagnetometerCalibrated()).withRate(LogRate.HZ_1);
+    autoLog(path + "/isMoving", () -> navX.isMoving()).withRate(LogRate.HZ_10);
+    autoLog(path + "/isRotating", () -> navX.isRotating()).withRate(LogRate.HZ_10);
+    autoLog(path + "/actualUpdateRate", () -> navX.getActualUpdateRate()).withRate(LogRate.HZ_1);
+    autoLog(path + "/firmwareVersion", () -> navX.getFirmwareVersion()).withRate(LogRate.HZ_1);
+    autoLog(path + "/altitude", () -> navX.getAltitude()).withRate(LogRate.HZ_1).withDeadband(0.1);
+    autoLog(path + "/angle", () -> navX.getAngle()).withDeadband(0.01);
+    autoLog(path + "/angleAdjustment", () -> navX.getAngleAdjustment()).withRate(LogRate.HZ_1);
+    autoLog(path + "/compassHeading", () -> navX.getCompassHeading()).withRate(LogRate.HZ_10).withDeadband(0.5);
+    autoLog(path + "/displacementX", () -> navX.getDisplacementX()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/displacementY", () -> navX.getDisplacementY()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/displacementZ", () -> navX.getDisplacementZ()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/fusedHeading", () -> navX.getFusedHeading()).withRate(LogRate.HZ_10).withDeadband(0.1);
+    autoLog(path + "/pitch", () -> navX.getPitch()).withDeadband(0.05);
+    autoLog(path + "/pressure", () -> navX.getPressure()).withRate(LogRate.HZ_1).withDeadband(0.1);
+    autoLog(path + "/roll", () -> navX.getRoll()).withDeadband(0.05);
+    autoLog(path + "/yaw", () -> navX.getYaw()).withDeadband(0.01);
+    autoLog(path + "/temperature", () -> navX.getTempC()).withRate(LogRate.HZ_1).withDeadband(0.5);
+    autoLog(path + "/velocityX", () -> navX.getVelocityX()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/velocityY", () -> navX.getVelocityY()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/velocityZ", () -> navX.getVelocityZ()).withRate(LogRate.HZ_10).withDeadband(0.001);
+    autoLog(path + "/accelerationX", () -> navX.getRawAccelX()).withDeadband(0.01);
+    autoLog(path + "/accelerationY", () -> navX.getRawAccelY()).withDeadband(0.01);
+    autoLog(path + "/accelerationZ", () -> navX.getRawAccelZ()).withDeadband(0.01);
   }
 
-  public static void log(String path, PowerDistribution PDH) {
-    log(path + "/faults", PDH.getFaults());
-    log(path + "/canId", PDH.getModule());
+  /**
+   * Registers every PDH value. Channel currents and totals are sampled at 10 Hz, faults and
+   * configuration at 1 Hz.
+   */
+  public static void autoLog(String path, PowerDistribution PDH) {
+    autoLog(path + "/faults/brownout", () -> PDH.getFaults().Brownout).withRate(LogRate.HZ_10);
+    autoLog(path + "/faults/canWarning", () -> PDH.getFaults().CanWarning).withRate(LogRate.HZ_1);
+    for (int i = 0; i < 24; i++) {
+      int channel = i;
+      autoLog(path + "/faults/channel" + i + "BreakerFault", () -> PDH.getFaults().getBreakerFault(channel)).withRate(LogRate.HZ_1);
+    }
+    autoLog(path + "/faults/hardwareFault", () -> PDH.getFaults().HardwareFault).withRate(LogRate.HZ_1);
+    autoLog(path + "/canId", () -> PDH.getModule()).withRate(LogRate.HZ_1);
     for (int i = 0; i <= 23; i++) {
-      log(path + "/channels/channel" + i + "Current", PDH.getCurrent(i));
+      int channel = i;
+      autoLog(path + "/channels/channel" + i + "Current", () -> PDH.getCurrent(channel)).withRate(LogRate.HZ_10).withDeadband(0.1);
     }
-    log(path + "/isSwitchableChannelOn", PDH.getSwitchableChannel());
-    log(path + "/temperature", PDH.getTemperature());
-    log(path + "/totalCurrent", PDH.getTotalCurrent());
-    log(path + "/totalJoules", PDH.getTotalEnergy());
-    log(path + "/totalWatts", PDH.getTotalPower());
-    log(path + "/voltage", PDH.getVoltage());
+    autoLog(path + "/isSwitchableChannelOn", () -> PDH.getSwitchableChannel()).withRate(LogRate.HZ_1);
+    autoLog(path + "/temperature", () -> PDH.getTemperature()).withRate(LogRate.HZ_1).withDeadband(0.5);
+    autoLog(path + "/totalCurrent", () -> PDH.getTotalCurrent()).withRate(LogRate.HZ_10).withDeadband(0.1);
+    autoLog(path + "/totalJoules", () -> PDH.getTotalEnergy()).withRate(LogRate.HZ_1).withDeadband(1.0);
+    autoLog(path + "/totalWatts", () -> PDH.getTotalPower()).withRate(LogRate.HZ_10).withDeadband(1.0);
+    autoLog(path + "/voltage", () -> PDH.getVoltage()).withRate(LogRate.HZ_10).withDeadband(0.01);
   }
 
-  public static void log(String path, PowerDistributionFaults faults) {
-    log(path + "/brownout", faults.Brownout);
-    log(path + "/canWarning", faults.CanWarning);
+  /**
+   * Registers the RoboRIO's battery, rail and CAN bus values. Only brownout state and battery
+   * voltage are sampled every loop.
+   */
+  public static void autoLogRio(String path) {
+    autoLog(path + "/isBrownedOut", () -> RobotController.isBrownedOut());
+    autoLog(path + "/isSysActive", () -> RobotController.isSysActive()).withRate(LogRate.HZ_10);
+    autoLog(path + "/brownoutVoltage", () -> RobotController.getBrownoutVoltage()).withRate(LogRate.HZ_1);
+    autoLog(path + "/batteryVoltage", () -> RobotController.getBatteryVoltage()).withDeadband(0.01);
+    autoLog(path + "/inputCurrent", () -> RobotController.getInputCurrent()).withRate(LogRate.HZ_10).withDeadband(0.05);
+    autoLog(path + "/inputVoltage", () -> RobotController.getInputVoltage()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/3V3Line/current", () -> RobotController.getCurrent3V3()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/5VLine/current", () -> RobotController.getCurrent5V()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/6VLine/current", () -> RobotController.getCurrent6V()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/3V3Line/enabled", () -> RobotController.getEnabled3V3()).withRate(LogRate.HZ_1);
+    autoLog(path + "/5VLine/enabled", () -> RobotController.getEnabled5V()).withRate(LogRate.HZ_1);
+    autoLog(path + "/6VLine/enabled", () -> RobotController.getEnabled6V()).withRate(LogRate.HZ_1);
+    autoLog(path + "/3V3Line/faultCount", () -> RobotController.getFaultCount3V3()).withRate(LogRate.HZ_1);
+    autoLog(path + "/5VLine/faultCount", () -> RobotController.getFaultCount5V()).withRate(LogRate.HZ_1);
+    autoLog(path + "/6VLine/faultCount", () -> RobotController.getFaultCount6V()).withRate(LogRate.HZ_1);
+    autoLog(path + "/3V3Line/voltage", () -> RobotController.getVoltage3V3()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/5VLine/voltage", () -> RobotController.getVoltage5V()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/6VLine/voltage", () -> RobotController.getVoltage6V()).withRate(LogRate.HZ_10).withDeadband(0.01);
+    autoLog(path + "/canStatus/percentBusUtilization", () -> getCANStatus().percentBusUtilization).withRate(LogRate.HZ_10).withDeadband(0.005);
+    autoLog(path + "/canStatus/busOffCount", () -> getCANStatus().busOffCount).withRate(LogRate.HZ_1);
+    autoLog(path + "/canStatus/receiveErrorCount", () -> getCANStatus().receiveErrorCount).withRate(LogRate.HZ_1);
+    autoLog(path + "/canStatus/transmitErrorCount", () -> getCANStatus().transmitErrorCount).withRate(LogRate.HZ_1);
+    autoLog(path + "/canStatus/txFullCount", () -> getCANStatus().txFullCount).withRate(LogRate.HZ_1);
+  }
 
-    for (int i = 0; i < 24; i++) {
-      log(path + "/channel" + i + "BreakerFault", faults.getBreakerFault(i));
+  /**
+   * Reads the CAN bus status at most once per frame into a reused object. Only called while
+   * capturing, from the main thread.
+   */
+  private static CANStatus getCANStatus() {
+    if (canStatusFrame != capturedFrames) {
+      CANJNI.getCANStatus(canStatus);
+      canStatusFrame = capturedFrames;
     }
-    
-    log(path + "/hardwareFault", faults.HardwareFault);
+    return canStatus;
   }
 
-  public static void log(String path, Object self, Class clazz) {    
-    for (Class c: clazz.getDeclaredClasses()) {
-      try {
-        log(path + "/" + c.getSimpleName(), self, c);
+  /**
+   * Publishes a value once. Keys are resolved to NetworkTables entries the first time they're
+   * logged, so logging the same key again doesn't build any key strings.
+   */
+  public static void log(String key, Object obj) {
+    if (obj == null) return;
+    LogHandles handles = handlesByKey.get(key);
+    if (handles == null || handles.type != obj.getClass()) {
+      handles = LogHandles.compile(table, key, obj.getClass());
+      handlesByKey.put(key, handles);
+    }
+    handles.publish(obj);
+  }
+
+  /**
+   * Logs every field of a class and its nested classes once, reading instance fields from self. To
+   * log them every tick, register them with {@link #autoLog(String, Object, Class)} instead.
+   */
+  public static void log(String path, Object self, Class<?> clazz) {
+    CompiledClass compiled = classesByPath.get(path);
+    if (compiled == null || compiled.clazz != clazz) {
+      compiled = new CompiledClass(path, clazz);
+      classesByPath.put(path, compiled);
+    }
+    compiled.publish(self);
+  }
+
+  private static final class CompiledClass {
+    private final Class<?> clazz;
+    private final List<FieldChannels.FieldGetter> fields;
+    private final String[] keys;
+    private final LogHandles[] handles;
+
+    private CompiledClass(String path, Class<?> clazz) {
+      this.clazz = clazz;
+      fields = FieldChannels.getFields(clazz);
+      keys = new String[fields.size()];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = path + fields.get(i).key;
       }
-      catch (Exception e) {}
+      handles = new LogHandles[keys.length];
     }
 
-    for (Field f: clazz.getDeclaredFields()) {
-      try {
-        log(path + "/" + f.getName(), f.get(self));
+    private void publish(Object self) {
+      for (int i = 0; i < keys.length; i++) {
+        FieldChannels.FieldGetter field = fields.get(i);
+        if (!field.canRead(self)) continue;
+        try {
+          Object value = (Object) field.getter.invoke(self);
+          if (value == null) continue;
+          if (handles[i] == null || handles[i].type != value.getClass()) {
+            handles[i] = LogHandles.compile(table, keys[i], value.getClass());
+          }
+          handles[i].publish(value);
+        } catch (Throwable e) {
+          System.out.println("[LOGGING] failed to log " + keys[i] + ": " + e);
+        }
       }
-      catch (Exception e) {}
     }
   }
 }
@@ -0,0 +1,181 @@
+package frc.robot.util.software.Logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.Constants.LOGGING;
+
+/**
+ * Times every subsystem periodic and every command execute within a scheduler run. Timing works by
+ * marks: each mark charges the time since the previous one to a section, so a loop costs one
+ * System.nanoTime() per subsystem and command. Subsystems mark themselves by calling
+ * {@link #enter(SubsystemBase)} at the top of periodic(); commands are marked by a scheduler
+ * callback after they execute, and button polling by two event loop bindings around the rest.
+ *
+ * <p>Each section keeps the last few seconds of samples in a preallocated ring and logs p50, p95,
+ * p99 and max (in milliseconds) once a second under Profiler/.
+ */
+public final class LoopProfiler {
+  private static final class Section {
+    final String name;
+    final long[] samples = new long[LOGGING.PROFILER_WINDOW];
+    final long[] sorted = new long[LOGGING.PROFILER_WINDOW];
+    int next = 0;
+    int count = 0;
+    // Time spent in this section during the current loop, which may be entered more than once
+    long elapsed = 0;
+    boolean touched = false;
+
+    Section(String name) {
+      this.name = name;
+      Logger.autoLog("Profiler/" + name, 4, this::fillSummary).withRate(LogRate.HZ_1);
+    }
+
+    void addSample(long nanoseconds) {
+      samples[next] = nanoseconds;
+      next = (next + 1) % samples.length;
+      if (count < samples.length) count++;
+    }
+
+    /** Writes p50, p95, p99 and max of the window, in milliseconds */
+    void fillSummary(double[] buffer) {
+      if (count == 0) return;
+      System.arraycopy(samples, 0, sorted, 0, count);
+      Arrays.sort(sorted, 0, count);
+      buffer[0] = percentile(0.50) / 1e6;
+      buffer[1] = percentile(0.95) / 1e6;
+      buffer[2] = percentile(0.99) / 1e6;
+      buffer[3] = sorted[count - 1] / 1e6;
+    }
+
+    private long percentile(double fraction) {
+      return sorted[Math.min(count - 1, (int) (fraction * count))];
+    }
+  }
+
+  private static final boolean ENABLED = LOGGING.ENABLE_LOOP_PROFILER;
+
+  // Weak so commands created on the fly don't pile up; sections are shared by name
+  private static Map<Object, Section> sectionsByOwner = new WeakHashMap<Object, Section>();
+  private static Map<String, Section> sectionsByName = new HashMap<String, Section>();
+  private static List<Section> touchedSections = new ArrayList<Section>();
+  private static Section total;
+  private static Section buttons;
+  private static Section current = null;
+  private static long loopStart = 0;
+  private static long lastMark = 0;
+  private static boolean inLoop = false;
+
+  private LoopProfiler() {}
+
+  /**
+   * Hooks into the scheduler. Call before any button bindings are made, then call
+   * {@link #finishBindings()} after the last one.
+   */
+  public static void start() {
+    if (!ENABLED) return;
+    total = getSection("scheduler");
+    buttons = getSection("buttons");
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(() -> enter(buttons));
+    CommandScheduler.getInstance().onCommandExecute(LoopProfiler::executed);
+  }
+
+  /**
+   * Marks the end of button polling, so it isn't charged to the first command that executes
+   */
+  public static void finishBindings() {
+    if (!ENABLED) return;
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(() -> enter(null));
+  }
+
+  /**
+   * Called by Robot right before the scheduler runs
+   */
+  public static void startLoop() {
+    if (!ENABLED) return;
+    loopStart = System.nanoTime();
+    lastMark = loopStart;
+    current = null;
+    inLoop = true;
+  }
+
+  /**
+   * Called by Robot right after the scheduler runs. Adds one sample to every section that ran.
+   */
+  public static void endLoop() {
+    if (!ENABLED || !inLoop) return;
+    long now = System.nanoTime();
+    charge(now);
+    inLoop = false;
+
+    for (int i = 0; i < touchedSections.size(); i++) {
+      Section section = touchedSections.get(i);
+      section.addSample(section.elapsed);
+      section.elapsed = 0;
+      section.touched = false;
+    }
+    touchedSections.clear();
+    total.addSample(now - loopStart);
+  }
+
+  /**
+   * Starts timing a subsystem. Call at the top of its periodic().
+   */
+  public static void enter(SubsystemBase subsystem) {
+    if (!ENABLED || !inLoop) return;
+    long now = System.nanoTime();
+    charge(now);
+    current = getSection(subsystem);
+  }
+
+  private static void enter(Section section) {
+    if (!inLoop) return;
+    charge(System.nanoTime());
+    current = section;
+  }
+
+  /** Command executes have no hook before them, so the time since the last mark is theirs */
+  private static void executed(Command command) {
+    if (!inLoop) return;
+    current = getSection(command);
+    charge(System.nanoTime());
+    current = null;
+  }
+
+  private static void charge(long now) {
+    if (current != null) {
+      current.elapsed += now - lastMark;
+      if (!current.touched) {
+        current.touched = true;
+        touchedSections.add(current);
+      }
+    }
+    lastMark = now;
+  }
+
+  private static Section getSection(Object owner) {
+    Section section = sectionsByOwner.get(owner);
+    if (section == null) {
+      String name = owner instanceof SubsystemBase ? ((SubsystemBase) owner).getName() : ((Command) owner).getName();
+      section = getSection(owner instanceof Command ? "commands/" + name : name);
+      sectionsByOwner.put(owner, section);
+    }
+    return section;
+  }
+
+  private static Section getSection(String name) {
+    Section section = sectionsByName.get(name);
+    if (section == null) {
+      section = new Section(name);
+      sectionsByName.put(name, section);
+    }
+    return section;
+  }
+}
@@ -0,0 +1,85 @@
+package frc.robot.util.software.Logging;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+
+/**
+ * Fallback channel for suppliers that return arbitrary objects (strings, enums, hardware objects).
+ * Values are published through {@link LogHandles} compiled for their type, but the supplier still
+ * allocates or boxes, so prefer one of the typed channels in the robot loop. The on-robot log
+ * stores the value's string form.
+ */
+public class ObjectChannel extends LogChannel {
+  private final Supplier<Object> supplier;
+  private final Object[] frames;
+  private final Object[] snapshot;
+  private Object value;
+  private Object publishedValue;
+  private LogHandles handles;
+  private StringLogEntry entry;
+  private Object logValue;
+  private Object loggedValue;
+
+  public ObjectChannel(String key, int slots, Supplier<Object> supplier) {
+    super(key, slots);
+    this.supplier = supplier;
+    frames = new Object[slots];
+    snapshot = new Object[slots];
+  }
+
+  @Override
+  public void capture(int slot) {
+    frames[slot] = supplier.get();
+    captured = true;
+  }
+
+  @Override
+  public boolean load(int slot) {
+    if (!captured) return false;
+    value = frames[slot];
+    return value != null && !value.equals(publishedValue);
+  }
+
+  @Override
+  public void publish(NetworkTable table, long timestamp) {
+    if (handles == null || handles.type != value.getClass()) {
+      handles = LogHandles.compile(table, key, value.getClass());
+    }
+    handles.publish(value);
+    publishedValue = value;
+  }
+
+  @Override
+  public boolean stage(int slot) {
+    if (!captured) return false;
+    logValue = frames[slot];
+    return logValue != null && !logValue.equals(loggedValue);
+  }
+
+  @Override
+  public void append(DataLog log, long timestamp) {
+    // Arbitrary objects are logged by their string form
+    if (entry == null) entry = new StringLogEntry(log, LOG_ENTRY_PREFIX + key);
+    entry.append(logValue.toString(), timestamp);
+    loggedValue = logValue;
+  }
+
+  @Override
+  public void snapshot() {
+    System.arraycopy(frames, 0, snapshot, 0, slots);
+  }
+
+  @Override
+  public DataLogEntry startDump(DataLog log) {
+    return new StringLogEntry(log, key);
+  }
+
+  @Override
+  public void dump(DataLogEntry entry, int slot, long timestamp) {
+    if (snapshot[slot] != null) ((StringLogEntry) entry).append(snapshot[slot].toString(), timestamp);
+  }
+}
@@ -1,10 +1,17 @@
 package frc.robot.util.software.Logging;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BooleanSupplier;
 
 import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.ComplexWidget;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
@@ -12,18 +19,74 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.Constants.LOGGING;
+import frc.robot.util.software.LoopBudget;
 
+/**
+ * Health checks, run in the background. Many checks block on CAN (firmware versions, faults), so
+ * they run on their own thread one at a time, within a time budget per tick, and each result is
+ * cached with when it was taken. A check that hangs is marked as failed, and is left running rather
+ * than started again; the checks after it wait until it returns. While the main loop is busy (see
+ * {@link LoopBudget#getDecimation()}), only one check runs every few ticks. The main thread only
+ * ever reads cached results, e.g. through {@link #getHealth()}.
+ */
 public class StatusChecks {
+  public enum Health {
+    /** Some checks haven't passed or failed recently */
+    UNKNOWN,
+    HEALTHY,
+    /** At least one check failed or timed out */
+    FAILING,
+  }
+
+  private static final class Check {
+    final String name;
+    final BooleanSupplier supplier;
+    final GenericEntry entry;
+    volatile boolean passed = false;
+    volatile boolean timedOut = false;
+    // FPGA time of the last result, or 0 if the check hasn't finished yet
+    volatile long timestamp = 0;
+    boolean published = false;
+    // The run on the worker, while it hasn't finished
+    Future<Boolean> pending;
+    long submittedNanoseconds;
+
+    Check(String name, BooleanSupplier supplier, GenericEntry entry) {
+      this.name = name;
+      this.supplier = supplier;
+      this.entry = entry;
+    }
+  }
+
+  private static final long BUDGET_NANOSECONDS = LOGGING.STATUS_CHECK_BUDGET_MS * 1000000L;
+  private static final long TIMEOUT_NANOSECONDS = LOGGING.STATUS_CHECK_TIMEOUT_MS * 1000000L;
+  private static final long STALE_MICROSECONDS = (long) (LOGGING.STATUS_CHECK_STALE_SECONDS * 1e6);
+
   public static int row = 0;
   public static int column = 1;
   private static ShuffleboardTab tab = Shuffleboard.getTab("Status Checks");
   private static ComplexWidget refreshButton = tab.add("Refresh", StatusChecks.refresh()).withWidget(BuiltInWidgets.kCommand).withSize(1, 1).withPosition(0, 0);
-  private static Map<String, BooleanSupplier> suppliers = new HashMap<String, BooleanSupplier>();
-  private static Map<String, GenericEntry> entries = new HashMap<String, GenericEntry>();
+  private static GenericEntry healthEntry = tab.add("Healthy", false).withWidget(BuiltInWidgets.kBooleanBox).withSize(1, 1).withPosition(0, 1).getEntry();
+  private static List<Check> checks = new CopyOnWriteArrayList<Check>();
+
+  private static volatile Health health = Health.UNKNOWN;
+  private static volatile boolean refreshRequested = false;
+  private static int nextCheck = 0;
+  private static final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Status Check Worker");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+  // The check the worker is running, or null if it's idle
+  private static Check running = null;
+  private static Thread monitor = new Thread(StatusChecks::run, "Status Checks");
 
   private static void addCheck(String name, BooleanSupplier supplier) {
-    suppliers.put(name, supplier);
-    entries.put(name, tab.add(name.replace("/", " "), supplier.getAsBoolean()).withWidget(BuiltInWidgets.kBooleanBox).withSize(1, 1).withPosition(column, row).getEntry());
+    // The result isn't known until the monitor first runs the check
+    GenericEntry entry = tab.add(name.replace("/", " "), false).withWidget(BuiltInWidgets.kBooleanBox).withSize(1, 1).withPosition(column, row).getEntry();
+    checks.add(new Check(name, supplier, entry));
     column++;
     if (column > 12) {
       column = 0;
@@ -33,14 +96,135 @@ public class StatusChecks {
 
   public static void addCheck(SubsystemBase subsystem, String name, BooleanSupplier supplier) {
     addCheck(subsystem.getClass().getSimpleName() + "/" + name, supplier);
-    
+
   }
 
+  /**
+   * Starts running checks in the background. Checks added afterwards are picked up automatically.
+   */
+  public static void start() {
+    Logger.autoLog("StatusChecks/health", () -> health.name()).withRate(LogRate.HZ_10);
+    monitor.setDaemon(true);
+    monitor.setPriority(Thread.MIN_PRIORITY);
+    monitor.start();
+  }
+
+  /**
+   * @return The combined result of every check, as of the last time each was run
+   */
+  public static Health getHealth() {
+    return health;
+  }
+
+  /**
+   * Runs every check on the next tick instead of waiting for their turn
+   */
   public static Command refresh() {
-    return Commands.runOnce(() -> {
-      for (Map.Entry<String, BooleanSupplier> supplier : suppliers.entrySet()) {
-        entries.get(supplier.getKey()).setBoolean(supplier.getValue().getAsBoolean());
+    return Commands.runOnce(() -> refreshRequested = true).ignoringDisable(true);
+  }
+
+  private static void run() {
+    int tick = 0;
+    while (!Thread.interrupted()) {
+      try {
+        Thread.sleep(LOGGING.STATUS_CHECK_PERIOD_MS);
+        // The checks compete with the main thread for CPU and CAN, so a busy loop gets fewer of them.
+        // A refresh still runs them all.
+        int decimation = LoopBudget.getDecimation();
+        boolean runAll = refreshRequested;
+        refreshRequested = false;
+        if (runAll || tick % decimation == 0) runChecks(runAll, decimation == 1 ? Integer.MAX_VALUE : 1);
+        tick++;
+        // Recomputed even on ticks that skip the checks, so ones that go stale show as unknown
+        health = computeHealth();
+        healthEntry.setBoolean(health == Health.HEALTHY);
+      } catch (InterruptedException e) {
+        return;
       }
-    }).ignoringDisable(true);
+    }
+  }
+
+  /**
+   * Runs checks in turn until the tick's budget is spent or maxChecks have started, or every check
+   * once after a refresh. A check still running from an earlier tick is waited on first and never
+   * submitted twice.
+   */
+  private static void runChecks(boolean runAll, int maxChecks) throws InterruptedException {
+    int count = checks.size();
+    if (count == 0) return;
+
+    int limit = runAll ? count : Math.min(count, maxChecks);
+    long deadline = System.nanoTime() + BUDGET_NANOSECONDS;
+    int started = 0;
+    while (true) {
+      if (running != null) {
+        // After a refresh, each check gets up to its timeout instead of what's left of the budget
+        long wait = runAll ? TIMEOUT_NANOSECONDS - (System.nanoTime() - running.submittedNanoseconds) : deadline - System.nanoTime();
+        // The worker is still busy, so nothing else can run until a later tick
+        if (!awaitRunning(wait)) return;
+      }
+      if (started == limit) return;
+      if (!runAll && System.nanoTime() - deadline >= 0) return;
+
+      Check check = checks.get(nextCheck % count);
+      nextCheck = (nextCheck + 1) % count;
+      check.submittedNanoseconds = System.nanoTime();
+      check.pending = worker.submit(() -> check.supplier.getAsBoolean());
+      running = check;
+      started++;
+    }
+  }
+
+  /**
+   * Waits for the running check to finish and records its result. If it's run past its timeout, it
+   * is recorded as timed out instead, and stays running.
+   * @return Whether the check finished
+   */
+  private static boolean awaitRunning(long waitNanoseconds) throws InterruptedException {
+    Check check = running;
+    boolean passed;
+    try {
+      passed = check.pending.get(Math.max(waitNanoseconds, 0), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // Recorded every tick it's stuck, so a hung check stays failed rather than going stale
+      if (System.nanoTime() - check.submittedNanoseconds > TIMEOUT_NANOSECONDS) record(check, false, true);
+      return false;
+    } catch (ExecutionException e) {
+      passed = false;
+    }
+    check.pending = null;
+    running = null;
+    record(check, passed, false);
+    return true;
+  }
+
+  private static void record(Check check, boolean passed, boolean timedOut) {
+    boolean changed = !check.published || passed != check.passed || timedOut != check.timedOut;
+    // Only a check that stops passing is worth a dump, not one that's been failing since boot
+    boolean broke = check.published && check.passed && !passed;
+    check.passed = passed;
+    check.timedOut = timedOut;
+    check.timestamp = RobotController.getFPGATime();
+
+    // Only changes are published, so the dashboard isn't rewritten every pass
+    if (!changed) return;
+    check.entry.setBoolean(passed);
+    check.published = true;
+    if (broke) {
+      FlightRecorder.trigger(FlightRecorder.Trigger.STATUS_CHECK_FAILED, "Status check " + (timedOut ? "timed out: " : "failed: ") + check.name);
+    }
+  }
+
+  private static Health computeHealth() {
+    long now = RobotController.getFPGATime();
+    Health combined = Health.HEALTHY;
+    for (Check check : checks) {
+      if (check.timestamp == 0 || now - check.timestamp > STALE_MICROSECONDS) {
+        combined = Health.UNKNOWN;
+      } else if (!check.passed) {
+        return Health.FAILING;
+      }
+    }
+    return combined;
   }
-}
\ No newline at end of file
+}
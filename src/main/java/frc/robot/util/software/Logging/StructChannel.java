@@ -0,0 +1,95 @@
+package frc.robot.util.software.Logging;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.StructLogEntry;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * Logs a WPILib struct type (Pose2d, Translation2d, etc.) as a packed binary topic. The struct
+ * publisher reuses its serialization buffer, so publishing doesn't allocate.
+ *
+ * <p>Frames hold references, so the supplier should return an existing immutable object (e.g. the
+ * pose estimator's pose) rather than building a new one or handing out a mutable one.
+ */
+public class StructChannel<T> extends LogChannel {
+  private final Supplier<T> supplier;
+  private final Struct<T> struct;
+  private final Object[] frames;
+  private final Object[] snapshot;
+  private StructPublisher<T> publisher;
+  private T value;
+  private T publishedValue;
+  private boolean published = false;
+  private StructLogEntry<T> entry;
+  private T logValue;
+  private T loggedValue;
+  private boolean logged = false;
+
+  public StructChannel(String key, int slots, Supplier<T> supplier, Struct<T> struct) {
+    super(key, slots);
+    this.supplier = supplier;
+    this.struct = struct;
+    frames = new Object[slots];
+    snapshot = new Object[slots];
+  }
+
+  @Override
+  public void capture(int slot) {
+    frames[slot] = supplier.get();
+    captured = true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean load(int slot) {
+    if (!captured) return false;
+    value = (T) frames[slot];
+    return value != null && (!published || !Objects.equals(value, publishedValue));
+  }
+
+  @Override
+  public void publish(NetworkTable table, long timestamp) {
+    if (publisher == null) publisher = table.getStructTopic(key, struct).publish();
+    publisher.set(value, timestamp);
+    publishedValue = value;
+    published = true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean stage(int slot) {
+    if (!captured) return false;
+    logValue = (T) frames[slot];
+    return logValue != null && (!logged || !Objects.equals(logValue, loggedValue));
+  }
+
+  @Override
+  public void append(DataLog log, long timestamp) {
+    if (entry == null) entry = StructLogEntry.create(log, LOG_ENTRY_PREFIX + key, struct);
+    entry.append(logValue, timestamp);
+    loggedValue = logValue;
+    logged = true;
+  }
+
+  @Override
+  public void snapshot() {
+    System.arraycopy(frames, 0, snapshot, 0, slots);
+  }
+
+  @Override
+  public DataLogEntry startDump(DataLog log) {
+    return StructLogEntry.create(log, key, struct);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void dump(DataLogEntry entry, int slot, long timestamp) {
+    if (snapshot[slot] != null) ((StructLogEntry<T>) entry).append((T) snapshot[slot], timestamp);
+  }
+}
@@ -0,0 +1,122 @@
+package frc.robot.util.software;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.Constants.LOOP_BUDGET;
+import frc.robot.util.software.Logging.LogRate;
+import frc.robot.util.software.Logging.Logger;
+
+/**
+ * Keeps the control loop on time when the robot runs out of compute. Work is either critical
+ * (odometry, module control, PivotController.run and anything else not listed in {@link Work}),
+ * which always runs, or deferrable, which asks {@link #shouldRun(Work)} first. While the average
+ * compute time (the slack left in each tick) runs low, or shortly after an overrun, deferrable work
+ * only runs every few ticks. Work on other threads that competes with the main thread, like the
+ * logger's NetworkTables publishing, reads {@link #getDecimation()} instead.
+ *
+ * <p>Decisions are made once at the start of each tick, so asking twice in the same tick gives the
+ * same answer.
+ */
+public final class LoopBudget {
+  /** Work that can be postponed when the loop is short on time */
+  public enum Work {
+    LEDS,
+    FIELD2D,
+    NOTE_VISION,
+  }
+
+  public enum Load {
+    NORMAL,
+    HIGH,
+    OVERLOADED,
+  }
+
+  private static final double PERIOD = TimedRobot.kDefaultPeriod;
+  private static final double AVERAGING_GAIN = PERIOD / (LOOP_BUDGET.AVERAGING_TIME_CONSTANT + PERIOD);
+  private static final long OVERRUN_HOLD_TICKS = Math.round(LOOP_BUDGET.OVERRUN_HOLD_SECONDS / PERIOD);
+
+  private static final Work[] WORK = Work.values();
+  private static final boolean[] runThisTick = new boolean[WORK.length];
+
+  // Read by the logger and the status check monitor, so the load is volatile
+  private static volatile Load load = Load.NORMAL;
+  private static double averageComputeTime = 0.0;
+  private static long tick = 0;
+  private static long lastOverrunTick = Long.MIN_VALUE / 2;
+  private static long loopStart = 0;
+  private static long shedTicks = 0;
+
+  static {
+    for (int i = 0; i < WORK.length; i++) runThisTick[i] = true;
+  }
+
+  private LoopBudget() {}
+
+  public static void start() {
+    Logger.autoLog("LoopBudget/load", () -> load.name()).withRate(LogRate.HZ_10);
+    Logger.autoLog("LoopBudget/averageComputeTime", () -> averageComputeTime).withRate(LogRate.HZ_10);
+    Logger.autoLog("LoopBudget/shedTicks", () -> shedTicks).withRate(LogRate.HZ_1);
+  }
+
+  /**
+   * Decides what deferrable work runs this tick. Called by Robot at the start of robotPeriodic().
+   */
+  public static void startLoop() {
+    loopStart = System.nanoTime();
+    tick++;
+
+    int decimation = getDecimation();
+    boolean shed = false;
+    for (int i = 0; i < WORK.length; i++) {
+      // Staggered by index, so postponed work doesn't all land on the same tick
+      runThisTick[i] = (tick + i) % decimation == 0;
+      if (!runThisTick[i]) shed = true;
+    }
+    if (shed) shedTicks++;
+  }
+
+  /**
+   * Updates the load from how long this tick took. Called by Robot at the end of robotPeriodic().
+   */
+  public static void endLoop() {
+    double computeTime = (System.nanoTime() - loopStart) / 1e9;
+    averageComputeTime += AVERAGING_GAIN * (computeTime - averageComputeTime);
+    if (computeTime > PERIOD) lastOverrunTick = tick;
+
+    double fraction = averageComputeTime / PERIOD;
+    boolean holding = tick - lastOverrunTick < OVERRUN_HOLD_TICKS;
+    if (fraction >= LOOP_BUDGET.OVERLOAD_FRACTION) {
+      load = Load.OVERLOADED;
+    } else if (fraction >= LOOP_BUDGET.HIGH_LOAD_FRACTION || holding) {
+      load = Load.HIGH;
+    } else if (fraction < LOOP_BUDGET.RECOVERED_FRACTION) {
+      load = Load.NORMAL;
+    } else if (load == Load.OVERLOADED) {
+      // Between the thresholds, keep shedding but step down
+      load = Load.HIGH;
+    }
+  }
+
+  /**
+   * @return Whether deferrable work should run this tick
+   */
+  public static boolean shouldRun(Work work) {
+    return runThisTick[work.ordinal()];
+  }
+
+  /**
+   * @return Deferrable work should only run once every this many ticks, for the current load. Safe
+   * to read from any thread.
+   */
+  public static int getDecimation() {
+    Load load = LoopBudget.load;
+    if (!LOOP_BUDGET.ENABLE_LOAD_SHEDDING || load == Load.NORMAL) return 1;
+    return load == Load.HIGH ? LOOP_BUDGET.HIGH_LOAD_DECIMATION : LOOP_BUDGET.OVERLOAD_DECIMATION;
+  }
+
+  /**
+   * @return How the loop has been keeping up lately. Safe to read from any thread.
+   */
+  public static Load getLoad() {
+    return load;
+  }
+}
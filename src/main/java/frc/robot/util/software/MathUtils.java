@@ -27,6 +27,16 @@ public final class MathUtils {
       return phi > Math.PI ? (2.0 * Math.PI) - phi : phi;
     }
 
+    /**
+     * Whether a swerve module should drive backwards to point in a direction, rather than turn more
+     * than 90 degrees to it. The same test as SwerveModuleState.optimize().
+     * @param targetRadians Direction to point in
+     * @param measuredRadians Direction the module points in now
+     */
+    public static boolean shouldReverse(double targetRadians, double measuredRadians) {
+      return angleDistance(targetRadians, measuredRadians) > Math.PI / 2.0;
+    }
+
     /**
      * Logical inverse of the Pose exponential from 254. Taken from team 3181.
      *
@@ -0,0 +1,163 @@
+package frc.robot.util.software;
+
+/**
+ * Fixed-capacity, time-ordered history of {@link CustomPoseEstimator} records, kept as parallel
+ * primitive arrays in a ring so recording a sample or looking one up never allocates. Each record
+ * is the estimated pose, the gyro angle and the wheel positions (flattened by the estimator into a
+ * fixed number of doubles) at one timestamp. Records are addressed by index, oldest first.
+ */
+final class PoseHistory {
+  private final int capacity;
+  private final int wheelStateSize;
+  private final double[] timestamps;
+  private final double[] x;
+  private final double[] y;
+  private final double[] theta;
+  private final double[] gyro;
+  // capacity x wheelStateSize, one row per slot
+  private final double[] wheelStates;
+
+  // Slot of the oldest record
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * @param capacity Most records kept. When full, adding a record drops the oldest.
+   * @param wheelStateSize Number of doubles each record's wheel positions take
+   */
+  PoseHistory(int capacity, int wheelStateSize) {
+    this.capacity = capacity;
+    this.wheelStateSize = wheelStateSize;
+    timestamps = new double[capacity];
+    x = new double[capacity];
+    y = new double[capacity];
+    theta = new double[capacity];
+    gyro = new double[capacity];
+    wheelStates = new double[capacity * wheelStateSize];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  private int slot(int index) {
+    int slot = head + index;
+    return slot >= capacity ? slot - capacity : slot;
+  }
+
+  double getTimestamp(int index) {
+    return timestamps[slot(index)];
+  }
+
+  double getX(int index) {
+    return x[slot(index)];
+  }
+
+  double getY(int index) {
+    return y[slot(index)];
+  }
+
+  /**
+   * @return [radians] Estimated heading
+   */
+  double getTheta(int index) {
+    return theta[slot(index)];
+  }
+
+  /**
+   * @return [radians] Gyro angle
+   */
+  double getGyro(int index) {
+    return gyro[slot(index)];
+  }
+
+  /**
+   * Copies a record's wheel positions
+   */
+  void getWheelState(int index, double[] result) {
+    System.arraycopy(wheelStates, slot(index) * wheelStateSize, result, 0, wheelStateSize);
+  }
+
+  /**
+   * Binary search by timestamp
+   * @return Index of the first record at or after the timestamp, or size() if there isn't one
+   */
+  int ceilingIndex(double timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getTimestamp(middle) < timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Drops records at least duration older than the timestamp
+   */
+  void removeExpired(double timestamp, double duration) {
+    int expired = 0;
+    while (expired < size && timestamp - getTimestamp(expired) >= duration) expired++;
+    head = slot(expired);
+    size -= expired;
+  }
+
+  /**
+   * Drops every record from the index onwards
+   */
+  void truncate(int index) {
+    size = Math.min(size, index);
+  }
+
+  /**
+   * Adds a record in timestamp order, replacing any record with the same timestamp. Records are
+   * normally added newest last, which is a plain append.
+   */
+  void add(double timestamp, double x, double y, double theta, double gyro, double[] wheelState) {
+    int index = ceilingIndex(timestamp);
+    if (index < size && getTimestamp(index) == timestamp) {
+      set(slot(index), timestamp, x, y, theta, gyro, wheelState);
+      return;
+    }
+
+    if (size == capacity) {
+      // Older than everything in a full history
+      if (index == 0) return;
+      head = slot(1);
+      size--;
+      index--;
+    }
+    for (int i = size; i > index; i--) {
+      copy(slot(i - 1), slot(i));
+    }
+    size++;
+    set(slot(index), timestamp, x, y, theta, gyro, wheelState);
+  }
+
+  private void set(int slot, double timestamp, double x, double y, double theta, double gyro, double[] wheelState) {
+    timestamps[slot] = timestamp;
+    this.x[slot] = x;
+    this.y[slot] = y;
+    this.theta[slot] = theta;
+    this.gyro[slot] = gyro;
+    System.arraycopy(wheelState, 0, wheelStates, slot * wheelStateSize, wheelStateSize);
+  }
+
+  private void copy(int from, int to) {
+    timestamps[to] = timestamps[from];
+    x[to] = x[from];
+    y[to] = y[from];
+    theta[to] = theta[from];
+    gyro[to] = gyro[from];
+    System.arraycopy(wheelStates, from * wheelStateSize, wheelStates, to * wheelStateSize, wheelStateSize);
+  }
+}
@@ -0,0 +1,231 @@
+package frc.robot.util.software.Replay;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.drive.SwerveOdometry;
+import frc.robot.subsystems.vision.AprilTags;
+import frc.robot.subsystems.vision.VisionCandidate;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * Runs the robot's odometry and vision code on inputs recorded by {@link ReplayRecorder}, off the
+ * robot and without any hardware. Useful for checking a change to the estimator or the vision
+ * filters against a real match, or for tuning standard deviations.
+ *
+ * <p>Run with ./gradlew replay -Plog=path/to/log.wpilog, optionally with -Pcsv=poses.csv and
+ * -PstateStdDevs=x,y,degrees.
+ */
+public final class LogReplay {
+  /** Replayed pose estimate after every loop */
+  public static final class Result {
+    public final List<Double> timestamps = new ArrayList<>();
+    public final List<Pose2d> poses = new ArrayList<>();
+    public int visionMeasurements = 0;
+    /** Estimates the innovation gate dropped, or down-weighted */
+    public int rejectedEstimates = 0;
+    public int downweightedEstimates = 0;
+    public int badPoses = 0;
+  }
+
+  private final Matrix<N3, N1> stateStdDevs;
+  private final Result result = new Result();
+  private SwerveOdometry odometry;
+  private double timestamp;
+  private boolean tickPending = false;
+  // Logs recorded before loop markers existed end a loop at every odometry record instead
+  private boolean loopMarkers = false;
+  // Module positions of the last odometry record, reused
+  private double[] drivePositions = new double[0];
+  private double[] steerRadians = new double[0];
+
+  private LogReplay(Matrix<N3, N1> stateStdDevs) {
+    this.stateStdDevs = stateStdDevs;
+  }
+
+  /**
+   * Replays a log. If the robot code restarted during the log, the estimate restarts with it.
+   * @param path Path to the .wpilog file
+   * @param stateStdDevs Standard deviations of the wheel odometry, e.g.
+   * {@link SwerveOdometry#STATE_STD_DEVS}
+   */
+  public static Result replay(String path, Matrix<N3, N1> stateStdDevs) throws IOException {
+    DataLogReader reader = new DataLogReader(path);
+    if (!reader.isValid()) throw new IOException("Not a valid log: " + path);
+
+    LogReplay replay = new LogReplay(stateStdDevs);
+    for (DataLogRecord record : reader) {
+      if (record.isStart() && record.getStartData().name.equals(ReplayRecorder.LOOP_KEY)) {
+        replay.loopMarkers = true;
+        break;
+      }
+    }
+
+    Map<Integer, String> keys = new HashMap<>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        keys.put(start.entry, start.name);
+        continue;
+      }
+      if (record.isControl()) continue;
+
+      String key = keys.get(record.getEntry());
+      if (key == null || !key.startsWith("Replay/")) continue;
+      replay.apply(key, record.getDoubleArray());
+    }
+    replay.finishTick();
+    return replay.result;
+  }
+
+  private void apply(String key, double[] record) {
+    switch (key) {
+      case ReplayRecorder.START_KEY:
+        finishTick();
+        start(record);
+        break;
+      case ReplayRecorder.ODOMETRY_KEY:
+        if (odometry == null) return;
+        if (!loopMarkers) finishTick();
+        timestamp = record[0];
+        readModules(record, ReplayRecorder.ODOMETRY_HEADER);
+        odometry.update(timestamp, drivePositions, steerRadians, record[1] != 0.0, record[2]);
+        tickPending = true;
+        break;
+      case ReplayRecorder.VISION_KEY:
+        if (odometry == null) return;
+        List<Pose2d> accepted = new ArrayList<>();
+        AprilTags.processVisionData(readPoseEstimates(record), record[0] != 0.0, record[1] != 0.0, odometry, accepted);
+        // Any accepted estimate means the batch was applied
+        if (!accepted.isEmpty()) result.visionMeasurements++;
+        result.rejectedEstimates += AprilTags.countResults(VisionCandidate.Result.REJECTED);
+        result.downweightedEstimates += AprilTags.countResults(VisionCandidate.Result.DOWNWEIGHTED);
+        break;
+      case ReplayRecorder.RESET_POSE_KEY:
+        if (odometry == null) return;
+        odometry.resetPose(new Rotation2d(record[0]), readPose(record, 1), readModulePositions(record, 4));
+        break;
+      case ReplayRecorder.GYRO_OFFSET_KEY:
+        if (odometry == null) return;
+        odometry.setGyroOffset(new Rotation2d(record[0]));
+        break;
+      case ReplayRecorder.LOOP_KEY:
+        finishTick();
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void start(double[] record) {
+    boolean useGyroHeading = record[0] != 0.0;
+    int modules = (int) record[1];
+    Translation2d[] moduleLocations = new Translation2d[modules];
+    int i = 2;
+    for (int module = 0; module < modules; module++) {
+      moduleLocations[module] = new Translation2d(record[i], record[i + 1]);
+      i += 2;
+    }
+    Pose2d startingPose = readPose(record, i);
+    odometry = new SwerveOdometry(moduleLocations, startingPose, readModulePositions(record, i + 3), useGyroHeading, stateStdDevs, false);
+  }
+
+  /** Runs the end-of-loop check once every input of the loop has been applied */
+  private void finishTick() {
+    if (!tickPending) return;
+    tickPending = false;
+    if (!odometry.validate()) result.badPoses++;
+    result.timestamps.add(timestamp);
+    result.poses.add(odometry.getPose());
+  }
+
+  private static Pose2d readPose(double[] record, int i) {
+    return new Pose2d(record[i], record[i + 1], new Rotation2d(record[i + 2]));
+  }
+
+  private static SwerveModulePosition[] readModulePositions(double[] record, int i) {
+    SwerveModulePosition[] positions = new SwerveModulePosition[(record.length - i) / ReplayRecorder.MODULE_FIELDS];
+    for (int module = 0; module < positions.length; module++) {
+      positions[module] = new SwerveModulePosition(record[i + 1], new Rotation2d(record[i]));
+      i += ReplayRecorder.MODULE_FIELDS;
+    }
+    return positions;
+  }
+
+  private void readModules(double[] record, int i) {
+    int modules = (record.length - i) / ReplayRecorder.MODULE_FIELDS;
+    if (drivePositions.length != modules) {
+      drivePositions = new double[modules];
+      steerRadians = new double[modules];
+    }
+    for (int module = 0; module < modules; module++) {
+      steerRadians[module] = record[i];
+      drivePositions[module] = record[i + 1];
+      i += ReplayRecorder.MODULE_FIELDS;
+    }
+  }
+
+  private static List<PoseEstimate> readPoseEstimates(double[] record) {
+    int count = (int) record[2];
+    List<PoseEstimate> poseEstimates = new ArrayList<>(count);
+    int i = ReplayRecorder.VISION_HEADER;
+    for (int estimate = 0; estimate < count; estimate++) {
+      Pose3d pose = new Pose3d(record[i], record[i + 1], record[i + 2], new Rotation3d(record[i + 3], record[i + 4], record[i + 5]));
+      poseEstimates.add(new PoseEstimate(pose, record[i + 6], record[i + 7], (int) record[i + 8], record[i + 9], record[i + 10], record[i + 11], (int) record[i + 12]));
+      i += ReplayRecorder.ESTIMATE_FIELDS;
+    }
+    return poseEstimates;
+  }
+
+  /**
+   * @param args Log path, then optionally a CSV path to write the replayed poses to and the state
+   * standard deviations as "x,y,degrees"
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: LogReplay <log.wpilog> [poses.csv] [x,y,degrees]");
+      return;
+    }
+
+    Matrix<N3, N1> stateStdDevs = SwerveOdometry.STATE_STD_DEVS;
+    if (args.length >= 3 && !args[2].isEmpty()) {
+      String[] values = args[2].split(",");
+      stateStdDevs = VecBuilder.fill(Double.parseDouble(values[0]), Double.parseDouble(values[1]), Units.degreesToRadians(Double.parseDouble(values[2])));
+    }
+
+    Result result = replay(args[0], stateStdDevs);
+    System.out.println("[REPLAY] " + result.poses.size() + " loops, " + result.visionMeasurements + " loops with vision, " + result.rejectedEstimates + " estimates rejected, " + result.downweightedEstimates + " down-weighted, " + result.badPoses + " bad poses");
+    if (!result.poses.isEmpty()) {
+      System.out.println("[REPLAY] final pose: " + result.poses.get(result.poses.size() - 1));
+    }
+
+    if (args.length >= 2 && !args[1].isEmpty()) {
+      try (PrintWriter writer = new PrintWriter(new FileWriter(args[1]))) {
+        writer.println("timestamp,x,y,degrees");
+        for (int i = 0; i < result.poses.size(); i++) {
+          Pose2d pose = result.poses.get(i);
+          writer.println(result.timestamps.get(i) + "," + pose.getX() + "," + pose.getY() + "," + pose.getRotation().getDegrees());
+        }
+      }
+      System.out.println("[REPLAY] wrote " + args[1]);
+    }
+  }
+}
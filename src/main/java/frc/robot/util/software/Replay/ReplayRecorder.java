@@ -0,0 +1,191 @@
+package frc.robot.util.software.Replay;
+
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * Writes the inputs of the pose estimate (wheel positions, gyro, vision estimates and resets) to the
+ * on-robot log, so {@link LogReplay} can run the same odometry and vision code on them later. Each
+ * record is a flat double array; the layouts are shared with LogReplay through the constants below.
+ */
+public final class ReplayRecorder {
+  public static final String START_KEY = "Replay/start";
+  public static final String ODOMETRY_KEY = "Replay/odometry";
+  public static final String VISION_KEY = "Replay/vision";
+  public static final String RESET_POSE_KEY = "Replay/resetPose";
+  public static final String GYRO_OFFSET_KEY = "Replay/gyroOffset";
+  public static final String LOOP_KEY = "Replay/loop";
+
+  /** Values per module in odometry and reset records (angle in radians, distance in meters) */
+  public static final int MODULE_FIELDS = 2;
+  /** Values before the modules in an odometry record (timestamp, gyro connected, gyro radians) */
+  public static final int ODOMETRY_HEADER = 3;
+  /** Values before the estimates in a vision record (can zero heading, disabled, estimate count) */
+  public static final int VISION_HEADER = 3;
+  /** Values per estimate in a vision record */
+  public static final int ESTIMATE_FIELDS = 13;
+
+  // Null to record to DataLogManager's log
+  private static DataLog log;
+  private static DoubleArrayLogEntry startEntry;
+  private static DoubleArrayLogEntry odometryEntry;
+  private static DoubleArrayLogEntry visionEntry;
+  private static DoubleArrayLogEntry resetPoseEntry;
+  private static DoubleArrayLogEntry gyroOffsetEntry;
+  private static DoubleArrayLogEntry loopEntry;
+
+  // Reused every loop, only touched from the main thread
+  private static double[] odometryBuffer = new double[0];
+  private static double[] visionBuffer = new double[VISION_HEADER];
+  private static final double[] loopBuffer = new double[1];
+
+  private ReplayRecorder() {}
+
+  /**
+   * Records to another log instead of DataLogManager's, e.g. in tests. Everything after the call
+   * goes to the new log.
+   * @param log The log, or null for DataLogManager's
+   */
+  static synchronized void setLog(DataLog log) {
+    ReplayRecorder.log = log;
+    startEntry = null;
+    odometryEntry = null;
+    visionEntry = null;
+    resetPoseEntry = null;
+    gyroOffsetEntry = null;
+    loopEntry = null;
+  }
+
+  private static DoubleArrayLogEntry entry(String key) {
+    return new DoubleArrayLogEntry(log != null ? log : DataLogManager.getLog(), key);
+  }
+
+  /**
+   * Records the odometry's starting state. Layout: useGyroHeading, module count, each module's x and
+   * y, the starting pose (x, y, radians), then each module's position
+   */
+  public static synchronized void recordStart(Translation2d[] moduleLocations, Pose2d startingPose, SwerveModulePosition[] modulePositions, boolean useGyroHeading) {
+    if (startEntry == null) startEntry = entry(START_KEY);
+
+    int modules = moduleLocations.length;
+    double[] record = new double[2 + modules * 2 + 3 + modules * MODULE_FIELDS];
+    int i = 0;
+    record[i++] = useGyroHeading ? 1.0 : 0.0;
+    record[i++] = modules;
+    for (Translation2d location : moduleLocations) {
+      record[i++] = location.getX();
+      record[i++] = location.getY();
+    }
+    i = writePose(record, i, startingPose);
+    writeModulePositions(record, i, modulePositions);
+    startEntry.append(record);
+  }
+
+  /**
+   * Records one loop's wheel and gyro readings. Layout: timestamp, gyro connected, gyro radians, then
+   * each module's position
+   */
+  public static void recordOdometry(double timestamp, double[] drivePositions, double[] steerRadians, boolean gyroConnected, double gyroRadians) {
+    if (odometryEntry == null) odometryEntry = entry(ODOMETRY_KEY);
+
+    int length = ODOMETRY_HEADER + drivePositions.length * MODULE_FIELDS;
+    if (odometryBuffer.length != length) odometryBuffer = new double[length];
+    odometryBuffer[0] = timestamp;
+    odometryBuffer[1] = gyroConnected ? 1.0 : 0.0;
+    odometryBuffer[2] = gyroRadians;
+    int i = ODOMETRY_HEADER;
+    for (int module = 0; module < drivePositions.length; module++) {
+      odometryBuffer[i++] = steerRadians[module];
+      odometryBuffer[i++] = drivePositions[module];
+    }
+    odometryEntry.append(odometryBuffer);
+  }
+
+  /**
+   * Records one loop's vision estimates, before any filtering. Layout: can zero heading, disabled,
+   * estimate count, then per estimate: x, y, z, roll, pitch, yaw, timestamp, latency, tag count, tag
+   * span, average tag distance, average tag area, primary tag ID
+   */
+  public static void recordVision(boolean canZeroHeading, boolean disabled, List<PoseEstimate> poseEstimates) {
+    if (visionEntry == null) visionEntry = entry(VISION_KEY);
+
+    int length = VISION_HEADER + poseEstimates.size() * ESTIMATE_FIELDS;
+    if (visionBuffer.length != length) visionBuffer = new double[length];
+    visionBuffer[0] = canZeroHeading ? 1.0 : 0.0;
+    visionBuffer[1] = disabled ? 1.0 : 0.0;
+    visionBuffer[2] = poseEstimates.size();
+    int i = VISION_HEADER;
+    for (PoseEstimate estimate : poseEstimates) {
+      Pose3d pose = estimate.pose;
+      visionBuffer[i++] = pose.getX();
+      visionBuffer[i++] = pose.getY();
+      visionBuffer[i++] = pose.getZ();
+      visionBuffer[i++] = pose.getRotation().getX();
+      visionBuffer[i++] = pose.getRotation().getY();
+      visionBuffer[i++] = pose.getRotation().getZ();
+      visionBuffer[i++] = estimate.timestampSeconds;
+      visionBuffer[i++] = estimate.latency;
+      visionBuffer[i++] = estimate.tagCount;
+      visionBuffer[i++] = estimate.tagSpan;
+      visionBuffer[i++] = estimate.avgTagDist;
+      visionBuffer[i++] = estimate.avgTagArea;
+      visionBuffer[i++] = estimate.primaryTagID;
+    }
+    visionEntry.append(visionBuffer);
+  }
+
+  /**
+   * Marks the end of a loop, once its odometry and vision have all been recorded, so replay checks
+   * the estimate at the same points the robot did. Layout: number of odometry samples in the loop
+   */
+  public static void recordLoop(int samples) {
+    if (loopEntry == null) loopEntry = entry(LOOP_KEY);
+    loopBuffer[0] = samples;
+    loopEntry.append(loopBuffer);
+  }
+
+  /**
+   * Records a pose reset. Layout: gyro radians, the pose (x, y, radians), then each module's position
+   */
+  public static synchronized void recordResetPose(Rotation2d gyroAngle, Pose2d pose, SwerveModulePosition[] modulePositions) {
+    if (resetPoseEntry == null) resetPoseEntry = entry(RESET_POSE_KEY);
+
+    double[] record = new double[4 + modulePositions.length * MODULE_FIELDS];
+    record[0] = gyroAngle.getRadians();
+    int i = writePose(record, 1, pose);
+    writeModulePositions(record, i, modulePositions);
+    resetPoseEntry.append(record);
+  }
+
+  /**
+   * Records a new gyro offset, in radians. Called from the gyro calibration thread.
+   */
+  public static synchronized void recordGyroOffset(Rotation2d offset) {
+    if (gyroOffsetEntry == null) gyroOffsetEntry = entry(GYRO_OFFSET_KEY);
+    gyroOffsetEntry.append(new double[] { offset.getRadians() });
+  }
+
+  private static int writePose(double[] record, int i, Pose2d pose) {
+    record[i++] = pose.getX();
+    record[i++] = pose.getY();
+    record[i++] = pose.getRotation().getRadians();
+    return i;
+  }
+
+  private static int writeModulePositions(double[] record, int i, SwerveModulePosition[] modulePositions) {
+    for (SwerveModulePosition position : modulePositions) {
+      record[i++] = position.angle.getRadians();
+      record[i++] = position.distanceMeters;
+    }
+    return i;
+  }
+}
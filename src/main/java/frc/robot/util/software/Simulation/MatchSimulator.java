@@ -0,0 +1,184 @@
+package frc.robot.util.software.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Robot;
+import frc.robot.Constants.Constants.SWERVE_DRIVE;
+import frc.robot.Constants.Field;
+import frc.robot.commands.autonomous.Autonomous;
+import frc.robot.util.software.ControlClock;
+import frc.robot.util.software.Dashboard.AutonChooser;
+
+/**
+ * Runs autonomous in simulation as fast as the CPU allows, without the sim GUI or a driver station.
+ * The FPGA clock is paused and stepped one loop at a time, so everything that reads the clock
+ * (commands, PathPlanner, odometry, the module and pivot sims) sees a normal 50 Hz match. Note
+ * pickups, shots and note vision are simulated by {@link Autonomous} as they are in the regular
+ * simulator; the AprilTag cameras see nothing, so the pose comes from odometry alone.
+ *
+ * <p>One robot is built and reused for every variant, with a short disabled period and a pose
+ * reset in between, the same as between matches.
+ *
+ * <p>Run with ./gradlew matchSim, optionally with -Pautos="0,1,2 3,4" (space separated note lists;
+ * every combination of notes by default) and -Pstart=x,y,degrees.
+ */
+public final class MatchSimulator {
+  private static final double AUTONOMOUS_SECONDS = 15.0;
+  private static final double DISABLED_SECONDS = 0.5;
+
+  /** Outcome of one simulated autonomous */
+  public static final class Result {
+    public final List<Integer> notes;
+    public int shots = 0;
+    /** [seconds] Time into autonomous of the last shot, or 0 if nothing was shot */
+    public double lastShotTime = 0.0;
+    public Pose2d finalPose = new Pose2d();
+    /** [seconds] Real time the simulation took */
+    public double wallTime = 0.0;
+
+    private Result(List<Integer> notes) {
+      this.notes = notes;
+    }
+  }
+
+  /** Gives the simulator access to the loop TimedRobot would otherwise run on its own */
+  private static final class SimulatedRobot extends Robot {
+    void step() {
+      SimHooks.stepTiming(ControlClock.getNominalDt());
+      loopFunc();
+    }
+  }
+
+  private final SimulatedRobot robot;
+  private final Pose2d startingPose;
+
+  private MatchSimulator(Pose2d startingPose) {
+    this.startingPose = startingPose;
+    if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the HAL");
+    SimHooks.pauseTiming();
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.setDsAttached(true);
+    setMode(false);
+
+    robot = new SimulatedRobot();
+    robot.robotInit();
+    robot.simulationInit();
+  }
+
+  private static void setMode(boolean autonomous) {
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setEnabled(autonomous);
+    DriverStationSim.notifyNewData();
+  }
+
+  private void run(double seconds) {
+    long ticks = Math.round(seconds / ControlClock.getNominalDt());
+    for (long tick = 0; tick < ticks; tick++) robot.step();
+  }
+
+  /**
+   * Runs one autonomous from the starting pose
+   * @param notes Notes 0-7 to pick up, as chosen on the dashboard
+   */
+  public Result simulate(List<Integer> notes) {
+    Result result = new Result(notes);
+    long wallStart = System.nanoTime();
+
+    setMode(false);
+    run(DISABLED_SECONDS);
+    robot.getRobotContainer().getSwerveDrive().resetPose(startingPose);
+    AutonChooser.setNotes(notes);
+
+    double start = ControlClock.getTimestamp();
+    setMode(true);
+    run(AUTONOMOUS_SECONDS);
+
+    Command command = robot.getAutonomousCommand();
+    if (command instanceof Autonomous) {
+      Autonomous autonomous = (Autonomous) command;
+      result.shots = autonomous.getSimulatedShots();
+      if (result.shots > 0) result.lastShotTime = autonomous.getLastSimulatedShotTimestamp() - start;
+    }
+    result.finalPose = robot.getRobotContainer().getSwerveDrive().getPose();
+    setMode(false);
+    robot.step();
+
+    result.wallTime = (System.nanoTime() - wallStart) / 1e9;
+    return result;
+  }
+
+  /**
+   * Simulates a batch of autonomous variants, one after another
+   * @param variants Notes to pick up in each variant
+   * @param startingPose Pose the robot is placed at before each variant
+   */
+  public static List<Result> simulate(List<List<Integer>> variants, Pose2d startingPose) {
+    MatchSimulator simulator = new MatchSimulator(startingPose);
+    List<Result> results = new ArrayList<>(variants.size());
+    for (List<Integer> notes : variants) {
+      results.add(simulator.simulate(notes));
+    }
+    return results;
+  }
+
+  private static List<List<Integer>> allVariants() {
+    int count = Field.NOTE_POSITIONS.size();
+    List<List<Integer>> variants = new ArrayList<>();
+    for (int mask = 1; mask < (1 << count); mask++) {
+      List<Integer> notes = new ArrayList<>();
+      for (int note = 0; note < count; note++) {
+        if ((mask & (1 << note)) != 0) notes.add(note);
+      }
+      variants.add(notes);
+    }
+    return variants;
+  }
+
+  private static List<List<Integer>> parseVariants(String arg) {
+    List<List<Integer>> variants = new ArrayList<>();
+    for (String variant : arg.trim().split("\\s+")) {
+      List<Integer> notes = new ArrayList<>();
+      for (String note : variant.split(",")) {
+        if (!note.isEmpty()) notes.add(Integer.parseInt(note));
+      }
+      variants.add(notes);
+    }
+    return variants;
+  }
+
+  /**
+   * @param args Optionally, space separated note lists like "0,1,2 3,4", then a starting pose as
+   * "x,y,degrees"
+   */
+  public static void main(String[] args) {
+    List<List<Integer>> variants = args.length >= 1 && !args[0].isBlank() ? parseVariants(args[0]) : allVariants();
+
+    Pose2d startingPose = SWERVE_DRIVE.STARTING_POSE.get();
+    if (args.length >= 2 && !args[1].isEmpty()) {
+      String[] values = args[1].split(",");
+      startingPose = new Pose2d(Double.parseDouble(values[0]), Double.parseDouble(values[1]), Rotation2d.fromDegrees(Double.parseDouble(values[2])));
+    }
+
+    long start = System.nanoTime();
+    List<Result> results = simulate(variants, startingPose);
+    System.out.println("notes,shots,lastShotTime,finalX,finalY,finalDegrees,wallTime");
+    for (Result result : results) {
+      System.out.println(
+        "\"" + result.notes + "\"," + result.shots + "," + result.lastShotTime + "," +
+        result.finalPose.getX() + "," + result.finalPose.getY() + "," + result.finalPose.getRotation().getDegrees() + "," +
+        result.wallTime
+      );
+    }
+    System.out.println("[MATCH SIM] " + results.size() + " autos in " + (System.nanoTime() - start) / 1e9 + " s");
+    // The robot's background threads (logger, status checks) would otherwise keep the JVM alive
+    System.exit(0);
+  }
+}
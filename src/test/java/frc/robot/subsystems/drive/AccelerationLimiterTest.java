@@ -0,0 +1,127 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.util.software.ControlClock;
+
+class AccelerationLimiterTest {
+  private static final double MASS = 50.0;
+  private static final double ROTATIONAL_INERTIA = 5.0;
+  private static final double DRIVE_RADIUS = Math.hypot(0.3, 0.3);
+  private static final double FRICTION_COEFFICIENT = 1.0;
+  // [meters / second^2] Most linear acceleration friction allows, with no rotation
+  private static final double MAX_LINEAR_ACCELERATION = 9.80 * FRICTION_COEFFICIENT;
+  private static final double EPSILON = 1e-9;
+
+  private AccelerationLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    SwerveKinematics kinematics = new SwerveKinematics(
+      new Translation2d(0.3, 0.3),
+      new Translation2d(0.3, -0.3),
+      new Translation2d(-0.3, 0.3),
+      new Translation2d(-0.3, -0.3)
+    );
+    limiter = new AccelerationLimiter(kinematics, 5.0, 10.0, MASS, ROTATIONAL_INERTIA, DRIVE_RADIUS, FRICTION_COEFFICIENT);
+    ControlClock.reset();
+  }
+
+  /**
+   * Drives from rest towards a target for a number of ticks, with the clock ticking at the given
+   * times, and records the driven x velocity after each tick
+   */
+  private double[] drive(double[] tickTimes, ChassisSpeeds target) {
+    ChassisSpeeds driven = new ChassisSpeeds();
+    double[] velocities = new double[tickTimes.length];
+    for (int i = 0; i < tickTimes.length; i++) {
+      ControlClock.tick(tickTimes[i]);
+      limiter.calculate(driven, target);
+      velocities[i] = driven.vxMetersPerSecond;
+    }
+    return velocities;
+  }
+
+  private static double[] tickTimes(int count, double noise, long seed) {
+    Random random = new Random(seed);
+    double[] times = new double[count];
+    double time = 1.0;
+    for (int i = 0; i < count; i++) {
+      time += 0.02 + random.nextGaussian() * noise;
+      // Every second, a tick runs a whole period late
+      if (i % 50 == 25) time += 0.02;
+      times[i] = time;
+    }
+    return times;
+  }
+
+  @Test
+  void stepsDontDependOnJitter() {
+    ChassisSpeeds target = new ChassisSpeeds(4.0, 0.0, 0.0);
+    double[] steady = drive(tickTimes(200, 0.0, 0), target);
+    ControlClock.reset();
+    double[] jittery = drive(tickTimes(200, 0.004, 6962), target);
+
+    for (int i = 0; i < steady.length; i++) {
+      assertEquals(steady[i], jittery[i], EPSILON, "tick " + i);
+    }
+  }
+
+  @Test
+  void stepsStayWithinFrictionUnderJitter() {
+    double[] times = tickTimes(200, 0.004, 1678);
+    double[] velocities = drive(times, new ChassisSpeeds(4.0, 0.0, 0.0));
+
+    double maxStep = MAX_LINEAR_ACCELERATION * ControlClock.getNominalDt();
+    double previous = 0.0;
+    for (int i = 0; i < velocities.length; i++) {
+      double step = velocities[i] - previous;
+      assertTrue(step >= 0.0 && step <= maxStep + EPSILON, "tick " + i + " stepped " + step);
+      previous = velocities[i];
+    }
+    // Reaches the target in as many ticks as the friction allows, then holds it
+    int ticksToTarget = (int) Math.ceil(4.0 / maxStep);
+    assertTrue(velocities[ticksToTarget - 2] < 4.0);
+    assertEquals(4.0, velocities[ticksToTarget - 1], EPSILON);
+    assertEquals(4.0, velocities[velocities.length - 1], EPSILON);
+  }
+
+  @Test
+  void measuredDtWouldDoubleALateStep() {
+    ChassisSpeeds target = new ChassisSpeeds(4.0, 0.0, 0.0);
+    ChassisSpeeds nominal = new ChassisSpeeds();
+    ChassisSpeeds measured = new ChassisSpeeds();
+
+    ControlClock.tick(1.0);
+    // One tick late by a whole period
+    ControlClock.tick(1.04);
+    limiter.calculate(nominal, target);
+    limiter.calculate(measured, target, ControlClock.getMeasuredDt());
+
+    assertEquals(MAX_LINEAR_ACCELERATION * 0.02, nominal.vxMetersPerSecond, EPSILON);
+    assertEquals(2 * nominal.vxMetersPerSecond, measured.vxMetersPerSecond, EPSILON);
+  }
+
+  @Test
+  void translationAndRotationShareTraction() {
+    double frictionForce = MASS * MAX_LINEAR_ACCELERATION;
+    double[] times = tickTimes(100, 0.004, 971);
+    ChassisSpeeds driven = new ChassisSpeeds();
+    ChassisSpeeds target = new ChassisSpeeds(3.0, -2.0, 8.0);
+    for (double time : times) {
+      ControlClock.tick(time);
+      limiter.calculate(driven, target);
+      double linearForce = limiter.getLinearAcceleration() * MASS;
+      double angularForce = Math.abs(ROTATIONAL_INERTIA * limiter.getAngularAcceleration() / DRIVE_RADIUS);
+      assertTrue(linearForce + angularForce <= frictionForce * (1 + EPSILON), "force " + (linearForce + angularForce));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Checks SwerveKinematics against the WPILib classes it replaces, on random inputs
+ */
+class SwerveKinematicsTest {
+  private static final double EPSILON = 1e-9;
+  private static final int TRIALS = 1000;
+  // Not square, so every module's row of the kinematics is different
+  private static final Translation2d[] MODULE_LOCATIONS = {
+    new Translation2d(0.31, 0.27),
+    new Translation2d(0.31, -0.27),
+    new Translation2d(-0.25, 0.27),
+    new Translation2d(-0.25, -0.27),
+  };
+
+  private SwerveKinematics kinematics;
+  private SwerveDriveKinematics reference;
+  private Random random;
+  private final double[] moduleSpeeds = new double[4];
+  private final double[] moduleAngles = new double[4];
+
+  @BeforeEach
+  void setUp() {
+    kinematics = new SwerveKinematics(MODULE_LOCATIONS);
+    reference = new SwerveDriveKinematics(MODULE_LOCATIONS);
+    random = new Random(6962);
+  }
+
+  private ChassisSpeeds randomSpeeds() {
+    return new ChassisSpeeds(random.nextGaussian() * 3.0, random.nextGaussian() * 3.0, random.nextGaussian() * 6.0);
+  }
+
+  private static ChassisSpeeds copy(ChassisSpeeds speeds) {
+    return new ChassisSpeeds(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+  }
+
+  private static void assertSpeedsEqual(ChassisSpeeds expected, ChassisSpeeds actual) {
+    assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, EPSILON, "vx");
+    assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, EPSILON, "vy");
+    assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, EPSILON, "omega");
+  }
+
+  private void assertStatesEqual(SwerveModuleState[] expected) {
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, moduleSpeeds[i], EPSILON, "module " + i + " speed");
+      assertEquals(0.0, MathUtil.angleModulus(expected[i].angle.getRadians() - moduleAngles[i]), EPSILON, "module " + i + " angle");
+    }
+  }
+
+  @Test
+  void toModuleStatesMatches() {
+    for (int trial = 0; trial < TRIALS; trial++) {
+      ChassisSpeeds speeds = randomSpeeds();
+      kinematics.toModuleStates(speeds, moduleSpeeds, moduleAngles);
+      assertStatesEqual(reference.toSwerveModuleStates(speeds));
+    }
+  }
+
+  @Test
+  void stoppingHoldsLastAngles() {
+    // Before any motion, the modules point forwards
+    kinematics.toModuleStates(new ChassisSpeeds(), moduleSpeeds, moduleAngles);
+    assertStatesEqual(reference.toSwerveModuleStates(new ChassisSpeeds()));
+
+    for (int trial = 0; trial < 100; trial++) {
+      ChassisSpeeds speeds = randomSpeeds();
+      kinematics.toModuleStates(speeds, moduleSpeeds, moduleAngles);
+      reference.toSwerveModuleStates(speeds);
+
+      kinematics.toModuleStates(new ChassisSpeeds(), moduleSpeeds, moduleAngles);
+      assertStatesEqual(reference.toSwerveModuleStates(new ChassisSpeeds()));
+    }
+  }
+
+  @Test
+  void toChassisSpeedsMatches() {
+    SwerveModuleState[] states = new SwerveModuleState[4];
+    ChassisSpeeds speeds = new ChassisSpeeds();
+    for (int trial = 0; trial < TRIALS; trial++) {
+      for (int i = 0; i < 4; i++) {
+        moduleSpeeds[i] = random.nextGaussian() * 3.0;
+        moduleAngles[i] = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+        states[i] = new SwerveModuleState(moduleSpeeds[i], new Rotation2d(moduleAngles[i]));
+      }
+      kinematics.toChassisSpeeds(moduleSpeeds, moduleAngles, speeds);
+      assertSpeedsEqual(reference.toChassisSpeeds(states), speeds);
+    }
+  }
+
+  @Test
+  void desaturateMatches() {
+    double maxModuleSpeed = 4.5;
+    double maxTranslationalSpeed = 4.0;
+    double maxRotationalSpeed = 9.0;
+    for (int trial = 0; trial < TRIALS; trial++) {
+      // Some within the limits, some well past them
+      ChassisSpeeds speeds = randomSpeeds();
+      double factor = random.nextDouble() * 2.0;
+      speeds = new ChassisSpeeds(speeds.vxMetersPerSecond * factor, speeds.vyMetersPerSecond * factor, speeds.omegaRadiansPerSecond * factor);
+
+      SwerveModuleState[] states = reference.toSwerveModuleStates(speeds);
+      SwerveDriveKinematics.desaturateWheelSpeeds(states, speeds, maxModuleSpeed, maxTranslationalSpeed, maxRotationalSpeed);
+      ChassisSpeeds desaturated = copy(speeds);
+      kinematics.desaturate(desaturated, maxModuleSpeed, maxTranslationalSpeed, maxRotationalSpeed);
+      assertSpeedsEqual(reference.toChassisSpeeds(states), desaturated);
+    }
+
+    // Nothing to scale
+    ChassisSpeeds stopped = new ChassisSpeeds();
+    kinematics.desaturate(stopped, maxModuleSpeed, maxTranslationalSpeed, maxRotationalSpeed);
+    assertSpeedsEqual(new ChassisSpeeds(), stopped);
+  }
+
+  @Test
+  void discretizeMatches() {
+    for (int trial = 0; trial < TRIALS; trial++) {
+      ChassisSpeeds speeds = randomSpeeds();
+      double dt = 0.02 + random.nextDouble() * 0.02;
+      ChassisSpeeds expected = ChassisSpeeds.discretize(speeds, dt);
+      SwerveKinematics.discretize(speeds, dt);
+      assertSpeedsEqual(expected, speeds);
+    }
+
+    // Not rotating, where the twist has no skew to correct
+    ChassisSpeeds straight = new ChassisSpeeds(2.0, -1.0, 0.0);
+    ChassisSpeeds expected = ChassisSpeeds.discretize(straight, 0.02);
+    SwerveKinematics.discretize(straight, 0.02);
+    assertSpeedsEqual(expected, straight);
+  }
+
+  @Test
+  void fieldRelativeMatches() {
+    ChassisSpeeds result = new ChassisSpeeds();
+    for (int trial = 0; trial < TRIALS; trial++) {
+      ChassisSpeeds speeds = randomSpeeds();
+      double heading = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+
+      SwerveKinematics.fromFieldRelative(speeds, heading, result);
+      assertSpeedsEqual(ChassisSpeeds.fromFieldRelativeSpeeds(speeds, new Rotation2d(heading)), result);
+      SwerveKinematics.fromRobotRelative(speeds, heading, result);
+      assertSpeedsEqual(ChassisSpeeds.fromRobotRelativeSpeeds(speeds, new Rotation2d(heading)), result);
+
+      // In place
+      ChassisSpeeds expected = ChassisSpeeds.fromFieldRelativeSpeeds(speeds, new Rotation2d(heading));
+      SwerveKinematics.fromFieldRelative(speeds, heading, speeds);
+      assertSpeedsEqual(expected, speeds);
+    }
+  }
+}
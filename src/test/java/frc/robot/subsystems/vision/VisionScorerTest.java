@@ -0,0 +1,219 @@
+package frc.robot.subsystems.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.Constants.Constants.LIMELIGHT;
+import frc.robot.Constants.Field;
+import frc.robot.subsystems.vision.VisionCandidate.Result;
+
+class VisionScorerTest {
+  private static final double EPSILON = 1e-9;
+  private static final double TRANSLATION_STD_DEV = 0.6;
+  private static final double ROTATION_STD_DEV = 0.25;
+
+  private VisionScorer scorer;
+
+  @BeforeEach
+  void setUp() {
+    scorer = new VisionScorer(4, new int[] { 4, 9 }, candidate -> {
+      candidate.translationStdDev = TRANSLATION_STD_DEV;
+      candidate.rotationStdDev = ROTATION_STD_DEV;
+    });
+  }
+
+  /**
+   * @return A new candidate that passes every plausibility check, scored
+   */
+  private VisionCandidate candidate(boolean canChangeHeading) {
+    scorer.clear();
+    VisionCandidate candidate = scorer.add();
+    candidate.set(3.0, 4.0, 0.1, 1.0, 10.0, 2, 2.5, 5);
+    candidate.canChangeHeading = canChangeHeading;
+    scorer.score(candidate);
+    return candidate;
+  }
+
+  @Test
+  void rejectsBlacklistedTags() {
+    assertTrue(scorer.isBlacklisted(4));
+    assertTrue(scorer.isBlacklisted(9));
+    assertFalse(scorer.isBlacklisted(5));
+    // No primary tag
+    assertFalse(scorer.isBlacklisted(-1));
+
+    VisionCandidate candidate = candidate(false);
+    assertTrue(scorer.isPlausible(candidate));
+    candidate.primaryTagID = 9;
+    assertFalse(scorer.isPlausible(candidate));
+  }
+
+  @Test
+  void rejectsImplausibleEstimates() {
+    VisionCandidate candidate = candidate(false);
+    candidate.tagCount = 0;
+    assertFalse(scorer.isPlausible(candidate), "no tags");
+
+    candidate = candidate(false);
+    candidate.x = 0.0;
+    candidate.y = 0.0;
+    assertFalse(scorer.isPlausible(candidate), "at the origin");
+
+    candidate = candidate(false);
+    candidate.headingRadians = 0.0;
+    assertFalse(scorer.isPlausible(candidate), "no heading");
+
+    candidate = candidate(false);
+    candidate.z = -1.5;
+    assertFalse(scorer.isPlausible(candidate), "underground");
+
+    candidate = candidate(false);
+    candidate.avgTagDist = Double.NaN;
+    assertFalse(scorer.isPlausible(candidate), "no tag distance");
+
+    double[][] offField = { { -0.01, 4.0 }, { 3.0, -0.01 }, { Field.LENGTH + 0.01, 4.0 }, { 3.0, Field.WIDTH + 0.01 } };
+    for (double[] position : offField) {
+      candidate = candidate(false);
+      candidate.x = position[0];
+      candidate.y = position[1];
+      assertFalse(scorer.isPlausible(candidate), position[0] + ", " + position[1]);
+    }
+
+    // On the edges is still on the field
+    candidate = candidate(false);
+    candidate.x = Field.LENGTH;
+    candidate.y = Field.WIDTH;
+    assertTrue(scorer.isPlausible(candidate));
+    candidate.x = 0.0;
+    assertTrue(scorer.isPlausible(candidate));
+  }
+
+  @Test
+  void acceptsInsideDownweightGate() {
+    double[] gates = { LIMELIGHT.DOWNWEIGHT_GATE_2DOF, LIMELIGHT.DOWNWEIGHT_GATE_3DOF };
+    for (int dof = 0; dof < 2; dof++) {
+      VisionCandidate candidate = candidate(dof == 1);
+      assertTrue(scorer.gate(candidate, gates[dof], false));
+      assertSame(Result.ACCEPTED, candidate.result);
+      assertEquals(gates[dof], candidate.mahalanobisDistanceSquared, 0.0);
+      assertEquals(TRANSLATION_STD_DEV, candidate.translationStdDev, 0.0);
+      assertEquals(ROTATION_STD_DEV, candidate.rotationStdDev, 0.0);
+    }
+  }
+
+  @Test
+  void downweightsBetweenGates() {
+    double distance = (LIMELIGHT.DOWNWEIGHT_GATE_2DOF + LIMELIGHT.REJECT_GATE_2DOF) / 2.0;
+    VisionCandidate candidate = candidate(false);
+    assertTrue(scorer.gate(candidate, distance, false));
+    assertSame(Result.DOWNWEIGHTED, candidate.result);
+    double scale = Math.sqrt(distance / LIMELIGHT.DOWNWEIGHT_GATE_2DOF);
+    assertEquals(TRANSLATION_STD_DEV * scale, candidate.translationStdDev, EPSILON);
+    assertEquals(ROTATION_STD_DEV * scale, candidate.rotationStdDev, EPSILON);
+
+    // Within the 3 DOF down-weight gate, which is wider
+    candidate = candidate(true);
+    assertTrue(scorer.gate(candidate, (LIMELIGHT.DOWNWEIGHT_GATE_2DOF + LIMELIGHT.DOWNWEIGHT_GATE_3DOF) / 2.0, false));
+    assertSame(Result.ACCEPTED, candidate.result);
+  }
+
+  @Test
+  void rejectsPastRejectGate() {
+    VisionCandidate candidate = candidate(false);
+    assertFalse(scorer.gate(candidate, Math.nextUp(LIMELIGHT.REJECT_GATE_2DOF), false));
+    assertSame(Result.REJECTED, candidate.result);
+
+    // On the gate is down-weighted, not rejected
+    candidate = candidate(false);
+    assertTrue(scorer.gate(candidate, LIMELIGHT.REJECT_GATE_2DOF, false));
+    assertSame(Result.DOWNWEIGHTED, candidate.result);
+
+    // Past the 2 DOF gate but within the 3 DOF one
+    double distance = (LIMELIGHT.REJECT_GATE_2DOF + LIMELIGHT.REJECT_GATE_3DOF) / 2.0;
+    candidate = candidate(true);
+    assertTrue(scorer.gate(candidate, distance, false));
+    assertSame(Result.DOWNWEIGHTED, candidate.result);
+    candidate = candidate(false);
+    assertFalse(scorer.gate(candidate, distance, false));
+    assertSame(Result.REJECTED, candidate.result);
+  }
+
+  @Test
+  void bypassesGate() {
+    VisionCandidate candidate = candidate(false);
+    assertTrue(scorer.gate(candidate, 1000.0, true));
+    assertSame(Result.ACCEPTED, candidate.result);
+    assertEquals(TRANSLATION_STD_DEV, candidate.translationStdDev, 0.0);
+
+    // Too old to gate
+    candidate = candidate(false);
+    assertTrue(scorer.gate(candidate, Double.NaN, false));
+    assertSame(Result.ACCEPTED, candidate.result);
+    assertEquals(TRANSLATION_STD_DEV, candidate.translationStdDev, 0.0);
+  }
+
+  @Test
+  void letsThroughAfterConsecutiveRejections() {
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < LIMELIGHT.MAX_CONSECUTIVE_REJECTIONS; i++) {
+        assertFalse(scorer.gate(candidate(false), 1000.0, false), "rejection " + i);
+      }
+      // The pose estimate is probably wrong, so one is let through, down-weighted, and the count
+      // starts over
+      VisionCandidate candidate = candidate(false);
+      assertTrue(scorer.gate(candidate, 1000.0, false));
+      assertSame(Result.DOWNWEIGHTED, candidate.result);
+      double scale = Math.sqrt(1000.0 / LIMELIGHT.DOWNWEIGHT_GATE_2DOF);
+      assertEquals(TRANSLATION_STD_DEV * scale, candidate.translationStdDev, EPSILON);
+      assertEquals(ROTATION_STD_DEV * scale, candidate.rotationStdDev, EPSILON);
+    }
+    assertFalse(scorer.gate(candidate(false), 1000.0, false));
+
+    // Candidates that pass the gate start the count over too
+    for (int i = 0; i < LIMELIGHT.MAX_CONSECUTIVE_REJECTIONS - 1; i++) {
+      assertFalse(scorer.gate(candidate(false), 1000.0, false));
+    }
+    assertTrue(scorer.gate(candidate(false), 1.0, false));
+    for (int i = 0; i < LIMELIGHT.MAX_CONSECUTIVE_REJECTIONS - 1; i++) {
+      assertFalse(scorer.gate(candidate(false), 1000.0, false));
+    }
+    assertTrue(scorer.gate(candidate(false), LIMELIGHT.REJECT_GATE_2DOF, false));
+    for (int i = 0; i < LIMELIGHT.MAX_CONSECUTIVE_REJECTIONS; i++) {
+      assertFalse(scorer.gate(candidate(false), 1000.0, false));
+    }
+  }
+
+  @Test
+  void holdsUpToCapacity() {
+    for (int i = 0; i < 4; i++) {
+      VisionCandidate candidate = scorer.add();
+      assertNotNull(candidate);
+      candidate.set(3.0, 4.0, 0.0, 1.0, i, 1, 2.0, 5);
+      candidate.result = i % 2 == 0 ? Result.ACCEPTED : Result.REJECTED;
+    }
+    assertNull(scorer.add());
+    assertEquals(4, scorer.size());
+    assertEquals(2, scorer.count(Result.ACCEPTED));
+    assertEquals(2, scorer.count(Result.REJECTED));
+    assertEquals(0, scorer.count(Result.DOWNWEIGHTED));
+
+    // Candidates are reused, and refilling one clears its scoring
+    VisionCandidate first = scorer.get(0);
+    scorer.clear();
+    assertEquals(0, scorer.count(Result.ACCEPTED));
+    VisionCandidate candidate = scorer.add();
+    assertSame(first, candidate);
+    candidate.set(5.0, 6.0, 0.0, 2.0, 20.0, 3, 1.5, 7);
+    assertSame(Result.IMPLAUSIBLE, candidate.result);
+    assertFalse(candidate.canChangeHeading);
+    assertEquals(0.0, candidate.translationStdDev, 0.0);
+    assertTrue(Double.isNaN(candidate.mahalanobisDistanceSquared));
+  }
+}
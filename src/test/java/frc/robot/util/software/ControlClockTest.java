@@ -0,0 +1,103 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ControlClockTest {
+  private static final double NOMINAL_DT = 0.02;
+  private static final double EPSILON = 1e-9;
+
+  @BeforeEach
+  void resetClock() {
+    ControlClock.reset();
+  }
+
+  @Test
+  void firstTickIsNominal() {
+    ControlClock.tick(12.345);
+    assertEquals(NOMINAL_DT, ControlClock.getMeasuredDt(), EPSILON);
+    assertEquals(12.345, ControlClock.getTimestamp(), EPSILON);
+    assertEquals(0.0, ControlClock.getJitter(), EPSILON);
+  }
+
+  @Test
+  void measuredDtFollowsInjectedTiming() {
+    Random random = new Random(6962);
+    double time = 1.0;
+    ControlClock.tick(time);
+    for (int i = 0; i < 500; i++) {
+      double dt = NOMINAL_DT + random.nextGaussian() * 0.003;
+      time += dt;
+      ControlClock.tick(time);
+      assertEquals(dt, ControlClock.getMeasuredDt(), EPSILON);
+      assertEquals(NOMINAL_DT, ControlClock.getNominalDt(), 0.0);
+    }
+  }
+
+  @Test
+  void steadyTicksHaveNoJitter() {
+    for (int i = 0; i < 500; i++) ControlClock.tick(1.0 + i * NOMINAL_DT);
+    assertEquals(NOMINAL_DT, ControlClock.getMeasuredDt(), EPSILON);
+    assertEquals(0.0, ControlClock.getJitter(), EPSILON);
+  }
+
+  @Test
+  void jitterTracksInjectedNoise() {
+    double noise = 0.002;
+    Random random = new Random(254);
+    double time = 1.0;
+    ControlClock.tick(time);
+    // 50 seconds, many times the averaging time constant
+    for (int i = 0; i < 2500; i++) {
+      time += NOMINAL_DT + random.nextGaussian() * noise;
+      ControlClock.tick(time);
+    }
+
+    // Mean absolute value of a normal distribution
+    double expected = noise * Math.sqrt(2.0 / Math.PI);
+    assertEquals(expected, ControlClock.getJitter(), expected * 0.25);
+  }
+
+  @Test
+  void hiccupOnlyChangesMeasuredDt() {
+    double time = 1.0;
+    for (int i = 0; i < 50; i++) {
+      ControlClock.tick(time);
+      time += NOMINAL_DT;
+    }
+    // One tick late by a whole period
+    time += NOMINAL_DT;
+    ControlClock.tick(time);
+    assertEquals(2 * NOMINAL_DT, ControlClock.getMeasuredDt(), EPSILON);
+    assertEquals(NOMINAL_DT, ControlClock.getNominalDt(), 0.0);
+    double jitter = ControlClock.getJitter();
+    assertTrue(jitter > 0.0 && jitter < NOMINAL_DT, "jitter " + jitter);
+
+    // Jitter settles back down once ticks are on time again
+    for (int i = 0; i < 500; i++) {
+      time += NOMINAL_DT;
+      ControlClock.tick(time);
+    }
+    assertEquals(NOMINAL_DT, ControlClock.getMeasuredDt(), EPSILON);
+    assertTrue(ControlClock.getJitter() < jitter / 1000.0, "jitter " + ControlClock.getJitter());
+  }
+
+  @Test
+  void elapsedTimeDoesntAccumulateJitter() {
+    Random random = new Random(1678);
+    double time = 3.0;
+    ControlClock.tick(time);
+    double start = ControlClock.getTimestamp();
+    for (int i = 0; i < 1000; i++) {
+      time += NOMINAL_DT + random.nextGaussian() * 0.004;
+      ControlClock.tick(time);
+    }
+
+    assertEquals(time - start, ControlClock.since(start), EPSILON);
+  }
+}
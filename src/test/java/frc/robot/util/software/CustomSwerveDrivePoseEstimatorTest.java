@@ -0,0 +1,385 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveWheelPositions;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.util.software.CustomPoseEstimator.VisionMeasurement;
+
+/**
+ * Feeds the same odometry and vision to CustomSwerveDrivePoseEstimator and WPILib's
+ * SwerveDrivePoseEstimator, which it replaces, and checks they agree
+ */
+class CustomSwerveDrivePoseEstimatorTest {
+  private static final double EPSILON = 1e-9;
+  private static final double START_TIME = 100.0;
+  private static final Pose2d START_POSE = new Pose2d(2.0, 4.0, Rotation2d.fromDegrees(30.0));
+  private static final Matrix<N3, N1> STATE_STD_DEVS = VecBuilder.fill(0.05, 0.05, 0.035);
+  private static final Matrix<N3, N1> VISION_STD_DEVS = VecBuilder.fill(0.5, 0.5, 0.3);
+  // [seconds] How long the estimators keep history
+  private static final double HISTORY = 1.5;
+
+  private final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(
+    new Translation2d(0.29, 0.29),
+    new Translation2d(0.29, -0.29),
+    new Translation2d(-0.29, 0.29),
+    new Translation2d(-0.29, -0.29)
+  );
+  private CustomSwerveDrivePoseEstimator estimator;
+  private SwerveDrivePoseEstimator reference;
+  // Gets the same vision measurements as the others, but in batches
+  private CustomSwerveDrivePoseEstimator batched;
+  private Random random;
+
+  private double time;
+  private double gyroRadians;
+  private final double[] distances = new double[4];
+  private final double[] angles = new double[4];
+
+  // Every update, as recorded by the reference
+  private final List<Double> times = new ArrayList<>();
+  private final List<Pose2d> poses = new ArrayList<>();
+  private final List<Rotation2d> gyros = new ArrayList<>();
+  private final List<SwerveModulePosition[]> positions = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    random = new Random(6962);
+    time = START_TIME;
+    gyroRadians = 0.0;
+    for (int i = 0; i < 4; i++) {
+      distances[i] = 0.0;
+      angles[i] = 0.3 * i;
+    }
+    times.clear();
+    poses.clear();
+    gyros.clear();
+    positions.clear();
+
+    estimator = new CustomSwerveDrivePoseEstimator(kinematics, new Rotation2d(gyroRadians), modulePositions(), START_POSE, STATE_STD_DEVS, VISION_STD_DEVS);
+    reference = new SwerveDrivePoseEstimator(kinematics, new Rotation2d(gyroRadians), modulePositions(), START_POSE, STATE_STD_DEVS, VISION_STD_DEVS);
+    batched = new CustomSwerveDrivePoseEstimator(kinematics, new Rotation2d(gyroRadians), modulePositions(), START_POSE, STATE_STD_DEVS, VISION_STD_DEVS);
+  }
+
+  private SwerveModulePosition[] modulePositions() {
+    SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      modulePositions[i] = new SwerveModulePosition(distances[i], new Rotation2d(angles[i]));
+    }
+    return modulePositions;
+  }
+
+  /**
+   * Moves the robot for one odometry sample, at roughly 250 Hz with jitter, and updates every
+   * estimator
+   */
+  private void step() {
+    double dt = 0.004 + random.nextDouble() * 0.001;
+    time += dt;
+    gyroRadians += (1.5 + random.nextGaussian() * 0.5) * dt;
+    for (int i = 0; i < 4; i++) {
+      distances[i] += (3.0 + random.nextGaussian() * 0.2) * dt;
+      // Steering wraps around past +-pi now and then
+      angles[i] = MathUtil.angleModulus(angles[i] + 0.05 + random.nextGaussian() * 0.05);
+    }
+
+    Rotation2d gyro = new Rotation2d(gyroRadians);
+    SwerveModulePosition[] modulePositions = modulePositions();
+    Pose2d expected = reference.updateWithTime(time, gyro, modulePositions);
+    Pose2d actual = estimator.updateWithTime(time, gyro, modulePositions());
+    assertPoseEquals(expected, actual);
+    batched.updateWithTime(time, gyro, modulePositions());
+
+    times.add(time);
+    poses.add(expected);
+    gyros.add(gyro);
+    positions.add(modulePositions);
+  }
+
+  private void steps(int count) {
+    for (int i = 0; i < count; i++) step();
+  }
+
+  private static void assertPoseEquals(Pose2d expected, Pose2d actual) {
+    assertEquals(expected.getX(), actual.getX(), EPSILON, "x");
+    assertEquals(expected.getY(), actual.getY(), EPSILON, "y");
+    assertEquals(0.0, MathUtil.angleModulus(expected.getRotation().getRadians() - actual.getRotation().getRadians()), EPSILON, "heading");
+  }
+
+  private void assertMatchesReference() {
+    assertPoseEquals(reference.getEstimatedPosition(), estimator.getEstimatedPosition());
+  }
+
+  /**
+   * The pose between two updates, interpolated the way WPILib's PoseEstimator does: wheel positions
+   * and gyro angle are interpolated, then odometry runs from the earlier update to them
+   */
+  private Pose2d interpolate(int lower, double timestamp) {
+    double t = (timestamp - times.get(lower)) / (times.get(lower + 1) - times.get(lower));
+    SwerveDriveWheelPositions lowerWheels = new SwerveDriveWheelPositions(positions.get(lower));
+    SwerveDriveWheelPositions upperWheels = new SwerveDriveWheelPositions(positions.get(lower + 1));
+    SwerveDriveWheelPositions wheelLerp = lowerWheels.interpolate(upperWheels, t);
+    Rotation2d gyroLerp = gyros.get(lower).interpolate(gyros.get(lower + 1), t);
+
+    Twist2d twist = kinematics.toTwist2d(lowerWheels, wheelLerp);
+    twist.dtheta = gyroLerp.minus(gyros.get(lower)).getRadians();
+    return poses.get(lower).exp(twist);
+  }
+
+  private void addVisionMeasurement(Pose2d pose, double timestamp) {
+    reference.addVisionMeasurement(pose, timestamp, VISION_STD_DEVS);
+    estimator.addVisionMeasurement(pose, timestamp, VISION_STD_DEVS);
+    assertMatchesReference();
+  }
+
+  /**
+   * Adds measurements to the reference and the estimator one at a time, oldest first, and to the
+   * batched estimator all at once, then checks all three agree, now and throughout the history
+   */
+  private void addVisionMeasurements(List<VisionMeasurement> measurements) {
+    batched.addVisionMeasurements(measurements);
+    List<VisionMeasurement> sorted = new ArrayList<>(measurements);
+    sorted.sort(Comparator.comparingDouble(measurement -> measurement.timestampSeconds));
+    for (VisionMeasurement measurement : sorted) {
+      reference.addVisionMeasurement(measurement.poseMeters, measurement.timestampSeconds, measurement.stdDevs);
+      estimator.addVisionMeasurement(measurement.poseMeters, measurement.timestampSeconds, measurement.stdDevs);
+    }
+
+    assertMatchesReference();
+    assertPoseEquals(estimator.getEstimatedPosition(), batched.getEstimatedPosition());
+    for (int i = poses.size() - 1; times.get(i) > time - HISTORY + 0.01; i -= 3) {
+      double between = (times.get(i - 1) + times.get(i)) / 2.0;
+      assertPoseEquals(estimator.getEstimatedPosition(times.get(i)), batched.getEstimatedPosition(times.get(i)));
+      assertPoseEquals(estimator.getEstimatedPosition(between), batched.getEstimatedPosition(between));
+    }
+  }
+
+  /** A vision pose near the estimate at a time, off by a few centimeters and degrees */
+  private Pose2d visionPose(int near) {
+    Pose2d pose = poses.get(near);
+    return new Pose2d(pose.getX() + 0.08, pose.getY() - 0.05, pose.getRotation().plus(Rotation2d.fromDegrees(4.0)));
+  }
+
+  @Test
+  void matchesWithoutVision() {
+    // Long enough for the history to wrap around its ring several times
+    steps(3000);
+    assertMatchesReference();
+  }
+
+  @Test
+  void arrayOverloadsMatch() {
+    CustomSwerveDrivePoseEstimator arrays = new CustomSwerveDrivePoseEstimator(kinematics, new Rotation2d(gyroRadians), modulePositions(), START_POSE, STATE_STD_DEVS, VISION_STD_DEVS);
+    for (int i = 0; i < 500; i++) {
+      step();
+      arrays.updateWithTime(time, gyroRadians, distances, angles);
+      assertPoseEquals(reference.getEstimatedPosition(), arrays.getEstimatedPosition());
+    }
+
+    int index = poses.size() - 30;
+    reference.addVisionMeasurement(visionPose(index), times.get(index), VISION_STD_DEVS);
+    arrays.addVisionMeasurement(visionPose(index), times.get(index), VISION_STD_DEVS);
+    assertPoseEquals(reference.getEstimatedPosition(), arrays.getEstimatedPosition());
+
+    Pose2d resetPose = new Pose2d(5.0, 3.0, Rotation2d.fromDegrees(-90.0));
+    reference.resetPosition(new Rotation2d(gyroRadians), modulePositions(), resetPose);
+    arrays.resetPosition(gyroRadians, distances, angles, resetPose);
+    for (int i = 0; i < 100; i++) {
+      step();
+      arrays.updateWithTime(time, gyroRadians, distances, angles);
+      assertPoseEquals(reference.getEstimatedPosition(), arrays.getEstimatedPosition());
+    }
+  }
+
+  @Test
+  void samplesAtRecords() {
+    steps(500);
+    for (int i = poses.size() - 1; times.get(i) > time - HISTORY + 0.01; i -= 7) {
+      assertPoseEquals(poses.get(i), estimator.getEstimatedPosition(times.get(i)));
+    }
+  }
+
+  @Test
+  void samplesBetweenRecords() {
+    steps(500);
+    for (int i = poses.size() - 2; times.get(i) > time - HISTORY + 0.01; i -= 5) {
+      for (double t : new double[] { 0.1, 0.5, 0.9 }) {
+        double timestamp = times.get(i) + (times.get(i + 1) - times.get(i)) * t;
+        assertPoseEquals(interpolate(i, timestamp), estimator.getEstimatedPosition(timestamp));
+      }
+    }
+  }
+
+  @Test
+  void samplesOutsideRecords() {
+    steps(100);
+    Pose2d current = estimator.getEstimatedPosition();
+    // Newer than the last record
+    assertPoseEquals(current, estimator.getEstimatedPosition(time + 0.5));
+    // Older than the first record, but not older than the history: the first record
+    assertPoseEquals(poses.get(0), estimator.getEstimatedPosition(START_TIME - 0.5));
+    // Older than the history
+    assertPoseEquals(current, estimator.getEstimatedPosition(time - HISTORY - 0.1));
+  }
+
+  @Test
+  void samplesAfterExpiry() {
+    steps(1000);
+    Pose2d current = estimator.getEstimatedPosition();
+    int expired = 0;
+    while (times.get(expired) < time - HISTORY - 0.05) expired++;
+
+    // Records that expired are gone, and look up the current pose instead
+    assertPoseEquals(current, estimator.getEstimatedPosition(times.get(expired - 10)));
+    assertPoseEquals(current, estimator.getEstimatedPosition(time - HISTORY - 0.1));
+    // Records just inside the history are still there
+    int kept = expired + 20;
+    assertPoseEquals(poses.get(kept), estimator.getEstimatedPosition(times.get(kept)));
+    double between = (times.get(kept) + times.get(kept + 1)) / 2.0;
+    assertPoseEquals(interpolate(kept, between), estimator.getEstimatedPosition(between));
+
+    // Vision older than the history is ignored by both
+    addVisionMeasurement(visionPose(expired - 10), times.get(expired - 10));
+    assertPoseEquals(current, estimator.getEstimatedPosition());
+  }
+
+  @Test
+  void visionMeasurementsMatch() {
+    steps(500);
+    int last = poses.size() - 1;
+    // Between records
+    int between = last - 25;
+    addVisionMeasurement(visionPose(between), (times.get(between) + times.get(between + 1)) / 2.0);
+    steps(50);
+    // Exactly on a record
+    int on = poses.size() - 40;
+    addVisionMeasurement(visionPose(on), times.get(on));
+    // Twice at the same time
+    addVisionMeasurement(visionPose(on), times.get(on));
+    steps(50);
+    // Newer than the last record
+    addVisionMeasurement(visionPose(poses.size() - 1), time + 0.002);
+    steps(200);
+    assertMatchesReference();
+  }
+
+  @Test
+  void visionMeasurementBeforeFirstRecordMatches() {
+    steps(10);
+    addVisionMeasurement(visionPose(0), START_TIME - 0.5);
+    steps(100);
+    assertMatchesReference();
+  }
+
+  @Test
+  void samplesAfterVisionMeasurement() {
+    steps(500);
+    int index = poses.size() - 30;
+    double timestamp = times.get(index);
+    Pose2d visionPose = visionPose(index);
+    Pose2d before = estimator.getEstimatedPosition(timestamp);
+    addVisionMeasurement(visionPose, timestamp);
+
+    // The record at the measurement is the old estimate moved towards vision by the Kalman gain
+    Twist2d twist = before.log(visionPose);
+    double[] gains = new double[3];
+    for (int i = 0; i < 3; i++) {
+      double q = STATE_STD_DEVS.get(i, 0) * STATE_STD_DEVS.get(i, 0);
+      double r = VISION_STD_DEVS.get(i, 0) * VISION_STD_DEVS.get(i, 0);
+      gains[i] = q / (q + Math.sqrt(q * r));
+    }
+    Pose2d corrected = before.exp(new Twist2d(twist.dx * gains[0], twist.dy * gains[1], twist.dtheta * gains[2]));
+    assertPoseEquals(corrected, estimator.getEstimatedPosition(timestamp));
+
+    // Records before the measurement are untouched
+    assertPoseEquals(poses.get(index - 5), estimator.getEstimatedPosition(times.get(index - 5)));
+
+    // Records after it were replayed. A second measurement between them samples the replayed
+    // history, so it only matches if that history does.
+    double replayed = (times.get(index + 10) + times.get(index + 11)) / 2.0;
+    addVisionMeasurement(visionPose(index + 10), replayed);
+    steps(100);
+    assertMatchesReference();
+  }
+
+  @Test
+  void batchMatchesSequentialMeasurements() {
+    steps(500);
+    int last = poses.size() - 1;
+    double between = (times.get(last - 40) + times.get(last - 39)) / 2.0;
+    List<VisionMeasurement> measurements = new ArrayList<>();
+    // Out of order, each with its own standard deviations
+    measurements.add(new VisionMeasurement(visionPose(last - 10), times.get(last - 10), VecBuilder.fill(0.3, 0.4, 0.2)));
+    measurements.add(new VisionMeasurement(visionPose(last - 40), between, VISION_STD_DEVS));
+    // Two at the same time, applied in the order given
+    measurements.add(new VisionMeasurement(visionPose(last - 25), times.get(last - 25), VecBuilder.fill(0.8, 0.8, 0.5)));
+    measurements.add(new VisionMeasurement(visionPose(last - 24), times.get(last - 25), VecBuilder.fill(0.2, 0.3, 0.9)));
+    // Newer than the last record
+    measurements.add(new VisionMeasurement(visionPose(last), time + 0.002, VISION_STD_DEVS));
+    addVisionMeasurements(measurements);
+
+    steps(100);
+    assertPoseEquals(estimator.getEstimatedPosition(), batched.getEstimatedPosition());
+
+    // Only newer than the last record
+    measurements.clear();
+    measurements.add(new VisionMeasurement(visionPose(poses.size() - 1), time + 0.001, VISION_STD_DEVS));
+    measurements.add(new VisionMeasurement(visionPose(poses.size() - 2), time + 0.003, VecBuilder.fill(0.3, 0.3, 0.3)));
+    addVisionMeasurements(measurements);
+
+    steps(100);
+    assertMatchesReference();
+    assertPoseEquals(estimator.getEstimatedPosition(), batched.getEstimatedPosition());
+  }
+
+  @Test
+  void batchSkipsMeasurementsOlderThanHistory() {
+    steps(500);
+    int last = poses.size() - 1;
+    List<VisionMeasurement> measurements = new ArrayList<>();
+    measurements.add(new VisionMeasurement(visionPose(last - 5), times.get(last - 5), VISION_STD_DEVS));
+    measurements.add(new VisionMeasurement(visionPose(0), times.get(0), VISION_STD_DEVS));
+    addVisionMeasurements(measurements);
+
+    // Nothing left once they're all too old
+    Pose2d current = batched.getEstimatedPosition();
+    measurements.clear();
+    measurements.add(new VisionMeasurement(visionPose(1), times.get(1), VISION_STD_DEVS));
+    batched.addVisionMeasurements(measurements);
+    assertPoseEquals(current, batched.getEstimatedPosition());
+  }
+
+  @Test
+  void resetClearsHistory() {
+    steps(200);
+    Pose2d resetPose = new Pose2d(5.0, 3.0, Rotation2d.fromDegrees(-90.0));
+    reference.resetPosition(new Rotation2d(gyroRadians), modulePositions(), resetPose);
+    estimator.resetPosition(new Rotation2d(gyroRadians), modulePositions(), resetPose);
+    assertMatchesReference();
+
+    // Nothing recorded before the reset is left to correct
+    addVisionMeasurement(visionPose(poses.size() - 10), times.get(poses.size() - 10));
+    assertPoseEquals(resetPose, estimator.getEstimatedPosition());
+    steps(100);
+    assertMatchesReference();
+  }
+}
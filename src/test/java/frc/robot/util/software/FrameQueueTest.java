@@ -0,0 +1,110 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FrameQueueTest {
+  private static final class Frame {
+    private long sequence;
+  }
+
+  private static boolean offer(FrameQueue<Frame> queue, long sequence) {
+    Frame frame = queue.claim();
+    if (frame == null) return false;
+    frame.sequence = sequence;
+    queue.publish();
+    return true;
+  }
+
+  private static long take(FrameQueue<Frame> queue) {
+    Frame frame = queue.peek();
+    assertNotNull(frame);
+    long sequence = frame.sequence;
+    queue.release();
+    return sequence;
+  }
+
+  @Test
+  void drainsInOrder() {
+    FrameQueue<Frame> queue = new FrameQueue<>(8, Frame::new);
+    assertNull(queue.peek());
+    for (int i = 0; i < 5; i++) assertTrue(offer(queue, i));
+    for (int i = 0; i < 5; i++) assertEquals(i, take(queue));
+    assertNull(queue.peek());
+    assertEquals(0, queue.getDroppedCount());
+  }
+
+  @Test
+  void claimedFramesArentVisibleUntilPublished() {
+    FrameQueue<Frame> queue = new FrameQueue<>(4, Frame::new);
+    Frame frame = queue.claim();
+    frame.sequence = 1;
+    assertNull(queue.peek());
+    queue.publish();
+    assertSame(frame, queue.peek());
+  }
+
+  @Test
+  void dropsAndCountsWhenFull() {
+    FrameQueue<Frame> queue = new FrameQueue<>(4, Frame::new);
+    for (int i = 0; i < 4; i++) assertTrue(offer(queue, i));
+    // Full: new frames are dropped, the unread ones are kept
+    assertNull(queue.claim());
+    assertNull(queue.claim());
+    assertEquals(2, queue.getDroppedCount());
+
+    // Releasing one frees one slot
+    assertEquals(0, take(queue));
+    assertTrue(offer(queue, 4));
+    assertNull(queue.claim());
+    assertEquals(3, queue.getDroppedCount());
+    for (int i = 1; i <= 4; i++) assertEquals(i, take(queue));
+    assertNull(queue.peek());
+  }
+
+  @Test
+  void reusesFramesAroundTheRing() {
+    FrameQueue<Frame> queue = new FrameQueue<>(3, Frame::new);
+    Frame first = queue.claim();
+    for (int i = 0; i < 102; i++) {
+      assertTrue(offer(queue, i));
+      if (i % 2 == 1) {
+        assertEquals(i - 1, take(queue));
+        assertEquals(i, take(queue));
+      }
+    }
+    // 102 frames through three slots, so the first slot is next again
+    assertSame(first, queue.claim());
+    assertEquals(0, queue.getDroppedCount());
+  }
+
+  @Test
+  void handsEachFrameOverOnceAcrossThreads() throws InterruptedException {
+    FrameQueue<Frame> queue = new FrameQueue<>(16, Frame::new);
+    int count = 200000;
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) offer(queue, i);
+    });
+    producer.start();
+
+    // Frames arrive in order, with gaps only where the queue was full
+    long received = 0;
+    long previous = -1;
+    while (producer.isAlive() || queue.peek() != null) {
+      Frame frame = queue.peek();
+      if (frame == null) continue;
+      assertTrue(frame.sequence > previous, frame.sequence + " after " + previous);
+      previous = frame.sequence;
+      queue.release();
+      received++;
+    }
+    producer.join();
+
+    assertEquals(count, received + queue.getDroppedCount());
+  }
+}
@@ -0,0 +1,208 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import frc.robot.util.software.LimelightHelpers.LimelightTarget_Detector;
+import frc.robot.util.software.LimelightHelpers.LimelightTarget_Fiducial;
+import frc.robot.util.software.LimelightHelpers.Results;
+
+/**
+ * Checks LimelightResultsParser decodes the same values as the Jackson object mapping in
+ * LimelightHelpers, which it replaces
+ */
+class LimelightResultsParserTest {
+  // The same dump as LimelightJsonBenchmark: an AprilTag pipeline with three tags in view and
+  // corners enabled
+  private static final String FIDUCIAL = """
+    {"fID":%d,"fam":"36H11C","pts":[[412.5,210.25],[468.0,212.75],[466.5,268.0],[410.25,265.5]],"skew":[],\
+    "t6c_ts":[0.41,-0.12,-2.83,1.2,-14.6,0.8],"t6r_fs":[2.03,5.48,0.02,0.0,0.0,179.4],\
+    "t6r_ts":[0.38,-0.71,-2.95,1.1,-14.2,0.6],"t6t_cs":[-0.35,0.52,2.71,-1.3,14.9,-0.7],\
+    "t6t_rs":[2.54,0.33,1.12,-1.0,-9.1,-0.5],"ta":0.0041,"tx":-7.83,"txp":412.9,"ty":5.21,"typ":238.4}""";
+
+  private static final String JSON = """
+    {"Results":{"Barcode":[],"Classifier":[],"Detector":[],\
+    "Fiducial":[%s,%s,%s],"Retro":[],\
+    "botpose":[-6.24,1.37,0.02,0.0,0.0,179.4],"botpose_avgarea":0.0038,"botpose_avgdist":2.87,\
+    "botpose_span":1.12,"botpose_tagcount":3,"botpose_wpiblue":[2.03,5.48,0.02,0.0,0.0,179.4],\
+    "botpose_wpired":[14.51,2.73,0.02,0.0,0.0,-0.6],"cl":11.2,"focus_metric":0.0,"pID":0.0,\
+    "stdev_mt1":[0.02,0.03,0.0,0.0,0.0,0.4],"stdev_mt2":[0.0,0.0,0.0,0.0,0.0,0.0],\
+    "t6c_rs":[0.19,0.03,0.64,0.0,24.0,0.0],"tl":18.6,"ts":183442.7,"ts_rio":0.0,"v":1}}\
+    """.formatted(FIDUCIAL.formatted(7), FIDUCIAL.formatted(8), FIDUCIAL.formatted(4));
+
+  // A detector pipeline, pretty-printed, with numbers in every form JSON allows
+  private static final String DETECTOR_JSON = """
+    {
+      "Results": {
+        "Detector": [
+          { "class": "note", "classID": 0, "conf": 0.8734, "pts": [], "ta": 1.25E-2, "tx": -12.5, "txp": 101, "ty": 3e0, "typ": 88 },
+          { "class": "robot \\"blue\\"", "classID": 1, "conf": 0.41, "ta": 0.2, "tx": 0.000001, "ty": -0.1234567890123456789, "zone": { "x": [1, [2]] } }
+        ],
+        "Fiducial": [],
+        "botpose_wpiblue": [1.5, -0.25, 0, 10, -20, 123456789.125],
+        "botpose_tagcount": 0,
+        "cl": 9, "pID": 2, "tl": 21.000000000000004, "ts": 1.7976931348623157E10, "ts_rio": 512.04, "v": 0
+      }
+    }
+    """;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private static Results jackson(String json) throws JsonProcessingException {
+    return MAPPER.readValue(json, LimelightHelpers.LimelightResults.class).targetingResults;
+  }
+
+  private static void assertMatchesJackson(String json) throws JsonProcessingException {
+    Results expected = jackson(json);
+    LimelightResultsParser parser = new LimelightResultsParser();
+    assertTrue(parser.parse(json), parser.error);
+    assertNull(parser.error);
+
+    assertEquals(expected.valid, parser.valid);
+    assertEquals(expected.pipelineID, parser.pipelineID, 0.0);
+    assertEquals(expected.latency_pipeline, parser.latencyPipeline, 0.0);
+    assertEquals(expected.latency_capture, parser.latencyCapture, 0.0);
+    assertEquals(expected.timestamp_LIMELIGHT_publish, parser.timestampLimelightPublish, 0.0);
+    assertEquals(expected.timestamp_RIOFPGA_capture, parser.timestampRioCapture, 0.0);
+    assertArrayEquals(expected.botpose_wpiblue, parser.botposeWpiBlue, 0.0);
+    assertEquals((int) expected.botpose_tagcount, parser.botposeTagCount);
+    assertEquals(expected.botpose_span, parser.botposeSpan, 0.0);
+    assertEquals(expected.botpose_avgdist, parser.botposeAvgDist, 0.0);
+    assertEquals(expected.botpose_avgarea, parser.botposeAvgArea, 0.0);
+
+    assertEquals(expected.targets_Fiducials.length, parser.fiducialCount);
+    for (int i = 0; i < parser.fiducialCount; i++) {
+      LimelightTarget_Fiducial fiducial = expected.targets_Fiducials[i];
+      assertEquals((int) fiducial.fiducialID, parser.fiducials[i].id);
+      assertEquals(fiducial.tx, parser.fiducials[i].tx, 0.0);
+      assertEquals(fiducial.ty, parser.fiducials[i].ty, 0.0);
+      assertEquals(fiducial.ta, parser.fiducials[i].ta, 0.0);
+    }
+
+    assertEquals(expected.targets_Detector.length, parser.detectorCount);
+    for (int i = 0; i < parser.detectorCount; i++) {
+      LimelightTarget_Detector detector = expected.targets_Detector[i];
+      assertEquals((int) detector.classID, parser.detectors[i].classID);
+      assertEquals(detector.confidence, parser.detectors[i].confidence, 0.0);
+      assertEquals(detector.tx, parser.detectors[i].tx, 0.0);
+      assertEquals(detector.ty, parser.detectors[i].ty, 0.0);
+      assertEquals(detector.ta, parser.detectors[i].ta, 0.0);
+    }
+  }
+
+  @Test
+  void matchesJacksonOnBenchmarkDump() throws JsonProcessingException {
+    assertMatchesJackson(JSON);
+  }
+
+  @Test
+  void matchesJacksonOnDetectorDump() throws JsonProcessingException {
+    assertMatchesJackson(DETECTOR_JSON);
+  }
+
+  @Test
+  void readsCorners() {
+    LimelightResultsParser parser = new LimelightResultsParser();
+    assertTrue(parser.parse(JSON));
+    assertEquals(3, parser.fiducialCount);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(4, parser.fiducials[i].cornerCount);
+      assertArrayEquals(new double[] { 412.5, 468.0, 466.5, 410.25 }, parser.fiducials[i].cornersX, 0.0);
+      assertArrayEquals(new double[] { 210.25, 212.75, 268.0, 265.5 }, parser.fiducials[i].cornersY, 0.0);
+    }
+  }
+
+  @Test
+  void readsNumbersLikeJackson() throws JsonProcessingException {
+    Random random = new Random(6962);
+    LimelightResultsParser parser = new LimelightResultsParser();
+    for (int trial = 0; trial < 10000; trial++) {
+      String number;
+      switch (trial % 4) {
+        case 0: number = Double.toString(random.nextGaussian() * 100.0); break;
+        case 1: number = Double.toString(random.nextDouble() * Math.pow(10.0, random.nextInt(40) - 20)); break;
+        case 2: number = Long.toString(random.nextLong() >> random.nextInt(64)); break;
+        default: number = String.format(Locale.ROOT, "%.6f", random.nextGaussian() * 1000.0); break;
+      }
+      String json = "{\"tl\":" + number + "}";
+      assertTrue(parser.parse(json), number);
+      assertEquals(jackson(json).latency_pipeline, parser.latencyPipeline, 0.0, number);
+    }
+  }
+
+  @Test
+  void acceptsUnwrappedResults() {
+    LimelightResultsParser parser = new LimelightResultsParser();
+    assertTrue(parser.parse("{\"v\":1,\"tl\":12.5,\"botpose_wpiblue\":[1,2,3,4,5,6,7]}"));
+    assertTrue(parser.valid);
+    assertEquals(12.5, parser.latencyPipeline, 0.0);
+    // Extra elements are skipped
+    assertArrayEquals(new double[] { 1, 2, 3, 4, 5, 6 }, parser.botposeWpiBlue, 0.0);
+
+    assertTrue(parser.parse("{}"));
+    assertFalse(parser.valid);
+  }
+
+  @Test
+  void keepsOnlyTheFirstFiducials() {
+    StringBuilder fiducials = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      if (i > 0) fiducials.append(',');
+      fiducials.append(FIDUCIAL.formatted(i + 1));
+    }
+    LimelightResultsParser parser = new LimelightResultsParser();
+    assertTrue(parser.parse("{\"Fiducial\":[" + fiducials + "],\"tl\":5.5}"));
+    assertEquals(LimelightResultsParser.MAX_FIDUCIALS, parser.fiducialCount);
+    assertEquals(LimelightResultsParser.MAX_FIDUCIALS, parser.fiducials[LimelightResultsParser.MAX_FIDUCIALS - 1].id);
+    // Fields after the skipped ones are still read
+    assertEquals(5.5, parser.latencyPipeline, 0.0);
+  }
+
+  @Test
+  void rejectsMalformedDumps() {
+    LimelightResultsParser parser = new LimelightResultsParser();
+    String[] malformed = {
+      "",
+      "   ",
+      "[]",
+      "{\"v\":1",
+      "{\"v\" 1}",
+      "{\"v\":1 \"tl\":2}",
+      "{\"tl\":}",
+      "{\"tl\":-}",
+      "{\"tl\":tru}",
+      "{\"botpose_wpiblue\":[1,2,}",
+      "{\"Fiducial\":[{\"fID\":1,\"tx\":2.0]}",
+      "{\"Fiducial\":[{\"pts\":[[1.0]]}]}",
+      "{\"unknown\":\"unterminated}",
+      "{\"unknown\":{\"a\":[1,2}",
+      JSON.substring(0, JSON.length() / 2),
+    };
+    for (String json : malformed) {
+      assertFalse(parser.parse(json), json);
+      assertNotNull(parser.error, json);
+      assertTrue(parser.error.startsWith("lljson error: "), parser.error);
+    }
+
+    // A failed parse doesn't leave anything behind for the next one
+    assertTrue(parser.parse(JSON));
+    assertNull(parser.error);
+    assertEquals(3, parser.fiducialCount);
+    assertTrue(parser.parse("{\"v\":0}"));
+    assertEquals(0, parser.fiducialCount);
+    assertEquals(0.0, parser.latencyPipeline, 0.0);
+  }
+}
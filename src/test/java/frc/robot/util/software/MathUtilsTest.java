@@ -0,0 +1,53 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.util.software.MathUtils.SwerveMath;
+
+class MathUtilsTest {
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * SwerveModule.setTargetState(speed, radians) reverses the module when shouldReverse() says to.
+   * Checks that gives the same state as SwerveModuleState.optimize(), which it replaces.
+   */
+  @Test
+  void shouldReverseMatchesOptimize() {
+    Random random = new Random(6962);
+    for (int trial = 0; trial < 10000; trial++) {
+      double speed = random.nextGaussian() * 3.0;
+      double radians = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+      // Measured angles aren't wrapped, the relative encoder keeps counting
+      double measuredRadians = (random.nextDouble() * 2.0 - 1.0) * 4.0 * Math.PI;
+      // Exactly 90 degrees either way is a tie, which rounding can break differently
+      double distance = Math.abs(MathUtil.angleModulus(radians - measuredRadians));
+      if (Math.abs(distance - Math.PI / 2.0) < 1e-6) continue;
+
+      double targetSpeed = speed;
+      double targetRadians = radians;
+      if (SwerveMath.shouldReverse(radians, measuredRadians)) {
+        targetSpeed = -speed;
+        targetRadians = MathUtil.angleModulus(radians + Math.PI);
+      }
+
+      SwerveModuleState expected = SwerveModuleState.optimize(new SwerveModuleState(speed, new Rotation2d(radians)), new Rotation2d(measuredRadians));
+      assertEquals(expected.speedMetersPerSecond, targetSpeed, EPSILON);
+      assertEquals(0.0, MathUtil.angleModulus(expected.angle.getRadians() - targetRadians), EPSILON);
+    }
+  }
+
+  @Test
+  void angleDistanceWrapsAround() {
+    assertEquals(0.0, SwerveMath.angleDistance(0.0, 2.0 * Math.PI), EPSILON);
+    assertEquals(0.2, SwerveMath.angleDistance(Math.PI - 0.1, -Math.PI + 0.1), EPSILON);
+    assertEquals(Math.PI, SwerveMath.angleDistance(-Math.PI / 2.0, Math.PI / 2.0), EPSILON);
+    assertEquals(0.5, SwerveMath.angleDistance(6.0 * Math.PI + 0.25, -0.25), EPSILON);
+  }
+}
@@ -0,0 +1,136 @@
+package frc.robot.util.software;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PoseHistoryTest {
+  private static void add(PoseHistory history, double timestamp) {
+    // Every field is derived from the timestamp, so a record can be checked from its timestamp alone
+    history.add(timestamp, timestamp + 1.0, timestamp + 2.0, timestamp + 3.0, timestamp + 4.0, new double[] { timestamp + 5.0, timestamp + 6.0 });
+  }
+
+  private static void assertRecord(PoseHistory history, int index, double timestamp) {
+    assertEquals(timestamp, history.getTimestamp(index), 0.0);
+    assertEquals(timestamp + 1.0, history.getX(index), 0.0);
+    assertEquals(timestamp + 2.0, history.getY(index), 0.0);
+    assertEquals(timestamp + 3.0, history.getTheta(index), 0.0);
+    assertEquals(timestamp + 4.0, history.getGyro(index), 0.0);
+    double[] wheelState = new double[2];
+    history.getWheelState(index, wheelState);
+    assertArrayEquals(new double[] { timestamp + 5.0, timestamp + 6.0 }, wheelState, 0.0);
+  }
+
+  @Test
+  void appendsInOrder() {
+    PoseHistory history = new PoseHistory(8, 2);
+    for (int i = 0; i < 5; i++) add(history, i * 0.5);
+
+    assertEquals(5, history.size());
+    for (int i = 0; i < 5; i++) assertRecord(history, i, i * 0.5);
+  }
+
+  @Test
+  void wrapsAroundWhenFull() {
+    PoseHistory history = new PoseHistory(4, 2);
+    for (int i = 0; i < 11; i++) add(history, i);
+
+    // Only the newest four are kept, oldest first
+    assertEquals(4, history.size());
+    for (int i = 0; i < 4; i++) assertRecord(history, i, 7 + i);
+  }
+
+  @Test
+  void findsCeilingIndex() {
+    PoseHistory history = new PoseHistory(4, 2);
+    // Wrapped, so the search runs across the end of the arrays
+    for (int i = 0; i < 6; i++) add(history, i);
+
+    assertEquals(0, history.ceilingIndex(-1.0));
+    assertEquals(0, history.ceilingIndex(2.0));
+    assertEquals(1, history.ceilingIndex(2.5));
+    assertEquals(1, history.ceilingIndex(3.0));
+    assertEquals(3, history.ceilingIndex(5.0));
+    assertEquals(4, history.ceilingIndex(5.5));
+  }
+
+  @Test
+  void insertsOutOfOrderRecords() {
+    PoseHistory history = new PoseHistory(8, 2);
+    add(history, 1.0);
+    add(history, 3.0);
+    add(history, 2.0);
+    add(history, 0.0);
+
+    assertEquals(4, history.size());
+    for (int i = 0; i < 4; i++) assertRecord(history, i, i);
+  }
+
+  @Test
+  void replacesRecordAtSameTimestamp() {
+    PoseHistory history = new PoseHistory(8, 2);
+    add(history, 1.0);
+    add(history, 2.0);
+    history.add(1.0, 10.0, 20.0, 30.0, 40.0, new double[] { 50.0, 60.0 });
+
+    assertEquals(2, history.size());
+    assertEquals(10.0, history.getX(0), 0.0);
+    assertEquals(40.0, history.getGyro(0), 0.0);
+    assertRecord(history, 1, 2.0);
+  }
+
+  @Test
+  void insertingIntoFullHistoryDropsOldest() {
+    PoseHistory history = new PoseHistory(4, 2);
+    for (int i = 0; i < 6; i++) add(history, i);
+    add(history, 3.5);
+
+    assertEquals(4, history.size());
+    assertRecord(history, 0, 3.0);
+    assertRecord(history, 1, 3.5);
+    assertRecord(history, 2, 4.0);
+    assertRecord(history, 3, 5.0);
+
+    // Older than everything in a full history, so there's nowhere to put it
+    add(history, 0.5);
+    assertEquals(4, history.size());
+    assertRecord(history, 0, 3.0);
+  }
+
+  @Test
+  void removesExpiredRecords() {
+    PoseHistory history = new PoseHistory(4, 2);
+    for (int i = 0; i < 6; i++) add(history, i);
+
+    // A record exactly the duration old has expired
+    history.removeExpired(6.0, 3.0);
+    assertEquals(2, history.size());
+    assertRecord(history, 0, 4.0);
+    assertRecord(history, 1, 5.0);
+
+    history.removeExpired(100.0, 2.0);
+    assertEquals(0, history.size());
+    add(history, 7.0);
+    assertRecord(history, 0, 7.0);
+  }
+
+  @Test
+  void truncatesAndClears() {
+    PoseHistory history = new PoseHistory(4, 2);
+    for (int i = 0; i < 6; i++) add(history, i);
+
+    history.truncate(2);
+    assertEquals(2, history.size());
+    assertRecord(history, 1, 3.0);
+    add(history, 3.5);
+    assertRecord(history, 2, 3.5);
+
+    history.truncate(10);
+    assertEquals(3, history.size());
+
+    history.clear();
+    assertEquals(0, history.size());
+    assertEquals(0, history.ceilingIndex(1.0));
+  }
+}
@@ -0,0 +1,129 @@
+package frc.robot.util.software.Replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLog;
+import frc.robot.subsystems.drive.SwerveOdometry;
+import frc.robot.subsystems.vision.AprilTags;
+import frc.robot.subsystems.vision.VisionCandidate;
+import frc.robot.util.software.LimelightHelpers.PoseEstimate;
+
+/**
+ * Records a short drive with vision outliers through ReplayRecorder, the same way the robot does,
+ * and checks LogReplay gets the same filtering and the same poses back out
+ */
+class LogReplayTest {
+  private static final double EPSILON = 1e-9;
+  private static final int LOOPS = 50;
+  private static final double LOOP_TIME = 0.02;
+  // [meters per second] Straight ahead
+  private static final double SPEED = 1.0;
+  private static final Translation2d[] MODULE_LOCATIONS = {
+    new Translation2d(0.3, 0.3),
+    new Translation2d(0.3, -0.3),
+    new Translation2d(-0.3, 0.3),
+    new Translation2d(-0.3, -0.3),
+  };
+  private static final Pose2d STARTING_POSE = new Pose2d(2.0, 3.0, new Rotation2d(0.5));
+
+  @TempDir
+  Path directory;
+
+  @AfterEach
+  void tearDown() {
+    ReplayRecorder.setLog(null);
+  }
+
+  private static SwerveModulePosition[] modulePositions(double distance) {
+    SwerveModulePosition[] positions = new SwerveModulePosition[MODULE_LOCATIONS.length];
+    for (int i = 0; i < positions.length; i++) positions[i] = new SwerveModulePosition(distance, new Rotation2d());
+    return positions;
+  }
+
+  /**
+   * An estimate from two tags 2 m away, so DEFAULT_SCORING gives it a 0.6 m standard deviation. With
+   * the 0.05 m state standard deviation, its squared distance is its offset squared / 0.3625.
+   */
+  private static PoseEstimate estimate(double x, double y, double timestamp) {
+    return new PoseEstimate(new Pose3d(x, y, 0.0, new Rotation3d(0.0, 0.0, 0.5)), timestamp, 20.0, 2, 0.5, 2.0, 0.01, 7);
+  }
+
+  @Test
+  void replaysRecordedRejections() throws IOException {
+    DataLog log = new DataLog(directory.toString(), "replay.wpilog");
+    ReplayRecorder.setLog(log);
+
+    SwerveOdometry odometry = new SwerveOdometry(MODULE_LOCATIONS, STARTING_POSE, modulePositions(0.0), false, SwerveOdometry.STATE_STD_DEVS, true);
+    double[] drivePositions = new double[MODULE_LOCATIONS.length];
+    double[] steerRadians = new double[MODULE_LOCATIONS.length];
+    List<PoseEstimate> estimates = new ArrayList<>();
+    List<Pose2d> accepted = new ArrayList<>();
+    int rejected = 0;
+    int downweighted = 0;
+    List<Pose2d> poses = new ArrayList<>();
+
+    for (int loop = 1; loop <= LOOPS; loop++) {
+      double timestamp = 1.0 + loop * LOOP_TIME;
+      double distance = SPEED * loop * LOOP_TIME;
+      for (int i = 0; i < drivePositions.length; i++) drivePositions[i] = distance;
+      // The wheels drive the heading, which stays where it started
+      odometry.update(timestamp, drivePositions, steerRadians, false, 0.0);
+
+      double x = STARTING_POSE.getX() + distance * Math.cos(0.5);
+      double y = STARTING_POSE.getY() + distance * Math.sin(0.5);
+      estimates.clear();
+      estimates.add(estimate(x, y, timestamp));
+      // 5 m off: squared distance 69, past the 13.8 reject gate
+      if (loop % 10 == 3) estimates.add(estimate(x + 5.0, y, timestamp));
+      // 1.8 m off: squared distance 8.9, between the 6.0 down-weight gate and the reject gate
+      if (loop % 10 == 7) estimates.add(estimate(x, y + 1.8, timestamp));
+      // Off the field, so it never reaches the gate
+      if (loop == 25) estimates.add(estimate(-1.0, y, timestamp));
+
+      // Recorded before filtering, like AprilTags.injectVisionData()
+      ReplayRecorder.recordVision(false, false, estimates);
+      accepted.clear();
+      AprilTags.processVisionData(estimates, false, false, odometry, accepted);
+      rejected += AprilTags.countResults(VisionCandidate.Result.REJECTED);
+      downweighted += AprilTags.countResults(VisionCandidate.Result.DOWNWEIGHTED);
+      odometry.validate();
+      poses.add(odometry.getPose());
+    }
+    log.close();
+
+    assertEquals(LOOPS / 10, rejected);
+    assertEquals(LOOPS / 10, downweighted);
+
+    LogReplay.Result result = LogReplay.replay(directory.resolve("replay.wpilog").toString(), SwerveOdometry.STATE_STD_DEVS);
+    assertEquals(rejected, result.rejectedEstimates);
+    assertEquals(downweighted, result.downweightedEstimates);
+    // Every loop had an estimate on the true pose
+    assertEquals(LOOPS, result.visionMeasurements);
+    assertEquals(0, result.badPoses);
+
+    assertEquals(LOOPS, result.poses.size());
+    for (int loop = 0; loop < LOOPS; loop++) {
+      assertEquals(1.0 + (loop + 1) * LOOP_TIME, result.timestamps.get(loop), EPSILON);
+      Pose2d expected = poses.get(loop);
+      Pose2d actual = result.poses.get(loop);
+      assertEquals(expected.getX(), actual.getX(), EPSILON, "loop " + loop);
+      assertEquals(expected.getY(), actual.getY(), EPSILON, "loop " + loop);
+      assertEquals(expected.getRotation().getRadians(), actual.getRotation().getRadians(), EPSILON, "loop " + loop);
+    }
+  }
+}